@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import com.holonplatform.core.datastore.DataTarget;
+import com.holonplatform.core.datastore.Datastore;
+import com.holonplatform.core.property.PathProperty;
+import com.holonplatform.core.property.PropertyBox;
+import com.holonplatform.core.property.PropertySet;
+import com.holonplatform.datastore.jdbc.JdbcDatastore;
+import com.holonplatform.vaadin7.data.ItemDataProvider;
+
+/**
+ * Benchmarks data model and data providers.
+ */
+public final class BenchmarkData {
+
+	/**
+	 * In-memory data provider type
+	 */
+	public static final String MEMORY = "memory";
+
+	/**
+	 * H2 Datastore data provider type
+	 */
+	public static final String H2 = "h2";
+
+	/**
+	 * Number of distinct categories
+	 */
+	public static final int CATEGORIES = 20;
+
+	public static final DataTarget<?> TARGET = DataTarget.named("items");
+
+	public static final PathProperty<Long> ID = PathProperty.create("id", Long.class);
+	public static final PathProperty<String> NAME = PathProperty.create("name", String.class);
+	public static final PathProperty<Integer> CATEGORY = PathProperty.create("category", Integer.class);
+	public static final PathProperty<Double> AMOUNT = PathProperty.create("amount", Double.class);
+
+	public static final PropertySet<?> PROPERTIES = PropertySet.of(ID, NAME, CATEGORY, AMOUNT);
+
+	private static final AtomicInteger DATABASE_COUNTER = new AtomicInteger();
+
+	private BenchmarkData() {
+	}
+
+	/**
+	 * Create the benchmark items.
+	 * @param rows Number of items
+	 * @return The items
+	 */
+	public static List<PropertyBox> createItems(int rows) {
+		final List<PropertyBox> items = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			items.add(PropertyBox.builder(PROPERTIES).set(ID, Long.valueOf(i)).set(NAME, name(i))
+					.set(CATEGORY, Integer.valueOf(i % CATEGORIES)).set(AMOUNT, Double.valueOf((i * 31) % 1000))
+					.build());
+		}
+		return items;
+	}
+
+	/**
+	 * Create an H2 in-memory database which contains the benchmark items and a {@link Datastore} to access it.
+	 * @param rows Number of items
+	 * @return The Datastore
+	 */
+	public static Datastore createDatastore(int rows) {
+		final JdbcConnectionPool dataSource = JdbcConnectionPool.create(
+				"jdbc:h2:mem:benchmark" + DATABASE_COUNTER.incrementAndGet() + ";DB_CLOSE_DELAY=-1", "sa", "");
+		try (Connection connection = dataSource.getConnection()) {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("CREATE TABLE items (id BIGINT PRIMARY KEY, name VARCHAR(100), "
+						+ "category INTEGER, amount DOUBLE)");
+			}
+			try (PreparedStatement statement = connection
+					.prepareStatement("INSERT INTO items (id, name, category, amount) VALUES (?, ?, ?, ?)")) {
+				for (PropertyBox item : createItems(rows)) {
+					statement.setLong(1, item.getValue(ID));
+					statement.setString(2, item.getValue(NAME));
+					statement.setInt(3, item.getValue(CATEGORY));
+					statement.setDouble(4, item.getValue(AMOUNT));
+					statement.addBatch();
+				}
+				statement.executeBatch();
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException("Failed to create the benchmark database", e);
+		}
+		return JdbcDatastore.builder().dataSource(dataSource).build();
+	}
+
+	/**
+	 * Create the {@link ItemDataProvider} of given type.
+	 * @param type Provider type, {@link #MEMORY} or {@link #H2}
+	 * @param datastore The Datastore to use for the {@link #H2} provider type
+	 * @param rows Number of items
+	 * @return The data provider
+	 */
+	public static ItemDataProvider<PropertyBox> createProvider(String type, Datastore datastore, int rows) {
+		if (H2.equals(type)) {
+			return ItemDataProvider.create(datastore, TARGET, PROPERTIES, ID);
+		}
+		return ItemDataProvider.create(createItems(rows));
+	}
+
+	/**
+	 * Get the name of the item with given id.
+	 * @param id Item id
+	 * @return Item name
+	 */
+	public static String name(long id) {
+		// not aligned with the id order
+		return "item" + ((id * 7919) % 100000);
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.holonplatform.core.datastore.Datastore;
+import com.holonplatform.core.property.Property;
+import com.holonplatform.core.property.PropertyBox;
+import com.holonplatform.core.query.QueryFilter;
+import com.holonplatform.core.query.QuerySort;
+import com.holonplatform.vaadin7.data.ItemDataSource.CommitHandler;
+import com.holonplatform.vaadin7.data.container.ItemDataSourceContainer;
+import com.holonplatform.vaadin7.internal.data.container.PropertyBoxItemAdapter;
+
+/**
+ * Item data source container benchmarks: item ids access, filter and sort changes and commits.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContainerBenchmark {
+
+	private static final int SAMPLES = 1 << 12;
+
+	@Param({ BenchmarkData.MEMORY, BenchmarkData.H2 })
+	public String provider;
+
+	@Param({ "50", "200" })
+	public int batchSize;
+
+	@Param({ "100", "1000" })
+	public int cacheSize;
+
+	@Param({ "10000" })
+	public int rows;
+
+	@Param({ "10", "100" })
+	public int modifiedRows;
+
+	@SuppressWarnings("rawtypes")
+	private ItemDataSourceContainer<PropertyBox, Property> container;
+
+	private int[] indexes;
+	private Long[] ids;
+
+	private int sample;
+	private int iteration;
+
+	@SuppressWarnings("rawtypes")
+	@Setup
+	public void setup() {
+		final Datastore datastore = BenchmarkData.H2.equals(provider) ? BenchmarkData.createDatastore(rows) : null;
+		final CommitHandler<PropertyBox> commitHandler = (datastore != null)
+				? CommitHandler.create(datastore, BenchmarkData.TARGET, 100, BenchmarkData.ID)
+				: (added, modified, removed) -> {
+					// in-memory items are modified in place
+				};
+		container = ItemDataSourceContainer.<PropertyBox, Property>builder()
+				.dataSource(BenchmarkData.createProvider(provider, datastore, rows))
+				.itemAdapter(new PropertyBoxItemAdapter())
+				.withProperty(BenchmarkData.ID, Long.class).withProperty(BenchmarkData.NAME, String.class)
+				.withProperty(BenchmarkData.CATEGORY, Integer.class)
+				.withProperty(BenchmarkData.AMOUNT, Double.class)
+				.itemIdentifier(item -> item.getValue(BenchmarkData.ID)).defaultSort(QuerySort.asc(BenchmarkData.NAME))
+				.batchSize(batchSize).maxCacheSize(cacheSize).buffered(true).commitHandler(commitHandler).build();
+
+		final Random random = new Random(42);
+		indexes = new int[SAMPLES];
+		ids = new Long[SAMPLES];
+		for (int i = 0; i < SAMPLES; i++) {
+			indexes[i] = random.nextInt(rows - batchSize);
+			ids[i] = Long.valueOf(random.nextInt(rows));
+		}
+		// count
+		container.size();
+	}
+
+	@Benchmark
+	public List<?> getItemIds() {
+		return container.getItemIds(indexes[sample++ & (SAMPLES - 1)], batchSize);
+	}
+
+	@Benchmark
+	public int indexOfId() {
+		return container.indexOfId(ids[sample++ & (SAMPLES - 1)]);
+	}
+
+	@Benchmark
+	public Object filterChange() {
+		container.setFixedFilter(
+				QueryFilter.eq(BenchmarkData.CATEGORY, Integer.valueOf(iteration++ % BenchmarkData.CATEGORIES)));
+		container.size();
+		return container.getIdByIndex(0);
+	}
+
+	@Benchmark
+	public Object sortChange() {
+		container.setFixedSort(((iteration++ & 1) == 0) ? QuerySort.desc(BenchmarkData.AMOUNT)
+				: QuerySort.asc(BenchmarkData.AMOUNT));
+		container.size();
+		return container.getIdByIndex(0);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Benchmark
+	public int commitModified() {
+		final String name = "modified" + iteration++;
+		for (int i = 0; i < modifiedRows; i++) {
+			container.getItem(container.getIdByIndex(i)).getItemProperty(BenchmarkData.NAME).setValue(name);
+		}
+		container.commit();
+		return container.size();
+	}
+
+}
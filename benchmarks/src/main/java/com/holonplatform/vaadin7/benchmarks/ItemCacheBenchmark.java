@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.holonplatform.vaadin7.data.ItemCachePolicy;
+import com.holonplatform.vaadin7.internal.data.ItemCache;
+
+/**
+ * Items cache ({@link ItemCache}) benchmarks, for each cache policy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemCacheBenchmark {
+
+	private static final int SAMPLES = 1 << 12;
+
+	@Param({ "LRU", "SOFT", "TINY_LFU" })
+	public ItemCachePolicy policy;
+
+	@Param({ "100", "1000" })
+	public int cacheSize;
+
+	private ItemCache<Object> cache;
+
+	private int[] indexes;
+
+	private int window;
+	private int sample;
+
+	@Setup
+	public void setup() {
+		cache = ItemCache.create(policy, cacheSize);
+		final Random random = new Random(42);
+		indexes = new int[SAMPLES];
+		for (int i = 0; i < SAMPLES; i++) {
+			// mostly within the cache size, some misses
+			indexes[i] = random.nextInt(cacheSize + cacheSize / 4);
+		}
+		for (int i = 0; i < cacheSize; i++) {
+			cache.putItem(i, Integer.valueOf(i));
+		}
+	}
+
+	@Benchmark
+	public Object getItem() {
+		return cache.getItem(indexes[sample++ & (SAMPLES - 1)]);
+	}
+
+	@Benchmark
+	public Object putItem() {
+		final int index = window++;
+		return cache.putItem(index, Integer.valueOf(index));
+	}
+
+	@Benchmark
+	public Object getOrLoadItem() {
+		final int index = indexes[sample++ & (SAMPLES - 1)];
+		final Object item = cache.getItem(index);
+		return (item != null) ? item : cache.putItem(index, Integer.valueOf(index));
+	}
+
+}
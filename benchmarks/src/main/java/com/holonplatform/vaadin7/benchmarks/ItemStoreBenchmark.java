@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.holonplatform.core.datastore.Datastore;
+import com.holonplatform.core.property.PropertyBox;
+import com.holonplatform.core.query.QueryConfigurationProvider;
+import com.holonplatform.core.query.QueryFilter;
+import com.holonplatform.core.query.QuerySort;
+import com.holonplatform.vaadin7.data.ItemDataProvider;
+import com.holonplatform.vaadin7.internal.data.DefaultItemStore;
+
+/**
+ * {@link DefaultItemStore} item access benchmarks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemStoreBenchmark {
+
+	private static final int SAMPLES = 1 << 12;
+
+	@Param({ BenchmarkData.MEMORY, BenchmarkData.H2 })
+	public String provider;
+
+	@Param({ "50", "200" })
+	public int batchSize;
+
+	@Param({ "100", "1000" })
+	public int cacheSize;
+
+	@Param({ "10000" })
+	public int rows;
+
+	private DefaultItemStore<PropertyBox> store;
+
+	private int[] indexes;
+	private Long[] ids;
+
+	private int sequential;
+	private int sample;
+
+	@Setup
+	public void setup() {
+		final Datastore datastore = BenchmarkData.H2.equals(provider) ? BenchmarkData.createDatastore(rows) : null;
+		final ItemDataProvider<PropertyBox> dataProvider = BenchmarkData.createProvider(provider, datastore, rows);
+		final QueryConfigurationProvider configuration = QueryConfigurationProvider.create((QueryFilter) null,
+				QuerySort.asc(BenchmarkData.NAME));
+		store = new DefaultItemStore<>(configuration, dataProvider, item -> item.getValue(BenchmarkData.ID),
+				batchSize, cacheSize);
+
+		final Random random = new Random(42);
+		indexes = new int[SAMPLES];
+		ids = new Long[SAMPLES];
+		for (int i = 0; i < SAMPLES; i++) {
+			indexes[i] = random.nextInt(rows);
+			ids[i] = Long.valueOf(random.nextInt(rows));
+		}
+		// count
+		store.size();
+	}
+
+	@Benchmark
+	public PropertyBox sequentialGetItem() {
+		final PropertyBox item = store.getItem(sequential);
+		sequential = (sequential + 1) % rows;
+		return item;
+	}
+
+	@Benchmark
+	public PropertyBox randomGetItem() {
+		return store.getItem(indexes[sample++ & (SAMPLES - 1)]);
+	}
+
+	@Benchmark
+	public int indexOfItem() {
+		return store.indexOfItem(ids[sample++ & (SAMPLES - 1)]);
+	}
+
+}
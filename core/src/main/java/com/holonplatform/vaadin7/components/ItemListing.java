@@ -15,11 +15,15 @@
  */
 package com.holonplatform.vaadin7.components;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Optional;
 
 import com.holonplatform.vaadin7.data.ItemDataSource.ItemSort;
+import com.holonplatform.vaadin7.data.ItemSetDelta;
+import com.vaadin.server.StreamResource;
 import com.vaadin.shared.MouseEventDetails;
 import com.vaadin.ui.Component;
 
@@ -153,6 +157,42 @@ public interface ItemListing<T, P> extends ItemSet, Selectable<T>, Component {
 	 */
 	boolean isBuffered();
 
+	/**
+	 * Apply a set of changes which occurred in the backend data to the listing, without refreshing the whole item set:
+	 * the inserted and deleted items are added to or removed from the listing rows, and only the rows of the updated
+	 * items are refreshed.
+	 * @param delta The changes to apply (not null)
+	 * @see com.holonplatform.vaadin7.data.ItemDataSource#applyChanges(ItemSetDelta)
+	 * @since 5.2.5
+	 */
+	void applyChanges(ItemSetDelta<T> delta);
+
+	/**
+	 * Export all the listing items as CSV (RFC 4180, UTF-8 encoded) to given output stream.
+	 * <p>
+	 * The current listing data source configuration (filters, sorts and query parameters) is used to load the items,
+	 * which are fetched in large chunks and written without being cached, so the memory usage does not depend on the
+	 * number of exported items. The visible property columns are exported, in the current order, using the column
+	 * headers as first row and the column converters to render the values. The values which a spreadsheet application
+	 * would interpret as a formula are prefixed with a <code>'</code>.
+	 * </p>
+	 * @param outputStream The output stream to write to (not null). The stream is not closed.
+	 * @throws IOException If an I/O error occurs
+	 * @since 5.2.5
+	 */
+	void exportCsv(OutputStream outputStream) throws IOException;
+
+	/**
+	 * Get a {@link StreamResource} which can be used to download the listing items as CSV, for example using a
+	 * {@link com.vaadin.server.FileDownloader}. The items are exported as described in
+	 * {@link #exportCsv(OutputStream)}, and the columns and data source configuration are evaluated each time the
+	 * resource is downloaded.
+	 * @param fileName The resource file name (not null)
+	 * @return The CSV export resource
+	 * @since 5.2.5
+	 */
+	StreamResource getCsvExportResource(String fileName);
+
 	// -------
 
 	/**
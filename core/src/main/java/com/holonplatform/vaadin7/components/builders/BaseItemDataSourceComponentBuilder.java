@@ -15,11 +15,17 @@
  */
 package com.holonplatform.vaadin7.components.builders;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 import com.holonplatform.core.query.QueryConfigurationProvider;
 import com.holonplatform.core.query.QueryFilter;
 import com.holonplatform.core.query.QuerySort;
+import com.holonplatform.vaadin7.data.ItemCachePolicy;
+import com.holonplatform.vaadin7.data.ItemDataMetricsListener;
 import com.holonplatform.vaadin7.data.ItemDataProvider;
 import com.holonplatform.vaadin7.data.ItemDataSource;
+import com.holonplatform.vaadin7.data.ItemLoadCancellation;
 
 /**
  * Base builder for components with {@link ItemDataSource} support.
@@ -60,6 +66,88 @@ public interface BaseItemDataSourceComponentBuilder<B extends BaseItemDataSource
 	 */
 	B maxCacheSize(int maxCacheSize);
 
+	/**
+	 * Enable the asynchronous read-ahead of items batches: when a sequential access to the items is detected, the next
+	 * (or the previous) items batch is loaded in background using the {@link ItemDataProvider} and the given
+	 * <code>executor</code>.
+	 * <p>
+	 * The {@link ItemDataProvider} must support concurrent invocations to use this feature.
+	 * </p>
+	 * @param executor The executor to use to load items batches in background, <code>null</code> to disable the
+	 *        read-ahead
+	 * @return this
+	 */
+	B prefetch(Executor executor);
+
+	/**
+	 * Load the first items batch concurrently with the items count, using given <code>executor</code>, so that the
+	 * first items are available after the latency of a single query instead of two consecutive queries.
+	 * <p>
+	 * The {@link ItemDataProvider} must support concurrent invocations to use this feature.
+	 * </p>
+	 * @param executor The executor to use to load the first items batch, <code>null</code> to load the first items
+	 *        batch after the items count
+	 * @return this
+	 * @since 5.2.5
+	 */
+	B firstBatchConcurrently(Executor executor);
+
+	/**
+	 * Set the timeout of the items count and load operations.
+	 * <p>
+	 * The {@link ItemDataProvider} operations are provided with an {@link ItemLoadCancellation} token, which is
+	 * cancelled when the operation is superseded (for example when the query filter changes while a background
+	 * read-ahead is in progress) and which expires when the operation exceeds the given timeout.
+	 * </p>
+	 * @param timeout The timeout, <code>0</code> for none
+	 * @param unit The timeout unit (not null)
+	 * @return this
+	 * @since 5.2.5
+	 */
+	B loadTimeout(long timeout, TimeUnit unit);
+
+	/**
+	 * Enable the adaptive batch size: the items batch size is computed from the number of items actually requested by
+	 * the client, i.e. the rows of the client side viewport, and from the observed load latency per item, within given
+	 * bounds. The configured {@link #batchSize(int)} is used until the first requests and loads are observed. If the
+	 * max cache size is not explicitly set, the items cache size follows the adaptive batch size.
+	 * @param minBatchSize Min batch size (greater than 0)
+	 * @param maxBatchSize Max batch size (not less than the min batch size)
+	 * @return this
+	 * @since 5.2.5
+	 */
+	B adaptiveBatchSize(int minBatchSize, int maxBatchSize);
+
+	/**
+	 * Set the listener to notify about the data access metrics, i.e. items cache accesses and evictions, count, load
+	 * and commit operations.
+	 * @param listener The metrics listener, <code>null</code> for none. Use {@link ItemDataMetricsListener#jmx()} to
+	 *        export the metrics as JMX MBeans
+	 * @return this
+	 * @since 5.2.5
+	 */
+	B metrics(ItemDataMetricsListener listener);
+
+	/**
+	 * Add a tag which identifies the data source in the data access metrics, for example the name of the view or the
+	 * listing id.
+	 * @param name Tag name (not null)
+	 * @param value Tag value (not null)
+	 * @return this
+	 * @see ItemDataMetricsListener#TAG_VIEW
+	 * @see ItemDataMetricsListener#TAG_LISTING
+	 * @since 5.2.5
+	 */
+	B metricsTag(String name, String value);
+
+	/**
+	 * Set the items cache policy. Default is {@link ItemCachePolicy#LRU}.
+	 * @param cachePolicy The cache policy to use (not null)
+	 * @return this
+	 * @since 5.2.5
+	 */
+	B cachePolicy(ItemCachePolicy cachePolicy);
+
 	/**
 	 * Add an external {@link QueryConfigurationProvider} for additional query configuration
 	 * @param queryConfigurationProvider QueryConfigurationProvider to add
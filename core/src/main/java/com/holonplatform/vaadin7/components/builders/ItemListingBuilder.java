@@ -17,6 +17,7 @@ package com.holonplatform.vaadin7.components.builders;
 
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.concurrent.Executor;
 
 import com.holonplatform.core.Path;
 import com.holonplatform.core.i18n.Localizable;
@@ -241,6 +242,20 @@ public interface ItemListingBuilder<T, P, C extends ItemListing<T, P>, B extends
 	 */
 	B buffered(boolean buffered);
 
+	/**
+	 * Set the executor to use to refresh the listing items in background when {@link ItemListing#refresh()} is
+	 * invoked.
+	 * <p>
+	 * The current rows remain displayed while the items count and the visible items are reloaded using given
+	 * executor, and only the changed rows are redrawn when the fresh data is ready. The changes are applied using
+	 * <code>UI.access(...)</code>, so server push or polling must be enabled for them to reach the client.
+	 * </p>
+	 * @param executor The executor to use to load data in background (not null)
+	 * @return this
+	 * @since 5.2.5
+	 */
+	B refreshInBackground(Executor executor);
+
 	/**
 	 * Set the listing selection mode.
 	 * @param selectionMode Selection mode to set (not null). Use {@link SelectionMode#NONE} to disable selection.
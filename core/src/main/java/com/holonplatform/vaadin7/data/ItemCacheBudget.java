@@ -0,0 +1,162 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.data;
+
+import java.io.Serializable;
+import java.util.Optional;
+
+import com.holonplatform.core.Context;
+import com.holonplatform.vaadin7.internal.data.DefaultItemCacheBudget;
+import com.vaadin.server.VaadinSession;
+
+/**
+ * A budget for the items cached by the {@link ItemDataSource}s which share it, counted in rows or in estimated bytes.
+ * <p>
+ * Each item data source cache is bound by its own max size: the budget bounds the overall cached items of all the data
+ * sources which share it, for example all the listings of the same {@link VaadinSession}. When the budget is
+ * exceeded, the items of the least recently used data sources are released first, in the eviction order of each cache,
+ * only until the usage is back within the limit. The released items are loaded again when requested.
+ * </p>
+ * <p>
+ * The current budget is obtained as a {@link Context} resource using the {@link #CONTEXT_KEY} key, so it can be
+ * configured per session by setting it as a {@link VaadinSession} attribute, which is available through the
+ * <code>vaadin-session</code> context scope. For example, using a session init listener:
+ * </p>
+ * 
+ * <pre>
+ * event.getSession().setAttribute(ItemCacheBudget.CONTEXT_KEY, ItemCacheBudget.rows(20000));
+ * </pre>
+ * 
+ * @since 5.2.5
+ */
+public interface ItemCacheBudget extends Serializable {
+
+	/**
+	 * Default context resource key
+	 */
+	public static final String CONTEXT_KEY = ItemCacheBudget.class.getName();
+
+	/**
+	 * Get the budget limit, in the budget unit (rows or estimated bytes).
+	 * @return the budget limit
+	 */
+	long getLimit();
+
+	/**
+	 * Get the current budget usage, i.e. the weight of the items cached by all the participants.
+	 * @return the budget usage
+	 */
+	long getUsage();
+
+	/**
+	 * Get the weight of given item in the budget unit.
+	 * @param item The item
+	 * @return the item weight
+	 */
+	long weigh(Object item);
+
+	/**
+	 * Notify that given participant accessed its cache, registering it if not already registered. If the budget is
+	 * exceeded, the cached items of the other participants are released, least recently used participant first, until
+	 * the usage is back within the limit.
+	 * @param participant The participant (not null)
+	 */
+	void onAccess(Participant participant);
+
+	/**
+	 * Unregister given participant.
+	 * @param participant The participant to unregister
+	 */
+	void unregister(Participant participant);
+
+	/**
+	 * A cache which takes part in an {@link ItemCacheBudget}.
+	 */
+	public interface Participant {
+
+		/**
+		 * Get the weight of the currently cached items, in the budget unit.
+		 * @return the cache usage
+		 */
+		long getCacheUsage();
+
+		/**
+		 * Release cached items, in the cache eviction order, until at least given weight is released or the cache is
+		 * empty.
+		 * @param weight The weight to release, in the budget unit
+		 * @return The released weight
+		 */
+		long releaseCache(long weight);
+
+	}
+
+	/**
+	 * Function to obtain the weight of an item in the budget unit.
+	 */
+	@FunctionalInterface
+	public interface ItemWeigher extends Serializable {
+
+		/**
+		 * Get the weight of given item.
+		 * @param item The item
+		 * @return the item weight
+		 */
+		long weigh(Object item);
+
+	}
+
+	/**
+	 * Get the current {@link ItemCacheBudget}, if available as {@link Context} resource using the {@link #CONTEXT_KEY}
+	 * key.
+	 * @return Optional current budget
+	 */
+	static Optional<ItemCacheBudget> getCurrent() {
+		return Context.get().resource(CONTEXT_KEY, ItemCacheBudget.class);
+	}
+
+	/**
+	 * Create a budget counted in cached rows.
+	 * @param maxRows Max cached rows (greater than 0)
+	 * @return A new {@link ItemCacheBudget}
+	 */
+	static ItemCacheBudget rows(long maxRows) {
+		return new DefaultItemCacheBudget(maxRows, item -> 1L);
+	}
+
+	/**
+	 * Create a budget counted in estimated bytes.
+	 * @param maxBytes Max cached bytes (greater than 0)
+	 * @param weigher The function to use to estimate the size of an item in bytes (not null)
+	 * @return A new {@link ItemCacheBudget}
+	 */
+	static ItemCacheBudget bytes(long maxBytes, ItemWeigher weigher) {
+		return new DefaultItemCacheBudget(maxBytes, weigher);
+	}
+
+	/**
+	 * Create a budget counted in estimated bytes, using a fixed estimated size for each item.
+	 * @param maxBytes Max cached bytes (greater than 0)
+	 * @param itemSize Estimated size of an item in bytes (greater than 0)
+	 * @return A new {@link ItemCacheBudget}
+	 */
+	static ItemCacheBudget bytes(long maxBytes, long itemSize) {
+		if (itemSize <= 0) {
+			throw new IllegalArgumentException("Item size must be greater than 0");
+		}
+		return new DefaultItemCacheBudget(maxBytes, item -> itemSize);
+	}
+
+}
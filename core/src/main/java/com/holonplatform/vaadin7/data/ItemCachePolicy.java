@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.data;
+
+/**
+ * Policy used by item data sources to cache the items loaded from an {@link ItemDataProvider}.
+ * <p>
+ * Each policy defines how the cached items are referenced and which items are evicted when the cache max size is
+ * reached. The {@link ItemCacheStatistics} can be used to compare the hit ratio of the different policies for a given
+ * usage pattern.
+ * </p>
+ * 
+ * @since 5.2.5
+ */
+public enum ItemCachePolicy {
+
+	/**
+	 * Items are strongly referenced and the least recently used item is evicted when the cache is full. This is the
+	 * default policy.
+	 */
+	LRU,
+
+	/**
+	 * Items are referenced using soft references, so they can be reclaimed by the garbage collector in response to
+	 * memory demand. The least recently used item is evicted when the cache is full.
+	 */
+	SOFT,
+
+	/**
+	 * Items are referenced using weak references, so they can be reclaimed by the garbage collector as soon as they are
+	 * no longer strongly reachable. The least recently used item is evicted when the cache is full.
+	 */
+	WEAK,
+
+	/**
+	 * Items are strongly referenced and evicted using a frequency aware policy (<em>W-TinyLFU</em>): new items enter a
+	 * small LRU admission window and are admitted to the main cache only when they are accessed more frequently than
+	 * the main cache eviction candidate. Suitable when the users often return to the same item pages.
+	 */
+	TINY_LFU;
+
+}
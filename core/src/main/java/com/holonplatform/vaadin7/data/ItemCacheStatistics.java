@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.data;
+
+import java.io.Serializable;
+
+/**
+ * Statistics about the usage of an items cache.
+ * 
+ * @since 5.2.5
+ */
+public interface ItemCacheStatistics extends Serializable {
+
+	/**
+	 * Get the cache policy.
+	 * @return the cache policy
+	 */
+	ItemCachePolicy getPolicy();
+
+	/**
+	 * Get the number of item requests which were satisfied by the cache.
+	 * @return the cache hit count
+	 */
+	long getHitCount();
+
+	/**
+	 * Get the number of item requests which were not satisfied by the cache.
+	 * @return the cache miss count
+	 */
+	long getMissCount();
+
+	/**
+	 * Get the number of items which were evicted from the cache, either because the cache max size was reached or
+	 * because the items were reclaimed by the garbage collector.
+	 * @return the eviction count
+	 */
+	long getEvictionCount();
+
+	/**
+	 * Get the total number of item requests.
+	 * @return the request count
+	 */
+	default long getRequestCount() {
+		return getHitCount() + getMissCount();
+	}
+
+	/**
+	 * Get the ratio of item requests which were satisfied by the cache.
+	 * @return the cache hit ratio, a value between <code>0</code> and <code>1</code>. If no request was performed,
+	 *         <code>1</code> is returned
+	 */
+	default double getHitRatio() {
+		final long requests = getRequestCount();
+		return (requests == 0) ? 1.0 : (double) getHitCount() / requests;
+	}
+
+}
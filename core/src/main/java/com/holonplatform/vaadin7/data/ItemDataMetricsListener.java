@@ -0,0 +1,131 @@
+/*
+ * Copyright 2000-2017 Holon TDCN.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.data;
+
+import java.io.Serializable;
+import java.util.Map;
+
+import com.holonplatform.vaadin7.internal.data.JmxItemDataMetricsListener;
+
+/**
+ * Listener which can be attached to an {@link ItemDataSource} to collect data access metrics: items cache accesses
+ * and evictions, {@link ItemDataProvider} count and load operations and commit operations.
+ * <p>
+ * Each event is provided with the <em>tags</em> of the data source which generated it, for example the name of the
+ * view and the id of the listing which use the data source (see {@link #TAG_VIEW} and {@link #TAG_LISTING}), so that
+ * the metrics can be aggregated per data source.
+ * </p>
+ * <p>
+ * The count and load operations may be performed in background threads (for example when the items read-ahead is
+ * enabled), so the listener must be thread safe. The listener methods are invoked in the data access code path and
+ * should return quickly without throwing exceptions.
+ * </p>
+ * 
+ * @since 5.2.5
+ */
+public interface ItemDataMetricsListener extends Serializable {
+
+	/**
+	 * Tag name to use to declare the name of the view which uses the data source
+	 */
+	static final String TAG_VIEW = "view";
+
+	/**
+	 * Tag name to use to declare the id of the listing which uses the data source
+	 */
+	static final String TAG_LISTING = "listing";
+
+	/**
+	 * Invoked when a component which uses a data source with given tags is attached to the UI.
+	 * @param tags Data source tags
+	 */
+	default void onAttach(Map<String, String> tags) {
+	}
+
+	/**
+	 * Invoked when a component which uses a data source with given tags is detached from the UI. Each detach follows
+	 * an {@link #onAttach(Map)} with the same tags.
+	 * @param tags Data source tags
+	 */
+	default void onDetach(Map<String, String> tags) {
+	}
+
+	/**
+	 * Invoked when an item is requested to the data source items cache.
+	 * @param tags Data source tags
+	 * @param hit <code>true</code> if the item was available in cache, <code>false</code> if it has to be loaded
+	 */
+	default void onCacheAccess(Map<String, String> tags, boolean hit) {
+	}
+
+	/**
+	 * Invoked when one or more items are evicted from the data source items cache.
+	 * @param tags Data source tags
+	 * @param count Number of evicted items
+	 */
+	default void onCacheEviction(Map<String, String> tags, long count) {
+	}
+
+	/**
+	 * Invoked when an items count operation is completed.
+	 * @param tags Data source tags
+	 * @param duration Operation duration in nanoseconds
+	 * @param failed Whether the operation failed
+	 */
+	default void onCount(Map<String, String> tags, long duration, boolean failed) {
+	}
+
+	/**
+	 * Invoked when an items load operation is completed.
+	 * @param tags Data source tags
+	 * @param duration Operation duration in nanoseconds
+	 * @param batchSize Number of requested items
+	 * @param rows Number of loaded items
+	 * @param failed Whether the operation failed
+	 */
+	default void onLoad(Map<String, String> tags, long duration, int batchSize, int rows, boolean failed) {
+	}
+
+	/**
+	 * Invoked when an items commit operation is completed.
+	 * @param tags Data source tags
+	 * @param duration Operation duration in nanoseconds
+	 * @param added Number of added items
+	 * @param modified Number of modified items
+	 * @param removed Number of removed items
+	 * @param failed Whether the operation failed
+	 */
+	default void onCommit(Map<String, String> tags, long duration, int added, int modified, int removed,
+			boolean failed) {
+	}
+
+	/**
+	 * Get the {@link ItemDataMetricsListener} which aggregates the metrics by data source tags and exports them
+	 * as JMX MBeans using the platform MBean server.
+	 * <p>
+	 * An MBean is registered for each distinct set of tags, using the
+	 * <code>com.holonplatform.vaadin:type=ItemDataSource</code> object name with the tags as additional key
+	 * properties. The MBean is unregistered when the last component using a data source with the same tags is
+	 * detached, and the number of registered MBeans is bounded: the metrics of any further set of tags are aggregated
+	 * in a single <code>overflow</code> MBean.
+	 * </p>
+	 * @return The JMX metrics listener
+	 */
+	static ItemDataMetricsListener jmx() {
+		return JmxItemDataMetricsListener.getInstance();
+	}
+
+}
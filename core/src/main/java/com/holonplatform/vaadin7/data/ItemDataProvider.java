@@ -15,13 +15,21 @@
  */
 package com.holonplatform.vaadin7.data;
 
+import java.io.Serializable;
+import java.util.Collection;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
+import com.holonplatform.core.Path;
 import com.holonplatform.core.datastore.DataTarget;
 import com.holonplatform.core.datastore.Datastore;
 import com.holonplatform.core.exceptions.DataAccessException;
+import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.holonplatform.core.property.Property;
 import com.holonplatform.core.property.PropertyBox;
 import com.holonplatform.core.property.PropertySet;
+import com.holonplatform.vaadin7.internal.data.CoalescingItemDataProvider;
+import com.holonplatform.vaadin7.internal.data.CollectionItemDataProvider;
 import com.holonplatform.vaadin7.internal.data.DatastoreItemDataProvider;
 import com.holonplatform.vaadin7.internal.data.DefaultItemDataProvider;
 import com.holonplatform.vaadin7.internal.data.ItemDataProviderWrapper;
@@ -79,6 +87,115 @@ public interface ItemDataProvider<ITEM> extends ItemSetCounter, ItemSetLoader<IT
 		return new DatastoreItemDataProvider(datastore, target, propertySet);
 	}
 
+	/**
+	 * Construct a {@link ItemDataProvider} using a {@link Datastore}, which uses <em>keyset</em> pagination to load
+	 * the items which follow an already loaded item.
+	 * <p>
+	 * The identifier properties are added to the query sort to obtain a deterministic items order, and the sort and
+	 * identifier values of the last item of a page are used as query restrictions to load the next page, instead of a
+	 * query offset. Random jumps to items which do not follow a known item are loaded using the query offset.
+	 * </p>
+	 * <p>
+	 * The keyset restrictions never match the <code>NULL</code> values, so the query offset is used as well when the
+	 * query is sorted by a path which may be <code>NULL</code>. Use
+	 * {@link #create(Datastore, DataTarget, PropertySet, Property[], Path...)} to declare the sort paths which are not
+	 * nullable.
+	 * </p>
+	 * @param datastore Datastore to use (not null)
+	 * @param target Data target (not null)
+	 * @param propertySet Property set to load
+	 * @param identifierProperties The properties which identify an item (must be {@link Path}s and must be included
+	 *        in given property set)
+	 * @return A new {@link ItemDataProvider} instance
+	 * @see ItemSetKeysetLoader
+	 * @since 5.2.5
+	 */
+	static ItemDataProvider<PropertyBox> create(Datastore datastore, DataTarget<?> target, PropertySet<?> propertySet,
+			Property<?>... identifierProperties) {
+		return new DatastoreItemDataProvider(datastore, target, propertySet, identifierProperties);
+	}
+
+	/**
+	 * Construct a {@link ItemDataProvider} using a {@link Datastore}, which uses <em>keyset</em> pagination to load
+	 * the items which follow an already loaded item, when all the query sort paths are not nullable.
+	 * @param datastore Datastore to use (not null)
+	 * @param target Data target (not null)
+	 * @param propertySet Property set to load
+	 * @param identifierProperties The properties which identify an item (must be {@link Path}s and must be included
+	 *        in given property set)
+	 * @param notNullPaths The sort paths, besides the identifier properties, which never have a <code>NULL</code>
+	 *        value
+	 * @return A new {@link ItemDataProvider} instance
+	 * @see ItemSetKeysetLoader
+	 * @since 5.2.5
+	 */
+	static ItemDataProvider<PropertyBox> create(Datastore datastore, DataTarget<?> target, PropertySet<?> propertySet,
+			Property<?>[] identifierProperties, Path<?>... notNullPaths) {
+		return new DatastoreItemDataProvider(datastore, target, propertySet, identifierProperties, notNullPaths);
+	}
+
+	/**
+	 * Create an {@link ItemDataProvider} which provides the items of an in-memory collection, evaluating the query
+	 * filters and sorts in memory.
+	 * <p>
+	 * The filtered and sorted item positions are cached for each query configuration and the property sort orders are
+	 * computed once for each property, so paging through the items does not require to filter and sort them again. The
+	 * collection is copied when the data provider is created.
+	 * </p>
+	 * <p>
+	 * The collection item instances are returned and their values are cached, so the items must be immutable: an item
+	 * modified in place (for example by a bound container) would be filtered and sorted using its previous values, and
+	 * its modifications could not be discarded. Use {@link #create(Collection, PathValueProvider, UnaryOperator)} to
+	 * obtain a copy of the items.
+	 * </p>
+	 * @param <ITEM> Item type
+	 * @param items Items collection (not null)
+	 * @param valueProvider The function to use to read the item values bound to the query filter and sort paths (not
+	 *        null)
+	 * @return A new {@link ItemDataProvider}
+	 * @since 5.2.5
+	 */
+	static <ITEM> ItemDataProvider<ITEM> create(Collection<? extends ITEM> items,
+			PathValueProvider<ITEM> valueProvider) {
+		return new CollectionItemDataProvider<>(items, valueProvider);
+	}
+
+	/**
+	 * Create an {@link ItemDataProvider} which provides a copy of the items of an in-memory collection, evaluating the
+	 * query filters and sorts in memory.
+	 * <p>
+	 * The collection items are never modified, so they can be used to discard the modifications of the returned
+	 * copies, and the returned copies can be freely modified.
+	 * </p>
+	 * @param <ITEM> Item type
+	 * @param items Items collection (not null)
+	 * @param valueProvider The function to use to read the item values bound to the query filter and sort paths (not
+	 *        null)
+	 * @param copier The function to use to copy the collection items before returning them (not null). Must be
+	 *        serializable if the data provider is serialized.
+	 * @return A new {@link ItemDataProvider}
+	 * @see #create(Collection, PathValueProvider)
+	 * @since 5.2.5
+	 */
+	static <ITEM> ItemDataProvider<ITEM> create(Collection<? extends ITEM> items, PathValueProvider<ITEM> valueProvider,
+			UnaryOperator<ITEM> copier) {
+		ObjectUtils.argumentNotNull(copier, "Item copier must be not null");
+		return new CollectionItemDataProvider<>(items, valueProvider, copier);
+	}
+
+	/**
+	 * Create an {@link ItemDataProvider} which provides a copy of the {@link PropertyBox} items of an in-memory
+	 * collection, evaluating the query filters and sorts in memory.
+	 * @param items Items collection (not null)
+	 * @return A new {@link ItemDataProvider}
+	 * @see #create(Collection, PathValueProvider, UnaryOperator)
+	 * @since 5.2.5
+	 */
+	static ItemDataProvider<PropertyBox> create(Collection<PropertyBox> items) {
+		return new CollectionItemDataProvider<>(items, new CollectionItemDataProvider.PropertyBoxValueProvider(),
+				new CollectionItemDataProvider.PropertyBoxCopier());
+	}
+
 	/**
 	 * Create a new {@link ItemDataProvider} which wraps a concrete data provider and converts items into a different
 	 * type using a converter function.
@@ -92,4 +209,64 @@ public interface ItemDataProvider<ITEM> extends ItemSetCounter, ItemSetLoader<IT
 		return new ItemDataProviderWrapper<>(provider, converter);
 	}
 
+	/**
+	 * Create an {@link ItemDataProvider} which coalesces identical concurrent count and load operations performed by
+	 * the given <code>provider</code>.
+	 * <p>
+	 * While an operation with the same data target, property set, filter, sort, parameters, offset and limit is in
+	 * progress in any thread (for example in another user session) using the same concrete <code>provider</code>
+	 * instance, the operation is not performed again and the in-flight operation result is shared. Operations of
+	 * distinct concrete providers are never coalesced, so the provider instance must be shared (for example an
+	 * application scoped provider) to coalesce the operations of different sessions. Since the loaded
+	 * {@link PropertyBox}es are shared, each caller obtains a copy of them.
+	 * </p>
+	 * @param provider The concrete data provider (not null)
+	 * @param target The data target of the items (not null)
+	 * @param propertySet The property set of the items (not null)
+	 * @return A new coalescing {@link ItemDataProvider}
+	 * @since 5.2.5
+	 */
+	static ItemDataProvider<PropertyBox> coalescing(ItemDataProvider<PropertyBox> provider, DataTarget<?> target,
+			PropertySet<?> propertySet) {
+		return CoalescingItemDataProvider.create(provider, target, propertySet);
+	}
+
+	/**
+	 * Create an {@link ItemDataProvider} which coalesces identical concurrent count and load operations performed by
+	 * the given <code>provider</code>.
+	 * @param <ITEM> Item type
+	 * @param provider The concrete data provider (not null)
+	 * @param target The data target of the items (not null)
+	 * @param itemType The item type, used to discriminate the operations on the same data target (not null)
+	 * @param copier The function to use to copy the shared items before returning them. Can be
+	 *        {@link UnaryOperator#identity()} for immutable items (not null)
+	 * @return A new coalescing {@link ItemDataProvider}
+	 * @see #coalescing(ItemDataProvider, DataTarget, PropertySet)
+	 * @since 5.2.5
+	 */
+	static <ITEM> ItemDataProvider<ITEM> coalescing(ItemDataProvider<ITEM> provider, DataTarget<?> target,
+			Class<? extends ITEM> itemType, UnaryOperator<ITEM> copier) {
+		ObjectUtils.argumentNotNull(itemType, "Item type must be not null");
+		return new CoalescingItemDataProvider<>(provider, target, itemType.getName(), copier);
+	}
+
+	/**
+	 * Function to read the value bound to a {@link Path} from an item, used to evaluate query filters and sorts in
+	 * memory.
+	 * @param <ITEM> Item type
+	 * @since 5.2.5
+	 */
+	@FunctionalInterface
+	public interface PathValueProvider<ITEM> extends Serializable {
+
+		/**
+		 * Get the value bound to given <code>path</code> from given item.
+		 * @param item Item
+		 * @param path Path
+		 * @return The item value, <code>null</code> if none
+		 */
+		Object getValue(ITEM item, Path<?> path);
+
+	}
+
 }
@@ -18,11 +18,21 @@ package com.holonplatform.vaadin7.data;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Optional;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.holonplatform.core.Path;
+import com.holonplatform.core.datastore.DataTarget;
+import com.holonplatform.core.datastore.Datastore;
 import com.holonplatform.core.exceptions.DataAccessException;
 import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.holonplatform.core.property.Property;
+import com.holonplatform.core.property.PropertyBox;
 import com.holonplatform.core.query.QueryConfigurationProvider;
 import com.holonplatform.core.query.QuerySort;
+import com.holonplatform.vaadin7.internal.data.DatastoreCommitHandler;
 import com.holonplatform.vaadin7.internal.data.DefaultItemSort;
 
 /**
@@ -138,6 +148,59 @@ public interface ItemDataSource<ITEM, PROPERTY> extends Serializable {
 	@SuppressWarnings("unchecked")
 	void sort(ItemSort<PROPERTY>... sorts);
 
+	/**
+	 * Get a {@link Stream} of all the items available from the concrete data provider, according to the current data
+	 * source configuration (filters, sorts and query parameters).
+	 * <p>
+	 * The data source configuration is evaluated when this method is invoked. The items are then loaded lazily in
+	 * chunks of given <code>chunkSize</code> while the stream is consumed, bypassing the data source items cache, so
+	 * that large item sets can be processed (for example to export them) with constant memory usage. Any pending item
+	 * set modification which was not committed is not included in the stream.
+	 * </p>
+	 * @param chunkSize The number of items to load from the data provider for each query (must be greater than 0)
+	 * @return Items stream
+	 * @throws DataAccessException Error performing concrete items loading operations
+	 * @since 5.2.5
+	 */
+	Stream<ITEM> stream(int chunkSize);
+
+	/**
+	 * Apply a set of changes which occurred in the backend data, without refreshing the whole data source.
+	 * <p>
+	 * The inserted and deleted items are added to or removed from the current item set at their position, adjusting
+	 * the items count and the item indexes, and the updated items which are currently loaded are replaced in place.
+	 * When the changes cannot be applied incrementally (for example when the position of an inserted item cannot be
+	 * determined by the data provider), the data source is refreshed. Any item set modification which was not
+	 * committed yet is preserved.
+	 * </p>
+	 * @param delta The changes to apply (not null)
+	 * @return The ids of the updated items which were replaced in the data source, i.e. the items which should be
+	 *         displayed again by any component bound to the data source. Empty if none.
+	 * @throws DataAccessException Error performing concrete items loading operations
+	 * @since 5.2.5
+	 */
+	Collection<?> applyChanges(ItemSetDelta<ITEM> delta);
+
+	/**
+	 * Refresh the data source in background, keeping the current items available until the fresh data is ready
+	 * (stale-while-revalidate).
+	 * <p>
+	 * The items count and the items around the last requested position are reloaded from the data provider using the
+	 * given <code>executor</code>, without holding any lock on the data source. The results are then applied through
+	 * the given <code>synchronizer</code>, which should run the provided task holding the lock which protects the data
+	 * source state (for example <code>UI.access(...)</code>). If the item set is unchanged, the changed items are
+	 * replaced in place; otherwise the data source is refreshed. Any data source refresh or change which occurs while
+	 * the background loading is in progress discards its results.
+	 * </p>
+	 * @param executor The executor to use to load data in background (not null)
+	 * @param synchronizer The synchronizer to use to apply the loaded data to the data source (not null)
+	 * @return A {@link CompletableFuture} which is completed, within the synchronizer, with the ids of the items which
+	 *         were replaced in place, i.e. the items which should be displayed again by any component bound to the
+	 *         data source. The future is completed exceptionally if the data loading fails.
+	 * @since 5.2.5
+	 */
+	CompletableFuture<Collection<?>> revalidate(Executor executor, Consumer<Runnable> synchronizer);
+
 	/**
 	 * Item actions enumeration.
 	 */
@@ -213,6 +276,25 @@ public interface ItemDataSource<ITEM, PROPERTY> extends Serializable {
 		 */
 		Object getPropertyDefaultValue(PROPERTY property);
 
+		/**
+		 * Get the property with given name. The property name is the {@link Path} name for {@link Path} type
+		 * properties, or the property <code>toString()</code> representation otherwise.
+		 * @param name Property name
+		 * @return The first property with given name, or an empty Optional if not found
+		 * @since 5.2.5
+		 */
+		default Optional<PROPERTY> getPropertyByName(String name) {
+			if (name != null) {
+				for (PROPERTY property : getProperties()) {
+					if (property != null && name
+							.equals((property instanceof Path) ? ((Path<?>) property).getName() : property.toString())) {
+						return Optional.of(property);
+					}
+				}
+			}
+			return Optional.empty();
+		}
+
 	}
 
 	/**
@@ -299,6 +381,48 @@ public interface ItemDataSource<ITEM, PROPERTY> extends Serializable {
 		 */
 		void commit(Collection<ITEM> addedItems, Collection<ITEM> modifiedItems, Collection<ITEM> removedItems);
 
+		/**
+		 * Create a {@link CommitHandler} which uses a {@link Datastore} to persist the items in batched mode: all
+		 * the operations are executed in a single transaction (if the Datastore supports transactions) and the
+		 * removed items are deleted using bulk delete operations, each one involving at most <code>batchSize</code>
+		 * items. The added items are saved one by one, so that any generated key is written back to the item.
+		 * @param datastore Datastore to use (not null)
+		 * @param target Data target (not null)
+		 * @param batchSize Max number of items of each bulk operation. If <code>0</code> or less, each item is
+		 *        persisted using a distinct operation
+		 * @param identifierProperties The properties which identify an item, used to perform bulk deletes (must be
+		 *        {@link Path}s). If empty, the removed items are deleted one by one
+		 * @return A new {@link CommitHandler}
+		 * @since 5.2.5
+		 */
+		static CommitHandler<PropertyBox> create(Datastore datastore, DataTarget<?> target, int batchSize,
+				Property<?>... identifierProperties) {
+			return new DatastoreCommitHandler(datastore, target, batchSize, identifierProperties);
+		}
+
+		/**
+		 * Create a {@link CommitHandler} which uses a {@link Datastore} to persist the items in batched mode, like
+		 * {@link #create(Datastore, DataTarget, int, Property...)}, optionally inserting the added items using bulk
+		 * insert operations too.
+		 * <p>
+		 * When bulk inserts are enabled, generated keys are <em>not</em> written back to the added items and each
+		 * item is inserted as is: use this mode only when the item identifiers are assigned by the application.
+		 * </p>
+		 * @param datastore Datastore to use (not null)
+		 * @param target Data target (not null)
+		 * @param batchSize Max number of items of each bulk operation. If <code>0</code> or less, each item is
+		 *        persisted using a distinct operation
+		 * @param bulkInserts Whether to insert the added items using bulk insert operations
+		 * @param identifierProperties The properties which identify an item, used to perform bulk deletes (must be
+		 *        {@link Path}s). If empty, the removed items are deleted one by one
+		 * @return A new {@link CommitHandler}
+		 * @since 5.2.5
+		 */
+		static CommitHandler<PropertyBox> create(Datastore datastore, DataTarget<?> target, int batchSize,
+				boolean bulkInserts, Property<?>... identifierProperties) {
+			return new DatastoreCommitHandler(datastore, target, batchSize, bulkInserts, identifierProperties);
+		}
+
 	}
 
 }
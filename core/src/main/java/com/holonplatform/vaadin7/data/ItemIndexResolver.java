@@ -0,0 +1,47 @@
+/*
+ * Copyright 2000-2017 Holon TDCN.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.data;
+
+import java.io.Serializable;
+import java.util.Optional;
+
+import com.holonplatform.core.exceptions.DataAccessException;
+import com.holonplatform.core.query.QueryConfigurationProvider;
+
+/**
+ * Data interface to locate an item within the items set by item id, without loading the items set.
+ * <p>
+ * Can be implemented by an {@link ItemDataProvider} to let the item stores resolve the index of an item which was not
+ * loaded yet using a direct query, instead of loading all the items until the requested one is found.
+ * </p>
+ *
+ * @since 5.2.5
+ */
+public interface ItemIndexResolver extends Serializable {
+
+	/**
+	 * Get the index of the item with given id within the items set obtained using given data source
+	 * <code>configuration</code>, consistent with the items order used to load the items set.
+	 * @param configuration Query configuration
+	 * @param itemId Item id (not null)
+	 * @return The item index, <code>-1</code> if no item with given id belongs to the items set. An empty Optional
+	 *         if the item index cannot be determined for given id and configuration
+	 * @throws DataAccessException Error accessing underlying data store
+	 */
+	Optional<Integer> indexOfItem(QueryConfigurationProvider configuration, Object itemId)
+			throws DataAccessException;
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2000-2017 Holon TDCN.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.data;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.holonplatform.core.exceptions.DataAccessException;
+import com.holonplatform.core.query.QueryConfigurationProvider;
+
+/**
+ * Cancellation token of an items count or load operation.
+ * <p>
+ * The item stores provide a {@link QueryConfigurationProvider} which implements this interface to the
+ * {@link ItemDataProvider} operations, so that the data provider can abort an operation which was superseded, for
+ * example because the query filter changed or a background read-ahead was discarded, or which exceeded the configured
+ * load timeout. Use {@link #of(QueryConfigurationProvider)} to obtain the token of a query configuration, if
+ * available.
+ * </p>
+ * 
+ * @since 5.2.5
+ */
+public interface ItemLoadCancellation {
+
+	/**
+	 * Gets whether the operation was cancelled, either because it was superseded or because it timed out.
+	 * @return <code>true</code> if the operation was cancelled
+	 */
+	boolean isCancelled();
+
+	/**
+	 * Gets whether the operation exceeded its timeout.
+	 * @return <code>true</code> if the operation timed out
+	 */
+	boolean isTimedOut();
+
+	/**
+	 * Get the remaining time, in milliseconds, before the operation times out.
+	 * @return The remaining time in milliseconds, <code>0</code> if the operation timed out or <code>-1</code> if no
+	 *         timeout is configured
+	 */
+	long getRemainingTime();
+
+	/**
+	 * Check whether the operation was cancelled.
+	 * @throws LoadCancelledException If the operation was cancelled or it timed out
+	 */
+	default void checkCancelled() throws LoadCancelledException {
+		if (isCancelled()) {
+			throw new LoadCancelledException(
+					isTimedOut() ? "Items load operation timed out" : "Items load operation was cancelled");
+		}
+	}
+
+	/**
+	 * Get the {@link ItemLoadCancellation} token of given query configuration, if available.
+	 * @param configuration Query configuration
+	 * @return Optional cancellation token
+	 */
+	static Optional<ItemLoadCancellation> of(QueryConfigurationProvider configuration) {
+		return (configuration instanceof ItemLoadCancellation) ? Optional.of((ItemLoadCancellation) configuration)
+				: Optional.empty();
+	}
+
+	/**
+	 * Check whether the operation bound to given query configuration, if any, was cancelled.
+	 * @param configuration Query configuration
+	 * @throws LoadCancelledException If the operation was cancelled or it timed out
+	 */
+	static void checkCancelled(QueryConfigurationProvider configuration) throws LoadCancelledException {
+		of(configuration).ifPresent(c -> c.checkCancelled());
+	}
+
+	/**
+	 * Make given items stream abort the iteration, throwing a {@link LoadCancelledException}, as soon as the
+	 * operation bound to given query configuration, if any, is cancelled.
+	 * @param <T> Stream elements type
+	 * @param stream The stream to wrap (not null)
+	 * @param configuration Query configuration
+	 * @return The cancellable stream, or the given stream if the configuration provides no cancellation token
+	 */
+	static <T> Stream<T> cancellable(Stream<T> stream, QueryConfigurationProvider configuration) {
+		return of(configuration).map(c -> stream.peek(e -> c.checkCancelled())).orElse(stream);
+	}
+
+	/**
+	 * Exception thrown when an items count or load operation was cancelled or timed out.
+	 */
+	public class LoadCancelledException extends DataAccessException {
+
+		private static final long serialVersionUID = 7795427478102426327L;
+
+		/**
+		 * Constructor
+		 * @param message Error message
+		 */
+		public LoadCancelledException(String message) {
+			super(message);
+		}
+
+	}
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2000-2017 Holon TDCN.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.data;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import com.holonplatform.core.datastore.DataTarget;
+import com.holonplatform.core.property.PropertyBox;
+import com.holonplatform.core.property.PropertySet;
+import com.holonplatform.vaadin7.internal.data.DefaultItemPageCache;
+
+/**
+ * An application-wide cache of the item pages and counts obtained from {@link ItemDataProvider}s, which can be shared
+ * by any number of sessions.
+ * <p>
+ * The cache sits in front of the data providers obtained through the <code>cached(...)</code> methods: each page is
+ * bound to a fingerprint of the data target, the query filter, the query sort, the query parameters, the offset and
+ * the limit, so identical page requests performed by different sessions hit the concrete data provider only once.
+ * Item refreshes are never cached.
+ * </p>
+ * <p>
+ * The cached entries are also bound to the concrete data provider: pages are shared only among equal data providers,
+ * or among Datastore-based data providers which use the same Datastore instance, so that data providers of the same
+ * data target backed by different data sources (for example tenant specific Datastores) never share their pages.
+ * </p>
+ * <p>
+ * Cached entries expire after the configured time to live, and the least recently used entries are evicted when the
+ * max number of entries is reached. Since the cache is not aware of the data modifications, the
+ * {@link #invalidate(DataTarget)} method should be used when the data bound to a data target changes. Item data
+ * source containers using a cached data provider invalidate the data target when their modifications are committed.
+ * </p>
+ * <p>
+ * Query configurations which cannot be fingerprinted, for example custom filters implementations, are not cached.
+ * </p>
+ * 
+ * @since 5.2.5
+ */
+public interface ItemPageCache {
+
+	/**
+	 * Create a {@link ItemDataProvider} which uses this cache to obtain the item pages and counts, using the given
+	 * <code>provider</code> to load them when not available in cache.
+	 * <p>
+	 * Since the cached {@link PropertyBox}es are shared, each item is returned as a copy of the cached one.
+	 * </p>
+	 * @param provider The concrete data provider (not null)
+	 * @param target The data target of the items (not null)
+	 * @param propertySet The property set of the items (not null)
+	 * @return A new cached {@link ItemDataProvider}
+	 */
+	ItemDataProvider<PropertyBox> cached(ItemDataProvider<PropertyBox> provider, DataTarget<?> target,
+			PropertySet<?> propertySet);
+
+	/**
+	 * Create a {@link ItemDataProvider} which uses this cache to obtain the item pages and counts, using the given
+	 * <code>provider</code> to load them when not available in cache.
+	 * @param <ITEM> Item type
+	 * @param provider The concrete data provider (not null)
+	 * @param target The data target of the items (not null)
+	 * @param itemType The item type, used to discriminate the pages of the same data target (not null)
+	 * @param copier The function to use to copy the shared cached items before returning them. Can be
+	 *        {@link UnaryOperator#identity()} for immutable items (not null)
+	 * @return A new cached {@link ItemDataProvider}
+	 */
+	<ITEM> ItemDataProvider<ITEM> cached(ItemDataProvider<ITEM> provider, DataTarget<?> target,
+			Class<? extends ITEM> itemType, UnaryOperator<ITEM> copier);
+
+	/**
+	 * Remove all the cached entries bound to given data target.
+	 * @param target Data target (not null)
+	 */
+	void invalidate(DataTarget<?> target);
+
+	/**
+	 * Remove all the cached entries.
+	 */
+	void invalidateAll();
+
+	/**
+	 * Get the number of cached entries, including the expired entries not evicted yet.
+	 * @return the number of cached entries
+	 */
+	int size();
+
+	/**
+	 * Get the number of page and count requests satisfied by the cache.
+	 * @return the cache hit count
+	 */
+	long getHitCount();
+
+	/**
+	 * Get the number of page and count requests not satisfied by the cache.
+	 * @return the cache miss count
+	 */
+	long getMissCount();
+
+	/**
+	 * Create a new {@link ItemPageCache}.
+	 * @param maxEntries Max number of cached pages and counts, must be greater than <code>0</code>
+	 * @param timeToLive Time to live of the cached entries, must be greater than <code>0</code>
+	 * @param unit Time to live unit (not null)
+	 * @return A new {@link ItemPageCache}
+	 */
+	static ItemPageCache create(int maxEntries, long timeToLive, TimeUnit unit) {
+		return new DefaultItemPageCache(maxEntries, timeToLive, unit);
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2000-2017 Holon TDCN.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.data;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.holonplatform.vaadin7.internal.data.DefaultItemSetDelta;
+
+/**
+ * A set of changes which occurred in the backend data of an {@link ItemDataSource}, i.e. the items which were
+ * inserted, updated or deleted, to be applied to the data source without reloading the whole item set.
+ * <p>
+ * An updated item is expected to keep its position in the item set: if an update changes the item position (for
+ * example because a sort property was modified) or the item set membership (because of the current filters), the
+ * change should be notified as a deletion of the item followed by its insertion.
+ * </p>
+ * 
+ * @param <ITEM> Item type
+ *
+ * @since 5.2.5
+ * 
+ * @see ItemDataSource#applyChanges(ItemSetDelta)
+ */
+public interface ItemSetDelta<ITEM> extends Serializable {
+
+	/**
+	 * Get the items which were inserted in the backend data.
+	 * @return The inserted items, empty if none
+	 */
+	List<ITEM> getInsertedItems();
+
+	/**
+	 * Get the items which were updated in the backend data.
+	 * @return The updated items, empty if none
+	 */
+	List<ITEM> getUpdatedItems();
+
+	/**
+	 * Get the ids of the items which were deleted from the backend data.
+	 * @return The deleted item ids, empty if none
+	 */
+	List<?> getDeletedItemIds();
+
+	/**
+	 * Get whether this delta contains no change.
+	 * @return <code>true</code> if there are no inserted, updated or deleted items
+	 */
+	default boolean isEmpty() {
+		return getInsertedItems().isEmpty() && getUpdatedItems().isEmpty() && getDeletedItemIds().isEmpty();
+	}
+
+	/**
+	 * Get a builder to create an {@link ItemSetDelta}.
+	 * @param <ITEM> Item type
+	 * @return A new {@link ItemSetDelta} builder
+	 */
+	static <ITEM> Builder<ITEM> builder() {
+		return new DefaultItemSetDelta.DefaultBuilder<>();
+	}
+
+	/**
+	 * {@link ItemSetDelta} builder.
+	 * @param <ITEM> Item type
+	 */
+	public interface Builder<ITEM> {
+
+		/**
+		 * Add an item which was inserted in the backend data.
+		 * @param item The inserted item (not null)
+		 * @return this
+		 */
+		Builder<ITEM> inserted(ITEM item);
+
+		/**
+		 * Add an item which was updated in the backend data.
+		 * @param item The updated item (not null)
+		 * @return this
+		 */
+		Builder<ITEM> updated(ITEM item);
+
+		/**
+		 * Add the id of an item which was deleted from the backend data.
+		 * @param itemId The deleted item id (not null)
+		 * @return this
+		 */
+		Builder<ITEM> deleted(Object itemId);
+
+		/**
+		 * Build the {@link ItemSetDelta}.
+		 * @return A new {@link ItemSetDelta}
+		 */
+		ItemSetDelta<ITEM> build();
+
+	}
+
+}
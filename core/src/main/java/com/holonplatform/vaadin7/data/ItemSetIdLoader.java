@@ -0,0 +1,57 @@
+/*
+ * Copyright 2000-2017 Holon TDCN.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.data;
+
+import java.io.Serializable;
+import java.util.stream.Stream;
+
+import com.holonplatform.core.exceptions.DataAccessException;
+import com.holonplatform.core.query.QueryConfigurationProvider;
+
+/**
+ * Data interface to load only the ids of a set of items, for example using a query which selects only the item
+ * identifier values.
+ * <p>
+ * Can be implemented by an {@link ItemDataProvider} to let the item stores perform id-based operations (such as
+ * iterating over all the item ids) without loading and caching the whole items.
+ * </p>
+ *
+ * @since 5.2.5
+ */
+public interface ItemSetIdLoader extends Serializable {
+
+	/**
+	 * Gets whether the item ids loading is supported by this loader.
+	 * @return <code>true</code> if {@link #loadItemIds(QueryConfigurationProvider, int, int)} can be used
+	 */
+	default boolean canLoadItemIds() {
+		return true;
+	}
+
+	/**
+	 * Load the ids of the items obtained according to given data source <code>configuration</code>, in the same
+	 * order used to load the items.
+	 * @param configuration Query configuration
+	 * @param offset Zero-based offset of the first item id to load
+	 * @param limit Limit the fetched result set to given max value
+	 * @return Item ids stream
+	 * @throws UnsupportedOperationException If {@link #canLoadItemIds()} returns <code>false</code>
+	 * @throws DataAccessException Error accessing underlying data store
+	 */
+	Stream<?> loadItemIds(QueryConfigurationProvider configuration, int offset, int limit)
+			throws UnsupportedOperationException, DataAccessException;
+
+}
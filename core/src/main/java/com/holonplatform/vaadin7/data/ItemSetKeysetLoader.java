@@ -0,0 +1,66 @@
+/*
+ * Copyright 2000-2017 Holon TDCN.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.data;
+
+import java.io.Serializable;
+import java.util.stream.Stream;
+
+import com.holonplatform.core.exceptions.DataAccessException;
+import com.holonplatform.core.query.QueryConfigurationProvider;
+
+/**
+ * Data interface to load a set of items using <em>keyset</em> (seek) pagination: instead of skipping the first
+ * <code>offset</code> results, the items which follow a known item (the <em>anchor</em>) in the query sort order are
+ * loaded, using the anchor sort key values as query restrictions.
+ * <p>
+ * Can be implemented by an {@link ItemDataProvider} to let the item stores page through the items set using keyset
+ * pagination when the item which precedes the page to load is known.
+ * </p>
+ * 
+ * @param <ITEM> Item type
+ *
+ * @since 5.2.5
+ */
+public interface ItemSetKeysetLoader<ITEM> extends Serializable {
+
+	/**
+	 * Get the keyset of given item, i.e. an object which holds the item values used to sort the items set, which can
+	 * be used as anchor to load the items which follow the given item.
+	 * @param configuration Query configuration
+	 * @param item The item for which to obtain the keyset
+	 * @return The item keyset, <code>null</code> if not available for given item and configuration
+	 */
+	Object getKeyset(QueryConfigurationProvider configuration, ITEM item);
+
+	/**
+	 * Load items according to given data source <code>configuration</code>, starting from the item which follows the
+	 * item identified by given <code>keyset</code> in the query sort order.
+	 * <p>
+	 * If the <code>keyset</code> is <code>null</code> or it is not consistent with given configuration, the
+	 * <code>offset</code> must be used instead to load the items.
+	 * </p>
+	 * @param configuration Query configuration
+	 * @param offset Zero-based offset of the first item to load
+	 * @param limit Limit the fetched result set to given max value
+	 * @param keyset The keyset of the item at <code>offset - 1</code>, obtained through
+	 *        {@link #getKeyset(QueryConfigurationProvider, Object)} (may be null)
+	 * @return Items stream
+	 * @throws DataAccessException Error accessing underlying data store
+	 */
+	Stream<ITEM> load(QueryConfigurationProvider configuration, int offset, int limit, Object keyset)
+			throws DataAccessException;
+
+}
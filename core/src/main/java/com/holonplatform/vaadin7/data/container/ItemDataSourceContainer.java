@@ -19,6 +19,8 @@ import com.holonplatform.core.query.QueryConfigurationProvider;
 import com.holonplatform.core.query.QueryFilter;
 import com.holonplatform.core.query.QuerySort;
 import com.holonplatform.vaadin7.Registration;
+import com.holonplatform.vaadin7.data.ItemCachePolicy;
+import com.holonplatform.vaadin7.data.ItemCacheStatistics;
 import com.holonplatform.vaadin7.data.ItemDataProvider;
 import com.holonplatform.vaadin7.data.ItemDataSource;
 import com.holonplatform.vaadin7.data.container.ItemDataSourceContainerBuilder.BaseItemDataSourceContainerBuilder;
@@ -64,6 +66,21 @@ public interface ItemDataSourceContainer<ITEM, PROPERTY> extends ItemDataSource<
 	 */
 	void setMaxCacheSize(int maxCacheSize);
 
+	/**
+	 * Set the items cache policy. Changing the cache policy clears the items cache.
+	 * @param cachePolicy The cache policy to set (not null)
+	 * @since 5.2.5
+	 */
+	void setCachePolicy(ItemCachePolicy cachePolicy);
+
+	/**
+	 * Get the items cache usage statistics, i.e. the cache hit and miss counts, the hit ratio and the number of evicted
+	 * items.
+	 * @return the items cache statistics
+	 * @since 5.2.5
+	 */
+	ItemCacheStatistics getCacheStatistics();
+
 	/**
 	 * Adds an Item property to this container
 	 * @param <T> Property type
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2000-2017 Holon TDCN.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.components;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import com.holonplatform.core.internal.utils.ObjectUtils;
+
+/**
+ * An {@link InputStream} which provides a set of items as CSV (RFC 4180) using the <code>UTF-8</code> charset.
+ * <p>
+ * The rows are encoded lazily while the stream is read, one at a time, so only the current row is held in memory.
+ * </p>
+ * <p>
+ * The values which would be interpreted as a formula by a spreadsheet application, i.e. which start with
+ * <code>=</code>, <code>+</code>, <code>-</code>, <code>@</code>, a tab or a carriage return, are prefixed with a
+ * <code>'</code> to prevent CSV injection. Plain numbers, such as negative numbers, are not prefixed.
+ * </p>
+ * 
+ * @param <T> Item type
+ *
+ * @since 5.2.5
+ */
+public class CsvExportInputStream<T> extends InputStream {
+
+	private static final char SEPARATOR = ',';
+	private static final char QUOTE = '"';
+	private static final String LINE_SEPARATOR = "\r\n";
+	private static final char FORMULA_ESCAPE = '\'';
+	private static final Pattern NUMBER = Pattern.compile("[+-]?(\\d+([.,]\\d*)?|[.,]\\d+)([eE][+-]?\\d+)?");
+
+	private final Iterator<T> items;
+	private final List<String> headers;
+	private final List<Function<T, String>> renderers;
+	private final Runnable onClose;
+
+	/**
+	 * Current row bytes
+	 */
+	private byte[] row;
+
+	/**
+	 * Current row read position
+	 */
+	private int position = 0;
+
+	private boolean headersRead = false;
+	private boolean closed = false;
+
+	/**
+	 * Constructor
+	 * @param items Items to export (not null)
+	 * @param headers Column headers, written as first row if not <code>null</code>
+	 * @param renderers A function for each column to render the item value as String (not null)
+	 * @param onClose Action to perform when the stream is closed (may be null)
+	 */
+	public CsvExportInputStream(Iterator<T> items, List<String> headers, List<Function<T, String>> renderers,
+			Runnable onClose) {
+		super();
+		ObjectUtils.argumentNotNull(items, "Items iterator must be not null");
+		ObjectUtils.argumentNotNull(renderers, "Column renderers must be not null");
+		this.items = items;
+		this.headers = headers;
+		this.renderers = renderers;
+		this.onClose = onClose;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.io.InputStream#read()
+	 */
+	@Override
+	public int read() throws IOException {
+		if (!fill()) {
+			return -1;
+		}
+		return row[position++] & 0xFF;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.io.InputStream#read(byte[], int, int)
+	 */
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (off < 0 || len < 0 || len > b.length - off) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0) {
+			return 0;
+		}
+		int count = 0;
+		while (count < len && fill()) {
+			final int n = Math.min(len - count, row.length - position);
+			System.arraycopy(row, position, b, off + count, n);
+			position += n;
+			count += n;
+		}
+		return (count == 0) ? -1 : count;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.io.InputStream#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!closed) {
+			closed = true;
+			row = null;
+			if (onClose != null) {
+				onClose.run();
+			}
+		}
+	}
+
+	/**
+	 * Encode the next row if the current one was fully read.
+	 * @return <code>true</code> if there are bytes available to read, <code>false</code> if the end of the stream
+	 *         has been reached
+	 * @throws IOException If the stream was closed
+	 */
+	private boolean fill() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		while (row == null || position >= row.length) {
+			final StringBuilder sb = new StringBuilder();
+			if (!headersRead) {
+				headersRead = true;
+				if (headers == null) {
+					continue;
+				}
+				for (int i = 0; i < headers.size(); i++) {
+					appendValue(sb, i, headers.get(i));
+				}
+			} else if (items.hasNext()) {
+				final T item = items.next();
+				for (int i = 0; i < renderers.size(); i++) {
+					appendValue(sb, i, renderers.get(i).apply(item));
+				}
+			} else {
+				return false;
+			}
+			sb.append(LINE_SEPARATOR);
+			row = sb.toString().getBytes(StandardCharsets.UTF_8);
+			position = 0;
+		}
+		return true;
+	}
+
+	/**
+	 * Append a value to given row, escaping it if required.
+	 * @param row Row
+	 * @param column Column index
+	 * @param value Value to append (may be null)
+	 */
+	private static void appendValue(StringBuilder row, int column, String value) {
+		if (column > 0) {
+			row.append(SEPARATOR);
+		}
+		if (value != null) {
+			row.append(escape(sanitize(value)));
+		}
+	}
+
+	/**
+	 * Prefix given value with a <code>'</code> if it would be interpreted as a formula by a spreadsheet application.
+	 * @param value Value to sanitize (not null)
+	 * @return Sanitized value
+	 */
+	protected static String sanitize(String value) {
+		if (value.isEmpty()) {
+			return value;
+		}
+		switch (value.charAt(0)) {
+		case '=':
+		case '@':
+		case '\t':
+		case '\r':
+			return FORMULA_ESCAPE + value;
+		case '+':
+		case '-':
+			return NUMBER.matcher(value).matches() ? value : FORMULA_ESCAPE + value;
+		default:
+			return value;
+		}
+	}
+
+	/**
+	 * Escape given value according to RFC 4180: values which contain a separator, a quote or a line break are
+	 * enclosed in quotes, and any quote is doubled.
+	 * @param value Value to escape (not null)
+	 * @return Escaped value
+	 */
+	protected static String escape(String value) {
+		boolean quote = false;
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (c == SEPARATOR || c == QUOTE || c == '\r' || c == '\n') {
+				quote = true;
+				break;
+			}
+		}
+		if (!quote) {
+			return value;
+		}
+		final StringBuilder sb = new StringBuilder(value.length() + 8);
+		sb.append(QUOTE);
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (c == QUOTE) {
+				sb.append(QUOTE);
+			}
+			sb.append(c);
+		}
+		sb.append(QUOTE);
+		return sb.toString();
+	}
+
+}
@@ -52,4 +52,17 @@ public class DefaultBeanListing<T> extends DefaultItemListing<T, String> impleme
 		return column;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.components.DefaultItemListing#getExportValue(java.lang.Object,
+	 * java.lang.Object)
+	 */
+	@Override
+	protected Object getExportValue(T item, String property) {
+		if (item != null && propertySet != null && propertySet.getProperty(property).isPresent()) {
+			return propertySet.read(property, item);
+		}
+		return super.getExportValue(item, property);
+	}
+
 }
@@ -15,6 +15,9 @@
  */
 package com.holonplatform.vaadin7.internal.components;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -22,9 +25,13 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import com.holonplatform.core.i18n.LocalizationContext;
 import com.holonplatform.core.internal.Logger;
@@ -40,6 +47,7 @@ import com.holonplatform.vaadin7.components.ItemListing;
 import com.holonplatform.vaadin7.components.Selectable;
 import com.holonplatform.vaadin7.data.ItemDataSource;
 import com.holonplatform.vaadin7.data.ItemDataSource.ItemSort;
+import com.holonplatform.vaadin7.data.ItemSetDelta;
 import com.holonplatform.vaadin7.internal.VaadinLogger;
 import com.holonplatform.vaadin7.internal.converters.FontIconPresentationConverter;
 import com.holonplatform.vaadin7.internal.converters.PropertyPresentationConverter;
@@ -53,9 +61,11 @@ import com.vaadin.data.fieldgroup.FieldGroup;
 import com.vaadin.data.fieldgroup.FieldGroup.CommitException;
 import com.vaadin.data.sort.Sort;
 import com.vaadin.data.util.converter.Converter;
+import com.vaadin.data.util.converter.Converter.ConversionException;
 import com.vaadin.event.ItemClickEvent;
 import com.vaadin.server.ExternalResource;
 import com.vaadin.server.FontIcon;
+import com.vaadin.server.StreamResource;
 import com.vaadin.server.ThemeResource;
 import com.vaadin.shared.MouseEventDetails;
 import com.vaadin.shared.data.sort.SortDirection;
@@ -74,6 +84,7 @@ import com.vaadin.ui.Table.Align;
 import com.vaadin.ui.Table.ColumnGenerator;
 import com.vaadin.ui.Table.ColumnHeaderMode;
 import com.vaadin.ui.TableFieldFactory;
+import com.vaadin.ui.UI;
 import com.vaadin.ui.renderers.HtmlRenderer;
 import com.vaadin.ui.renderers.ImageRenderer;
 import com.vaadin.ui.renderers.Renderer;
@@ -97,6 +108,16 @@ public class DefaultItemListing<T, P> extends CustomComponent
 	 */
 	private static final Logger LOGGER = VaadinLogger.create();
 
+	/**
+	 * Number of items to load for each data source query when exporting the listing items
+	 */
+	private static final int EXPORT_CHUNK_SIZE = 1000;
+
+	/**
+	 * Export copy buffer size
+	 */
+	private static final int EXPORT_BUFFER_SIZE = 8192;
+
 	/**
 	 * Listing rendering mode
 	 */
@@ -169,6 +190,11 @@ public class DefaultItemListing<T, P> extends CustomComponent
 	 */
 	private boolean duringSetup = false;
 
+	/**
+	 * Executor to use to refresh the listing items in background
+	 */
+	private transient Executor backgroundRefreshExecutor;
+
 	@SuppressWarnings("serial")
 	public DefaultItemListing(RenderingMode renderingMode) {
 		super();
@@ -393,7 +419,20 @@ public class DefaultItemListing<T, P> extends CustomComponent
 	 */
 	@Override
 	public void refresh() {
-		requireDataSource().refresh();
+		final Executor executor = getBackgroundRefreshExecutor();
+		final UI ui = getUI();
+		if (executor != null && ui != null) {
+			// keep current rows displayed while reloading data in background
+			requireDataSource().revalidate(executor, r -> ui.access(r)).whenComplete((updated, error) -> {
+				if (error != null) {
+					LOGGER.error("Failed to refresh listing items in background", error);
+				} else {
+					refreshRows(updated);
+				}
+			});
+		} else {
+			requireDataSource().refresh();
+		}
 	}
 
 	/*
@@ -992,6 +1031,193 @@ public class DefaultItemListing<T, P> extends CustomComponent
 		return requireDataSource().isBuffered();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.ItemListing#applyChanges(com.holonplatform.vaadin7.data.ItemSetDelta)
+	 */
+	@Override
+	public void applyChanges(ItemSetDelta<T> delta) {
+		refreshRows(requireDataSource().applyChanges(delta));
+	}
+
+	/**
+	 * Refresh the rows bound to given item ids.
+	 * @param itemIds The ids of the items to refresh
+	 */
+	protected void refreshRows(Collection<?> itemIds) {
+		if (itemIds != null && !itemIds.isEmpty()) {
+			switch (getRenderingMode()) {
+			case GRID:
+				getGrid().refreshRows(itemIds.toArray());
+				break;
+			case TABLE:
+				getTable().refreshRowCache();
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.ItemListing#exportCsv(java.io.OutputStream)
+	 */
+	@Override
+	public void exportCsv(OutputStream outputStream) throws IOException {
+		ObjectUtils.argumentNotNull(outputStream, "OutputStream must be not null");
+		try (InputStream csv = createCsvExportStream()) {
+			final byte[] buffer = new byte[EXPORT_BUFFER_SIZE];
+			int read;
+			while ((read = csv.read(buffer)) != -1) {
+				outputStream.write(buffer, 0, read);
+			}
+		}
+		outputStream.flush();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.ItemListing#getCsvExportResource(java.lang.String)
+	 */
+	@Override
+	public StreamResource getCsvExportResource(String fileName) {
+		ObjectUtils.argumentNotNull(fileName, "File name must be not null");
+		final StreamResource resource = new StreamResource(() -> createCsvExportStream(), fileName);
+		resource.setMIMEType("text/csv; charset=UTF-8");
+		resource.setCacheTime(0);
+		return resource;
+	}
+
+	/**
+	 * Create an {@link InputStream} which provides the listing items as CSV.
+	 * <p>
+	 * The exported columns, their headers and value renderers are obtained when this method is invoked, while the
+	 * items are loaded from the data source and encoded lazily as the stream is read, so the returned stream can be
+	 * consumed outside the UI session lock.
+	 * </p>
+	 * @return The CSV input stream
+	 */
+	protected InputStream createCsvExportStream() {
+		final List<String> headers = new ArrayList<>();
+		final List<Function<T, String>> renderers = new ArrayList<>();
+		for (P property : getPropertyColumns()) {
+			if (isExportedPropertyColumn(property)) {
+				headers.add(getExportHeader(property));
+				renderers.add(getExportRenderer(property));
+			}
+		}
+		final Stream<T> items = requireDataSource().stream(EXPORT_CHUNK_SIZE);
+		return new CsvExportInputStream<>(items.iterator(), headers, renderers, items::close);
+	}
+
+	/**
+	 * Checks whether given property column has to be exported, i.e. it is visible and it does not display a
+	 * {@link Component}.
+	 * @param property Property column
+	 * @return <code>true</code> if the column has to be exported
+	 */
+	protected boolean isExportedPropertyColumn(P property) {
+		final Class<?> type = getPropertyColumnType(property);
+		if (type != null && Component.class.isAssignableFrom(type)) {
+			return false;
+		}
+		switch (getRenderingMode()) {
+		case GRID:
+			return !getGrid().getColumn(property).isHidden();
+		case TABLE:
+			return !getTable().isColumnCollapsed(property);
+		default:
+			return true;
+		}
+	}
+
+	/**
+	 * Get the header to use for given property column when exporting the listing items.
+	 * @param property Property column
+	 * @return The column header
+	 */
+	protected String getExportHeader(P property) {
+		String header = null;
+		switch (getRenderingMode()) {
+		case GRID:
+			header = getGrid().getColumn(property).getHeaderCaption();
+			break;
+		case TABLE:
+			header = getTable().getColumnHeader(property);
+			break;
+		default:
+			break;
+		}
+		return (header != null) ? header : String.valueOf(property);
+	}
+
+	/**
+	 * Get the function to use to render the values of given property column as String when exporting the listing
+	 * items. The column converter is used if available, falling back to the property presentation.
+	 * @param property Property column
+	 * @return The column value renderer
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	protected Function<T, String> getExportRenderer(final P property) {
+		Converter<?, ?> converter = null;
+		switch (getRenderingMode()) {
+		case GRID:
+			converter = getGrid().getColumn(property).getConverter();
+			break;
+		case TABLE:
+			converter = getTable().getConverter(property);
+			break;
+		default:
+			break;
+		}
+		final Converter presentationConverter = converter;
+		final Locale locale = getLocale();
+		return item -> {
+			final Object value = getExportValue(item, property);
+			if (presentationConverter != null) {
+				try {
+					final Object presentation = presentationConverter.convertToPresentation(value,
+							presentationConverter.getPresentationType(), locale);
+					return (presentation != null) ? String.valueOf(presentation) : null;
+				} catch (ConversionException e) {
+					LOGGER.debug(() -> "Failed to convert value of property [" + property + "] for export", e);
+				}
+			}
+			if (value == null) {
+				return null;
+			}
+			if (property instanceof Property) {
+				return ((Property) property).present(value);
+			}
+			return String.valueOf(value);
+		};
+	}
+
+	/**
+	 * Get the value of given property for given item when exporting the listing items.
+	 * <p>
+	 * By default, the value is obtained if the item is a {@link PropertyBox} and the property is a {@link Property},
+	 * using the {@link PropertyValueProvider} for {@link VirtualProperty}s not contained in the property box.
+	 * </p>
+	 * @param item Item
+	 * @param property Property
+	 * @return The property value, <code>null</code> if not available
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	protected Object getExportValue(T item, P property) {
+		if (item instanceof PropertyBox && property instanceof Property) {
+			final PropertyBox propertyBox = (PropertyBox) item;
+			if (propertyBox.contains((Property) property)) {
+				return propertyBox.getValue((Property) property);
+			}
+			if (property instanceof VirtualProperty && ((VirtualProperty) property).getValueProvider() != null) {
+				return ((VirtualProperty) property).getValueProvider().getPropertyValue(propertyBox);
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Add a {@link RowStyleGenerator}
 	 * @param rowStyleGenerator Generator to add (not null)
@@ -1232,6 +1458,27 @@ public class DefaultItemListing<T, P> extends CustomComponent
 		this.commitOnSave = commitOnSave;
 	}
 
+	/**
+	 * Get the executor to use to refresh the listing items in background.
+	 * @return the background refresh executor, <code>null</code> if the listing items are refreshed synchronously
+	 */
+	public Executor getBackgroundRefreshExecutor() {
+		return backgroundRefreshExecutor;
+	}
+
+	/**
+	 * Set the executor to use to refresh the listing items in background when {@link #refresh()} is invoked.
+	 * <p>
+	 * The current rows remain displayed while the items are reloaded, and the fresh data is applied using
+	 * {@link UI#access(Runnable)}: server push or polling must be enabled for the changes to reach the client.
+	 * </p>
+	 * @param backgroundRefreshExecutor the executor to set, <code>null</code> to refresh the listing items
+	 *        synchronously
+	 */
+	public void setBackgroundRefreshExecutor(Executor backgroundRefreshExecutor) {
+		this.backgroundRefreshExecutor = backgroundRefreshExecutor;
+	}
+
 	/**
 	 * Check whether to call commit() on data source container when a row is removed using
 	 * {@link ItemDataSource#remove(Object)}.
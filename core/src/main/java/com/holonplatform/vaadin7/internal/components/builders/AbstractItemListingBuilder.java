@@ -17,6 +17,8 @@ package com.holonplatform.vaadin7.internal.components.builders;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import com.holonplatform.core.Path;
 import com.holonplatform.core.i18n.Localizable;
@@ -37,6 +39,8 @@ import com.holonplatform.vaadin7.components.Selectable.SelectionListener;
 import com.holonplatform.vaadin7.components.Selectable.SelectionMode;
 import com.holonplatform.vaadin7.components.builders.ComponentPostProcessor;
 import com.holonplatform.vaadin7.components.builders.ItemListingBuilder;
+import com.holonplatform.vaadin7.data.ItemCachePolicy;
+import com.holonplatform.vaadin7.data.ItemDataMetricsListener;
 import com.holonplatform.vaadin7.data.ItemDataProvider;
 import com.holonplatform.vaadin7.data.ItemIdentifierProvider;
 import com.holonplatform.vaadin7.data.ItemDataSource.CommitHandler;
@@ -46,6 +50,7 @@ import com.holonplatform.vaadin7.data.container.ItemDataSourceContainer;
 import com.holonplatform.vaadin7.data.container.ItemDataSourceContainerBuilder.BaseItemDataSourceContainerBuilder;
 import com.holonplatform.vaadin7.internal.components.DefaultItemListing;
 import com.holonplatform.vaadin7.internal.data.container.BeanItemAdapter;
+import com.holonplatform.vaadin7.internal.data.container.DefaultItemDataSourceContainer;
 import com.vaadin.ui.Component;
 import com.vaadin.ui.Field;
 
@@ -212,6 +217,83 @@ public abstract class AbstractItemListingBuilder<T, P, C extends ItemListing<T,
 		return builder();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.builders.BaseItemDataSourceComponentBuilder#prefetch(java.util.concurrent.
+	 * Executor)
+	 */
+	@Override
+	public B prefetch(Executor executor) {
+		dataSourceBuilder.prefetch(executor);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.builders.BaseItemDataSourceComponentBuilder#firstBatchConcurrently(java.
+	 * util.concurrent.Executor)
+	 */
+	@Override
+	public B firstBatchConcurrently(Executor executor) {
+		dataSourceBuilder.firstBatchConcurrently(executor);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.builders.BaseItemDataSourceComponentBuilder#loadTimeout(long,
+	 * java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public B loadTimeout(long timeout, TimeUnit unit) {
+		dataSourceBuilder.loadTimeout(timeout, unit);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.builders.BaseItemDataSourceComponentBuilder#adaptiveBatchSize(int,
+	 * int)
+	 */
+	@Override
+	public B adaptiveBatchSize(int minBatchSize, int maxBatchSize) {
+		dataSourceBuilder.adaptiveBatchSize(minBatchSize, maxBatchSize);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.builders.BaseItemDataSourceComponentBuilder#metrics(com.holonplatform.
+	 * vaadin7.data.ItemDataMetricsListener)
+	 */
+	@Override
+	public B metrics(ItemDataMetricsListener listener) {
+		dataSourceBuilder.metrics(listener);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.builders.BaseItemDataSourceComponentBuilder#metricsTag(java.lang.String,
+	 * java.lang.String)
+	 */
+	@Override
+	public B metricsTag(String name, String value) {
+		dataSourceBuilder.metricsTag(name, value);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.builders.BaseItemDataSourceComponentBuilder#cachePolicy(com.
+	 * holonplatform.vaadin7.data.ItemCachePolicy)
+	 */
+	@Override
+	public B cachePolicy(ItemCachePolicy cachePolicy) {
+		dataSourceBuilder.cachePolicy(cachePolicy);
+		return builder();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see
@@ -400,6 +482,18 @@ public abstract class AbstractItemListingBuilder<T, P, C extends ItemListing<T,
 		return builder();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.builders.ItemListingBuilder#refreshInBackground(java.util.concurrent.
+	 * Executor)
+	 */
+	@Override
+	public B refreshInBackground(Executor executor) {
+		ObjectUtils.argumentNotNull(executor, "Executor must be not null");
+		getInstance().setBackgroundRefreshExecutor(executor);
+		return builder();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see
@@ -573,6 +667,11 @@ public abstract class AbstractItemListingBuilder<T, P, C extends ItemListing<T,
 		ItemDataSourceContainer<T, P> dataSource = dataSourceBuilder.build();
 		listing.setDataSource(dataSource);
 
+		// metrics attach and detach
+		if (dataSource instanceof DefaultItemDataSourceContainer) {
+			((DefaultItemDataSourceContainer<?, ?>) dataSource).bindMetrics(listing);
+		}
+
 		// visible columns
 		listing.setPropertyColumns(
 				(visibleColumns != null) ? visibleColumns : dataSource.getConfiguration().getProperties());
@@ -17,6 +17,8 @@ package com.holonplatform.vaadin7.internal.components.builders;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import com.holonplatform.core.i18n.Localizable;
 import com.holonplatform.core.query.QueryConfigurationProvider;
@@ -27,10 +29,13 @@ import com.holonplatform.vaadin7.components.ItemSet.ItemCaptionGenerator;
 import com.holonplatform.vaadin7.components.ItemSet.ItemIconGenerator;
 import com.holonplatform.vaadin7.components.builders.BaseSelectInputBuilder;
 import com.holonplatform.vaadin7.components.builders.SelectInputBuilder;
+import com.holonplatform.vaadin7.data.ItemCachePolicy;
+import com.holonplatform.vaadin7.data.ItemDataMetricsListener;
 import com.holonplatform.vaadin7.data.container.ItemDataSourceContainer;
 import com.holonplatform.vaadin7.data.container.ItemDataSourceContainerBuilder.BaseItemDataSourceContainerBuilder;
 import com.holonplatform.vaadin7.internal.components.AbstractSelectField;
 import com.holonplatform.vaadin7.internal.data.container.BeanItemAdapter;
+import com.holonplatform.vaadin7.internal.data.container.DefaultItemDataSourceContainer;
 import com.vaadin.server.Resource;
 import com.vaadin.ui.Field;
 
@@ -148,6 +153,83 @@ public abstract class AbstractSelectFieldBuilder<T, C extends Input<T>, S, ITEM,
 		return builder();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.builders.BaseItemDataSourceComponentBuilder#prefetch(java.util.concurrent.
+	 * Executor)
+	 */
+	@Override
+	public B prefetch(Executor executor) {
+		dataSourceBuilder.prefetch(executor);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.builders.BaseItemDataSourceComponentBuilder#firstBatchConcurrently(java.
+	 * util.concurrent.Executor)
+	 */
+	@Override
+	public B firstBatchConcurrently(Executor executor) {
+		dataSourceBuilder.firstBatchConcurrently(executor);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.builders.BaseItemDataSourceComponentBuilder#loadTimeout(long,
+	 * java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public B loadTimeout(long timeout, TimeUnit unit) {
+		dataSourceBuilder.loadTimeout(timeout, unit);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.builders.BaseItemDataSourceComponentBuilder#adaptiveBatchSize(int,
+	 * int)
+	 */
+	@Override
+	public B adaptiveBatchSize(int minBatchSize, int maxBatchSize) {
+		dataSourceBuilder.adaptiveBatchSize(minBatchSize, maxBatchSize);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.builders.BaseItemDataSourceComponentBuilder#metrics(com.holonplatform.
+	 * vaadin7.data.ItemDataMetricsListener)
+	 */
+	@Override
+	public B metrics(ItemDataMetricsListener listener) {
+		dataSourceBuilder.metrics(listener);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.builders.BaseItemDataSourceComponentBuilder#metricsTag(java.lang.String,
+	 * java.lang.String)
+	 */
+	@Override
+	public B metricsTag(String name, String value) {
+		dataSourceBuilder.metricsTag(name, value);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.components.builders.BaseItemDataSourceComponentBuilder#cachePolicy(com.
+	 * holonplatform.vaadin7.data.ItemCachePolicy)
+	 */
+	@Override
+	public B cachePolicy(ItemCachePolicy cachePolicy) {
+		dataSourceBuilder.cachePolicy(cachePolicy);
+		return builder();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see
@@ -217,7 +299,12 @@ public abstract class AbstractSelectFieldBuilder<T, C extends Input<T>, S, ITEM,
 		} else {
 			// set data source
 			if (dataProviderConfigured) {
-				instance.setContainerDataSource(dataSourceBuilder.build());
+				final ItemDataSourceContainer<?, ?> dataSource = dataSourceBuilder.build();
+				instance.setContainerDataSource(dataSource);
+				// metrics attach and detach
+				if (dataSource instanceof DefaultItemDataSourceContainer) {
+					((DefaultItemDataSourceContainer<?, ?>) dataSource).bindMetrics(instance);
+				}
 			}
 		}
 	}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes the items batch size from the number of items actually requested by the client (i.e. the rows visible in
+ * the client viewport) and from the observed load latency per item, both tracked as exponential moving averages.
+ * <p>
+ * The batch size covers at least the requested items and, when the data provider is fast enough to load them within
+ * the target load time, up to {@link #MAX_VIEWPORTS} times the requested items, so that scrolling does not require a
+ * load for each page. The batch size is always bound to the configured min and max values, and it is rounded to a
+ * multiple of {@link #GRANULARITY} to avoid realigning the batches for minor changes.
+ * </p>
+ * <p>
+ * The load statistics may be updated concurrently by background loads.
+ * </p>
+ *
+ * @since 5.2.5
+ */
+public class AdaptiveBatchSize implements Serializable {
+
+	private static final long serialVersionUID = 2404521618424870211L;
+
+	/**
+	 * Default target load time in milliseconds
+	 */
+	public static final long DEFAULT_TARGET_LOAD_TIME = 200;
+
+	/**
+	 * Max batch size as multiple of the requested items
+	 */
+	public static final int MAX_VIEWPORTS = 4;
+
+	/**
+	 * Batch size granularity
+	 */
+	public static final int GRANULARITY = 10;
+
+	/**
+	 * Items cache size as multiple of the batch size
+	 */
+	public static final int CACHE_BATCHES = 10;
+
+	/**
+	 * Moving averages smoothing factor
+	 */
+	private static final double ALPHA = 0.2;
+
+	private final int initialBatchSize;
+	private final int minBatchSize;
+	private final int maxBatchSize;
+	private final long targetLoadTime;
+
+	/**
+	 * Moving average of the requested items, <code>0</code> if not available
+	 */
+	private double requestedItems = 0;
+
+	/**
+	 * Moving average of the load time per item in nanoseconds, <code>0</code> if not available
+	 */
+	private double itemLoadTime = 0;
+
+	/**
+	 * Current batch size
+	 */
+	private volatile int batchSize;
+
+	/**
+	 * Constructor using the default target load time.
+	 * @param initialBatchSize Batch size to use until the statistics are available
+	 * @param minBatchSize Min batch size (greater than 0)
+	 * @param maxBatchSize Max batch size (not less than the min batch size)
+	 */
+	public AdaptiveBatchSize(int initialBatchSize, int minBatchSize, int maxBatchSize) {
+		this(initialBatchSize, minBatchSize, maxBatchSize, DEFAULT_TARGET_LOAD_TIME);
+	}
+
+	/**
+	 * Constructor.
+	 * @param initialBatchSize Batch size to use until the statistics are available
+	 * @param minBatchSize Min batch size (greater than 0)
+	 * @param maxBatchSize Max batch size (not less than the min batch size)
+	 * @param targetLoadTime Target load time of a batch in milliseconds
+	 */
+	public AdaptiveBatchSize(int initialBatchSize, int minBatchSize, int maxBatchSize, long targetLoadTime) {
+		super();
+		if (minBatchSize <= 0) {
+			throw new IllegalArgumentException("Min batch size must be greater than 0");
+		}
+		if (maxBatchSize < minBatchSize) {
+			throw new IllegalArgumentException("Max batch size must be greater or equal to min batch size");
+		}
+		this.minBatchSize = minBatchSize;
+		this.maxBatchSize = maxBatchSize;
+		this.targetLoadTime = targetLoadTime;
+		this.initialBatchSize = clamp(initialBatchSize);
+		this.batchSize = this.initialBatchSize;
+	}
+
+	/**
+	 * Get the min batch size.
+	 * @return the min batch size
+	 */
+	public int getMinBatchSize() {
+		return minBatchSize;
+	}
+
+	/**
+	 * Get the max batch size.
+	 * @return the max batch size
+	 */
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	/**
+	 * Get the current batch size.
+	 * @return the batch size
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Get the items cache size which follows the current batch size.
+	 * @return the items cache size
+	 */
+	public int getCacheSize() {
+		return batchSize * CACHE_BATCHES;
+	}
+
+	/**
+	 * Record the number of items requested by the client in a single request.
+	 * @param count Requested items
+	 */
+	public synchronized void onItemsRequested(int count) {
+		if (count > 0) {
+			requestedItems = (requestedItems == 0) ? count : requestedItems + ALPHA * (count - requestedItems);
+			update();
+		}
+	}
+
+	/**
+	 * Record a load operation.
+	 * @param count Loaded items
+	 * @param duration Load duration in nanoseconds
+	 */
+	public synchronized void onLoad(int count, long duration) {
+		if (count > 0 && duration > 0) {
+			final double perItem = (double) duration / count;
+			itemLoadTime = (itemLoadTime == 0) ? perItem : itemLoadTime + ALPHA * (perItem - itemLoadTime);
+			update();
+		}
+	}
+
+	/**
+	 * Update the current batch size.
+	 */
+	private void update() {
+		final int viewport = (requestedItems > 0) ? (int) Math.ceil(requestedItems) : initialBatchSize;
+		int size = viewport * MAX_VIEWPORTS;
+		if (itemLoadTime > 0) {
+			// the items which can be loaded within the target load time
+			final long affordable = (long) (TimeUnit.MILLISECONDS.toNanos(targetLoadTime) / itemLoadTime);
+			size = (int) Math.max(viewport, Math.min(size, affordable));
+		}
+		batchSize = clamp(((size + GRANULARITY - 1) / GRANULARITY) * GRANULARITY);
+	}
+
+	/**
+	 * Bound given batch size to the min and max batch size.
+	 * @param size Batch size
+	 * @return The bounded batch size
+	 */
+	private int clamp(int size) {
+		return Math.max(minBatchSize, Math.min(maxBatchSize, size));
+	}
+
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2000-2017 Holon TDCN.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.holonplatform.core.datastore.DataTarget;
+import com.holonplatform.core.exceptions.DataAccessException;
+import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.holonplatform.core.query.QueryConfigurationProvider;
+import com.holonplatform.vaadin7.data.ItemDataProvider;
+import com.holonplatform.vaadin7.data.ItemIndexResolver;
+import com.holonplatform.vaadin7.data.ItemPageCache;
+import com.holonplatform.vaadin7.data.ItemSetIdLoader;
+import com.holonplatform.vaadin7.data.ItemSetKeysetLoader;
+
+/**
+ * An {@link ItemDataProvider} which uses a {@link DefaultItemPageCache} to obtain the item pages and counts, using a
+ * concrete {@link ItemDataProvider} to load them when not available in cache.
+ * <p>
+ * The {@link ItemSetKeysetLoader}, {@link ItemIndexResolver} and {@link ItemSetIdLoader} capabilities of the concrete
+ * data provider are preserved: a keyset page load is bound to the same cache entry of the offset page load, since it
+ * provides the same items, while the item ids loads and the item index resolutions are not cached.
+ * </p>
+ * <p>
+ * The cache is not serialized: after deserialization, the concrete data provider is used directly.
+ * </p>
+ * 
+ * @param <ITEM> Item type
+ *
+ * @since 5.2.5
+ */
+public class CachingItemDataProvider<ITEM>
+		implements ItemDataProvider<ITEM>, ItemSetKeysetLoader<ITEM>, ItemIndexResolver, ItemSetIdLoader {
+
+	private static final long serialVersionUID = 3302556941452785620L;
+
+	/**
+	 * Page cache
+	 */
+	private final transient DefaultItemPageCache cache;
+
+	/**
+	 * Concrete data provider
+	 */
+	private final ItemDataProvider<ITEM> provider;
+
+	/**
+	 * Concrete data provider identity
+	 */
+	private final transient Object providerIdentity;
+
+	/**
+	 * Data target
+	 */
+	private final DataTarget<?> target;
+
+	/**
+	 * Items discriminator
+	 */
+	private final Object discriminator;
+
+	/**
+	 * Item copier
+	 */
+	private final transient UnaryOperator<ITEM> copier;
+
+	/**
+	 * Constructor
+	 * @param cache Page cache (not null)
+	 * @param provider Concrete data provider (not null)
+	 * @param target Data target (not null)
+	 * @param discriminator Value which discriminates the items of the same data target, for example the item
+	 *        properties (not null)
+	 * @param copier Item copier (not null)
+	 */
+	public CachingItemDataProvider(DefaultItemPageCache cache, ItemDataProvider<ITEM> provider,
+			DataTarget<?> target, Object discriminator, UnaryOperator<ITEM> copier) {
+		super();
+		ObjectUtils.argumentNotNull(cache, "ItemPageCache must be not null");
+		ObjectUtils.argumentNotNull(provider, "ItemDataProvider must be not null");
+		ObjectUtils.argumentNotNull(target, "DataTarget must be not null");
+		ObjectUtils.argumentNotNull(discriminator, "Items discriminator must be not null");
+		ObjectUtils.argumentNotNull(copier, "Item copier must be not null");
+		this.cache = cache;
+		this.provider = provider;
+		this.providerIdentity = DefaultItemPageCache.getProviderIdentity(provider);
+		this.target = target;
+		this.discriminator = discriminator;
+		this.copier = copier;
+	}
+
+	/**
+	 * Get the page cache.
+	 * @return the page cache, empty if not available
+	 */
+	public Optional<ItemPageCache> getCache() {
+		return Optional.ofNullable(cache);
+	}
+
+	/**
+	 * Get the concrete data provider.
+	 * @return the concrete data provider
+	 */
+	public ItemDataProvider<ITEM> getProvider() {
+		return provider;
+	}
+
+	/**
+	 * Remove all the cached entries bound to the data target of this data provider.
+	 */
+	public void invalidate() {
+		if (cache != null) {
+			cache.invalidate(target);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetCounter#size(com.holonplatform.core.query.QueryConfigurationProvider)
+	 */
+	@Override
+	public long size(QueryConfigurationProvider configuration) throws DataAccessException {
+		if (cache != null) {
+			final QueryFingerprint fingerprint = QueryFingerprint.of(discriminator, configuration.getQueryFilter(),
+					configuration.getQueryParameters()).orElse(null);
+			if (fingerprint != null) {
+				return cache.get(providerIdentity, DefaultItemPageCache.getTargetName(target), fingerprint,
+						() -> Long.valueOf(provider.size(configuration)));
+			}
+		}
+		return provider.size(configuration);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetLoader#load(com.holonplatform.core.query.QueryConfigurationProvider,
+	 * int, int)
+	 */
+	@Override
+	public Stream<ITEM> load(QueryConfigurationProvider configuration, int offset, int limit)
+			throws DataAccessException {
+		return load(configuration, offset, limit, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetKeysetLoader#load(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, int, int, java.lang.Object)
+	 */
+	@Override
+	public Stream<ITEM> load(QueryConfigurationProvider configuration, int offset, int limit, Object keyset)
+			throws DataAccessException {
+		if (cache != null) {
+			final QueryFingerprint fingerprint = QueryFingerprint
+					.of(discriminator, configuration.getQueryFilter(), configuration.getQuerySort(),
+							configuration.getQueryParameters(), Integer.valueOf(offset), Integer.valueOf(limit))
+					.orElse(null);
+			if (fingerprint != null) {
+				final List<ITEM> items = cache.get(providerIdentity, DefaultItemPageCache.getTargetName(target),
+						fingerprint, () -> Collections.unmodifiableList(
+								loadPage(configuration, offset, limit, keyset).collect(Collectors.toList())));
+				return items.stream().map(copier);
+			}
+		}
+		return loadPage(configuration, offset, limit, keyset);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemDataProvider#refresh(java.lang.Object)
+	 */
+	@Override
+	public ITEM refresh(ITEM item) throws UnsupportedOperationException, DataAccessException {
+		return provider.refresh(item);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetKeysetLoader#getKeyset(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, java.lang.Object)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public Object getKeyset(QueryConfigurationProvider configuration, ITEM item) {
+		if (item != null && provider instanceof ItemSetKeysetLoader) {
+			return ((ItemSetKeysetLoader<ITEM>) provider).getKeyset(configuration, item);
+		}
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemIndexResolver#indexOfItem(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, java.lang.Object)
+	 */
+	@Override
+	public Optional<Integer> indexOfItem(QueryConfigurationProvider configuration, Object itemId)
+			throws DataAccessException {
+		if (provider instanceof ItemIndexResolver) {
+			return ((ItemIndexResolver) provider).indexOfItem(configuration, itemId);
+		}
+		return Optional.empty();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetIdLoader#canLoadItemIds()
+	 */
+	@Override
+	public boolean canLoadItemIds() {
+		return provider instanceof ItemSetIdLoader && ((ItemSetIdLoader) provider).canLoadItemIds();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetIdLoader#loadItemIds(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, int, int)
+	 */
+	@Override
+	public Stream<?> loadItemIds(QueryConfigurationProvider configuration, int offset, int limit)
+			throws UnsupportedOperationException, DataAccessException {
+		if (!canLoadItemIds()) {
+			throw new UnsupportedOperationException(
+					"The concrete item data provider does not support item ids loading");
+		}
+		return ((ItemSetIdLoader) provider).loadItemIds(configuration, offset, limit);
+	}
+
+	/**
+	 * Load the items using the concrete data provider, using given keyset if supported.
+	 * @param configuration Query configuration
+	 * @param offset Offset
+	 * @param limit Limit
+	 * @param keyset The keyset of the item at <code>offset - 1</code> (may be null)
+	 * @return Items stream
+	 * @throws DataAccessException Error accessing underlying data store
+	 */
+	@SuppressWarnings("unchecked")
+	private Stream<ITEM> loadPage(QueryConfigurationProvider configuration, int offset, int limit, Object keyset)
+			throws DataAccessException {
+		if (keyset != null && provider instanceof ItemSetKeysetLoader) {
+			return ((ItemSetKeysetLoader<ITEM>) provider).load(configuration, offset, limit, keyset);
+		}
+		return provider.load(configuration, offset, limit);
+	}
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.holonplatform.core.ParameterSet;
+import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.holonplatform.core.query.QueryConfigurationProvider;
+import com.holonplatform.core.query.QueryFilter;
+import com.holonplatform.core.query.QuerySort;
+import com.holonplatform.vaadin7.data.ItemLoadCancellation;
+
+/**
+ * A {@link QueryConfigurationProvider} which wraps the configuration of a single items count or load operation and
+ * acts as its {@link ItemLoadCancellation} token.
+ * <p>
+ * The operation is cancelled when {@link #cancel()} is invoked, when the <em>generation</em> flag it was created with
+ * is set (i.e. all the operations started before a store reset are superseded) or when the timeout expires.
+ * </p>
+ *
+ * @since 5.2.5
+ */
+public class CancellableQueryConfiguration implements QueryConfigurationProvider, ItemLoadCancellation {
+
+	/**
+	 * Actual configuration
+	 */
+	private final QueryConfigurationProvider configuration;
+
+	/**
+	 * Generation cancellation flag
+	 */
+	private final AtomicBoolean generation;
+
+	/**
+	 * Timeout in milliseconds, 0 for none
+	 */
+	private final long timeout;
+
+	/**
+	 * Operation start time in nanoseconds
+	 */
+	private final long startTime;
+
+	/**
+	 * Cancellation flag
+	 */
+	private volatile boolean cancelled = false;
+
+	/**
+	 * Constructor
+	 * @param configuration Actual query configuration (not null)
+	 * @param generation Generation cancellation flag (may be null)
+	 * @param timeout Operation timeout in milliseconds, <code>0</code> for none
+	 */
+	public CancellableQueryConfiguration(QueryConfigurationProvider configuration, AtomicBoolean generation,
+			long timeout) {
+		super();
+		ObjectUtils.argumentNotNull(configuration, "QueryConfigurationProvider must be not null");
+		this.configuration = configuration;
+		this.generation = generation;
+		this.timeout = Math.max(0, timeout);
+		this.startTime = System.nanoTime();
+	}
+
+	/**
+	 * Cancel the operation.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemLoadCancellation#isCancelled()
+	 */
+	@Override
+	public boolean isCancelled() {
+		return cancelled || (generation != null && generation.get()) || isTimedOut();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemLoadCancellation#isTimedOut()
+	 */
+	@Override
+	public boolean isTimedOut() {
+		return getRemainingTime() == 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemLoadCancellation#getRemainingTime()
+	 */
+	@Override
+	public long getRemainingTime() {
+		if (timeout <= 0) {
+			return -1;
+		}
+		return Math.max(0, timeout - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.core.query.QueryConfigurationProvider#getQueryFilter()
+	 */
+	@Override
+	public QueryFilter getQueryFilter() {
+		return configuration.getQueryFilter();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.core.query.QueryConfigurationProvider#getQuerySort()
+	 */
+	@Override
+	public QuerySort getQuerySort() {
+		return configuration.getQuerySort();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.core.query.QueryConfigurationProvider#getQueryParameters()
+	 */
+	@Override
+	public ParameterSet getQueryParameters() {
+		return configuration.getQueryParameters();
+	}
+
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.holonplatform.core.datastore.DataTarget;
+import com.holonplatform.core.exceptions.DataAccessException;
+import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.holonplatform.core.property.PropertyBox;
+import com.holonplatform.core.property.PropertySet;
+import com.holonplatform.core.query.QueryConfigurationProvider;
+import com.holonplatform.vaadin7.data.ItemDataProvider;
+import com.holonplatform.vaadin7.data.ItemIndexResolver;
+import com.holonplatform.vaadin7.data.ItemLoadCancellation;
+import com.holonplatform.vaadin7.data.ItemLoadCancellation.LoadCancelledException;
+import com.holonplatform.vaadin7.data.ItemSetIdLoader;
+import com.holonplatform.vaadin7.data.ItemSetKeysetLoader;
+
+/**
+ * An {@link ItemDataProvider} which coalesces identical concurrent count and load operations: while an operation
+ * with the same data target, items discriminator, filter, sort, parameters, offset and limit is in progress in any
+ * thread using the same concrete data provider instance, the operation is not performed again and the in-flight
+ * operation result is shared. The operations of distinct concrete data providers are never coalesced, since they may
+ * use different Datastores or apply their own restrictions.
+ * <p>
+ * The loaded items are shared among the concurrent callers, so each caller obtains a copy of them. The result is not
+ * cached once the operation is completed. Query configurations which cannot be fingerprinted, for example custom
+ * filter implementations, are not coalesced.
+ * </p>
+ * <p>
+ * The {@link ItemSetKeysetLoader}, {@link ItemIndexResolver} and {@link ItemSetIdLoader} capabilities of the concrete
+ * data provider are preserved: a keyset page load is coalesced with the offset page load of the same items, while
+ * the item ids loads and the item index resolutions are delegated to the concrete data provider.
+ * </p>
+ * <p>
+ * The item copier is not serialized: after deserialization, the concrete data provider is used directly.
+ * </p>
+ * 
+ * @param <ITEM> Item type
+ *
+ * @since 5.2.5
+ */
+public class CoalescingItemDataProvider<ITEM>
+		implements ItemDataProvider<ITEM>, ItemSetKeysetLoader<ITEM>, ItemIndexResolver, ItemSetIdLoader {
+
+	private static final long serialVersionUID = -2611536937484417254L;
+
+	/**
+	 * In-flight operations
+	 */
+	private static final ConcurrentMap<FlightKey, CompletableFuture<Object>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+	/**
+	 * Operation tokens
+	 */
+	private static final String COUNT = "count";
+	private static final String LOAD = "load";
+
+	/**
+	 * Concrete data provider
+	 */
+	private final ItemDataProvider<ITEM> provider;
+
+	/**
+	 * Data target name
+	 */
+	private final String target;
+
+	/**
+	 * Items discriminator
+	 */
+	private final Object discriminator;
+
+	/**
+	 * Item copier
+	 */
+	private final transient UnaryOperator<ITEM> copier;
+
+	/**
+	 * Constructor
+	 * @param provider Concrete data provider (not null)
+	 * @param target Data target (not null)
+	 * @param discriminator Value which discriminates the items of the same data target, for example the item
+	 *        properties (not null)
+	 * @param copier Item copier (not null)
+	 */
+	public CoalescingItemDataProvider(ItemDataProvider<ITEM> provider, DataTarget<?> target, Object discriminator,
+			UnaryOperator<ITEM> copier) {
+		super();
+		ObjectUtils.argumentNotNull(provider, "ItemDataProvider must be not null");
+		ObjectUtils.argumentNotNull(target, "DataTarget must be not null");
+		ObjectUtils.argumentNotNull(discriminator, "Items discriminator must be not null");
+		ObjectUtils.argumentNotNull(copier, "Item copier must be not null");
+		this.provider = provider;
+		this.target = target.fullName();
+		this.discriminator = discriminator;
+		this.copier = copier;
+	}
+
+	/**
+	 * Get the concrete data provider.
+	 * @return the concrete data provider
+	 */
+	public ItemDataProvider<ITEM> getProvider() {
+		return provider;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetCounter#size(com.holonplatform.core.query.QueryConfigurationProvider)
+	 */
+	@Override
+	public long size(QueryConfigurationProvider configuration) throws DataAccessException {
+		if (copier != null) {
+			final QueryFingerprint fingerprint = QueryFingerprint.of(target, discriminator, COUNT,
+					configuration.getQueryFilter(), configuration.getQueryParameters()).orElse(null);
+			if (fingerprint != null) {
+				return execute(new FlightKey(provider, fingerprint), configuration,
+						() -> Long.valueOf(provider.size(configuration))).longValue();
+			}
+		}
+		return provider.size(configuration);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetLoader#load(com.holonplatform.core.query.QueryConfigurationProvider,
+	 * int, int)
+	 */
+	@Override
+	public Stream<ITEM> load(QueryConfigurationProvider configuration, int offset, int limit)
+			throws DataAccessException {
+		return load(configuration, offset, limit, null);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetKeysetLoader#load(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, int, int, java.lang.Object)
+	 */
+	@Override
+	public Stream<ITEM> load(QueryConfigurationProvider configuration, int offset, int limit, Object keyset)
+			throws DataAccessException {
+		if (copier != null) {
+			final QueryFingerprint fingerprint = QueryFingerprint
+					.of(target, discriminator, LOAD, configuration.getQueryFilter(), configuration.getQuerySort(),
+							configuration.getQueryParameters(), Integer.valueOf(offset), Integer.valueOf(limit))
+					.orElse(null);
+			if (fingerprint != null) {
+				final List<ITEM> items = execute(new FlightKey(provider, fingerprint), configuration,
+						() -> Collections.unmodifiableList(
+								loadPage(configuration, offset, limit, keyset).collect(Collectors.toList())));
+				// the shared items are never returned
+				return items.stream().map(copier);
+			}
+		}
+		return loadPage(configuration, offset, limit, keyset);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemDataProvider#refresh(java.lang.Object)
+	 */
+	@Override
+	public ITEM refresh(ITEM item) throws UnsupportedOperationException, DataAccessException {
+		return provider.refresh(item);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetKeysetLoader#getKeyset(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, java.lang.Object)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public Object getKeyset(QueryConfigurationProvider configuration, ITEM item) {
+		if (item != null && provider instanceof ItemSetKeysetLoader) {
+			return ((ItemSetKeysetLoader<ITEM>) provider).getKeyset(configuration, item);
+		}
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemIndexResolver#indexOfItem(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, java.lang.Object)
+	 */
+	@Override
+	public Optional<Integer> indexOfItem(QueryConfigurationProvider configuration, Object itemId)
+			throws DataAccessException {
+		if (provider instanceof ItemIndexResolver) {
+			return ((ItemIndexResolver) provider).indexOfItem(configuration, itemId);
+		}
+		return Optional.empty();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetIdLoader#canLoadItemIds()
+	 */
+	@Override
+	public boolean canLoadItemIds() {
+		return provider instanceof ItemSetIdLoader && ((ItemSetIdLoader) provider).canLoadItemIds();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetIdLoader#loadItemIds(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, int, int)
+	 */
+	@Override
+	public Stream<?> loadItemIds(QueryConfigurationProvider configuration, int offset, int limit)
+			throws UnsupportedOperationException, DataAccessException {
+		if (!canLoadItemIds()) {
+			throw new UnsupportedOperationException(
+					"The concrete item data provider does not support item ids loading");
+		}
+		return ((ItemSetIdLoader) provider).loadItemIds(configuration, offset, limit);
+	}
+
+	/**
+	 * Load the items using the concrete data provider, using given keyset if supported.
+	 * @param configuration Query configuration
+	 * @param offset Offset
+	 * @param limit Limit
+	 * @param keyset The keyset of the item at <code>offset - 1</code> (may be null)
+	 * @return Items stream
+	 * @throws DataAccessException Error accessing underlying data store
+	 */
+	@SuppressWarnings("unchecked")
+	private Stream<ITEM> loadPage(QueryConfigurationProvider configuration, int offset, int limit, Object keyset)
+			throws DataAccessException {
+		if (keyset != null && provider instanceof ItemSetKeysetLoader) {
+			return ((ItemSetKeysetLoader<ITEM>) provider).load(configuration, offset, limit, keyset);
+		}
+		return provider.load(configuration, offset, limit);
+	}
+
+	/**
+	 * Execute given operation, or wait for the result of the identical in-flight operation, if any.
+	 * <p>
+	 * If the in-flight operation was cancelled by its caller (see {@link ItemLoadCancellation}), the operation is
+	 * performed again, unless it was cancelled for the current caller too.
+	 * </p>
+	 * @param <V> Result type
+	 * @param key Operation key
+	 * @param configuration Query configuration of the current caller
+	 * @param operation Operation
+	 * @return Operation result
+	 * @throws DataAccessException Operation error
+	 */
+	@SuppressWarnings("unchecked")
+	protected static <V> V execute(FlightKey key, QueryConfigurationProvider configuration,
+			Supplier<V> operation) throws DataAccessException {
+		final ItemLoadCancellation cancellation = ItemLoadCancellation.of(configuration).orElse(null);
+		final CompletableFuture<Object> flight = new CompletableFuture<>();
+		CompletableFuture<Object> inFlight;
+		while ((inFlight = IN_FLIGHT.putIfAbsent(key, flight)) != null) {
+			try {
+				return (V) await(inFlight, cancellation);
+			} catch (LoadCancelledException e) {
+				if (cancellation != null) {
+					cancellation.checkCancelled();
+				}
+				// cancelled by the caller which performed the operation: retry
+			}
+		}
+		try {
+			final V result = operation.get();
+			flight.complete(result);
+			return result;
+		} catch (RuntimeException | Error e) {
+			flight.completeExceptionally(e);
+			throw e;
+		} finally {
+			IN_FLIGHT.remove(key, flight);
+		}
+	}
+
+	/**
+	 * Wait for the completion of given in-flight operation, up to the remaining time of given cancellation token, if
+	 * any.
+	 * @param inFlight In-flight operation
+	 * @param cancellation Cancellation token of the current caller (may be null)
+	 * @return Operation result
+	 * @throws DataAccessException Operation error
+	 */
+	private static Object await(CompletableFuture<Object> inFlight, ItemLoadCancellation cancellation)
+			throws DataAccessException {
+		final long remainingTime = (cancellation != null) ? cancellation.getRemainingTime() : -1;
+		try {
+			return (remainingTime < 0) ? inFlight.join() : inFlight.get(remainingTime, TimeUnit.MILLISECONDS);
+		} catch (CompletionException | ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new DataAccessException(e.getCause());
+		} catch (TimeoutException e) {
+			throw new LoadCancelledException("Items load operation timed out");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DataAccessException(e);
+		}
+	}
+
+	/**
+	 * Create a coalescing {@link ItemDataProvider} for {@link PropertyBox} items.
+	 * @param provider Concrete data provider (not null)
+	 * @param target Data target (not null)
+	 * @param propertySet Item property set (not null)
+	 * @return A new {@link CoalescingItemDataProvider}
+	 */
+	public static CoalescingItemDataProvider<PropertyBox> create(ItemDataProvider<PropertyBox> provider,
+			DataTarget<?> target, PropertySet<?> propertySet) {
+		ObjectUtils.argumentNotNull(propertySet, "PropertySet must be not null");
+		return new CoalescingItemDataProvider<>(provider, target, DefaultItemPageCache.getDiscriminator(propertySet),
+				box -> box.cloneBox());
+	}
+
+	/**
+	 * In-flight operation key: the operation fingerprint bound to the identity of the concrete data provider which
+	 * performs it.
+	 */
+	protected static final class FlightKey {
+
+		private final ItemDataProvider<?> provider;
+		private final QueryFingerprint fingerprint;
+
+		/**
+		 * Constructor
+		 * @param provider Concrete data provider
+		 * @param fingerprint Operation fingerprint
+		 */
+		FlightKey(ItemDataProvider<?> provider, QueryFingerprint fingerprint) {
+			super();
+			this.provider = provider;
+			this.fingerprint = fingerprint;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(provider) + Objects.hashCode(fingerprint);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof FlightKey)) {
+				return false;
+			}
+			final FlightKey other = (FlightKey) obj;
+			return provider == other.provider && Objects.equals(fingerprint, other.fingerprint);
+		}
+
+	}
+
+}
@@ -0,0 +1,610 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.holonplatform.core.ConstantConverterExpression;
+import com.holonplatform.core.Path;
+import com.holonplatform.core.TypedExpression;
+import com.holonplatform.core.exceptions.DataAccessException;
+import com.holonplatform.core.internal.query.filter.AndFilter;
+import com.holonplatform.core.internal.query.filter.BetweenFilter;
+import com.holonplatform.core.internal.query.filter.NotFilter;
+import com.holonplatform.core.internal.query.filter.OperationQueryFilter;
+import com.holonplatform.core.internal.query.filter.OrFilter;
+import com.holonplatform.core.internal.query.filter.StringMatchFilter;
+import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.holonplatform.core.property.Property;
+import com.holonplatform.core.property.PropertyBox;
+import com.holonplatform.core.query.QueryConfigurationProvider;
+import com.holonplatform.core.query.QueryFilter;
+import com.holonplatform.core.query.QuerySort;
+import com.holonplatform.core.query.QuerySort.CompositeQuerySort;
+import com.holonplatform.core.query.QuerySort.PathQuerySort;
+import com.holonplatform.core.query.QuerySort.SortDirection;
+import com.holonplatform.vaadin7.data.ItemDataProvider;
+
+/**
+ * An {@link ItemDataProvider} which provides the items of an in-memory collection, evaluating the query filters and
+ * sorts in memory.
+ * <p>
+ * The filtered and sorted item positions are cached as an <code>int</code> array for each query configuration, so
+ * paging through the same query configuration only requires an array slice. The property values are read once for
+ * each filtered or sorted property and the property sort orders are computed lazily, once for each property, and
+ * then reused for any query configuration.
+ * </p>
+ * <p>
+ * The item collection is copied when the data provider is created, so subsequent modifications of the collection are
+ * not reflected by the data provider. The item values are cached too, so the collection items must not be modified:
+ * when an item copier is provided, a copy of the collection items is returned, so that the returned items can be
+ * modified (for example by a bound container). Otherwise, the collection items are returned and they must be treated
+ * as immutable.
+ * </p>
+ * 
+ * @param <ITEM> Item type
+ *
+ * @since 5.2.5
+ */
+public class CollectionItemDataProvider<ITEM> implements ItemDataProvider<ITEM> {
+
+	private static final long serialVersionUID = 6512917045402335434L;
+
+	/**
+	 * Max number of query configuration results to cache
+	 */
+	private static final int MAX_CACHED_QUERIES = 16;
+
+	/**
+	 * Items
+	 */
+	private final Object[] items;
+
+	/**
+	 * Item path values provider
+	 */
+	private final PathValueProvider<ITEM> valueProvider;
+
+	/**
+	 * Item copier, <code>null</code> to return the collection items
+	 */
+	private final UnaryOperator<ITEM> copier;
+
+	/**
+	 * Property values, by path name
+	 */
+	private transient Map<String, Object[]> values;
+
+	/**
+	 * Property sort ranks, by path name
+	 */
+	private transient Map<String, int[]> ranks;
+
+	/**
+	 * Query results, by query configuration
+	 */
+	private transient Map<QueryFingerprint, int[]> results;
+
+	/**
+	 * Constructor.
+	 * @param items Items (not null)
+	 * @param valueProvider Item path values provider (not null)
+	 */
+	public CollectionItemDataProvider(Collection<? extends ITEM> items, PathValueProvider<ITEM> valueProvider) {
+		this(items, valueProvider, null);
+	}
+
+	/**
+	 * Constructor.
+	 * @param items Items (not null)
+	 * @param valueProvider Item path values provider (not null)
+	 * @param copier The function to use to copy the collection items before returning them, <code>null</code> to
+	 *        return the collection items. Must be serializable if the data provider is serialized.
+	 */
+	public CollectionItemDataProvider(Collection<? extends ITEM> items, PathValueProvider<ITEM> valueProvider,
+			UnaryOperator<ITEM> copier) {
+		super();
+		ObjectUtils.argumentNotNull(items, "Items collection must be not null");
+		ObjectUtils.argumentNotNull(valueProvider, "PathValueProvider must be not null");
+		this.items = items.toArray();
+		this.valueProvider = valueProvider;
+		this.copier = copier;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetCounter#size(com.holonplatform.core.query.QueryConfigurationProvider)
+	 */
+	@Override
+	public long size(QueryConfigurationProvider configuration) throws DataAccessException {
+		return getResults(configuration).length;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetLoader#load(com.holonplatform.core.query.QueryConfigurationProvider,
+	 * int, int)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public Stream<ITEM> load(QueryConfigurationProvider configuration, int offset, int limit)
+			throws DataAccessException {
+		final int[] positions = getResults(configuration);
+		final int from = Math.min(Math.max(0, offset), positions.length);
+		final int to = (limit > 0) ? (int) Math.min(positions.length, (long) from + limit) : positions.length;
+		final Stream<ITEM> results = IntStream.range(from, to).mapToObj(i -> (ITEM) items[positions[i]]);
+		return (copier != null) ? results.map(copier) : results;
+	}
+
+	/**
+	 * The items are held in memory: when an item copier is available and the collection contains an item equal to
+	 * given item, a new copy of the collection item is returned, discarding any modification of given item. Otherwise,
+	 * the item itself is returned.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public ITEM refresh(ITEM item) throws UnsupportedOperationException, DataAccessException {
+		if (copier != null && item != null) {
+			for (Object candidate : items) {
+				if (item.equals(candidate)) {
+					return copier.apply((ITEM) candidate);
+				}
+			}
+		}
+		return item;
+	}
+
+	/**
+	 * Get the positions of the items which match given query configuration, in the query sort order.
+	 * @param configuration Query configuration (may be null)
+	 * @return The item positions
+	 * @throws DataAccessException If the query configuration cannot be evaluated in memory
+	 */
+	protected int[] getResults(QueryConfigurationProvider configuration) throws DataAccessException {
+		final QueryFilter filter = (configuration != null) ? configuration.getQueryFilter() : null;
+		final QuerySort sort = (configuration != null) ? configuration.getQuerySort() : null;
+		final Optional<QueryFingerprint> fingerprint = QueryFingerprint.of(filter, sort);
+		if (fingerprint.isPresent()) {
+			final Map<QueryFingerprint, int[]> cache = getResultsCache();
+			synchronized (cache) {
+				final int[] cached = cache.get(fingerprint.get());
+				if (cached != null) {
+					return cached;
+				}
+			}
+			final int[] computed = compute(filter, sort);
+			synchronized (cache) {
+				cache.put(fingerprint.get(), computed);
+			}
+			return computed;
+		}
+		return compute(filter, sort);
+	}
+
+	/**
+	 * Compute the positions of the items which match given filter, in given sort order.
+	 * @param filter Query filter (may be null)
+	 * @param sort Query sort (may be null)
+	 * @return The item positions
+	 * @throws DataAccessException If the filter or the sort cannot be evaluated in memory
+	 */
+	private int[] compute(QueryFilter filter, QuerySort sort) throws DataAccessException {
+		try {
+			int[] positions = (filter == null) ? IntStream.range(0, items.length).toArray()
+					: IntStream.range(0, items.length).filter(predicate(filter)).toArray();
+			if (sort != null) {
+				final List<PathQuerySort<?>> sorts = new ArrayList<>(2);
+				flatten(sort, sorts);
+				// stable sort by each path, starting from the least significant one
+				for (int i = sorts.size() - 1; i >= 0; i--) {
+					positions = sort(positions, sorts.get(i));
+				}
+			}
+			return positions;
+		} catch (ClassCastException e) {
+			throw new DataAccessException("Failed to evaluate the query configuration in memory", e);
+		}
+	}
+
+	/**
+	 * Stable sort given item positions by the values of a path.
+	 * @param positions Item positions
+	 * @param sort Path sort
+	 * @return Sorted positions
+	 */
+	private int[] sort(int[] positions, PathQuerySort<?> sort) {
+		final int[] rank = getRanks(sort.getPath());
+		final boolean descending = sort.getDirection() == SortDirection.DESCENDING;
+		final long[] keys = new long[positions.length];
+		for (int i = 0; i < positions.length; i++) {
+			final int r = descending ? Integer.MAX_VALUE - rank[positions[i]] : rank[positions[i]];
+			keys[i] = ((long) r << 32) | i;
+		}
+		Arrays.sort(keys);
+		final int[] sorted = new int[positions.length];
+		for (int i = 0; i < keys.length; i++) {
+			sorted[i] = positions[(int) keys[i]];
+		}
+		return sorted;
+	}
+
+	/**
+	 * Flatten given sort into a list of path sorts.
+	 * @param sort Query sort
+	 * @param sorts Path sorts
+	 */
+	private static void flatten(QuerySort sort, List<PathQuerySort<?>> sorts) {
+		if (sort instanceof PathQuerySort) {
+			sorts.add((PathQuerySort<?>) sort);
+		} else if (sort instanceof CompositeQuerySort) {
+			for (QuerySort child : ((CompositeQuerySort) sort).getComposition()) {
+				flatten(child, sorts);
+			}
+		} else {
+			throw new DataAccessException("Query sort not supported by the in-memory data provider: " + sort);
+		}
+	}
+
+	/**
+	 * Build a predicate to evaluate given filter on the item positions.
+	 * @param filter Query filter
+	 * @return The filter predicate
+	 */
+	@SuppressWarnings("rawtypes")
+	private IntPredicate predicate(QueryFilter filter) {
+		if (filter instanceof AndFilter) {
+			return ((AndFilter) filter).getComposition().stream().map(this::predicate).reduce(IntPredicate::and)
+					.orElse(i -> true);
+		}
+		if (filter instanceof OrFilter) {
+			return ((OrFilter) filter).getComposition().stream().map(this::predicate).reduce(IntPredicate::or)
+					.orElse(i -> false);
+		}
+		if (filter instanceof NotFilter) {
+			return predicate(((NotFilter) filter).getComposition().get(0)).negate();
+		}
+		if (filter instanceof OperationQueryFilter) {
+			return predicate((OperationQueryFilter<?>) filter);
+		}
+		throw new DataAccessException("Query filter not supported by the in-memory data provider: " + filter);
+	}
+
+	/**
+	 * Build a predicate to evaluate given operation filter on the item positions.
+	 * @param filter Operation filter
+	 * @return The filter predicate
+	 */
+	private IntPredicate predicate(OperationQueryFilter<?> filter) {
+		final Object[] left = getValues(path(filter.getLeftOperand(), filter));
+		switch (filter.getOperator()) {
+		case NULL:
+			return i -> left[i] == null;
+		case NOT_NULL:
+			return i -> left[i] != null;
+		case MATCH: {
+			final StringMatchFilter match = (StringMatchFilter) filter;
+			final boolean ignoreCase = match.isIgnoreCase();
+			final String value = ignoreCase ? match.getValue().toLowerCase() : match.getValue();
+			return i -> {
+				if (left[i] == null) {
+					return false;
+				}
+				final String v = ignoreCase ? left[i].toString().toLowerCase() : left[i].toString();
+				switch (match.getMatchMode()) {
+				case STARTS_WITH:
+					return v.startsWith(value);
+				case ENDS_WITH:
+					return v.endsWith(value);
+				case CONTAINS:
+				default:
+					return v.contains(value);
+				}
+			};
+		}
+		case BETWEEN: {
+			final Object from = ((BetweenFilter<?>) filter).getFromValue();
+			final Object to = ((BetweenFilter<?>) filter).getToValue();
+			return i -> left[i] != null && compare(left[i], from) >= 0 && compare(left[i], to) <= 0;
+		}
+		case IN:
+		case NOT_IN: {
+			final Object operand = constant(filter.getRightOperand().orElse(null), filter);
+			final Collection<?> values = (operand instanceof Collection) ? (Collection<?>) operand
+					: (operand != null) ? Arrays.asList(operand) : Arrays.asList();
+			final IntPredicate in = i -> left[i] != null && values.stream().anyMatch(v -> isEqual(left[i], v));
+			return (filter.getOperator() == OperationQueryFilter.FilterOperator.IN) ? in
+					: i -> left[i] != null && !in.test(i);
+		}
+		default:
+			break;
+		}
+
+		// binary comparison
+		final TypedExpression<?> operand = filter.getRightOperand().orElse(null);
+		if (operand instanceof Path) {
+			final Object[] right = getValues((Path<?>) operand);
+			return comparison(filter, i -> left[i], i -> right[i]);
+		}
+		final Object value = constant(operand, filter);
+		return comparison(filter, i -> left[i], i -> value);
+	}
+
+	/**
+	 * Build a comparison predicate.
+	 * @param filter Operation filter
+	 * @param left Left operand value
+	 * @param right Right operand value
+	 * @return The comparison predicate
+	 */
+	private static IntPredicate comparison(OperationQueryFilter<?> filter, PositionValue left, PositionValue right) {
+		switch (filter.getOperator()) {
+		case EQUAL:
+			return i -> isEqual(left.get(i), right.get(i));
+		case NOT_EQUAL:
+			return i -> left.get(i) != null && right.get(i) != null && !isEqual(left.get(i), right.get(i));
+		case GREATER_THAN:
+			return i -> left.get(i) != null && right.get(i) != null && compare(left.get(i), right.get(i)) > 0;
+		case GREATER_OR_EQUAL:
+			return i -> left.get(i) != null && right.get(i) != null && compare(left.get(i), right.get(i)) >= 0;
+		case LESS_THAN:
+			return i -> left.get(i) != null && right.get(i) != null && compare(left.get(i), right.get(i)) < 0;
+		case LESS_OR_EQUAL:
+			return i -> left.get(i) != null && right.get(i) != null && compare(left.get(i), right.get(i)) <= 0;
+		default:
+			throw new DataAccessException("Query filter not supported by the in-memory data provider: " + filter);
+		}
+	}
+
+	/**
+	 * Get the path of given filter operand.
+	 * @param operand Filter operand
+	 * @param filter Filter
+	 * @return The operand path
+	 */
+	private static Path<?> path(TypedExpression<?> operand, QueryFilter filter) {
+		if (operand instanceof Path) {
+			return (Path<?>) operand;
+		}
+		throw new DataAccessException("Query filter not supported by the in-memory data provider: " + filter);
+	}
+
+	/**
+	 * Get the value of given constant filter operand.
+	 * @param operand Filter operand
+	 * @param filter Filter
+	 * @return The operand value
+	 */
+	private static Object constant(TypedExpression<?> operand, QueryFilter filter) {
+		if (operand == null) {
+			return null;
+		}
+		if (operand instanceof ConstantConverterExpression) {
+			return ((ConstantConverterExpression<?, ?>) operand).getValue();
+		}
+		throw new DataAccessException("Query filter not supported by the in-memory data provider: " + filter);
+	}
+
+	/**
+	 * Get the values of given path for each item, reading them only once.
+	 * @param path Path
+	 * @return The path values, by item position
+	 */
+	@SuppressWarnings("unchecked")
+	private Object[] getValues(Path<?> path) {
+		return getValuesCache().computeIfAbsent(path.relativeName(), name -> {
+			final Object[] pathValues = new Object[items.length];
+			for (int i = 0; i < items.length; i++) {
+				pathValues[i] = valueProvider.getValue((ITEM) items[i], path);
+			}
+			return pathValues;
+		});
+	}
+
+	/**
+	 * Get the sort rank of each item for given path, computing it only once. Items with equal values have the same
+	 * rank, and <code>null</code> values come first.
+	 * @param path Path
+	 * @return The path ranks, by item position
+	 */
+	private int[] getRanks(Path<?> path) {
+		return getRanksCache().computeIfAbsent(path.relativeName(), name -> {
+			final Object[] pathValues = getValues(path);
+			final Comparator<Object> comparator = Comparator.nullsFirst(CollectionItemDataProvider::compare);
+			final Integer[] order = new Integer[pathValues.length];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, (i1, i2) -> comparator.compare(pathValues[i1], pathValues[i2]));
+			final int[] rank = new int[pathValues.length];
+			int current = 0;
+			for (int i = 0; i < order.length; i++) {
+				if (i > 0 && comparator.compare(pathValues[order[i - 1]], pathValues[order[i]]) != 0) {
+					current++;
+				}
+				rank[order[i]] = current;
+			}
+			return rank;
+		});
+	}
+
+	/**
+	 * Get the path values cache.
+	 * @return the path values cache
+	 */
+	private synchronized Map<String, Object[]> getValuesCache() {
+		if (values == null) {
+			values = new ConcurrentHashMap<>(8);
+		}
+		return values;
+	}
+
+	/**
+	 * Get the path ranks cache.
+	 * @return the path ranks cache
+	 */
+	private synchronized Map<String, int[]> getRanksCache() {
+		if (ranks == null) {
+			ranks = new ConcurrentHashMap<>(4);
+		}
+		return ranks;
+	}
+
+	/**
+	 * Get the query results cache.
+	 * @return the query results cache
+	 */
+	@SuppressWarnings("serial")
+	private synchronized Map<QueryFingerprint, int[]> getResultsCache() {
+		if (results == null) {
+			results = new LinkedHashMap<QueryFingerprint, int[]>(MAX_CACHED_QUERIES, 0.75f, true) {
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<QueryFingerprint, int[]> eldest) {
+					return size() > MAX_CACHED_QUERIES;
+				}
+
+			};
+		}
+		return results;
+	}
+
+	/**
+	 * Checks whether given values are equal, comparing numbers of different types by their numeric value.
+	 * @param value1 First value
+	 * @param value2 Second value
+	 * @return <code>true</code> if the values are equal
+	 */
+	private static boolean isEqual(Object value1, Object value2) {
+		if (value1 instanceof Number && value2 instanceof Number && value1.getClass() != value2.getClass()) {
+			return toBigDecimal((Number) value1).compareTo(toBigDecimal((Number) value2)) == 0;
+		}
+		return Objects.equals(value1, value2);
+	}
+
+	/**
+	 * Compare given not null values, comparing numbers of different types by their numeric value.
+	 * @param value1 First value
+	 * @param value2 Second value
+	 * @return The comparison result
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static int compare(Object value1, Object value2) {
+		if (value1 instanceof Number && value2 instanceof Number && value1.getClass() != value2.getClass()) {
+			return toBigDecimal((Number) value1).compareTo(toBigDecimal((Number) value2));
+		}
+		if (value1 instanceof Comparable) {
+			return ((Comparable) value1).compareTo(value2);
+		}
+		throw new DataAccessException("Value is not comparable: " + value1);
+	}
+
+	/**
+	 * Convert given number into a {@link BigDecimal}.
+	 * @param number Number
+	 * @return The number as a {@link BigDecimal}
+	 */
+	private static BigDecimal toBigDecimal(Number number) {
+		if (number instanceof BigDecimal) {
+			return (BigDecimal) number;
+		}
+		if (number instanceof BigInteger) {
+			return new BigDecimal((BigInteger) number);
+		}
+		if (number instanceof Double || number instanceof Float) {
+			return BigDecimal.valueOf(number.doubleValue());
+		}
+		return BigDecimal.valueOf(number.longValue());
+	}
+
+	/**
+	 * Value of an operand for a given item position.
+	 */
+	@FunctionalInterface
+	private interface PositionValue {
+
+		/**
+		 * Get the operand value for the item at given position.
+		 * @param position Item position
+		 * @return The operand value
+		 */
+		Object get(int position);
+
+	}
+
+	/**
+	 * {@link PathValueProvider} for {@link PropertyBox} items.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public static final class PropertyBoxValueProvider implements PathValueProvider<PropertyBox> {
+
+		private static final long serialVersionUID = -2372838409216426325L;
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.holonplatform.vaadin7.data.ItemDataProvider.PathValueProvider#getValue(java.lang.Object,
+		 * com.holonplatform.core.Path)
+		 */
+		@Override
+		public Object getValue(PropertyBox item, Path<?> path) {
+			if (path instanceof Property && item.contains((Property) path)) {
+				return item.getValue((Property) path);
+			}
+			final String name = path.relativeName();
+			for (Property property : item) {
+				if (property instanceof Path && name.equals(((Path) property).relativeName())) {
+					return item.getValue(property);
+				}
+			}
+			return null;
+		}
+
+	}
+
+	/**
+	 * Item copier for {@link PropertyBox} items, which clones the property box.
+	 */
+	public static final class PropertyBoxCopier implements UnaryOperator<PropertyBox>, Serializable {
+
+		private static final long serialVersionUID = 4126938567380521174L;
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.function.Function#apply(java.lang.Object)
+		 */
+		@Override
+		public PropertyBox apply(PropertyBox item) {
+			return (item != null) ? item.cloneBox() : null;
+		}
+
+	}
+
+}
@@ -15,16 +15,36 @@
  */
 package com.holonplatform.vaadin7.internal.data;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
+import com.holonplatform.core.Path;
 import com.holonplatform.core.datastore.DataTarget;
 import com.holonplatform.core.datastore.Datastore;
+import com.holonplatform.core.datastore.transaction.Transactional;
 import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.holonplatform.core.property.Property;
 import com.holonplatform.core.property.PropertyBox;
+import com.holonplatform.core.query.QueryFilter;
 import com.holonplatform.vaadin7.data.ItemDataSource.CommitHandler;
 
 /**
  * A {@link CommitHandler} using {@link Datastore} to perform persistence operations.
+ * <p>
+ * When a batch size greater than <code>0</code> is configured, the commit is performed in batched mode: all the
+ * operations are executed in a single transaction (if the Datastore is {@link Transactional}) and, when the identifier
+ * properties are available, the removed items are deleted using bulk delete operations, each one involving at most
+ * <em>batch size</em> items.
+ * </p>
+ * <p>
+ * By default the added items are saved one by one also in batched mode, so that any generated key is written back to
+ * the item. When bulk inserts are enabled, the added items are inserted using bulk insert operations instead: in this
+ * case generated keys are <em>not</em> written back to the items and each item is inserted as is, so any property with
+ * a <code>null</code> value is inserted as <code>null</code>. Items with different property sets are inserted using
+ * distinct bulk operations.
+ * </p>
  *
  * @since 5.0.0
  */
@@ -42,17 +62,91 @@ public class DatastoreCommitHandler implements CommitHandler<PropertyBox> {
 	 */
 	private final DataTarget<?> target;
 
+	/**
+	 * Batch size, batched mode is disabled if <code>0</code> or less
+	 */
+	private final int batchSize;
+
+	/**
+	 * Whether to insert the added items using bulk insert operations in batched mode
+	 */
+	private final boolean bulkInserts;
+
+	/**
+	 * Identifier properties to use for bulk deletes
+	 */
+	private final Property<?>[] identifierProperties;
+
 	/**
 	 * Construct a new DatastoreItemDataProvider.
 	 * @param datastore Datastore to use (not null)
 	 * @param target Query target (not null)
 	 */
 	public DatastoreCommitHandler(Datastore datastore, DataTarget<?> target) {
+		this(datastore, target, 0);
+	}
+
+	/**
+	 * Construct a new DatastoreItemDataProvider.
+	 * @param datastore Datastore to use (not null)
+	 * @param target Query target (not null)
+	 * @param batchSize Max number of items of each bulk operation. If <code>0</code> or less, the batched mode is
+	 *        disabled and each item is persisted using a distinct operation
+	 * @param identifierProperties The properties which identify an item, used to delete the removed items using bulk
+	 *        delete operations. Must be {@link Path}s. If empty, the removed items are deleted one by one
+	 * @since 5.2.5
+	 */
+	public DatastoreCommitHandler(Datastore datastore, DataTarget<?> target, int batchSize,
+			Property<?>... identifierProperties) {
+		this(datastore, target, batchSize, false, identifierProperties);
+	}
+
+	/**
+	 * Construct a new DatastoreItemDataProvider.
+	 * @param datastore Datastore to use (not null)
+	 * @param target Query target (not null)
+	 * @param batchSize Max number of items of each bulk operation. If <code>0</code> or less, the batched mode is
+	 *        disabled and each item is persisted using a distinct operation
+	 * @param bulkInserts Whether to insert the added items using bulk insert operations in batched mode. Generated
+	 *        keys are not written back to the items when bulk inserts are used
+	 * @param identifierProperties The properties which identify an item, used to delete the removed items using bulk
+	 *        delete operations. Must be {@link Path}s. If empty, the removed items are deleted one by one
+	 * @since 5.2.5
+	 */
+	public DatastoreCommitHandler(Datastore datastore, DataTarget<?> target, int batchSize, boolean bulkInserts,
+			Property<?>... identifierProperties) {
 		super();
 		ObjectUtils.argumentNotNull(datastore, "Datastore must be not null");
 		ObjectUtils.argumentNotNull(target, "DataTarget must be not null");
+		if (identifierProperties != null) {
+			for (Property<?> identifierProperty : identifierProperties) {
+				if (!(identifierProperty instanceof Path)) {
+					throw new IllegalArgumentException(
+							"Identifier property [" + identifierProperty + "] is not a Path");
+				}
+			}
+		}
 		this.datastore = datastore;
 		this.target = target;
+		this.batchSize = batchSize;
+		this.bulkInserts = bulkInserts;
+		this.identifierProperties = (identifierProperties != null) ? identifierProperties : new Property<?>[0];
+	}
+
+	/**
+	 * Get the max number of items of each bulk operation.
+	 * @return the batch size, <code>0</code> or less if batched mode is disabled
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Get whether the added items are inserted using bulk insert operations in batched mode.
+	 * @return <code>true</code> if bulk inserts are enabled
+	 */
+	public boolean isBulkInserts() {
+		return bulkInserts;
 	}
 
 	/*
@@ -63,9 +157,139 @@ public class DatastoreCommitHandler implements CommitHandler<PropertyBox> {
 	@Override
 	public void commit(Collection<PropertyBox> addedItems, Collection<PropertyBox> modifiedItems,
 			Collection<PropertyBox> removedItems) {
-		addedItems.forEach(i -> datastore.save(target, i));
+		if (batchSize <= 0) {
+			addedItems.forEach(i -> datastore.save(target, i));
+			modifiedItems.forEach(i -> datastore.save(target, i));
+			removedItems.forEach(i -> datastore.delete(target, i));
+			return;
+		}
+		final Optional<Transactional> transactional = datastore.isTransactional();
+		if (transactional.isPresent()) {
+			transactional.get().withTransaction(tx -> {
+				commitBatched(addedItems, modifiedItems, removedItems);
+			});
+		} else {
+			commitBatched(addedItems, modifiedItems, removedItems);
+		}
+	}
+
+	/**
+	 * Commit item modifications using bulk operations.
+	 * @param addedItems Added items
+	 * @param modifiedItems Modified items
+	 * @param removedItems Removed items
+	 */
+	protected void commitBatched(Collection<PropertyBox> addedItems, Collection<PropertyBox> modifiedItems,
+			Collection<PropertyBox> removedItems) {
+		// inserts
+		if (bulkInserts) {
+			for (List<PropertyBox> chunk : chunks(addedItems)) {
+				datastore.bulkInsert(target, chunk.get(0)).add(chunk).execute();
+			}
+		} else {
+			addedItems.forEach(i -> datastore.save(target, i));
+		}
+		// updates: item values differ, so each item is saved in the current transaction
 		modifiedItems.forEach(i -> datastore.save(target, i));
-		removedItems.forEach(i -> datastore.delete(target, i));
+		// deletes
+		if (identifierProperties.length == 0) {
+			removedItems.forEach(i -> datastore.delete(target, i));
+		} else {
+			for (List<PropertyBox> chunk : chunks(removedItems)) {
+				datastore.bulkDelete(target).filter(getIdentifiersFilter(chunk)).execute();
+			}
+		}
+	}
+
+	/**
+	 * Build a filter which matches the given items using the identifier properties.
+	 * @param items Items
+	 * @return Identifiers filter
+	 */
+	protected QueryFilter getIdentifiersFilter(List<PropertyBox> items) {
+		if (identifierProperties.length == 1) {
+			return in(identifierProperties[0], items);
+		}
+		final List<QueryFilter> filters = new ArrayList<>(items.size());
+		for (PropertyBox item : items) {
+			final List<QueryFilter> conditions = new ArrayList<>(identifierProperties.length);
+			for (Property<?> identifierProperty : identifierProperties) {
+				conditions.add(eq(identifierProperty, item));
+			}
+			QueryFilter.allOf(conditions).ifPresent(f -> filters.add(f));
+		}
+		return QueryFilter.anyOf(filters).orElse(null);
+	}
+
+	/**
+	 * Build a filter which matches the values of given identifier property of the given items.
+	 * @param <T> Property type
+	 * @param identifierProperty Identifier property
+	 * @param items Items
+	 * @return Filter
+	 */
+	private static <T> QueryFilter in(Property<T> identifierProperty, List<PropertyBox> items) {
+		final List<T> ids = new ArrayList<>(items.size());
+		items.forEach(i -> ids.add(i.getValue(identifierProperty)));
+		return QueryFilter.in(asPath(identifierProperty), ids);
+	}
+
+	/**
+	 * Build a filter which matches the value of given identifier property of the given item.
+	 * @param <T> Property type
+	 * @param identifierProperty Identifier property
+	 * @param item Item
+	 * @return Filter
+	 */
+	private static <T> QueryFilter eq(Property<T> identifierProperty, PropertyBox item) {
+		return QueryFilter.eq(asPath(identifierProperty), item.getValue(identifierProperty));
+	}
+
+	/**
+	 * Get given identifier property as a {@link Path}, checked at construction time.
+	 * @param <T> Property type
+	 * @param identifierProperty Identifier property
+	 * @return The property as a {@link Path}
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> Path<T> asPath(Property<T> identifierProperty) {
+		return (Path<T>) identifierProperty;
+	}
+
+	/**
+	 * Check whether given items have the same property set.
+	 * @param item1 First item
+	 * @param item2 Second item
+	 * @return <code>true</code> if the items have the same properties
+	 */
+	private static boolean sameProperties(PropertyBox item1, PropertyBox item2) {
+		if (item1.size() != item2.size()) {
+			return false;
+		}
+		for (Property<?> property : item1) {
+			if (!item2.contains(property)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Split given items into chunks of at most {@link #getBatchSize()} items, all with the same property set.
+	 * @param items Items
+	 * @return Item chunks
+	 */
+	private List<List<PropertyBox>> chunks(Collection<PropertyBox> items) {
+		final List<List<PropertyBox>> chunks = new ArrayList<>();
+		List<PropertyBox> chunk = null;
+		for (PropertyBox item : items) {
+			if (chunk == null || chunk.size() >= batchSize || !sameProperties(chunk.get(0), item)) {
+				chunk = new ArrayList<>(Math.min(batchSize, items.size()));
+				chunks.add(chunk);
+			}
+			chunk.add(item);
+		}
+		return chunks;
 	}
 
 }
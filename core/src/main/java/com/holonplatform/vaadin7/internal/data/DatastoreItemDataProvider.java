@@ -15,9 +15,18 @@
  */
 package com.holonplatform.vaadin7.internal.data;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import com.holonplatform.core.ParameterSet;
+import com.holonplatform.core.Path;
 import com.holonplatform.core.datastore.DataTarget;
 import com.holonplatform.core.datastore.Datastore;
 import com.holonplatform.core.exceptions.DataAccessException;
@@ -29,15 +38,49 @@ import com.holonplatform.core.query.Query;
 import com.holonplatform.core.query.QueryConfigurationProvider;
 import com.holonplatform.core.query.QueryFilter;
 import com.holonplatform.core.query.QuerySort;
+import com.holonplatform.core.query.QuerySort.CompositeQuerySort;
+import com.holonplatform.core.query.QuerySort.PathQuerySort;
+import com.holonplatform.core.query.QuerySort.SortDirection;
 import com.holonplatform.vaadin7.data.ItemDataProvider;
+import com.holonplatform.vaadin7.data.ItemIndexResolver;
+import com.holonplatform.vaadin7.data.ItemLoadCancellation;
+import com.holonplatform.vaadin7.data.ItemLoadCancellation.LoadCancelledException;
+import com.holonplatform.vaadin7.data.ItemSetIdLoader;
+import com.holonplatform.vaadin7.data.ItemSetKeysetLoader;
 
 /**
  * An {@link ItemDataProvider} using a {@link Datastore} to perform item set count and load operations, using
  * {@link Property} as item property type and {@link PropertyBox} as concrete item data container.
+ * <p>
+ * When a set of identifier properties is provided, the <em>keyset</em> pagination mode is enabled (see
+ * {@link ItemSetKeysetLoader}): the identifier properties are added to the query sort to obtain a deterministic items
+ * order, and each page which follows a known item is loaded using the sort and identifier values of such item as query
+ * restrictions, i.e. <code>WHERE (sort, id) &gt; (sort value, id value)</code>, instead of using the query offset.
+ * </p>
+ * <p>
+ * Such restrictions never match the <code>NULL</code> values and the position of the <code>NULL</code> values in the
+ * sort order depends on the data store, so the keyset pagination is used only when all the sort paths are known to
+ * be not nullable: the identifier properties and the paths declared as not nullable at construction time. Otherwise,
+ * the query offset is used.
+ * </p>
+ * <p>
+ * The identifier properties are also used to resolve the index of an item by id (see {@link ItemIndexResolver}): the
+ * item is located using a query restricted to the item id and its index is obtained counting the items which precede
+ * it in the keyset sort order. Furthermore, the item ids can be loaded using a query which selects only the
+ * identifier properties (see {@link ItemSetIdLoader}). The item ids must be the values of the identifier properties
+ * (or a {@link PropertiesItemIdentifier} id when more than one identifier property is used).
+ * </p>
+ * <p>
+ * When the query configuration provides an {@link ItemLoadCancellation} token, a cancelled (or timed out) operation is
+ * not executed and the results fetch is aborted as soon as the operation is cancelled. The {@link Datastore} API does
+ * not support statement cancellation, so a query which is already executing runs to completion: the timeout bounds
+ * the time spent fetching the results, not the statement execution time.
+ * </p>
  * 
  * @since 5.0.0
  */
-public class DatastoreItemDataProvider implements ItemDataProvider<PropertyBox> {
+public class DatastoreItemDataProvider implements ItemDataProvider<PropertyBox>, ItemSetKeysetLoader<PropertyBox>,
+		ItemIndexResolver, ItemSetIdLoader {
 
 	private static final long serialVersionUID = -3647676181555142846L;
 
@@ -56,6 +99,16 @@ public class DatastoreItemDataProvider implements ItemDataProvider<PropertyBox>
 	 */
 	private final PropertySet<?> propertySet;
 
+	/**
+	 * Identifier properties to use for keyset pagination, empty if keyset pagination is disabled
+	 */
+	private final Property<?>[] identifierProperties;
+
+	/**
+	 * Full names of the paths known to be not nullable, which can be used as keyset pagination restrictions
+	 */
+	private final Set<String> notNullPaths;
+
 	/**
 	 * Construct a new DatastoreItemDataProvider.
 	 * @param datastore Datastore to use (not null)
@@ -63,13 +116,65 @@ public class DatastoreItemDataProvider implements ItemDataProvider<PropertyBox>
 	 * @param propertySet Property set to load
 	 */
 	public DatastoreItemDataProvider(Datastore datastore, DataTarget<?> target, PropertySet<?> propertySet) {
+		this(datastore, target, propertySet, new Property<?>[0]);
+	}
+
+	/**
+	 * Construct a new DatastoreItemDataProvider which uses keyset pagination when possible.
+	 * @param datastore Datastore to use (not null)
+	 * @param target Data target (not null)
+	 * @param propertySet Property set to load
+	 * @param identifierProperties The properties which identify an item, used to complete the query sort and as
+	 *        keyset pagination restrictions. Must be {@link Path}s and must be included in given property set. If
+	 *        empty, keyset pagination is disabled.
+	 * @since 5.2.5
+	 */
+	public DatastoreItemDataProvider(Datastore datastore, DataTarget<?> target, PropertySet<?> propertySet,
+			Property<?>... identifierProperties) {
+		this(datastore, target, propertySet, identifierProperties, new Path<?>[0]);
+	}
+
+	/**
+	 * Construct a new DatastoreItemDataProvider which uses keyset pagination when possible.
+	 * @param datastore Datastore to use (not null)
+	 * @param target Data target (not null)
+	 * @param propertySet Property set to load
+	 * @param identifierProperties The properties which identify an item, used to complete the query sort and as
+	 *        keyset pagination restrictions. Must be {@link Path}s and must be included in given property set. If
+	 *        empty, keyset pagination is disabled.
+	 * @param notNullPaths The sort paths, besides the identifier properties, which never have a <code>NULL</code>
+	 *        value: keyset pagination is used only when all the query sort paths are not nullable
+	 * @since 5.2.5
+	 */
+	public DatastoreItemDataProvider(Datastore datastore, DataTarget<?> target, PropertySet<?> propertySet,
+			Property<?>[] identifierProperties, Path<?>... notNullPaths) {
 		super();
 		ObjectUtils.argumentNotNull(datastore, "Datastore must be not null");
 		ObjectUtils.argumentNotNull(target, "DataTarget must be not null");
 		ObjectUtils.argumentNotNull(propertySet, "PropertySet supplier must be not null");
+		if (identifierProperties != null) {
+			for (Property<?> identifierProperty : identifierProperties) {
+				if (!(identifierProperty instanceof Path)) {
+					throw new IllegalArgumentException(
+							"Keyset pagination identifier property [" + identifierProperty + "] is not a Path");
+				}
+			}
+		}
 		this.datastore = datastore;
 		this.target = target;
 		this.propertySet = propertySet;
+		this.identifierProperties = (identifierProperties != null) ? identifierProperties : new Property<?>[0];
+		this.notNullPaths = new HashSet<>();
+		for (Property<?> identifierProperty : this.identifierProperties) {
+			this.notNullPaths.add(asPath(identifierProperty).fullName());
+		}
+		if (notNullPaths != null) {
+			for (Path<?> notNullPath : notNullPaths) {
+				if (notNullPath != null) {
+					this.notNullPaths.add(notNullPath.fullName());
+				}
+			}
+		}
 	}
 
 	/**
@@ -88,6 +193,22 @@ public class DatastoreItemDataProvider implements ItemDataProvider<PropertyBox>
 		return target;
 	}
 
+	/**
+	 * Gets whether the keyset pagination mode is enabled.
+	 * @return <code>true</code> if keyset pagination is enabled
+	 */
+	public boolean isKeysetPagination() {
+		return identifierProperties.length > 0;
+	}
+
+	/**
+	 * Get the properties which identify an item.
+	 * @return the identifier properties, empty if keyset pagination is disabled
+	 */
+	protected PropertySet<?> getIdentifierProperties() {
+		return PropertySet.of(identifierProperties);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see com.holonplatform.vaadin.data.ItemSetCounter#size(com.holonplatform.core.query.QueryConfigurationProvider)
@@ -96,6 +217,8 @@ public class DatastoreItemDataProvider implements ItemDataProvider<PropertyBox>
 	public long size(QueryConfigurationProvider configuration) throws DataAccessException {
 		try {
 			return buildQuery(configuration, false).count();
+		} catch (LoadCancelledException e) {
+			throw e;
 		} catch (Exception e) {
 			throw new DataAccessException(e);
 		}
@@ -116,7 +239,132 @@ public class DatastoreItemDataProvider implements ItemDataProvider<PropertyBox>
 			q.offset(offset);
 		}
 		// execute
-		return q.stream(propertySet);
+		return ItemLoadCancellation.cancellable(q.stream(propertySet), configuration);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetKeysetLoader#load(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, int, int, java.lang.Object)
+	 */
+	@Override
+	public Stream<PropertyBox> load(QueryConfigurationProvider configuration, int offset, int limit, Object keyset)
+			throws DataAccessException {
+		if (limit > 0 && keyset instanceof Keyset) {
+			final List<PathQuerySort<?>> sorts = getKeysetSorts(configuration);
+			if (((Keyset) keyset).isConsistentWith(sorts)) {
+				Query q = buildQuery(configuration, true);
+				q.filter(((Keyset) keyset).getRestriction(sorts));
+				q.limit(limit);
+				return ItemLoadCancellation.cancellable(q.stream(propertySet), configuration);
+			}
+		}
+		return load(configuration, offset, limit);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetKeysetLoader#getKeyset(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, java.lang.Object)
+	 */
+	@Override
+	public Object getKeyset(QueryConfigurationProvider configuration, PropertyBox item) {
+		if (!isKeysetPagination() || item == null) {
+			return null;
+		}
+		final List<PathQuerySort<?>> sorts = getKeysetSorts(configuration);
+		if (!sorts.stream().allMatch(s -> notNullPaths.contains(s.getPath().fullName()))) {
+			// the following NULL values would not match the keyset restrictions
+			return null;
+		}
+		final Object[] values = new Object[sorts.size()];
+		for (int i = 0; i < values.length; i++) {
+			final Property<?> property = getProperty(item, sorts.get(i).getPath());
+			if (property == null) {
+				return null;
+			}
+			values[i] = item.getValue(property);
+			if (values[i] == null) {
+				// null values cannot be compared
+				return null;
+			}
+		}
+		return new Keyset(sorts, values);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetIdLoader#canLoadItemIds()
+	 */
+	@Override
+	public boolean canLoadItemIds() {
+		return isKeysetPagination();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetIdLoader#loadItemIds(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, int, int)
+	 */
+	@Override
+	public Stream<?> loadItemIds(QueryConfigurationProvider configuration, int offset, int limit)
+			throws UnsupportedOperationException, DataAccessException {
+		if (!canLoadItemIds()) {
+			throw new UnsupportedOperationException("Item ids loading requires the identifier properties");
+		}
+		Query q = buildQuery(configuration, true);
+		// paging
+		if (limit > 0) {
+			q.limit(limit);
+			q.offset(offset);
+		}
+		// execute selecting only the identifier properties
+		final Stream<PropertyBox> results = q.stream(identifierProperties);
+		if (identifierProperties.length == 1) {
+			return results.map(r -> r.getValue(identifierProperties[0]));
+		}
+		return results.map(r -> {
+			final Object[] values = new Object[identifierProperties.length];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = r.getValue(identifierProperties[i]);
+			}
+			return new PropertiesItemIdentifier.Identifier(values);
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemIndexResolver#indexOfItem(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, java.lang.Object)
+	 */
+	@Override
+	public Optional<Integer> indexOfItem(QueryConfigurationProvider configuration, Object itemId)
+			throws DataAccessException {
+		final QueryFilter identifierFilter = getIdentifierFilter(itemId);
+		if (identifierFilter == null) {
+			return Optional.empty();
+		}
+		try {
+			// by id
+			final Query q = buildQuery(configuration, false);
+			q.filter(identifierFilter);
+			final Optional<PropertyBox> item = q.findOne(propertySet);
+			if (!item.isPresent()) {
+				return Optional.of(-1);
+			}
+			// rank
+			final Object keyset = getKeyset(configuration, item.get());
+			if (keyset == null) {
+				return Optional.empty();
+			}
+			final Query rq = buildQuery(configuration, false);
+			rq.filter(((Keyset) keyset).getRestriction(getKeysetSorts(configuration), true));
+			return Optional.of((int) rq.count());
+		} catch (DataAccessException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new DataAccessException(e);
+		}
 	}
 
 	/*
@@ -147,9 +395,13 @@ public class DatastoreItemDataProvider implements ItemDataProvider<PropertyBox>
 		}
 		// sort
 		if (withSorts) {
-			QuerySort sort = configuration.getQuerySort();
-			if (sort != null) {
-				q.sort(sort);
+			if (isKeysetPagination()) {
+				getKeysetSorts(configuration).forEach(s -> q.sort(s));
+			} else {
+				QuerySort sort = configuration.getQuerySort();
+				if (sort != null) {
+					q.sort(sort);
+				}
 			}
 		}
 		// parameters
@@ -157,7 +409,217 @@ public class DatastoreItemDataProvider implements ItemDataProvider<PropertyBox>
 		if (parameters != null) {
 			parameters.forEachParameter((n, v) -> q.parameter(n, v));
 		}
+		// cancellation
+		ItemLoadCancellation.of(configuration).ifPresent(c -> c.checkCancelled());
 		return q;
 	}
 
+	/**
+	 * Build the filter to select the item with given id using the identifier properties.
+	 * @param itemId Item id
+	 * @return The item id filter, <code>null</code> if keyset pagination is disabled or given id is not consistent
+	 *         with the identifier properties
+	 */
+	protected QueryFilter getIdentifierFilter(Object itemId) {
+		if (!isKeysetPagination() || itemId == null) {
+			return null;
+		}
+		final Object[] values;
+		if (identifierProperties.length == 1) {
+			values = new Object[] { itemId };
+		} else if (itemId instanceof PropertiesItemIdentifier.Identifier) {
+			values = ((PropertiesItemIdentifier.Identifier) itemId).getValues();
+		} else {
+			return null;
+		}
+		if (values.length != identifierProperties.length) {
+			return null;
+		}
+		final List<QueryFilter> filters = new ArrayList<>(values.length);
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] == null) {
+				return null;
+			}
+			filters.add(eq(asPath(identifierProperties[i]), values[i]));
+		}
+		return QueryFilter.allOf(filters).orElse(null);
+	}
+
+	/**
+	 * Get the query sorts to use with keyset pagination: the configuration sorts, followed by the ascending sorts of
+	 * the identifier properties not already included in the configuration sorts.
+	 * @param configuration Query configuration
+	 * @return The keyset query sorts
+	 */
+	protected List<PathQuerySort<?>> getKeysetSorts(QueryConfigurationProvider configuration) {
+		final List<PathQuerySort<?>> sorts = new LinkedList<>();
+		flatten(configuration.getQuerySort(), sorts);
+		for (Property<?> identifierProperty : identifierProperties) {
+			final Path<?> identifierPath = asPath(identifierProperty);
+			if (sorts.stream().noneMatch(s -> isSamePath(s.getPath(), identifierPath))) {
+				sorts.add((PathQuerySort<?>) QuerySort.asc(identifierPath));
+			}
+		}
+		return sorts;
+	}
+
+	/**
+	 * Flatten given sort into a list of {@link PathQuerySort}s.
+	 * @param sort Sort to flatten (may be null)
+	 * @param sorts Sorts list
+	 */
+	private static void flatten(QuerySort sort, List<PathQuerySort<?>> sorts) {
+		if (sort instanceof PathQuerySort) {
+			sorts.add((PathQuerySort<?>) sort);
+		} else if (sort instanceof CompositeQuerySort) {
+			((CompositeQuerySort) sort).getComposition().forEach(s -> flatten(s, sorts));
+		}
+	}
+
+	/**
+	 * Get the property of given item which corresponds to given path.
+	 * @param item Item
+	 * @param path Path
+	 * @return The item property, <code>null</code> if not found
+	 */
+	private static Property<?> getProperty(PropertyBox item, Path<?> path) {
+		for (Property<?> property : item) {
+			if (property instanceof Path && isSamePath((Path<?>) property, path)) {
+				return property;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get given identifier property as a {@link Path}, checked at construction time.
+	 * @param <T> Property type
+	 * @param identifierProperty Identifier property
+	 * @return The property as a {@link Path}
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> Path<T> asPath(Property<T> identifierProperty) {
+		return (Path<T>) identifierProperty;
+	}
+
+	/**
+	 * Build a <code>path = value</code> filter.
+	 * @param <T> Path type
+	 * @param path Path
+	 * @param value Value, obtained from an item or an item id and so consistent with the path type
+	 * @return Filter
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> QueryFilter eq(Path<T> path, Object value) {
+		return QueryFilter.eq(path, (T) value);
+	}
+
+	/**
+	 * Build a <code>path &lt; value</code> (or <code>path &gt; value</code>) filter.
+	 * @param <T> Path type
+	 * @param path Path
+	 * @param value Value, obtained from an item and so consistent with the path type
+	 * @param lessThan <code>true</code> for a <code>&lt;</code> filter, <code>false</code> for a <code>&gt;</code>
+	 *        filter
+	 * @return Filter
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> QueryFilter compare(Path<T> path, Object value, boolean lessThan) {
+		return lessThan ? QueryFilter.lt(path, (T) value) : QueryFilter.gt(path, (T) value);
+	}
+
+	/**
+	 * Checks whether given paths have the same name.
+	 * @param path1 First path
+	 * @param path2 Second path
+	 * @return <code>true</code> if the two paths have the same full name
+	 */
+	private static boolean isSamePath(Path<?> path1, Path<?> path2) {
+		return path1.fullName().equals(path2.fullName());
+	}
+
+	/**
+	 * Keyset pagination anchor: the sort values of an item.
+	 */
+	private static final class Keyset implements Serializable {
+
+		private static final long serialVersionUID = -1375818766052287011L;
+
+		private final List<String> paths;
+		private final List<SortDirection> directions;
+		private final Object[] values;
+
+		Keyset(List<PathQuerySort<?>> sorts, Object[] values) {
+			super();
+			this.paths = new ArrayList<>(sorts.size());
+			this.directions = new ArrayList<>(sorts.size());
+			for (PathQuerySort<?> sort : sorts) {
+				this.paths.add(sort.getPath().fullName());
+				this.directions.add(sort.getDirection());
+			}
+			this.values = values;
+		}
+
+		/**
+		 * Checks whether this keyset was obtained using given sorts.
+		 * @param sorts Sorts
+		 * @return <code>true</code> if this keyset can be used with given sorts
+		 */
+		boolean isConsistentWith(List<PathQuerySort<?>> sorts) {
+			if (sorts.size() != paths.size()) {
+				return false;
+			}
+			for (int i = 0; i < paths.size(); i++) {
+				if (!paths.get(i).equals(sorts.get(i).getPath().fullName())
+						|| directions.get(i) != sorts.get(i).getDirection()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Build the filter to obtain the items which follow this keyset in given sort order, i.e.
+		 * <code>(s1 &gt; v1) OR (s1 = v1 AND s2 &gt; v2) OR ...</code>, using <code>&lt;</code> for descending
+		 * sorts.
+		 * @param sorts Sorts
+		 * @return Restriction filter
+		 */
+		QueryFilter getRestriction(List<PathQuerySort<?>> sorts) {
+			return getRestriction(sorts, false);
+		}
+
+		/**
+		 * Build the filter to obtain the items which follow (or precede) this keyset in given sort order.
+		 * @param sorts Sorts
+		 * @param preceding <code>true</code> to obtain the items which precede this keyset, <code>false</code> to
+		 *        obtain the items which follow it
+		 * @return Restriction filter
+		 */
+		QueryFilter getRestriction(List<PathQuerySort<?>> sorts, boolean preceding) {
+			final List<QueryFilter> alternatives = new ArrayList<>(sorts.size());
+			for (int i = 0; i < sorts.size(); i++) {
+				final List<QueryFilter> conditions = new ArrayList<>(i + 1);
+				for (int j = 0; j < i; j++) {
+					conditions.add(eq(sorts.get(j).getPath(), values[j]));
+				}
+				final PathQuerySort<?> sort = sorts.get(i);
+				conditions.add(compare(sort.getPath(), values[i],
+						(sort.getDirection() == SortDirection.DESCENDING) != preceding));
+				alternatives.add(QueryFilter.allOf(conditions).orElse(null));
+			}
+			return QueryFilter.anyOf(alternatives).orElse(null);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return "Keyset [paths=" + paths + ", values=" + Arrays.toString(values) + "]";
+		}
+
+	}
+
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.WeakHashMap;
+
+import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.holonplatform.vaadin7.data.ItemCacheBudget;
+
+/**
+ * Default {@link ItemCacheBudget} implementation.
+ * <p>
+ * The participants are weakly referenced, so the caches which are no longer used do not need to be unregistered, and
+ * they are not serialized: each participant registers itself again at the next cache access.
+ * </p>
+ *
+ * @since 5.2.5
+ */
+public class DefaultItemCacheBudget implements ItemCacheBudget {
+
+	private static final long serialVersionUID = -6870296342919430472L;
+
+	/**
+	 * Budget limit
+	 */
+	private final long limit;
+
+	/**
+	 * Item weigher
+	 */
+	private final ItemWeigher weigher;
+
+	/**
+	 * Registered participants, bound to their last access sequence
+	 */
+	private transient Map<Participant, Long> participants;
+
+	/**
+	 * Access sequence
+	 */
+	private long sequence = 0;
+
+	/**
+	 * Constructor.
+	 * @param limit Budget limit (greater than 0)
+	 * @param weigher Item weigher (not null)
+	 */
+	public DefaultItemCacheBudget(long limit, ItemWeigher weigher) {
+		super();
+		ObjectUtils.argumentNotNull(weigher, "ItemWeigher must be not null");
+		if (limit <= 0) {
+			throw new IllegalArgumentException("Budget limit must be greater than 0");
+		}
+		this.limit = limit;
+		this.weigher = weigher;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemCacheBudget#getLimit()
+	 */
+	@Override
+	public long getLimit() {
+		return limit;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemCacheBudget#getUsage()
+	 */
+	@Override
+	public synchronized long getUsage() {
+		long usage = 0;
+		for (Participant participant : getParticipants().keySet()) {
+			usage += participant.getCacheUsage();
+		}
+		return usage;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemCacheBudget#weigh(java.lang.Object)
+	 */
+	@Override
+	public long weigh(Object item) {
+		return (item != null) ? Math.max(0, weigher.weigh(item)) : 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see
+	 * com.holonplatform.vaadin7.data.ItemCacheBudget#onAccess(com.holonplatform.vaadin7.data.ItemCacheBudget.Participant)
+	 */
+	@Override
+	public synchronized void onAccess(Participant participant) {
+		ObjectUtils.argumentNotNull(participant, "Participant must be not null");
+		getParticipants().put(participant, ++sequence);
+		long usage = getUsage();
+		if (usage > limit) {
+			// least recently used first
+			final List<Entry<Participant, Long>> entries = new ArrayList<>(getParticipants().entrySet());
+			entries.sort(Entry.comparingByValue());
+			for (Entry<Participant, Long> entry : entries) {
+				if (usage <= limit) {
+					break;
+				}
+				final Participant lru = entry.getKey();
+				if (lru != participant) {
+					usage -= lru.releaseCache(usage - limit);
+				}
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see
+	 * com.holonplatform.vaadin7.data.ItemCacheBudget#unregister(com.holonplatform.vaadin7.data.ItemCacheBudget.Participant)
+	 */
+	@Override
+	public synchronized void unregister(Participant participant) {
+		if (participant != null) {
+			getParticipants().remove(participant);
+		}
+	}
+
+	/**
+	 * Get the registered participants.
+	 * @return the participants, bound to their last access sequence
+	 */
+	private Map<Participant, Long> getParticipants() {
+		if (participants == null) {
+			participants = new WeakHashMap<>(8);
+		}
+		return participants;
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import com.holonplatform.vaadin7.data.ItemCachePolicy;
+import com.holonplatform.vaadin7.data.ItemCacheStatistics;
+
+/**
+ * Default {@link ItemCacheStatistics} implementation.
+ *
+ * @since 5.2.5
+ */
+public class DefaultItemCacheStatistics implements ItemCacheStatistics {
+
+	private static final long serialVersionUID = 8233519960404640791L;
+
+	private final ItemCachePolicy policy;
+	private final long hitCount;
+	private final long missCount;
+	private final long evictionCount;
+
+	/**
+	 * Constructor
+	 * @param policy Cache policy
+	 * @param hitCount Hit count
+	 * @param missCount Miss count
+	 * @param evictionCount Eviction count
+	 */
+	public DefaultItemCacheStatistics(ItemCachePolicy policy, long hitCount, long missCount, long evictionCount) {
+		super();
+		this.policy = policy;
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemCacheStatistics#getPolicy()
+	 */
+	@Override
+	public ItemCachePolicy getPolicy() {
+		return policy;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemCacheStatistics#getHitCount()
+	 */
+	@Override
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemCacheStatistics#getMissCount()
+	 */
+	@Override
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemCacheStatistics#getEvictionCount()
+	 */
+	@Override
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "ItemCacheStatistics [policy=" + policy + ", hitCount=" + hitCount + ", missCount=" + missCount
+				+ ", evictionCount=" + evictionCount + ", hitRatio=" + getHitRatio() + "]";
+	}
+
+}
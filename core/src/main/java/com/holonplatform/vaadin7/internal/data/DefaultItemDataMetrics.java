@@ -0,0 +1,332 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default {@link ItemDataMetricsMXBean} implementation, which aggregates the data access metrics using thread safe
+ * counters.
+ *
+ * @since 5.2.5
+ */
+public class DefaultItemDataMetrics implements ItemDataMetricsMXBean {
+
+	/**
+	 * Load batch size histogram bucket upper bounds
+	 */
+	private static final int[] BATCH_SIZE_BOUNDS = new int[] { 10, 25, 50, 100, 250, 500, 1000 };
+
+	private final LongAdder cacheHits = new LongAdder();
+	private final LongAdder cacheMisses = new LongAdder();
+	private final LongAdder cacheEvictions = new LongAdder();
+
+	private final LongAdder counts = new LongAdder();
+	private final LongAdder countTime = new LongAdder();
+	private final AtomicLong countMaxTime = new AtomicLong();
+
+	private final LongAdder loads = new LongAdder();
+	private final LongAdder loadTime = new LongAdder();
+	private final AtomicLong loadMaxTime = new AtomicLong();
+	private final LongAdder rows = new LongAdder();
+	private final LongAdder[] batchSizes;
+
+	private final LongAdder commits = new LongAdder();
+	private final LongAdder commitTime = new LongAdder();
+	private final LongAdder commitItems = new LongAdder();
+
+	private final LongAdder failures = new LongAdder();
+
+	/**
+	 * Constructor
+	 */
+	public DefaultItemDataMetrics() {
+		super();
+		this.batchSizes = new LongAdder[BATCH_SIZE_BOUNDS.length + 1];
+		for (int i = 0; i < batchSizes.length; i++) {
+			batchSizes[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Record an items cache access.
+	 * @param hit Whether the item was available in cache
+	 */
+	public void recordCacheAccess(boolean hit) {
+		if (hit) {
+			cacheHits.increment();
+		} else {
+			cacheMisses.increment();
+		}
+	}
+
+	/**
+	 * Record items cache evictions.
+	 * @param count Number of evicted items
+	 */
+	public void recordCacheEviction(long count) {
+		cacheEvictions.add(count);
+	}
+
+	/**
+	 * Record a count operation.
+	 * @param duration Duration in nanoseconds
+	 * @param failed Whether the operation failed
+	 */
+	public void recordCount(long duration, boolean failed) {
+		counts.increment();
+		countTime.add(duration);
+		countMaxTime.accumulateAndGet(duration, Math::max);
+		if (failed) {
+			failures.increment();
+		}
+	}
+
+	/**
+	 * Record a load operation.
+	 * @param duration Duration in nanoseconds
+	 * @param batchSize Number of requested items
+	 * @param loaded Number of loaded items
+	 * @param failed Whether the operation failed
+	 */
+	public void recordLoad(long duration, int batchSize, int loaded, boolean failed) {
+		loads.increment();
+		loadTime.add(duration);
+		loadMaxTime.accumulateAndGet(duration, Math::max);
+		rows.add(loaded);
+		int bucket = 0;
+		while (bucket < BATCH_SIZE_BOUNDS.length && batchSize > BATCH_SIZE_BOUNDS[bucket]) {
+			bucket++;
+		}
+		batchSizes[bucket].increment();
+		if (failed) {
+			failures.increment();
+		}
+	}
+
+	/**
+	 * Record a commit operation.
+	 * @param duration Duration in nanoseconds
+	 * @param items Number of committed items
+	 * @param failed Whether the operation failed
+	 */
+	public void recordCommit(long duration, int items, boolean failed) {
+		commits.increment();
+		commitTime.add(duration);
+		commitItems.add(items);
+		if (failed) {
+			failures.increment();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getCacheHitCount()
+	 */
+	@Override
+	public long getCacheHitCount() {
+		return cacheHits.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getCacheMissCount()
+	 */
+	@Override
+	public long getCacheMissCount() {
+		return cacheMisses.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getCacheHitRatio()
+	 */
+	@Override
+	public double getCacheHitRatio() {
+		final long hits = getCacheHitCount();
+		final long requests = hits + getCacheMissCount();
+		return (requests == 0) ? 1.0 : (double) hits / requests;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getCacheEvictionCount()
+	 */
+	@Override
+	public long getCacheEvictionCount() {
+		return cacheEvictions.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getCountOperations()
+	 */
+	@Override
+	public long getCountOperations() {
+		return counts.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getCountAverageTime()
+	 */
+	@Override
+	public double getCountAverageTime() {
+		return millis(countTime.sum(), counts.sum());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getCountMaxTime()
+	 */
+	@Override
+	public double getCountMaxTime() {
+		return millis(countMaxTime.get(), 1);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getLoadOperations()
+	 */
+	@Override
+	public long getLoadOperations() {
+		return loads.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getLoadAverageTime()
+	 */
+	@Override
+	public double getLoadAverageTime() {
+		return millis(loadTime.sum(), loads.sum());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getLoadMaxTime()
+	 */
+	@Override
+	public double getLoadMaxTime() {
+		return millis(loadMaxTime.get(), 1);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getRowsLoaded()
+	 */
+	@Override
+	public long getRowsLoaded() {
+		return rows.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getBatchSizeHistogramBounds()
+	 */
+	@Override
+	public int[] getBatchSizeHistogramBounds() {
+		return BATCH_SIZE_BOUNDS.clone();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getBatchSizeHistogram()
+	 */
+	@Override
+	public long[] getBatchSizeHistogram() {
+		final long[] histogram = new long[batchSizes.length];
+		for (int i = 0; i < batchSizes.length; i++) {
+			histogram[i] = batchSizes[i].sum();
+		}
+		return histogram;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getCommitOperations()
+	 */
+	@Override
+	public long getCommitOperations() {
+		return commits.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getCommitAverageTime()
+	 */
+	@Override
+	public double getCommitAverageTime() {
+		return millis(commitTime.sum(), commits.sum());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getCommitAverageBatchSize()
+	 */
+	@Override
+	public double getCommitAverageBatchSize() {
+		final long operations = commits.sum();
+		return (operations == 0) ? 0 : (double) commitItems.sum() / operations;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#getFailures()
+	 */
+	@Override
+	public long getFailures() {
+		return failures.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemDataMetricsMXBean#reset()
+	 */
+	@Override
+	public void reset() {
+		cacheHits.reset();
+		cacheMisses.reset();
+		cacheEvictions.reset();
+		counts.reset();
+		countTime.reset();
+		countMaxTime.set(0);
+		loads.reset();
+		loadTime.reset();
+		loadMaxTime.set(0);
+		rows.reset();
+		for (LongAdder batchSize : batchSizes) {
+			batchSize.reset();
+		}
+		commits.reset();
+		commitTime.reset();
+		commitItems.reset();
+		failures.reset();
+	}
+
+	/**
+	 * Get the (average) duration in milliseconds.
+	 * @param nanos Total duration in nanoseconds
+	 * @param operations Operations count
+	 * @return Average duration in milliseconds, <code>0</code> if no operation was performed
+	 */
+	private static double millis(long nanos, long operations) {
+		return (operations == 0) ? 0 : (double) nanos / operations / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+}
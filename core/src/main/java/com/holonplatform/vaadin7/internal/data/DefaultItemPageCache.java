@@ -0,0 +1,377 @@
+/*
+ * Copyright 2000-2017 Holon TDCN.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import com.holonplatform.core.Path;
+import com.holonplatform.core.datastore.DataTarget;
+import com.holonplatform.core.datastore.Datastore;
+import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.holonplatform.core.property.Property;
+import com.holonplatform.core.property.PropertyBox;
+import com.holonplatform.core.property.PropertySet;
+import com.holonplatform.vaadin7.data.ItemDataProvider;
+import com.holonplatform.vaadin7.data.ItemPageCache;
+
+/**
+ * Default {@link ItemPageCache} implementation, backed by an access-ordered map.
+ * <p>
+ * Each entry is bound to the identity of the concrete data provider, so pages loaded by different data providers of
+ * the same data target are never shared: see {@link #getProviderIdentity(ItemDataProvider)}. When the max number of
+ * entries is exceeded, the least recently used entry is evicted, while expired entries are removed when accessed.
+ * </p>
+ *
+ * @since 5.2.5
+ */
+public class DefaultItemPageCache implements ItemPageCache {
+
+	/**
+	 * Max entries
+	 */
+	private final int maxEntries;
+
+	/**
+	 * Entries time to live in nanoseconds
+	 */
+	private final long timeToLive;
+
+	/**
+	 * Cached entries, in access order
+	 */
+	private final Map<EntryKey, Entry> entries;
+
+	/**
+	 * Data target generations, incremented at each invalidation
+	 */
+	private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+	/**
+	 * Statistics: hits
+	 */
+	private final LongAdder hitCount = new LongAdder();
+
+	/**
+	 * Statistics: misses
+	 */
+	private final LongAdder missCount = new LongAdder();
+
+	/**
+	 * Constructor
+	 * @param maxEntries Max number of cached entries, must be greater than <code>0</code>
+	 * @param timeToLive Time to live of the cached entries, must be greater than <code>0</code>
+	 * @param unit Time to live unit (not null)
+	 */
+	public DefaultItemPageCache(int maxEntries, long timeToLive, TimeUnit unit) {
+		super();
+		ObjectUtils.argumentNotNull(unit, "Time unit must be not null");
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException("Max entries must be greater than 0");
+		}
+		if (timeToLive <= 0) {
+			throw new IllegalArgumentException("Time to live must be greater than 0");
+		}
+		this.maxEntries = maxEntries;
+		this.timeToLive = unit.toNanos(timeToLive);
+		this.entries = new LinkedHashMap<EntryKey, Entry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<EntryKey, Entry> eldest) {
+				return size() > DefaultItemPageCache.this.maxEntries;
+			}
+
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemPageCache#cached(com.holonplatform.vaadin7.data.ItemDataProvider,
+	 * com.holonplatform.core.datastore.DataTarget, com.holonplatform.core.property.PropertySet)
+	 */
+	@Override
+	public ItemDataProvider<PropertyBox> cached(ItemDataProvider<PropertyBox> provider, DataTarget<?> target,
+			PropertySet<?> propertySet) {
+		ObjectUtils.argumentNotNull(propertySet, "PropertySet must be not null");
+		return new CachingItemDataProvider<>(this, provider, target, getDiscriminator(propertySet),
+				box -> box.cloneBox());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemPageCache#cached(com.holonplatform.vaadin7.data.ItemDataProvider,
+	 * com.holonplatform.core.datastore.DataTarget, java.lang.Class, java.util.function.UnaryOperator)
+	 */
+	@Override
+	public <ITEM> ItemDataProvider<ITEM> cached(ItemDataProvider<ITEM> provider, DataTarget<?> target,
+			Class<? extends ITEM> itemType, UnaryOperator<ITEM> copier) {
+		ObjectUtils.argumentNotNull(itemType, "Item type must be not null");
+		return new CachingItemDataProvider<>(this, provider, target, itemType.getName(), copier);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemPageCache#invalidate(com.holonplatform.core.datastore.DataTarget)
+	 */
+	@Override
+	public void invalidate(DataTarget<?> target) {
+		ObjectUtils.argumentNotNull(target, "DataTarget must be not null");
+		invalidate(getTargetName(target));
+	}
+
+	/**
+	 * Remove all the cached entries bound to given data target name.
+	 * @param target Data target name
+	 */
+	protected void invalidate(String target) {
+		generations.computeIfAbsent(target, t -> new AtomicLong()).incrementAndGet();
+		synchronized (entries) {
+			entries.keySet().removeIf(k -> k.target.equals(target));
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemPageCache#invalidateAll()
+	 */
+	@Override
+	public void invalidateAll() {
+		generations.values().forEach(g -> g.incrementAndGet());
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemPageCache#size()
+	 */
+	@Override
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemPageCache#getHitCount()
+	 */
+	@Override
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemPageCache#getMissCount()
+	 */
+	@Override
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * Get the cached value bound to given data provider, data target and fingerprint, using given
+	 * <code>loader</code> to obtain and cache it if not available.
+	 * @param <V> Value type
+	 * @param provider Data provider identity, as returned by {@link #getProviderIdentity(ItemDataProvider)}
+	 * @param target Data target name
+	 * @param fingerprint Query fingerprint
+	 * @param loader Value loader
+	 * @return The value
+	 */
+	@SuppressWarnings("unchecked")
+	protected <V> V get(Object provider, String target, QueryFingerprint fingerprint, Supplier<V> loader) {
+		final EntryKey key = new EntryKey(provider, target, fingerprint);
+		final long now = System.nanoTime();
+		synchronized (entries) {
+			final Entry entry = entries.get(key);
+			if (entry != null) {
+				if (now - entry.expiresAt < 0) {
+					hitCount.increment();
+					return (V) entry.value;
+				}
+				entries.remove(key);
+			}
+		}
+		missCount.increment();
+		// the value is not cached if the data target is invalidated while loading
+		final long generation = getGeneration(target);
+		final V value = loader.get();
+		if (value != null && generation == getGeneration(target)) {
+			synchronized (entries) {
+				entries.put(key, new Entry(value, now + timeToLive));
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Get the current generation of given data target.
+	 * @param target Data target name
+	 * @return Data target generation
+	 */
+	private long getGeneration(String target) {
+		final AtomicLong generation = generations.get(target);
+		return (generation != null) ? generation.get() : 0L;
+	}
+
+	/**
+	 * Get the name to use to identify given data target.
+	 * @param target Data target
+	 * @return Data target name
+	 */
+	protected static String getTargetName(DataTarget<?> target) {
+		return target.fullName();
+	}
+
+	/**
+	 * Get the identity of given data provider, used to bind the cached entries to the data provider which loaded them.
+	 * <p>
+	 * Coalescing data providers are unwrapped to the concrete data provider. For {@link DatastoreItemDataProvider}s
+	 * the identity is given by the {@link Datastore} instance and the identifier properties, so that the data
+	 * providers of different sessions using the same Datastore share the cached pages. For any other data provider,
+	 * the data provider itself is used, compared by its <code>equals</code> method.
+	 * </p>
+	 * @param provider Data provider
+	 * @return Data provider identity
+	 */
+	protected static Object getProviderIdentity(ItemDataProvider<?> provider) {
+		ItemDataProvider<?> concrete = provider;
+		while (concrete instanceof CoalescingItemDataProvider) {
+			concrete = ((CoalescingItemDataProvider<?>) concrete).getProvider();
+		}
+		if (concrete instanceof DatastoreItemDataProvider) {
+			final DatastoreItemDataProvider datastoreProvider = (DatastoreItemDataProvider) concrete;
+			return new DatastoreIdentity(datastoreProvider.getDatastore(),
+					getDiscriminator(datastoreProvider.getIdentifierProperties()));
+		}
+		return concrete;
+	}
+
+	/**
+	 * Get the value which discriminates the {@link PropertyBox} items of the same data target with given property set.
+	 * @param propertySet Property set
+	 * @return The property set discriminator, i.e. the list of the property names and types
+	 */
+	protected static List<String> getDiscriminator(PropertySet<?> propertySet) {
+		final List<String> properties = new ArrayList<>();
+		for (Property<?> property : propertySet) {
+			properties.add(((property instanceof Path) ? ((Path<?>) property).fullName() : property.getName()) + ":"
+					+ property.getType().getName());
+		}
+		return properties;
+	}
+
+	/**
+	 * Identity of a {@link DatastoreItemDataProvider}: the Datastore instance is compared by reference.
+	 */
+	private static final class DatastoreIdentity {
+
+		final Datastore datastore;
+		final List<String> identifiers;
+
+		DatastoreIdentity(Datastore datastore, List<String> identifiers) {
+			super();
+			this.datastore = datastore;
+			this.identifiers = identifiers;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(datastore) + identifiers.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof DatastoreIdentity)) {
+				return false;
+			}
+			final DatastoreIdentity other = (DatastoreIdentity) obj;
+			return datastore == other.datastore && identifiers.equals(other.identifiers);
+		}
+
+	}
+
+	/**
+	 * Cache entry key
+	 */
+	private static final class EntryKey {
+
+		final Object provider;
+		final String target;
+		final QueryFingerprint fingerprint;
+		private final int hash;
+
+		EntryKey(Object provider, String target, QueryFingerprint fingerprint) {
+			super();
+			this.provider = provider;
+			this.target = target;
+			this.fingerprint = fingerprint;
+			this.hash = 31 * (31 * provider.hashCode() + target.hashCode()) + fingerprint.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof EntryKey)) {
+				return false;
+			}
+			final EntryKey other = (EntryKey) obj;
+			return provider.equals(other.provider) && target.equals(other.target)
+					&& fingerprint.equals(other.fingerprint);
+		}
+
+	}
+
+	/**
+	 * Cache entry
+	 */
+	private static final class Entry {
+
+		final Object value;
+		final long expiresAt;
+
+		Entry(Object value, long expiresAt) {
+			super();
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+	}
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2000-2017 Holon TDCN.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.holonplatform.vaadin7.data.ItemSetDelta;
+
+/**
+ * Default {@link ItemSetDelta} implementation.
+ * 
+ * @param <ITEM> Item type
+ *
+ * @since 5.2.5
+ */
+public class DefaultItemSetDelta<ITEM> implements ItemSetDelta<ITEM> {
+
+	private static final long serialVersionUID = -6311694281342624817L;
+
+	private final List<ITEM> insertedItems = new ArrayList<>();
+	private final List<ITEM> updatedItems = new ArrayList<>();
+	private final List<Object> deletedItemIds = new ArrayList<>();
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetDelta#getInsertedItems()
+	 */
+	@Override
+	public List<ITEM> getInsertedItems() {
+		return Collections.unmodifiableList(insertedItems);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetDelta#getUpdatedItems()
+	 */
+	@Override
+	public List<ITEM> getUpdatedItems() {
+		return Collections.unmodifiableList(updatedItems);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetDelta#getDeletedItemIds()
+	 */
+	@Override
+	public List<?> getDeletedItemIds() {
+		return Collections.unmodifiableList(deletedItemIds);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "DefaultItemSetDelta [inserted=" + insertedItems.size() + ", updated=" + updatedItems.size()
+				+ ", deleted=" + deletedItemIds.size() + "]";
+	}
+
+	/**
+	 * Default {@link ItemSetDelta.Builder} implementation.
+	 * @param <ITEM> Item type
+	 */
+	public static class DefaultBuilder<ITEM> implements ItemSetDelta.Builder<ITEM> {
+
+		private final DefaultItemSetDelta<ITEM> instance = new DefaultItemSetDelta<>();
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.holonplatform.vaadin7.data.ItemSetDelta.Builder#inserted(java.lang.Object)
+		 */
+		@Override
+		public ItemSetDelta.Builder<ITEM> inserted(ITEM item) {
+			ObjectUtils.argumentNotNull(item, "Item must be not null");
+			instance.insertedItems.add(item);
+			return this;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.holonplatform.vaadin7.data.ItemSetDelta.Builder#updated(java.lang.Object)
+		 */
+		@Override
+		public ItemSetDelta.Builder<ITEM> updated(ITEM item) {
+			ObjectUtils.argumentNotNull(item, "Item must be not null");
+			instance.updatedItems.add(item);
+			return this;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.holonplatform.vaadin7.data.ItemSetDelta.Builder#deleted(java.lang.Object)
+		 */
+		@Override
+		public ItemSetDelta.Builder<ITEM> deleted(Object itemId) {
+			ObjectUtils.argumentNotNull(itemId, "Item id must be not null");
+			instance.deletedItemIds.add(itemId);
+			return this;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.holonplatform.vaadin7.data.ItemSetDelta.Builder#build()
+		 */
+		@Override
+		public ItemSetDelta<ITEM> build() {
+			return instance;
+		}
+
+	}
+
+}
@@ -15,42 +15,101 @@
  */
 package com.holonplatform.vaadin7.internal.data;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.function.Supplier;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import com.holonplatform.core.internal.Logger;
 import com.holonplatform.core.internal.utils.ObjectUtils;
 import com.holonplatform.core.query.QueryConfigurationProvider;
+import com.holonplatform.vaadin7.data.ItemCacheBudget;
+import com.holonplatform.vaadin7.data.ItemCachePolicy;
+import com.holonplatform.vaadin7.data.ItemCacheStatistics;
+import com.holonplatform.vaadin7.data.ItemDataMetricsListener;
 import com.holonplatform.vaadin7.data.ItemDataProvider;
 import com.holonplatform.vaadin7.data.ItemIdentifierProvider;
+import com.holonplatform.vaadin7.data.ItemIndexResolver;
+import com.holonplatform.vaadin7.data.ItemLoadCancellation;
+import com.holonplatform.vaadin7.data.ItemSetIdLoader;
+import com.holonplatform.vaadin7.data.ItemSetDelta;
+import com.holonplatform.vaadin7.data.ItemSetKeysetLoader;
 import com.holonplatform.vaadin7.data.ItemDataSource.ItemAction;
+import com.holonplatform.vaadin7.internal.VaadinLogger;
 
 /**
  * Default {@link ItemStore} implementation using {@link ItemDataProvider} to load items on demand.
  * 
  * @since 5.0.0
  */
-public class DefaultItemStore<ITEM> implements ItemStore<ITEM> {
+public class DefaultItemStore<ITEM> implements ItemStore<ITEM>, ItemCacheBudget.Participant {
 
 	private static final long serialVersionUID = 3190254710573117380L;
 
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = VaadinLogger.create();
+
+	/**
+	 * Max number of prefetched batches which can be pending at the same time
+	 */
+	private static final int MAX_PENDING_PREFETCHES = 2;
+
+	/**
+	 * Max number of keyset pagination anchors to retain
+	 */
+	private static final int MAX_KEYSETS = 1000;
+
+	/**
+	 * Min number of item id index mappings to retain
+	 */
+	private static final int MIN_ITEM_INDEXES = 1000;
+
+	/**
+	 * Number of item ids to load at once when the item ids are loaded without the items
+	 */
+	private static final int ITEM_IDS_CHUNK_SIZE = 1000;
+
 	/**
 	 * Data source configuration
 	 */
 	private final QueryConfigurationProvider configuration;
 
 	/**
-	 * {@link ItemDataProvider} factory
+	 * Items provider
 	 */
-	private final Supplier<ItemDataProvider<ITEM>> dataProviderFactory;
+	private final ItemDataProvider<ITEM> dataProvider;
 
 	/**
-	 * Current query
+	 * Current query, rebuilt (and re-counted) when not available
 	 */
-	private ItemDataProvider<ITEM> query;
+	private transient ItemDataProvider<ITEM> query;
 
 	/**
 	 * Item identifier provider
@@ -62,15 +121,20 @@ public class DefaultItemStore<ITEM> implements ItemStore<ITEM> {
 	 */
 	private int querySize = -1;
 
+	/**
+	 * Fingerprint of the query filter and parameters used to obtain the current query size
+	 */
+	private transient QueryFingerprint querySizeFingerprint;
+
 	/**
 	 * Item ids
 	 */
-	private List<?> itemIds;
+	private transient List<?> itemIds;
 
 	/**
-	 * Items cache
+	 * Items cache, not serialized: only its policy and max size are written, see {@link #writeObject}
 	 */
-	private ItemCacheMap<ITEM> itemCache;
+	private transient ItemCache<ITEM> itemCache;
 
 	/**
 	 * List of added items since last commit or discard
@@ -100,6 +164,89 @@ public class DefaultItemStore<ITEM> implements ItemStore<ITEM> {
 	 */
 	private final int batchSize;
 
+	/**
+	 * Adaptive batch size, if <code>null</code> the fixed batch size is used
+	 */
+	private AdaptiveBatchSize adaptiveBatchSize;
+
+	/**
+	 * Whether the items cache max size follows the adaptive batch size
+	 */
+	private boolean adaptiveCacheSize;
+
+	/**
+	 * Executor to use to prefetch item batches in background. If <code>null</code>, prefetching is disabled.
+	 */
+	private transient Executor prefetchExecutor;
+
+	/**
+	 * Executor to use to load the first items batch concurrently with the items count. If <code>null</code>, the
+	 * first items batch is loaded after the items count.
+	 */
+	private transient Executor firstBatchExecutor;
+
+	/**
+	 * Prefetched item batches not yet moved into the items cache, bound to the batch start index
+	 */
+	private transient Map<Integer, PrefetchedBatch<ITEM>> prefetchedBatches;
+
+	/**
+	 * Items count and load operations timeout in milliseconds, <code>0</code> for none
+	 */
+	private long loadTimeout = 0;
+
+	/**
+	 * Cancellation flag of the count and load operations started since the last store reset
+	 */
+	private transient AtomicBoolean loadGeneration;
+
+	/**
+	 * Data access metrics listener
+	 */
+	private ItemDataMetricsListener metricsListener;
+
+	/**
+	 * Data access metrics tags
+	 */
+	private Map<String, String> metricsTags = Collections.emptyMap();
+
+	/**
+	 * Items cache budget shared with other stores, if any
+	 */
+	private ItemCacheBudget cacheBudget;
+
+	/**
+	 * Estimated average weight of the cached items, using the cache budget, <code>0</code> if not available
+	 */
+	private transient double itemWeight = 0;
+
+	/**
+	 * Index of the last requested item, used to detect sequential access
+	 */
+	private int lastRequestedIndex = -1;
+
+	/**
+	 * Store contents revision, incremented each time the item positions are changed or the store is reset
+	 */
+	private transient int revision = 0;
+
+	/**
+	 * Keyset pagination anchors: the keyset of the last item of each loaded batch, bound to the index of the item
+	 * which follows it
+	 */
+	private transient Map<Integer, Object> keysets;
+
+	/**
+	 * The index of the loaded items, not considering the added items, bound to the item id
+	 */
+	private transient Map<Object, Integer> itemIndexes;
+
+	/**
+	 * The expected index of the items of the scroll window restored after deserialization, bound to the item id. Each
+	 * expected index is used only once, to load the batch which should contain the item
+	 */
+	private transient Map<Object, Integer> restoredIndexes;
+
 	/**
 	 * Constructor
 	 * @param configuration Data source configuration (not null)
@@ -113,10 +260,10 @@ public class DefaultItemStore<ITEM> implements ItemStore<ITEM> {
 		ObjectUtils.argumentNotNull(configuration, "Configuration must be not null");
 		ObjectUtils.argumentNotNull(dataProvider, "ItemDataProvider must be not null");
 		this.configuration = configuration;
-		this.dataProviderFactory = () -> dataProvider;
+		this.dataProvider = dataProvider;
 		this.itemIdentifierProvider = itemIdentifierProvider;
 		this.batchSize = batchSize;
-		this.itemCache = new ItemCacheMap<>(maxCacheSize);
+		this.itemCache = ItemCache.create(ItemCachePolicy.LRU, maxCacheSize);
 	}
 
 	/**
@@ -132,14 +279,203 @@ public class DefaultItemStore<ITEM> implements ItemStore<ITEM> {
 	 * @return the batch size
 	 */
 	public int getBatchSize() {
+		final AdaptiveBatchSize adaptive = adaptiveBatchSize;
+		if (adaptive != null) {
+			// a batch must not evict the previous one from the cache
+			final int maxCacheSize = getMaxCacheSize();
+			return (maxCacheSize > 1) ? Math.min(adaptive.getBatchSize(), maxCacheSize / 2)
+					: adaptive.getBatchSize();
+		}
 		return batchSize;
 	}
 
+	/**
+	 * Get the adaptive batch size.
+	 * @return the adaptive batch size, <code>null</code> if the fixed batch size is used
+	 */
+	public AdaptiveBatchSize getAdaptiveBatchSize() {
+		return adaptiveBatchSize;
+	}
+
+	/**
+	 * Set the adaptive batch size. When configured, the batch size is computed from the number of items requested by
+	 * the client (see {@link #onItemsRequested(int)}) and from the observed load latency, instead of using the fixed
+	 * batch size.
+	 * @param adaptiveBatchSize the adaptive batch size, <code>null</code> to use the fixed batch size
+	 * @param adaptiveCacheSize Whether the items cache max size follows the adaptive batch size. The cache is resized
+	 *        only when the store is reset, since it is cleared anyway.
+	 */
+	public void setAdaptiveBatchSize(AdaptiveBatchSize adaptiveBatchSize, boolean adaptiveCacheSize) {
+		this.adaptiveBatchSize = adaptiveBatchSize;
+		this.adaptiveCacheSize = adaptiveBatchSize != null && adaptiveCacheSize;
+	}
+
+	/**
+	 * Notify the number of items requested by the client in a single request, for example the rows of the client side
+	 * viewport. Used by the adaptive batch size, if configured.
+	 * @param count Requested items
+	 */
+	public void onItemsRequested(int count) {
+		final AdaptiveBatchSize adaptive = adaptiveBatchSize;
+		if (adaptive != null) {
+			adaptive.onItemsRequested(count);
+		}
+	}
+
+	/**
+	 * Get the executor to use to prefetch item batches in background.
+	 * @return the prefetch executor, <code>null</code> if prefetching is disabled
+	 */
+	public Executor getPrefetchExecutor() {
+		return prefetchExecutor;
+	}
+
+	/**
+	 * Set the executor to use to prefetch item batches in background.
+	 * <p>
+	 * When an executor is available and a sequential access to the store items is detected using
+	 * {@link #getItem(int)}, the next (or the previous, when scrolling backwards) items batch is loaded in background
+	 * using the {@link ItemDataProvider}. The loaded items are moved into the items cache by the thread which requests
+	 * them, so the items cache and the item action listeners are never accessed concurrently.
+	 * </p>
+	 * <p>
+	 * The query configuration is evaluated before the background load is started, so the {@link ItemDataProvider} is
+	 * invoked using a {@link QueryConfigurationSnapshot}.
+	 * </p>
+	 * @param prefetchExecutor the executor to set, <code>null</code> to disable prefetching
+	 */
+	public void setPrefetchExecutor(Executor prefetchExecutor) {
+		this.prefetchExecutor = prefetchExecutor;
+		if (prefetchExecutor == null) {
+			clearPrefetchedBatches();
+		}
+	}
+
+	/**
+	 * Get the executor to use to load the first items batch concurrently with the items count.
+	 * @return the first batch executor, <code>null</code> if the first batch is not loaded concurrently
+	 */
+	public Executor getFirstBatchExecutor() {
+		return firstBatchExecutor;
+	}
+
+	/**
+	 * Set the executor to use to load the first items batch concurrently with the items count.
+	 * <p>
+	 * When an executor is available, each time the items count has to be performed the first items batch is loaded in
+	 * background at the same time, so that the first items are available after the latency of a single query instead
+	 * of two consecutive queries. The loaded items are moved into the items cache by the thread which requests them.
+	 * </p>
+	 * <p>
+	 * The query configuration is evaluated before the background load is started, so the {@link ItemDataProvider} is
+	 * invoked using a {@link QueryConfigurationSnapshot}.
+	 * </p>
+	 * @param firstBatchExecutor the executor to set, <code>null</code> to load the first batch after the items count
+	 */
+	public void setFirstBatchExecutor(Executor firstBatchExecutor) {
+		this.firstBatchExecutor = firstBatchExecutor;
+	}
+
+	/**
+	 * Get the items count and load operations timeout.
+	 * @return the timeout in milliseconds, <code>0</code> if no timeout is configured
+	 */
+	public long getLoadTimeout() {
+		return loadTimeout;
+	}
+
+	/**
+	 * Set the items count and load operations timeout.
+	 * <p>
+	 * Each count and load operation is performed providing a query configuration which acts as
+	 * {@link ItemLoadCancellation} token to the {@link ItemDataProvider}. The token is cancelled when the operation
+	 * is superseded, i.e. when the store is reset or a background read-ahead is discarded, and it expires when the
+	 * operation exceeds given timeout. It is up to the {@link ItemDataProvider} to abort a cancelled operation.
+	 * </p>
+	 * @param loadTimeout the timeout in milliseconds, <code>0</code> for none
+	 */
+	public void setLoadTimeout(long loadTimeout) {
+		this.loadTimeout = Math.max(0, loadTimeout);
+	}
+
+	/**
+	 * Get the items cache budget.
+	 * @return the items cache budget, <code>null</code> if none
+	 */
+	public ItemCacheBudget getCacheBudget() {
+		return cacheBudget;
+	}
+
+	/**
+	 * Set the items cache budget shared with other stores. When the budget is exceeded after an items load, the cached
+	 * items of the least recently used stores are released until the budget usage is back within the limit.
+	 * @param cacheBudget the items cache budget, <code>null</code> for none
+	 */
+	public void setCacheBudget(ItemCacheBudget cacheBudget) {
+		if (this.cacheBudget != null && this.cacheBudget != cacheBudget) {
+			this.cacheBudget.unregister(this);
+		}
+		this.cacheBudget = cacheBudget;
+		this.itemWeight = 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemCacheBudget.Participant#getCacheUsage()
+	 */
+	@Override
+	public long getCacheUsage() {
+		final ItemCache<ITEM> cache = getItemCache();
+		if (cache == null || itemWeight <= 0) {
+			return 0;
+		}
+		return (long) Math.ceil(cache.size() * itemWeight);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemCacheBudget.Participant#releaseCache(long)
+	 */
+	@Override
+	public long releaseCache(long weight) {
+		final ItemCache<ITEM> cache = getItemCache();
+		if (cache == null || weight <= 0 || itemWeight <= 0) {
+			return 0;
+		}
+		final long usage = getCacheUsage();
+		final int evicted = cache.evict((int) Math.min(cache.size(), Math.ceil(weight / itemWeight)));
+		LOGGER.debug(() -> "Released " + evicted + " cached items to comply with the items cache budget");
+		if (metricsListener != null && evicted > 0) {
+			metricsListener.onCacheEviction(metricsTags, evicted);
+		}
+		return usage - getCacheUsage();
+	}
+
+	/**
+	 * Get the data access metrics listener.
+	 * @return the metrics listener, <code>null</code> if none
+	 */
+	public ItemDataMetricsListener getMetricsListener() {
+		return metricsListener;
+	}
+
+	/**
+	 * Set the listener to notify about the items cache accesses and evictions and about the count and load
+	 * operations.
+	 * @param metricsListener the metrics listener, <code>null</code> for none
+	 * @param metricsTags the tags which identify this store in the metrics (may be null)
+	 */
+	public void setMetricsListener(ItemDataMetricsListener metricsListener, Map<String, String> metricsTags) {
+		this.metricsListener = metricsListener;
+		this.metricsTags = (metricsTags != null) ? Collections.unmodifiableMap(new LinkedHashMap<>(metricsTags))
+				: Collections.emptyMap();
+	}
+
 	/**
 	 * Get the items cache
 	 * @return the items cache
 	 */
-	protected ItemCacheMap<ITEM> getItemCache() {
+	protected ItemCache<ITEM> getItemCache() {
 		return itemCache;
 	}
 
@@ -200,7 +536,39 @@ public class DefaultItemStore<ITEM> implements ItemStore<ITEM> {
 	@Override
 	public void setMaxCacheSize(int maxCacheSize) {
 		reset(false, false);
-		this.itemCache = new ItemCacheMap<>(maxCacheSize);
+		this.itemCache = ItemCache.create(itemCache.getPolicy(), maxCacheSize);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemStore#getCachePolicy()
+	 */
+	@Override
+	public ItemCachePolicy getCachePolicy() {
+		return itemCache.getPolicy();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemStore#setCachePolicy(com.holonplatform.vaadin7.data.
+	 * ItemCachePolicy)
+	 */
+	@Override
+	public void setCachePolicy(ItemCachePolicy cachePolicy) {
+		ObjectUtils.argumentNotNull(cachePolicy, "Cache policy must be not null");
+		if (cachePolicy != itemCache.getPolicy()) {
+			reset(false, false);
+			this.itemCache = ItemCache.create(cachePolicy, itemCache.getMaxSize());
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemStore#getCacheStatistics()
+	 */
+	@Override
+	public ItemCacheStatistics getCacheStatistics() {
+		return itemCache.getStatistics();
 	}
 
 	/*
@@ -247,13 +615,84 @@ public class DefaultItemStore<ITEM> implements ItemStore<ITEM> {
 		return itemIds;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemStore#itemIdsIterator()
+	 */
+	@Override
+	public Iterator<?> itemIdsIterator() {
+		if (isFreezed()) {
+			return Collections.emptyIterator();
+		}
+		if (itemIdentifierProvider == null) {
+			return getItemIds().iterator();
+		}
+		final ItemDataProvider<ITEM> provider = getItemQuery();
+		if (provider instanceof ItemSetIdLoader && ((ItemSetIdLoader) provider).canLoadItemIds()) {
+			return new ItemIdsIterator((ItemSetIdLoader) provider);
+		}
+		return IntStream.range(0, size()).mapToObj(i -> {
+			final ITEM item = getItem(i);
+			return (item != null) ? getItemId(item) : null;
+		}).iterator();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see com.holonplatform.vaadin.data.ItemStore#indexOfItem(java.lang.Object)
 	 */
 	@Override
 	public int indexOfItem(Object itemId) {
-		return isFreezed() ? -1 : getItemIds().indexOf(itemId);
+		if (isFreezed() || itemId == null) {
+			return -1;
+		}
+		if (itemIdentifierProvider == null) {
+			return getItemIds().indexOf(itemId);
+		}
+		// added items
+		final int addedItemCount = getAddedItemsSize();
+		for (int i = 0; i < addedItemCount; i++) {
+			if (itemId.equals(getItemId(addedItems.get(i)))) {
+				return i;
+			}
+		}
+		// loaded items
+		if (itemIndexes != null) {
+			final Integer index = itemIndexes.get(itemId);
+			if (index != null) {
+				return addedItemCount + index;
+			}
+		}
+		// restored scroll window: load the batch at the expected index, the loaded items are indexed
+		final Integer expected = (restoredIndexes != null) ? restoredIndexes.remove(itemId) : null;
+		if (expected != null && expected < getItemQuerySize()) {
+			loadItem(expected);
+			final Integer index = (itemIndexes != null) ? itemIndexes.get(itemId) : null;
+			if (index != null) {
+				return addedItemCount + index;
+			}
+		}
+		// resolve using the data provider
+		final int size = getItemQuerySize();
+		final Optional<Integer> resolved = resolveItemIndex(itemId);
+		if (resolved.isPresent()) {
+			final int index = resolved.get();
+			if (index < 0) {
+				return -1;
+			}
+			if (index < size) {
+				putItemIndex(itemId, index);
+				return addedItemCount + index;
+			}
+		}
+		// brute force
+		for (int i = addedItemCount; i < size(); i++) {
+			ITEM itemAtIndex = getItem(i);
+			if (itemAtIndex != null && itemId.equals(getItemId(itemAtIndex))) {
+				return i;
+			}
+		}
+		return -1;
 	}
 
 	/*
@@ -262,7 +701,22 @@ public class DefaultItemStore<ITEM> implements ItemStore<ITEM> {
 	 */
 	@Override
 	public boolean containsItem(Object itemId) {
-		return isFreezed() ? false : getItemIds().contains(itemId);
+		return indexOfItem(itemId) != -1;
+	}
+
+	/**
+	 * Resolve the index of the item with given id using the {@link ItemDataProvider}, if it is an
+	 * {@link ItemIndexResolver}.
+	 * @param itemId Item id
+	 * @return The item index, not considering the added items, <code>-1</code> if the item does not belong to the
+	 *         items set. Empty if the index cannot be resolved
+	 */
+	protected Optional<Integer> resolveItemIndex(Object itemId) {
+		final ItemDataProvider<ITEM> provider = getItemQuery();
+		if (provider instanceof ItemIndexResolver) {
+			return ((ItemIndexResolver) provider).indexOfItem(getConfiguration(), itemId);
+		}
+		return Optional.empty();
 	}
 
 	/*
@@ -287,10 +741,15 @@ public class DefaultItemStore<ITEM> implements ItemStore<ITEM> {
 		// get from cache or load using query
 		final int itemIndex = index - addedItemCount;
 		ITEM item = getItemCache().getItem(itemIndex);
+		if (metricsListener != null) {
+			metricsListener.onCacheAccess(metricsTags, item != null);
+		}
 		if (item == null) {
 			// item not in cache, query for more items
-			return loadItem(itemIndex);
+			item = loadItem(itemIndex);
 		}
+		// check read-ahead
+		prefetch(itemIndex);
 		return item;
 	}
 
@@ -471,11 +930,338 @@ public class DefaultItemStore<ITEM> implements ItemStore<ITEM> {
 	 */
 	@Override
 	public void reset(boolean fireListeners, boolean freeze) {
+		reset(fireListeners, freeze, false);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemStore#resort(boolean)
+	 */
+	@Override
+	public void resort(boolean fireListeners) {
+		reset(fireListeners, false, true);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemStore#applyDelta(com.holonplatform.vaadin7.data.ItemSetDelta,
+	 * com.holonplatform.vaadin7.internal.data.ItemStore.ItemDeltaListener)
+	 */
+	@Override
+	public boolean applyDelta(ItemSetDelta<ITEM> delta, ItemDeltaListener<ITEM> listener) {
+		ObjectUtils.argumentNotNull(delta, "Item set delta must be not null");
+		if (isFreezed() || delta.isEmpty()) {
+			return true;
+		}
+		if (query == null) {
+			// nothing loaded yet, just make sure the items are counted again
+			querySize = -1;
+			querySizeFingerprint = null;
+			return true;
+		}
+		if (itemIdentifierProvider == null) {
+			// items cannot be located by id
+			reset(true, false);
+			return false;
+		}
+
+		revision++;
+		clearPrefetchedBatches();
+		lastRequestedIndex = -1;
+		itemIds = null;
+
+		// deleted items
+		boolean unknownDeletions = false;
+		for (Object itemId : delta.getDeletedItemIds()) {
+			final Integer index = (itemIndexes != null) ? itemIndexes.get(itemId) : null;
+			if (index != null) {
+				deleteItem(itemId, index, listener);
+			} else {
+				unknownDeletions = true;
+			}
+		}
+
+		// inserted items: resolve the positions after the deletions, and insert them in ascending order
+		final SortedMap<Integer, ITEM> insertions = new TreeMap<>();
+		for (ITEM item : delta.getInsertedItems()) {
+			final Object itemId = getItemId(item);
+			if (itemIndexes != null && itemIndexes.containsKey(itemId)) {
+				// already available
+				continue;
+			}
+			final Optional<Integer> index = resolveItemIndex(itemId);
+			if (!index.isPresent()) {
+				// position cannot be determined
+				reset(true, false);
+				return false;
+			}
+			if (index.get() >= 0) {
+				insertions.put(index.get(), item);
+			}
+		}
+		for (Entry<Integer, ITEM> insertion : insertions.entrySet()) {
+			if (insertion.getKey() > querySize) {
+				reset(true, false);
+				return false;
+			}
+			insertItem(getItemId(insertion.getValue()), insertion.getKey(), insertion.getValue(), listener);
+		}
+
+		// check the items count if the position of some deleted item was not known
+		if (unknownDeletions && querySize != (int) count(query, getConfiguration())) {
+			reset(true, false);
+			return false;
+		}
+
+		// updated items
+		for (ITEM item : delta.getUpdatedItems()) {
+			final Object itemId = getItemId(item);
+			final Integer index = (itemIndexes != null) ? itemIndexes.get(itemId) : null;
+			if (index != null && getItemCache().containsItem(index)) {
+				final ITEM previous = getItemCache().getItem(index);
+				if (modifiedItems != null && modifiedItems.contains(previous)) {
+					// preserve buffered modifications
+					continue;
+				}
+				getItemCache().putItem(index, item);
+				if (listener != null) {
+					listener.onItemUpdated(item, itemId, previous);
+				}
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemStore#revalidate(java.util.concurrent.Executor,
+	 * java.util.function.Consumer, java.util.function.BiPredicate,
+	 * com.holonplatform.vaadin7.internal.data.ItemStore.ItemDeltaListener)
+	 */
+	@Override
+	public CompletableFuture<Void> revalidate(Executor executor, Consumer<Runnable> synchronizer,
+			BiPredicate<ITEM, ITEM> equivalence, ItemDeltaListener<ITEM> listener) {
+		ObjectUtils.argumentNotNull(executor, "Executor must be not null");
+		ObjectUtils.argumentNotNull(synchronizer, "Synchronizer must be not null");
+		ObjectUtils.argumentNotNull(equivalence, "Item equivalence predicate must be not null");
+
+		final CompletableFuture<Void> result = new CompletableFuture<>();
+		if (isFreezed()) {
+			reset(true, false);
+			result.complete(null);
+			return result;
+		}
+
+		// state to revalidate
+		final int expectedRevision = revision;
+		final ItemDataProvider<ITEM> provider = (query != null) ? query : dataProvider;
+		final CancellableQueryConfiguration configuration = cancellable(
+				QueryConfigurationSnapshot.of(getConfiguration()));
+		final QueryFingerprint fingerprint = QueryFingerprint
+				.of(configuration.getQueryFilter(), configuration.getQueryParameters()).orElse(null);
+		final int batchSize = Math.max(1, getBatchSize());
+		final int startIndex = (lastRequestedIndex < 0) ? 0
+				: Math.max(0, lastRequestedIndex - lastRequestedIndex % batchSize - batchSize);
+		final int count = 2 * batchSize;
+
+		CompletableFuture.supplyAsync(() -> {
+			final int size = (int) count(provider, configuration);
+			final List<ITEM> items = (size > startIndex)
+					? load(provider, configuration, startIndex, Math.min(count, size - startIndex), null)
+					: Collections.<ITEM>emptyList();
+			return new Revalidation<>(size, items);
+		}, executor).whenComplete((revalidation, error) -> {
+			try {
+				synchronizer.accept(() -> {
+					if (error != null) {
+						result.completeExceptionally(error);
+						return;
+					}
+					try {
+						if (expectedRevision == revision && !isFreezed()) {
+							applyRevalidation(provider, fingerprint, startIndex, revalidation, equivalence, listener);
+						}
+						result.complete(null);
+					} catch (RuntimeException e) {
+						result.completeExceptionally(e);
+					}
+				});
+			} catch (RuntimeException e) {
+				result.completeExceptionally(e);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Apply the items count and the items window loaded by a {@link #revalidate(Executor, Consumer, BiPredicate,
+	 * ItemDeltaListener)} operation.
+	 * @param provider The data provider used to load the data
+	 * @param fingerprint The query fingerprint at load time
+	 * @param startIndex The index of the first loaded item
+	 * @param revalidation The loaded data
+	 * @param equivalence Item equivalence predicate
+	 * @param listener Listener to notify about each replaced item (may be null)
+	 */
+	private void applyRevalidation(ItemDataProvider<ITEM> provider, QueryFingerprint fingerprint, int startIndex,
+			Revalidation<ITEM> revalidation, BiPredicate<ITEM, ITEM> equivalence, ItemDeltaListener<ITEM> listener) {
+		final List<ITEM> items = revalidation.getItems();
+		// check whether the item set is unchanged, apart from the item contents
+		boolean sameItemSet = query != null && querySize == revalidation.getSize();
+		final List<ITEM> previousItems = new ArrayList<>(items.size());
+		for (int i = 0; i < items.size(); i++) {
+			final ITEM previous = getItemCache().containsItem(startIndex + i) ? getItemCache().getItem(startIndex + i)
+					: null;
+			if (previous != null && sameItemSet) {
+				if (itemIdentifierProvider != null) {
+					sameItemSet = Objects.equals(itemIdentifierProvider.getItemId(previous),
+							itemIdentifierProvider.getItemId(items.get(i)));
+				} else {
+					// items cannot be identified
+					sameItemSet = equivalence.test(previous, items.get(i));
+				}
+			}
+			previousItems.add(previous);
+		}
+
+		// replace the cached items with the fresh items window
+		clearPrefetchedBatches();
+		if (keysets != null) {
+			keysets.clear();
+		}
+		if (itemIndexes != null) {
+			itemIndexes.clear();
+		}
+		restoredIndexes = null;
+		getItemCache().clear();
+		final List<ITEM> cachedItems = new ArrayList<>(items.size());
+		for (int i = 0; i < items.size(); i++) {
+			ITEM item = items.get(i);
+			final ITEM previous = previousItems.get(i);
+			if (sameItemSet && previous != null) {
+				if (equivalence.test(previous, item) || (modifiedItems != null && modifiedItems.contains(previous))) {
+					// unchanged or modified in buffer: keep the current instance
+					item = previous;
+				} else if (listener != null) {
+					listener.onItemUpdated(item, itemIdentifierProvider.getItemId(item), previous);
+				}
+			}
+			// do not hide the pending modifications
+			item = getBufferedItem(item);
+			getItemCache().putItem(startIndex + i, item);
+			if (itemIdentifierProvider != null) {
+				putItemIndex(itemIdentifierProvider.getItemId(item), startIndex + i);
+			}
+			cachedItems.add(item);
+		}
+
+		if (!sameItemSet) {
+			revision++;
+			query = provider;
+			querySize = revalidation.getSize();
+			querySizeFingerprint = fingerprint;
+			itemIds = null;
+			lastRequestedIndex = -1;
+			fireItemActionListeners(null, null, null, ItemAction.SET_CHANGED);
+		}
+		// fired after any set change, so that the cached items are tracked by the current listeners
+		for (int i = 0; i < cachedItems.size(); i++) {
+			fireItemActionListeners(cachedItems.get(i), null, previousItems.get(i), ItemAction.LOADED);
+		}
+	}
+
+	/**
+	 * Delete the item with given id from the items obtained from the data provider, shifting the following items.
+	 * @param itemId Item id
+	 * @param index Item index, not considering the added items
+	 * @param listener Listener to notify (may be null)
+	 */
+	private void deleteItem(Object itemId, int index, ItemDeltaListener<ITEM> listener) {
+		final ITEM item = getItemCache().removeItem(index);
+		getItemCache().shiftItems(index + 1, -1);
+		itemIndexes.remove(itemId);
+		shiftItemIndexes(index + 1, -1);
+		if (keysets != null) {
+			keysets.clear();
+		}
+		querySize--;
+		// discard any buffered modification
+		if (modifiedItems != null && item != null) {
+			modifiedItems.remove(item);
+		}
+		if (removedItems != null) {
+			removedItems.removeIf(i -> itemId.equals(getItemId(i)));
+		}
+		if (listener != null) {
+			listener.onItemDeleted(item, itemId, getAddedItemsSize() + index);
+		}
+	}
+
+	/**
+	 * Insert given item in the items obtained from the data provider, shifting the following items.
+	 * @param itemId Item id
+	 * @param index Item index, not considering the added items
+	 * @param item Item to insert
+	 * @param listener Listener to notify (may be null)
+	 */
+	private void insertItem(Object itemId, int index, ITEM item, ItemDeltaListener<ITEM> listener) {
+		getItemCache().shiftItems(index, 1);
+		shiftItemIndexes(index, 1);
+		if (keysets != null) {
+			keysets.clear();
+		}
+		getItemCache().putItem(index, item);
+		putItemIndex(itemId, index);
+		querySize++;
+		if (listener != null) {
+			listener.onItemInserted(item, itemId, getAddedItemsSize() + index);
+		}
+	}
+
+	/**
+	 * Shift by given offset the recorded item indexes which are greater than or equal to given index.
+	 * @param fromIndex First index to shift
+	 * @param offset Offset to add
+	 */
+	private void shiftItemIndexes(int fromIndex, int offset) {
+		if (itemIndexes != null) {
+			itemIndexes.replaceAll((id, index) -> (index >= fromIndex) ? index + offset : index);
+		}
+	}
+
+	/**
+	 * Clear store contents and reset store state.
+	 * @param fireListeners Whether to fire item action listeners
+	 * @param freeze Whether to <em>freeze</em> the item store
+	 * @param preserveSize Whether to preserve the current query size, which will be used again if the query filter
+	 *        and parameters do not change
+	 */
+	protected void reset(boolean fireListeners, boolean freeze, boolean preserveSize) {
+		revision++;
 		freezed = freeze;
 		query = null;
+		if (!preserveSize) {
+			querySize = -1;
+			querySizeFingerprint = null;
+		}
 		itemIds = null;
+		lastRequestedIndex = -1;
+		clearPrefetchedBatches();
+		cancelLoads();
+		if (keysets != null) {
+			keysets.clear();
+		}
+		if (itemIndexes != null) {
+			itemIndexes.clear();
+		}
+		restoredIndexes = null;
 		if (getItemCache() != null) {
 			getItemCache().clear();
+			// follow the adaptive batch size
+			final AdaptiveBatchSize adaptive = adaptiveBatchSize;
+			if (adaptiveCacheSize && adaptive != null && adaptive.getCacheSize() != getItemCache().getMaxSize()) {
+				this.itemCache = ItemCache.create(getItemCache().getPolicy(), adaptive.getCacheSize());
+			}
 		}
 		discard();
 
@@ -511,13 +1297,53 @@ public class DefaultItemStore<ITEM> implements ItemStore<ITEM> {
 	 */
 	protected ItemDataProvider<ITEM> getItemQuery() {
 		if (query == null) {
-			query = dataProviderFactory.get();
-			// size
-			querySize = (int) query.size(getConfiguration());
+			query = dataProvider;
+			// size: re-count only if the query filter or parameters changed
+			final QueryFingerprint fingerprint = QueryFingerprint
+					.of(getConfiguration().getQueryFilter(), getConfiguration().getQueryParameters()).orElse(null);
+			if (querySize < 0 || fingerprint == null || !fingerprint.equals(querySizeFingerprint)) {
+				final PrefetchedBatch<ITEM> firstBatch = loadFirstBatchConcurrently(query);
+				try {
+					querySize = (int) count(query, cancellable(getConfiguration()));
+				} catch (RuntimeException e) {
+					if (firstBatch != null) {
+						firstBatch.getItems().cancel(false);
+					}
+					throw e;
+				}
+				querySizeFingerprint = fingerprint;
+				if (firstBatch != null) {
+					if (querySize > 0) {
+						if (prefetchedBatches == null) {
+							prefetchedBatches = new LinkedHashMap<>(4);
+						}
+						prefetchedBatches.put(0, firstBatch);
+					} else {
+						firstBatch.getItems().cancel(false);
+					}
+				}
+			}
 		}
 		return query;
 	}
 
+	/**
+	 * If a first batch executor is available, start loading the first items batch in background.
+	 * @param provider Items provider
+	 * @return The first items batch load, <code>null</code> if the first batch is not loaded concurrently
+	 */
+	private PrefetchedBatch<ITEM> loadFirstBatchConcurrently(ItemDataProvider<ITEM> provider) {
+		final int batchSize = getBatchSize();
+		if (firstBatchExecutor == null || batchSize <= 0) {
+			return null;
+		}
+		final CancellableQueryConfiguration configuration = cancellable(
+				QueryConfigurationSnapshot.of(getConfiguration()));
+		return new PrefetchedBatch<>(batchSize, cancelOnCompletion(CompletableFuture
+				.supplyAsync(() -> load(provider, configuration, 0, batchSize, null), firstBatchExecutor),
+				configuration));
+	}
+
 	/**
 	 * Load item for given index and the surrounding batch of items
 	 * @param index The index of requested item
@@ -531,31 +1357,456 @@ public class DefaultItemStore<ITEM> implements ItemStore<ITEM> {
 		final int startIndex = index - index % batchSize;
 		final int count = Math.min(batchSize, getItemQuerySize() - startIndex);
 
-		// load more items using query
-		List<ITEM> items = getItemQuery().load(getConfiguration(), startIndex, count).collect(Collectors.toList());
+		// check prefetched
+		List<ITEM> items = takePrefetchedBatch(startIndex, count);
+		if (items == null) {
+			// load more items using query
+			items = load(getItemQuery(), cancellable(getConfiguration()), startIndex, count, getKeyset(startIndex));
+		}
 		if (items == null) {
 			items = Collections.emptyList();
 		}
+		// keyset pagination anchor for next batch
+		if (count > 0 && items.size() == count) {
+			putKeyset(startIndex + count, items.get(count - 1));
+		}
 
 		// put Items in cache and setup value change listeners
+		final long evictions = (metricsListener != null) ? getItemCache().getStatistics().getEvictionCount() : 0;
 		for (int i = 0; i < count; i++) {
 			final int itemIndex = startIndex + i;
 			if (i < items.size()) {
-				ITEM item = items.get(i);
+				ITEM item = getBufferedItem(items.get(i));
 				if (itemIndex == index) {
 					// requested item
 					requestedItem = item;
 				}
 				ITEM previous = getItemCache().putItem(itemIndex, item);
+				if (itemIdentifierProvider != null && item != null) {
+					putItemIndex(itemIdentifierProvider.getItemId(item), itemIndex);
+				}
 
 				// fire listeners
 				fireItemActionListeners(item, null, previous, ItemAction.LOADED);
 			}
 		}
+		if (metricsListener != null) {
+			final long evicted = getItemCache().getStatistics().getEvictionCount() - evictions;
+			if (evicted > 0) {
+				metricsListener.onCacheEviction(metricsTags, evicted);
+			}
+		}
+		// shared cache budget
+		final ItemCacheBudget budget = cacheBudget;
+		if (budget != null && !items.isEmpty()) {
+			long weight = 0;
+			for (ITEM item : items) {
+				weight += budget.weigh(item);
+			}
+			updateItemWeight((double) weight / items.size(), items.size());
+			budget.onAccess(this);
+		}
 
 		return requestedItem;
 	}
 
+	/**
+	 * Update the estimated average weight of the cached items with the average weight of a loaded items batch. The
+	 * batch average is weighted by the fraction of the cached items it replaced, so the estimate follows a changing
+	 * item mix as the cache content turns over.
+	 * @param batchWeight The average weight of the loaded items
+	 * @param batchSize The number of loaded items
+	 */
+	private void updateItemWeight(double batchWeight, int batchSize) {
+		final int cached = getItemCache().size();
+		if (itemWeight <= 0 || cached <= batchSize) {
+			itemWeight = batchWeight;
+		} else {
+			itemWeight += (batchWeight - itemWeight) * batchSize / cached;
+		}
+	}
+
+	/**
+	 * Check whether the item access is sequential and, if so, start loading the next (or previous) items batch in
+	 * background when the requested item index goes beyond the middle of its batch.
+	 * @param index The index of the requested item, not considering the added items
+	 */
+	protected void prefetch(final int index) {
+		final int previousIndex = lastRequestedIndex;
+		lastRequestedIndex = index;
+
+		final int batchSize = getBatchSize();
+		if (prefetchExecutor == null || batchSize <= 0 || previousIndex < 0) {
+			return;
+		}
+
+		final int position = index % batchSize;
+		final int startIndex;
+		if (index == previousIndex + 1 && position >= batchSize / 2) {
+			// forward
+			startIndex = index - position + batchSize;
+		} else if (index == previousIndex - 1 && position < batchSize / 2) {
+			// backward
+			startIndex = index - position - batchSize;
+		} else {
+			return;
+		}
+
+		final int size = getItemQuerySize();
+		if (startIndex < 0 || startIndex >= size || getItemCache().containsItem(startIndex)) {
+			return;
+		}
+		if (prefetchedBatches == null) {
+			prefetchedBatches = new LinkedHashMap<>(4);
+		} else if (prefetchedBatches.containsKey(startIndex)) {
+			return;
+		}
+
+		// discard the oldest pending batches
+		final Iterator<PrefetchedBatch<ITEM>> pending = prefetchedBatches.values().iterator();
+		while (prefetchedBatches.size() >= MAX_PENDING_PREFETCHES && pending.hasNext()) {
+			pending.next().getItems().cancel(false);
+			pending.remove();
+		}
+
+		final ItemDataProvider<ITEM> provider = getItemQuery();
+		final CancellableQueryConfiguration configuration = cancellable(
+				QueryConfigurationSnapshot.of(getConfiguration()));
+		final int count = Math.min(batchSize, size - startIndex);
+		final Object keyset = getKeyset(startIndex);
+		prefetchedBatches.put(startIndex, new PrefetchedBatch<>(count, cancelOnCompletion(CompletableFuture
+				.supplyAsync(() -> load(provider, configuration, startIndex, count, keyset), prefetchExecutor),
+				configuration)));
+	}
+
+	/**
+	 * Load a batch of items using given provider. If the provider is an {@link ItemSetKeysetLoader} and a keyset is
+	 * available, keyset pagination is used.
+	 * @param provider Items provider
+	 * @param configuration Query configuration
+	 * @param startIndex Index of the first item to load
+	 * @param count Number of items to load
+	 * @param keyset The keyset of the item which precedes the first item to load, <code>null</code> if not available
+	 * @return Loaded items
+	 */
+	protected List<ITEM> load(ItemDataProvider<ITEM> provider, QueryConfigurationProvider configuration,
+			int startIndex, int count, Object keyset) {
+		final ItemDataMetricsListener listener = metricsListener;
+		final AdaptiveBatchSize adaptive = adaptiveBatchSize;
+		if (listener == null && adaptive == null) {
+			return doLoad(provider, configuration, startIndex, count, keyset);
+		}
+		final long start = System.nanoTime();
+		final List<ITEM> items;
+		try {
+			items = doLoad(provider, configuration, startIndex, count, keyset);
+		} catch (RuntimeException e) {
+			if (listener != null) {
+				listener.onLoad(metricsTags, System.nanoTime() - start, count, 0, true);
+			}
+			throw e;
+		}
+		final long duration = System.nanoTime() - start;
+		if (listener != null) {
+			listener.onLoad(metricsTags, duration, count, items.size(), false);
+		}
+		if (adaptive != null) {
+			adaptive.onLoad(items.size(), duration);
+		}
+		return items;
+	}
+
+	/**
+	 * Perform the items count using given provider.
+	 * @param provider Items provider
+	 * @param configuration Query configuration
+	 * @return The items count
+	 */
+	protected long count(ItemDataProvider<ITEM> provider, QueryConfigurationProvider configuration) {
+		final ItemDataMetricsListener listener = metricsListener;
+		if (listener == null) {
+			return provider.size(configuration);
+		}
+		final long start = System.nanoTime();
+		final long size;
+		try {
+			size = provider.size(configuration);
+		} catch (RuntimeException e) {
+			listener.onCount(metricsTags, System.nanoTime() - start, true);
+			throw e;
+		}
+		listener.onCount(metricsTags, System.nanoTime() - start, false);
+		return size;
+	}
+
+	/**
+	 * Load a batch of items using given provider.
+	 * @param provider Items provider
+	 * @param configuration Query configuration
+	 * @param startIndex Index of the first item to load
+	 * @param count Number of items to load
+	 * @param keyset The keyset of the item which precedes the first item to load, <code>null</code> if not available
+	 * @return Loaded items
+	 */
+	@SuppressWarnings("unchecked")
+	private List<ITEM> doLoad(ItemDataProvider<ITEM> provider, QueryConfigurationProvider configuration,
+			int startIndex, int count, Object keyset) {
+		final Stream<ITEM> items = (keyset != null && provider instanceof ItemSetKeysetLoader)
+				? ((ItemSetKeysetLoader<ITEM>) provider).load(configuration, startIndex, count, keyset)
+				: provider.load(configuration, startIndex, count);
+		// close the stream to release the data store resources also when the load is aborted
+		try (Stream<ITEM> stream = ItemLoadCancellation.cancellable(items, configuration)) {
+			return stream.collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Wrap given query configuration into a {@link CancellableQueryConfiguration}, which is cancelled when the store
+	 * is reset and expires after the configured load timeout, if any.
+	 * @param configuration Query configuration
+	 * @return The cancellable query configuration
+	 */
+	protected CancellableQueryConfiguration cancellable(QueryConfigurationProvider configuration) {
+		if (loadGeneration == null) {
+			loadGeneration = new AtomicBoolean(false);
+		}
+		return new CancellableQueryConfiguration(configuration, loadGeneration, loadTimeout);
+	}
+
+	/**
+	 * Cancel all the count and load operations started since the last store reset.
+	 */
+	private void cancelLoads() {
+		if (loadGeneration != null) {
+			loadGeneration.set(true);
+			loadGeneration = null;
+		}
+	}
+
+	/**
+	 * Cancel given background operation token when the operation future is cancelled.
+	 * @param <T> Result type
+	 * @param future Operation future
+	 * @param configuration Operation cancellation token
+	 * @return The operation future
+	 */
+	private static <T> CompletableFuture<T> cancelOnCompletion(CompletableFuture<T> future,
+			CancellableQueryConfiguration configuration) {
+		future.whenComplete((r, e) -> {
+			if (future.isCancelled()) {
+				configuration.cancel();
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Get the keyset pagination anchor for the item at given index, i.e. the keyset of the item which precedes it.
+	 * @param index Item index
+	 * @return The keyset, <code>null</code> if not available
+	 */
+	protected Object getKeyset(int index) {
+		return (keysets != null && index > 0) ? keysets.get(index) : null;
+	}
+
+	/**
+	 * If the {@link ItemDataProvider} supports keyset pagination, record the keyset of given item as the anchor to
+	 * load the items starting from given index.
+	 * @param index Index of the item which follows given item
+	 * @param item The item
+	 */
+	@SuppressWarnings("unchecked")
+	private void putKeyset(int index, ITEM item) {
+		if (item != null && query instanceof ItemSetKeysetLoader) {
+			final Object keyset = ((ItemSetKeysetLoader<ITEM>) query).getKeyset(getConfiguration(), item);
+			if (keyset != null) {
+				if (keysets == null) {
+					keysets = new LinkedHashMap<>();
+				} else if (keysets.size() >= MAX_KEYSETS) {
+					// discard the oldest anchor
+					final Iterator<Integer> eldest = keysets.keySet().iterator();
+					eldest.next();
+					eldest.remove();
+				}
+				keysets.put(index, keyset);
+			}
+		}
+	}
+
+	/**
+	 * If a modified item with the same id of given loaded item is buffered, get the modified item instance, so that
+	 * the pending modifications are not hidden when the items are loaded again, for example after a cache eviction or
+	 * a deserialization.
+	 * @param item The loaded item
+	 * @return The buffered modified item with the same id, or the loaded item if none
+	 */
+	private ITEM getBufferedItem(ITEM item) {
+		if (item != null && itemIdentifierProvider != null && modifiedItems != null && !modifiedItems.isEmpty()) {
+			final Object itemId = getItemId(item);
+			if (itemId != null) {
+				for (ITEM modified : modifiedItems) {
+					if (itemId.equals(getItemId(modified))) {
+						return modified;
+					}
+				}
+			}
+		}
+		return item;
+	}
+
+	/**
+	 * Record the index of the item with given id. The number of retained mappings is bound to a multiple of the items
+	 * cache size, discarding the oldest mappings first.
+	 * @param itemId Item id
+	 * @param index Item index, not considering the added items
+	 */
+	private void putItemIndex(Object itemId, int index) {
+		if (itemId != null) {
+			if (itemIndexes == null) {
+				itemIndexes = new LinkedHashMap<>();
+			} else if (!itemIndexes.containsKey(itemId)
+					&& itemIndexes.size() >= Math.max(MIN_ITEM_INDEXES, getMaxCacheSize() * 4)) {
+				// discard the oldest mapping
+				final Iterator<Object> eldest = itemIndexes.keySet().iterator();
+				eldest.next();
+				eldest.remove();
+			}
+			itemIndexes.put(itemId, index);
+		}
+	}
+
+	/**
+	 * Serialize the store configuration and the buffered changes. The items cache, the item ids and the current query
+	 * are not serialized: the items are loaded again after deserialization. To restore the current scroll position
+	 * without scanning the items set, the ids of the cached items around the last requested index are serialized:
+	 * after deserialization, the index of one of these items is resolved loading the batch at its previous index,
+	 * since the items set may have changed in the meantime.
+	 * @param out Output stream
+	 * @throws IOException If an I/O error occurs
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeObject(getCachePolicy());
+		out.writeInt(getMaxCacheSize());
+		// scroll window
+		final int windowSize = Math.max(1, getBatchSize());
+		final int windowStart = Math.max(0, lastRequestedIndex - windowSize);
+		Object[] windowIds = null;
+		if (itemIdentifierProvider != null && lastRequestedIndex >= 0 && getItemCache().size() > 0) {
+			windowIds = new Object[2 * windowSize];
+			for (int i = 0; i < windowIds.length; i++) {
+				final ITEM item = getItemCache().containsItem(windowStart + i)
+						? getItemCache().getItem(windowStart + i)
+						: null;
+				final Object itemId = (item != null) ? getItemId(item) : null;
+				if (itemId != null && !(itemId instanceof Serializable)) {
+					windowIds = null;
+					break;
+				}
+				windowIds[i] = itemId;
+			}
+		}
+		out.writeInt(windowStart);
+		out.writeObject(windowIds);
+	}
+
+	/**
+	 * Deserialize the store, creating a new empty items cache.
+	 * @param in Input stream
+	 * @throws IOException If an I/O error occurs
+	 * @throws ClassNotFoundException If a class cannot be found
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		final ItemCachePolicy cachePolicy = (ItemCachePolicy) in.readObject();
+		final int maxCacheSize = in.readInt();
+		this.itemCache = ItemCache.create((cachePolicy != null) ? cachePolicy : ItemCachePolicy.LRU, maxCacheSize);
+		// scroll window
+		final int windowStart = in.readInt();
+		final Object[] windowIds = (Object[]) in.readObject();
+		if (windowIds != null) {
+			restoredIndexes = new HashMap<>(windowIds.length);
+			for (int i = 0; i < windowIds.length; i++) {
+				if (windowIds[i] != null) {
+					restoredIndexes.put(windowIds[i], windowStart + i);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get and remove the items batch prefetched for given start index, if any, waiting for its completion if the
+	 * background load is still in progress.
+	 * <p>
+	 * If the batch was prefetched with a smaller batch size (for example when the adaptive batch size grew in the
+	 * meantime), the missing items are loaded synchronously, so that the returned items cover the requested
+	 * <code>count</code>.
+	 * </p>
+	 * @param startIndex Batch start index
+	 * @param count Number of requested items
+	 * @return The prefetched items, or <code>null</code> if no batch was prefetched for given start index or the
+	 *         background load failed
+	 */
+	protected List<ITEM> takePrefetchedBatch(int startIndex, int count) {
+		if (prefetchedBatches != null) {
+			final PrefetchedBatch<ITEM> prefetched = prefetchedBatches.remove(startIndex);
+			if (prefetched != null) {
+				final CompletableFuture<List<ITEM>> batch = prefetched.getItems();
+				try {
+					final List<ITEM> items = (loadTimeout > 0) ? batch.get(loadTimeout, TimeUnit.MILLISECONDS)
+							: batch.join();
+					if (items != null && prefetched.getCount() < count && items.size() == prefetched.getCount()) {
+						return topUp(items, startIndex, count);
+					}
+					return items;
+				} catch (TimeoutException e) {
+					batch.cancel(false);
+					LOGGER.warn("Prefetch of items batch starting from index [" + startIndex
+							+ "] timed out, items will be loaded synchronously");
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					batch.cancel(false);
+				} catch (Exception e) {
+					LOGGER.warn("Failed to prefetch items batch starting from index [" + startIndex
+							+ "], items will be loaded synchronously", e);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Load the items which follow given prefetched items, up to given count.
+	 * @param items Prefetched items
+	 * @param startIndex Index of the first prefetched item
+	 * @param count Number of requested items
+	 * @return The prefetched items followed by the loaded items
+	 */
+	private List<ITEM> topUp(List<ITEM> items, int startIndex, int count) {
+		final int fromIndex = startIndex + items.size();
+		if (!items.isEmpty()) {
+			putKeyset(fromIndex, items.get(items.size() - 1));
+		}
+		final List<ITEM> loaded = load(getItemQuery(), cancellable(getConfiguration()), fromIndex,
+				count - items.size(), getKeyset(fromIndex));
+		final List<ITEM> all = new ArrayList<>(count);
+		all.addAll(items);
+		if (loaded != null) {
+			all.addAll(loaded);
+		}
+		return all;
+	}
+
+	/**
+	 * Cancel and clear any pending prefetched items batch.
+	 */
+	private void clearPrefetchedBatches() {
+		if (prefetchedBatches != null) {
+			prefetchedBatches.values().forEach(b -> b.getItems().cancel(false));
+			prefetchedBatches.clear();
+		}
+	}
+
 	/**
 	 * Get the id of given item
 	 * @param item Item to obtain the id for
@@ -607,4 +1858,143 @@ public class DefaultItemStore<ITEM> implements ItemStore<ITEM> {
 		}
 	}
 
+	/**
+	 * An items batch loaded in background, with the number of items requested to load it.
+	 * @param <ITEM> Item type
+	 */
+	private static final class PrefetchedBatch<ITEM> {
+
+		private final int count;
+		private final CompletableFuture<List<ITEM>> items;
+
+		public PrefetchedBatch(int count, CompletableFuture<List<ITEM>> items) {
+			super();
+			this.count = count;
+			this.items = items;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public CompletableFuture<List<ITEM>> getItems() {
+			return items;
+		}
+
+	}
+
+	/**
+	 * The items count and the items window loaded by a revalidation.
+	 * @param <ITEM> Item type
+	 */
+	private static final class Revalidation<ITEM> {
+
+		private final int size;
+		private final List<ITEM> items;
+
+		public Revalidation(int size, List<ITEM> items) {
+			super();
+			this.size = size;
+			this.items = (items != null) ? items : Collections.emptyList();
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public List<ITEM> getItems() {
+			return items;
+		}
+
+	}
+
+	/**
+	 * Item ids iterator which loads the ids of the query items in chunks using an {@link ItemSetIdLoader}, without
+	 * loading the items. The added item ids are returned first and the removed item ids are skipped. The index of each
+	 * returned id is recorded, so that a subsequent lookup of the same id does not require a query.
+	 */
+	private final class ItemIdsIterator implements Iterator<Object> {
+
+		private final ItemSetIdLoader loader;
+		private final List<Object> addedIds;
+		private final Set<Object> removedIds;
+		private final int querySize;
+
+		private int addedPosition = 0;
+		private int nextQueryIndex = 0;
+		private List<?> chunk = Collections.emptyList();
+		private int chunkStartIndex = 0;
+		private int chunkPosition = 0;
+
+		private Object next;
+
+		ItemIdsIterator(ItemSetIdLoader loader) {
+			super();
+			this.loader = loader;
+			this.addedIds = getAddedItems().stream().map(i -> getItemId(i)).collect(Collectors.toList());
+			this.removedIds = getRemovedItems().stream().map(i -> getItemId(i)).collect(Collectors.toSet());
+			this.querySize = getItemQuerySize();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.Iterator#hasNext()
+		 */
+		@Override
+		public boolean hasNext() {
+			if (next == null) {
+				next = computeNext();
+			}
+			return next != null;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.Iterator#next()
+		 */
+		@Override
+		public Object next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final Object id = next;
+			next = null;
+			return id;
+		}
+
+		/**
+		 * Get the next item id, loading the next chunk of ids if required.
+		 * @return The next item id, <code>null</code> if there are no more ids
+		 */
+		private Object computeNext() {
+			if (addedPosition < addedIds.size()) {
+				return addedIds.get(addedPosition++);
+			}
+			while (true) {
+				if (chunkPosition >= chunk.size()) {
+					if (nextQueryIndex >= querySize) {
+						return null;
+					}
+					final int count = Math.min(Math.max(ITEM_IDS_CHUNK_SIZE, getBatchSize()),
+							querySize - nextQueryIndex);
+					chunk = loader.loadItemIds(getConfiguration(), nextQueryIndex, count)
+							.collect(Collectors.toList());
+					chunkStartIndex = nextQueryIndex;
+					chunkPosition = 0;
+					nextQueryIndex += count;
+					if (chunk.isEmpty()) {
+						return null;
+					}
+				}
+				final int index = chunkStartIndex + chunkPosition;
+				final Object id = chunk.get(chunkPosition++);
+				if (id != null && !removedIds.contains(id)) {
+					putItemIndex(id, index);
+					return id;
+				}
+			}
+		}
+
+	}
+
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.io.Serializable;
+
+import com.holonplatform.vaadin7.data.ItemCachePolicy;
+import com.holonplatform.vaadin7.data.ItemCacheStatistics;
+
+/**
+ * Cache of the items loaded by an {@link ItemStore}, bound to the item indexes.
+ * 
+ * @param <ITEM> Item type
+ * 
+ * @since 5.2.5
+ */
+public interface ItemCache<ITEM> extends Serializable {
+
+	/**
+	 * Get the cache policy.
+	 * @return the cache policy
+	 */
+	ItemCachePolicy getPolicy();
+
+	/**
+	 * Max cache size
+	 * @return the max cache size
+	 */
+	int getMaxSize();
+
+	/**
+	 * Get the number of cached items.
+	 * @return the number of cached items
+	 */
+	int size();
+
+	/**
+	 * Check if an Item is cached and bound to given <code>index</code>, without affecting the cache statistics and the
+	 * eviction order.
+	 * @param index Index
+	 * @return <code>true</code> if Item i present in cache at given index
+	 */
+	boolean containsItem(int index);
+
+	/**
+	 * Get a cached Item by index.
+	 * @param index Index
+	 * @return Cached Item, or <code>null</code> if Item was not cached or was evicted
+	 */
+	ITEM getItem(int index);
+
+	/**
+	 * Put or replace Item at given index.
+	 * @param index Index
+	 * @param item New item. If <code>null</code>, any Item bound to given index is removed.
+	 * @return Previous Item, or <code>null</code> if none
+	 */
+	ITEM putItem(int index, ITEM item);
+
+	/**
+	 * Remove the Item bound to given index.
+	 * @param index Index
+	 * @return Removed Item, or <code>null</code> if none
+	 */
+	ITEM removeItem(int index);
+
+	/**
+	 * Remove all cached items. The cache statistics are preserved.
+	 */
+	void clear();
+
+	/**
+	 * Evict up to <code>count</code> cached items, in eviction order. The evicted items are counted in the cache
+	 * statistics.
+	 * @param count The max number of items to evict
+	 * @return The number of evicted items
+	 */
+	int evict(int count);
+
+	/**
+	 * Shift by given <code>offset</code> the index of all the cached items bound to an index greater than or equal to
+	 * <code>fromIndex</code>, preserving the eviction order. Used to keep the cache consistent when an item is inserted
+	 * or removed from the item set without reloading it.
+	 * <p>
+	 * The caller must ensure that no shifted index clashes with the index of a not shifted item, for example removing
+	 * the item at <code>fromIndex - 1</code> before shifting by <code>-1</code>.
+	 * </p>
+	 * @param fromIndex The index of the first item to shift
+	 * @param offset The offset to add to the item indexes
+	 */
+	void shiftItems(int fromIndex, int offset);
+
+	/**
+	 * Get the cache usage statistics.
+	 * @return the cache statistics
+	 */
+	ItemCacheStatistics getStatistics();
+
+	/**
+	 * Create a new {@link ItemCache} using given policy.
+	 * @param <ITEM> Item type
+	 * @param policy Cache policy (not null)
+	 * @param maxSize Cache max size
+	 * @return A new {@link ItemCache}
+	 */
+	static <ITEM> ItemCache<ITEM> create(ItemCachePolicy policy, int maxSize) {
+		if (policy == null) {
+			throw new IllegalArgumentException("Item cache policy must be not null");
+		}
+		switch (policy) {
+		case SOFT:
+		case WEAK:
+			return new ReferenceItemCache<>(policy, maxSize);
+		case TINY_LFU:
+			return new TinyLfuItemCache<>(maxSize);
+		case LRU:
+		default:
+			return new ItemCacheMap<>(maxSize);
+		}
+	}
+
+}
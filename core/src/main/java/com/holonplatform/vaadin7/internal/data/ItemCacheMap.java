@@ -1,12 +1,12 @@
 /*
  * Copyright 2016-2017 Axioma srl.
- * 
+ *
  * Licensed under the Apache License, Version 2.0 (the "License"); you may not
  * use this file except in compliance with the License. You may obtain a copy of
  * the License at
- * 
+ *
  * http://www.apache.org/licenses/LICENSE-2.0
- * 
+ *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
  * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
@@ -15,92 +15,498 @@
  */
 package com.holonplatform.vaadin7.internal.data;
 
-import java.lang.ref.WeakReference;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import com.holonplatform.vaadin7.data.ItemCachePolicy;
+import com.holonplatform.vaadin7.data.ItemCacheStatistics;
 
 /**
- * Item cache using a {@link Map}.
+ * {@link ItemCache} with a max size and a <em>least recently used</em> eviction policy, which holds strong references
+ * to the cached items ({@link ItemCachePolicy#LRU}).
+ * <p>
+ * The cache uses an open addressing hash table with primitive <code>int</code> keys and a doubly linked access order
+ * list stored in parallel arrays, so that cache lookups and updates do not perform any object allocation. The arrays
+ * grow on demand up to the cache max size.
+ * </p>
  *
  * @since 5.0.0
  */
-public class ItemCacheMap<ITEM> extends LinkedHashMap<Integer, WeakReference<ITEM>> {
+public class ItemCacheMap<ITEM> implements ItemCache<ITEM> {
 
 	private static final long serialVersionUID = 4602931764691405659L;
 
+	/**
+	 * Empty slot marker
+	 */
+	private static final int EMPTY = -1;
+
+	/**
+	 * Initial entries capacity
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
 	/**
 	 * Max cache size
 	 */
 	private final int maxSize;
 
+	/**
+	 * Hash table: the entry slot bound to each bucket, {@link #EMPTY} if none
+	 */
+	private int[] table;
+
+	/**
+	 * Entries: item index
+	 */
+	private int[] keys;
+
+	/**
+	 * Entries: item
+	 */
+	private Object[] items;
+
+	/**
+	 * Entries: previous (more recently used) entry slot
+	 */
+	private int[] before;
+
+	/**
+	 * Entries: next (less recently used) entry slot. For free slots, the next free slot
+	 */
+	private int[] after;
+
+	/**
+	 * Most recently used entry slot
+	 */
+	private int head = EMPTY;
+
+	/**
+	 * Least recently used entry slot
+	 */
+	private int tail = EMPTY;
+
+	/**
+	 * First free entry slot
+	 */
+	private int free = EMPTY;
+
+	/**
+	 * First never used entry slot
+	 */
+	private int next = 0;
+
+	/**
+	 * Current size
+	 */
+	private int size = 0;
+
+	/**
+	 * Statistics: hits
+	 */
+	private long hitCount = 0;
+
+	/**
+	 * Statistics: misses
+	 */
+	private long missCount = 0;
+
+	/**
+	 * Statistics: evictions
+	 */
+	private long evictionCount = 0;
+
 	/**
 	 * Constructor
-	 * @param maxSize Cache max size
+	 * @param maxSize Cache max size. If <code>0</code> or less, no item will be cached.
 	 */
 	public ItemCacheMap(final int maxSize) {
-		super(maxSize * 10 / 7, 0.7f, true);
+		super();
 		this.maxSize = maxSize;
+		allocate(Math.max(0, Math.min(maxSize, INITIAL_CAPACITY)));
 	}
 
 	/*
 	 * (non-Javadoc)
-	 * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#getPolicy()
 	 */
 	@Override
-	protected boolean removeEldestEntry(java.util.Map.Entry<Integer, WeakReference<ITEM>> eldest) {
-		return size() > maxSize;
+	public ItemCachePolicy getPolicy() {
+		return ItemCachePolicy.LRU;
 	}
 
-	/**
-	 * Max cache size
-	 * @return the max cache size
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#getMaxSize()
 	 */
+	@Override
 	public int getMaxSize() {
 		return maxSize;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#size()
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
 	/**
-	 * Check if an Item is cached and bound to given <code>index</code>
-	 * @param index Index
-	 * @return <code>true</code> if Item i present in cache at given index
+	 * Gets whether the cache is empty.
+	 * @return <code>true</code> if no item is cached
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets whether the cache max size has been reached.
+	 * @return <code>true</code> if the cache is full
+	 */
+	public boolean isFull() {
+		return size >= maxSize;
+	}
+
+	/**
+	 * Get the index of the least recently used Item.
+	 * @return the index of the least recently used Item
+	 * @throws NoSuchElementException If the cache is empty
+	 */
+	public int getEldestIndex() {
+		if (tail == EMPTY) {
+			throw new NoSuchElementException("The item cache is empty");
+		}
+		return keys[tail];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#containsItem(int)
 	 */
+	@Override
 	public boolean containsItem(int index) {
-		return getItem(index) != null;
+		return find(index) != EMPTY;
 	}
 
 	/**
-	 * Get a cached Item by index
+	 * Get a cached Item by index, without affecting the cache statistics and the access order.
 	 * @param index Index
-	 * @return Cached Item, or <code>null</code> if Item was not cached or was garbage collected according to
-	 *         {@link WeakReference} behaviour
+	 * @return Cached Item, or <code>null</code> if Item is not cached
 	 */
+	@SuppressWarnings("unchecked")
+	public ITEM peekItem(int index) {
+		final int slot = find(index);
+		return (slot == EMPTY) ? null : (ITEM) items[slot];
+	}
+
+	/**
+	 * Get a cached Item by index, marking it as the most recently used.
+	 * @param index Index
+	 * @return Cached Item, or <code>null</code> if Item was not cached or was evicted
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
 	public ITEM getItem(int index) {
-		WeakReference<ITEM> itemReference = get(index);
-		if (itemReference != null) {
-			return itemReference.get();
+		final int slot = find(index);
+		if (slot == EMPTY) {
+			missCount++;
+			return null;
 		}
-		return null;
+		hitCount++;
+		moveToHead(slot);
+		return (ITEM) items[slot];
 	}
 
 	/**
-	 * Put or replace Item at given index
+	 * Put or replace Item at given index. If the cache max size is reached, the least recently used Item is evicted.
 	 * @param index Index
-	 * @param item New item
+	 * @param item New item. If <code>null</code>, any Item bound to given index is removed.
 	 * @return Previous Item, or <code>null</code> if none
 	 */
+	@SuppressWarnings("unchecked")
+	@Override
 	public ITEM putItem(int index, ITEM item) {
-		synchronized (this) {
-			final ITEM previous;
-			WeakReference<ITEM> itemReference = get(index);
-			if (itemReference != null) {
-				previous = itemReference.get();
-				remove(index);
-			} else {
-				previous = null;
-			}
-			put(index, new WeakReference<>(item));
+		if (item == null) {
+			return removeItem(index);
+		}
+		if (maxSize <= 0) {
+			return null;
+		}
+		int slot = find(index);
+		if (slot != EMPTY) {
+			final ITEM previous = (ITEM) items[slot];
+			items[slot] = item;
+			moveToHead(slot);
 			return previous;
 		}
+		// evict least recently used
+		if (size >= maxSize) {
+			removeSlot(tail);
+			evictionCount++;
+		}
+		slot = nextSlot();
+		keys[slot] = index;
+		items[slot] = item;
+		insert(slot);
+		linkHead(slot);
+		size++;
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#removeItem(int)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public ITEM removeItem(int index) {
+		final int slot = find(index);
+		if (slot == EMPTY) {
+			return null;
+		}
+		final ITEM previous = (ITEM) items[slot];
+		removeSlot(slot);
+		return previous;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#clear()
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(table, EMPTY);
+		Arrays.fill(items, null);
+		head = EMPTY;
+		tail = EMPTY;
+		free = EMPTY;
+		next = 0;
+		size = 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#evict(int)
+	 */
+	@Override
+	public int evict(int count) {
+		int evicted = 0;
+		while (evicted < count && tail != EMPTY) {
+			removeSlot(tail);
+			evicted++;
+		}
+		evictionCount += evicted;
+		return evicted;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#shiftItems(int, int)
+	 */
+	@Override
+	public void shiftItems(int fromIndex, int offset) {
+		if (offset == 0 || size == 0) {
+			return;
+		}
+		for (int slot = head; slot != EMPTY; slot = after[slot]) {
+			if (keys[slot] >= fromIndex) {
+				keys[slot] += offset;
+			}
+		}
+		// rebuild the hash table
+		Arrays.fill(table, EMPTY);
+		for (int slot = head; slot != EMPTY; slot = after[slot]) {
+			insert(slot);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#getStatistics()
+	 */
+	@Override
+	public ItemCacheStatistics getStatistics() {
+		return new DefaultItemCacheStatistics(getPolicy(), hitCount, missCount, evictionCount);
+	}
+
+	// ------- internal
+
+	/**
+	 * Allocate the entries arrays and the hash table for given entries capacity.
+	 * @param capacity Entries capacity
+	 */
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		items = new Object[capacity];
+		before = new int[capacity];
+		after = new int[capacity];
+		table = new int[tableSize(capacity)];
+		Arrays.fill(table, EMPTY);
+	}
+
+	/**
+	 * Get the hash table size to use for given entries capacity, keeping the load factor at or below 0.5.
+	 * @param capacity Entries capacity
+	 * @return Hash table size, always a power of two
+	 */
+	private static int tableSize(int capacity) {
+		int n = 2;
+		while (n < capacity * 2) {
+			n <<= 1;
+		}
+		return n;
+	}
+
+	/**
+	 * Get the hash table bucket for given item index.
+	 * @param index Item index
+	 * @return Bucket
+	 */
+	private int bucket(int index) {
+		final int h = index * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & (table.length - 1);
+	}
+
+	/**
+	 * Find the entry slot bound to given item index.
+	 * @param index Item index
+	 * @return Entry slot, or {@link #EMPTY} if not found
+	 */
+	private int find(int index) {
+		final int mask = table.length - 1;
+		int b = bucket(index);
+		int slot;
+		while ((slot = table[b]) != EMPTY) {
+			if (keys[slot] == index) {
+				return slot;
+			}
+			b = (b + 1) & mask;
+		}
+		return EMPTY;
+	}
+
+	/**
+	 * Insert given entry slot in the hash table.
+	 * @param slot Entry slot
+	 */
+	private void insert(int slot) {
+		final int mask = table.length - 1;
+		int b = bucket(keys[slot]);
+		while (table[b] != EMPTY) {
+			b = (b + 1) & mask;
+		}
+		table[b] = slot;
+	}
+
+	/**
+	 * Get a free entry slot, growing the entries arrays if required.
+	 * @return Entry slot
+	 */
+	private int nextSlot() {
+		if (free != EMPTY) {
+			final int slot = free;
+			free = after[slot];
+			return slot;
+		}
+		if (next >= keys.length) {
+			grow();
+		}
+		return next++;
+	}
+
+	/**
+	 * Double the entries capacity, up to the cache max size, and rebuild the hash table.
+	 */
+	private void grow() {
+		final int capacity = Math.min(maxSize, Math.max(INITIAL_CAPACITY, keys.length * 2));
+		keys = Arrays.copyOf(keys, capacity);
+		items = Arrays.copyOf(items, capacity);
+		before = Arrays.copyOf(before, capacity);
+		after = Arrays.copyOf(after, capacity);
+		table = new int[tableSize(capacity)];
+		Arrays.fill(table, EMPTY);
+		for (int slot = head; slot != EMPTY; slot = after[slot]) {
+			insert(slot);
+		}
+	}
+
+	/**
+	 * Remove given entry slot from the hash table and from the access order list, and mark it as free.
+	 * @param slot Entry slot
+	 */
+	private void removeSlot(int slot) {
+		final int mask = table.length - 1;
+		// locate bucket
+		int gap = bucket(keys[slot]);
+		while (table[gap] != slot) {
+			gap = (gap + 1) & mask;
+		}
+		// backward shift deletion
+		int b = (gap + 1) & mask;
+		int s;
+		while ((s = table[b]) != EMPTY) {
+			final int ideal = bucket(keys[s]);
+			if (((b - ideal) & mask) >= ((b - gap) & mask)) {
+				table[gap] = s;
+				gap = b;
+			}
+			b = (b + 1) & mask;
+		}
+		table[gap] = EMPTY;
+
+		unlink(slot);
+		items[slot] = null;
+		after[slot] = free;
+		free = slot;
+		size--;
+	}
+
+	/**
+	 * Mark given entry slot as the most recently used.
+	 * @param slot Entry slot
+	 */
+	private void moveToHead(int slot) {
+		if (slot != head) {
+			unlink(slot);
+			linkHead(slot);
+		}
+	}
+
+	/**
+	 * Link given entry slot as the head of the access order list.
+	 * @param slot Entry slot
+	 */
+	private void linkHead(int slot) {
+		before[slot] = EMPTY;
+		after[slot] = head;
+		if (head != EMPTY) {
+			before[head] = slot;
+		}
+		head = slot;
+		if (tail == EMPTY) {
+			tail = slot;
+		}
+	}
+
+	/**
+	 * Unlink given entry slot from the access order list.
+	 * @param slot Entry slot
+	 */
+	private void unlink(int slot) {
+		final int b = before[slot];
+		final int a = after[slot];
+		if (b != EMPTY) {
+			after[b] = a;
+		} else {
+			head = a;
+		}
+		if (a != EMPTY) {
+			before[a] = b;
+		} else {
+			tail = b;
+		}
 	}
 
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+/**
+ * JMX management interface of the data access metrics collected for a set of data source tags.
+ * <p>
+ * The durations are expressed in milliseconds.
+ * </p>
+ *
+ * @since 5.2.5
+ */
+public interface ItemDataMetricsMXBean {
+
+	/**
+	 * Get the number of item requests satisfied by the items cache.
+	 * @return Cache hit count
+	 */
+	long getCacheHitCount();
+
+	/**
+	 * Get the number of item requests not satisfied by the items cache.
+	 * @return Cache miss count
+	 */
+	long getCacheMissCount();
+
+	/**
+	 * Get the ratio of item requests satisfied by the items cache.
+	 * @return Cache hit ratio, <code>1</code> if no request was performed
+	 */
+	double getCacheHitRatio();
+
+	/**
+	 * Get the number of items evicted from the items cache.
+	 * @return Eviction count
+	 */
+	long getCacheEvictionCount();
+
+	/**
+	 * Get the number of count operations.
+	 * @return Count operations
+	 */
+	long getCountOperations();
+
+	/**
+	 * Get the average duration of the count operations.
+	 * @return Average count duration in milliseconds
+	 */
+	double getCountAverageTime();
+
+	/**
+	 * Get the max duration of the count operations.
+	 * @return Max count duration in milliseconds
+	 */
+	double getCountMaxTime();
+
+	/**
+	 * Get the number of load operations.
+	 * @return Load operations
+	 */
+	long getLoadOperations();
+
+	/**
+	 * Get the average duration of the load operations.
+	 * @return Average load duration in milliseconds
+	 */
+	double getLoadAverageTime();
+
+	/**
+	 * Get the max duration of the load operations.
+	 * @return Max load duration in milliseconds
+	 */
+	double getLoadMaxTime();
+
+	/**
+	 * Get the total number of loaded rows.
+	 * @return Loaded rows
+	 */
+	long getRowsLoaded();
+
+	/**
+	 * Get the upper bounds of the load batch size histogram buckets. The last bucket is unbounded.
+	 * @return Histogram bucket bounds
+	 */
+	int[] getBatchSizeHistogramBounds();
+
+	/**
+	 * Get the number of load operations for each batch size histogram bucket.
+	 * @return Batch size histogram
+	 */
+	long[] getBatchSizeHistogram();
+
+	/**
+	 * Get the number of commit operations.
+	 * @return Commit operations
+	 */
+	long getCommitOperations();
+
+	/**
+	 * Get the average duration of the commit operations.
+	 * @return Average commit duration in milliseconds
+	 */
+	double getCommitAverageTime();
+
+	/**
+	 * Get the average number of items (added, modified and removed) of the commit operations.
+	 * @return Average commit batch size
+	 */
+	double getCommitAverageBatchSize();
+
+	/**
+	 * Get the number of failed count, load and commit operations.
+	 * @return Failures count
+	 */
+	long getFailures();
+
+	/**
+	 * Reset all the metrics.
+	 */
+	void reset();
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2000-2017 Holon TDCN.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators.AbstractSpliterator;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.holonplatform.core.query.QueryConfigurationProvider;
+import com.holonplatform.vaadin7.data.ItemDataProvider;
+import com.holonplatform.vaadin7.data.ItemSetKeysetLoader;
+
+/**
+ * A {@link Spliterator} which loads the items provided by an {@link ItemDataProvider} lazily, one chunk at a time,
+ * holding in memory only the items of the current chunk.
+ * <p>
+ * If the {@link ItemDataProvider} is an {@link ItemSetKeysetLoader}, the chunks which follow the first one are loaded
+ * using keyset pagination, anchored to the last item of the previous chunk.
+ * </p>
+ * 
+ * @param <ITEM> Item type
+ *
+ * @since 5.2.5
+ */
+public class ItemSetChunkSpliterator<ITEM> extends AbstractSpliterator<ITEM> {
+
+	private final ItemDataProvider<ITEM> provider;
+	private final QueryConfigurationProvider configuration;
+	private final int chunkSize;
+
+	/**
+	 * Current chunk items
+	 */
+	private Iterator<ITEM> chunk = Collections.emptyIterator();
+
+	/**
+	 * Offset of the next chunk to load
+	 */
+	private int offset = 0;
+
+	/**
+	 * Last item of the previous chunk
+	 */
+	private ITEM last;
+
+	/**
+	 * Whether the last chunk was loaded
+	 */
+	private boolean completed = false;
+
+	/**
+	 * Constructor
+	 * @param provider Item data provider (not null)
+	 * @param configuration Query configuration (not null)
+	 * @param chunkSize Number of items to load for each query (must be greater than 0)
+	 */
+	public ItemSetChunkSpliterator(ItemDataProvider<ITEM> provider, QueryConfigurationProvider configuration,
+			int chunkSize) {
+		super(Long.MAX_VALUE, Spliterator.ORDERED);
+		ObjectUtils.argumentNotNull(provider, "ItemDataProvider must be not null");
+		ObjectUtils.argumentNotNull(configuration, "QueryConfigurationProvider must be not null");
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be greater than 0");
+		}
+		this.provider = provider;
+		this.configuration = configuration;
+		this.chunkSize = chunkSize;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.Spliterator#tryAdvance(java.util.function.Consumer)
+	 */
+	@Override
+	public boolean tryAdvance(Consumer<? super ITEM> action) {
+		while (!chunk.hasNext()) {
+			if (completed) {
+				return false;
+			}
+			loadNextChunk();
+		}
+		final ITEM item = chunk.next();
+		last = item;
+		action.accept(item);
+		return true;
+	}
+
+	/**
+	 * Load the next items chunk.
+	 */
+	@SuppressWarnings("unchecked")
+	private void loadNextChunk() {
+		final Object keyset = (last != null && provider instanceof ItemSetKeysetLoader)
+				? ((ItemSetKeysetLoader<ITEM>) provider).getKeyset(configuration, last)
+				: null;
+		final List<ITEM> items;
+		try (Stream<ITEM> stream = (keyset != null)
+				? ((ItemSetKeysetLoader<ITEM>) provider).load(configuration, offset, chunkSize, keyset)
+				: provider.load(configuration, offset, chunkSize)) {
+			items = stream.collect(Collectors.toList());
+		}
+		offset += items.size();
+		completed = items.size() < chunkSize;
+		chunk = items.iterator();
+	}
+
+	/**
+	 * Create a sequential {@link Stream} of the items provided by given {@link ItemDataProvider}, loaded in chunks
+	 * of given size.
+	 * @param <ITEM> Item type
+	 * @param provider Item data provider (not null)
+	 * @param configuration Query configuration (not null)
+	 * @param chunkSize Number of items to load for each query (must be greater than 0)
+	 * @return Items stream
+	 */
+	public static <ITEM> Stream<ITEM> stream(ItemDataProvider<ITEM> provider,
+			QueryConfigurationProvider configuration, int chunkSize) {
+		return StreamSupport.stream(new ItemSetChunkSpliterator<>(provider, configuration, chunkSize), false);
+	}
+
+}
@@ -16,9 +16,17 @@
 package com.holonplatform.vaadin7.internal.data;
 
 import java.io.Serializable;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 
+import com.holonplatform.vaadin7.data.ItemCachePolicy;
+import com.holonplatform.vaadin7.data.ItemCacheStatistics;
 import com.holonplatform.vaadin7.data.ItemDataSource.ItemAction;
+import com.holonplatform.vaadin7.data.ItemSetDelta;
 
 /**
  * Data source items store with caching capability.
@@ -49,6 +57,39 @@ public interface ItemStore<ITEM> extends Serializable {
 
 	}
 
+	/**
+	 * Listener for the changes applied using {@link ItemStore#applyDelta(ItemSetDelta, ItemDeltaListener)}.
+	 * @param <ITEM> Item type
+	 * @since 5.2.5
+	 */
+	public interface ItemDeltaListener<ITEM> {
+
+		/**
+		 * An item was inserted in the store.
+		 * @param item The inserted item
+		 * @param itemId Item id
+		 * @param index The index at which the item was inserted
+		 */
+		void onItemInserted(ITEM item, Object itemId, int index);
+
+		/**
+		 * An item was deleted from the store.
+		 * @param item The deleted item, if it was cached, <code>null</code> otherwise
+		 * @param itemId Item id
+		 * @param index The index of the deleted item
+		 */
+		void onItemDeleted(ITEM item, Object itemId, int index);
+
+		/**
+		 * A cached item was replaced by its updated version.
+		 * @param item The updated item
+		 * @param itemId Item id
+		 * @param previous The replaced item
+		 */
+		void onItemUpdated(ITEM item, Object itemId, ITEM previous);
+
+	}
+
 	/**
 	 * Max items cache size
 	 * @return Max cache size
@@ -61,6 +102,24 @@ public interface ItemStore<ITEM> extends Serializable {
 	 */
 	void setMaxCacheSize(int maxCacheSize);
 
+	/**
+	 * Get the items cache policy
+	 * @return the items cache policy
+	 */
+	ItemCachePolicy getCachePolicy();
+
+	/**
+	 * Set the items cache policy. Changing the cache policy clears the items cache.
+	 * @param cachePolicy The cache policy to set (not null)
+	 */
+	void setCachePolicy(ItemCachePolicy cachePolicy);
+
+	/**
+	 * Get the items cache usage statistics.
+	 * @return the items cache statistics
+	 */
+	ItemCacheStatistics getCacheStatistics();
+
 	/**
 	 * Returns the number of items currently available in this strore
 	 * @return Number of available items
@@ -73,6 +132,14 @@ public interface ItemStore<ITEM> extends Serializable {
 	 */
 	List<?> getItemIds();
 
+	/**
+	 * Get an iterator over the ids of all the items currently present in this store, in the store order. When
+	 * supported by the data provider, the item ids are loaded in chunks without loading and caching the items.
+	 * @return Item ids iterator
+	 * @since 5.2.5
+	 */
+	Iterator<?> itemIdsIterator();
+
 	/**
 	 * Get the identifier of given item
 	 * @param item Item to get the identifier for
@@ -173,6 +240,57 @@ public interface ItemStore<ITEM> extends Serializable {
 	 */
 	void reset(boolean fireListeners, boolean freeze);
 
+	/**
+	 * Clear store contents after a change of the query sort, setting the item store as not <em>freezed</em>.
+	 * <p>
+	 * Since the items count does not depend on the query sort, the current items count is preserved, unless the query
+	 * filter or the query parameters changed since it was obtained.
+	 * </p>
+	 * @param fireListeners Whether to fire item action listeners
+	 */
+	void resort(boolean fireListeners);
+
+	/**
+	 * Apply a set of changes which occurred in the backend data, without reloading the item set: the cached items,
+	 * the items count and the item indexes are updated incrementally. Only the item set obtained from the data provider
+	 * is affected, any buffered item modification is preserved.
+	 * <p>
+	 * If the changes cannot be applied incrementally, for example because the position of an inserted or deleted item
+	 * cannot be determined, the store is reset and the {@link ItemAction#SET_CHANGED} action is fired.
+	 * </p>
+	 * @param delta The changes to apply (not null)
+	 * @param listener Listener to notify about each applied change (may be null)
+	 * @return <code>true</code> if the changes were applied incrementally, <code>false</code> if the store was reset
+	 * @since 5.2.5
+	 */
+	boolean applyDelta(ItemSetDelta<ITEM> delta, ItemDeltaListener<ITEM> listener);
+
+	/**
+	 * Refresh the store using a <em>stale-while-revalidate</em> strategy: the cached items keep being served while the
+	 * items count and the items window around the last requested item are loaded again using given
+	 * <code>executor</code>, without holding any lock on the calling thread.
+	 * <p>
+	 * When the background load completes, the fresh data is applied through given <code>synchronizer</code>, which is
+	 * expected to run the provided task holding any lock required to access the store (for example using
+	 * <code>UI.access</code>). If the items count and the items order are unchanged, only the changed items of the
+	 * window are replaced, notifying them to given <code>listener</code>, and any other cached item is discarded.
+	 * Otherwise, the store cache is replaced by the fresh items window and the {@link ItemAction#SET_CHANGED} action is
+	 * fired. Any buffered item modification is preserved.
+	 * </p>
+	 * <p>
+	 * If the store is reset or its contents are changed before the fresh data is applied, the fresh data is discarded.
+	 * </p>
+	 * @param executor The executor to use to load the data (not null)
+	 * @param synchronizer The function to use to apply the loaded data (not null)
+	 * @param equivalence The predicate to use to check whether two items with the same id are equal, i.e. the item
+	 *        did not change (not null)
+	 * @param listener Listener to notify about each replaced item (may be null)
+	 * @return A future which is completed, within the synchronizer task, when the fresh data has been applied
+	 * @since 5.2.5
+	 */
+	CompletableFuture<Void> revalidate(Executor executor, Consumer<Runnable> synchronizer,
+			BiPredicate<ITEM, ITEM> equivalence, ItemDeltaListener<ITEM> listener);
+
 	/**
 	 * Set the item store as <em>freezed</em>. When the store is freezed, it behaves as if contains no items
 	 * @param freezed <code>true</code> to freeze the store
@@ -17,10 +17,9 @@ package com.holonplatform.vaadin7.internal.data;
 
 import java.io.Serializable;
 import java.util.AbstractList;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import com.holonplatform.vaadin7.data.ItemIdentifierProvider;
 
@@ -51,11 +50,6 @@ public class ItemStoreIds<ITEM, T> extends AbstractList<T> implements Serializab
 	 */
 	private final ItemIdentifierProvider<ITEM, ?> itemIdentifier;
 
-	/**
-	 * Item Id mappings for Ids already loaded through this list
-	 */
-	private final Map<T, Integer> idIndexMap = new HashMap<>();
-
 	/**
 	 * Constructor
 	 * @param store Items store
@@ -75,19 +69,28 @@ public class ItemStoreIds<ITEM, T> extends AbstractList<T> implements Serializab
 		return store.size();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The item ids are obtained from the items store, which loads them without loading the items when supported by
+	 * the data provider.
+	 * </p>
+	 * @see ItemStore#itemIdsIterator()
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public Iterator<T> iterator() {
+		return (Iterator<T>) store.itemIdsIterator();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@SuppressWarnings("unchecked")
 	@Override
 	public synchronized T[] toArray() {
-		List<T> ids = new LinkedList<>();
-		int size = size();
-		if (size > 0) {
-			for (int i = 0; i < size; i++) {
-				ids.add(get(i));
-			}
-		}
+		final List<T> ids = new ArrayList<>(size());
+		iterator().forEachRemaining(id -> ids.add(id));
 		return (T[]) ids.toArray();
 	}
 
@@ -112,46 +115,22 @@ public class ItemStoreIds<ITEM, T> extends AbstractList<T> implements Serializab
 		if (itemAtIndex == null) {
 			return null;
 		}
-
-		final T itemId = getItemId(itemAtIndex);
-		// Do not put added item ids to id index map and make sure that
-		// existing item indexes start from 0 i.e. ignore added items as they
-		// are compensated for in indexOf method.
-		final int addedItemSize = store.getAddedItems().size();
-		if (index >= addedItemSize) {
-			idIndexMap.put(itemId, index - addedItemSize);
-		}
-		return itemId;
+		return getItemId(itemAtIndex);
 	}
 
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * The item index is obtained from the items store, which keeps track of the ids of the loaded items.
+	 * </p>
+	 * @see ItemStore#indexOfItem(Object)
 	 */
 	@Override
 	public int indexOf(final Object o) {
 		if (o == null) {
 			return -1;
 		}
-		// Brute force added items first.
-		final List<ITEM> addedItems = store.getAddedItems();
-		for (int i = 0; i < addedItems.size(); i++) {
-			if (o.equals(getItemId(addedItems.get(i)))) {
-				return i;
-			}
-		}
-		// Check from mapping cache.
-		if (idIndexMap.containsKey(o)) {
-			return addedItems.size() + idIndexMap.get(o);
-		}
-		// Switching to brute forcing.
-		for (int i = addedItems.size(); i < store.size(); i++) {
-			ITEM itemAtIndex = store.getItem(i);
-			if (itemAtIndex != null && o.equals(getItemId(itemAtIndex))) {
-				return i;
-			}
-		}
-		// Not found.
-		return -1;
+		return store.indexOfItem(o);
 	}
 
 	/**
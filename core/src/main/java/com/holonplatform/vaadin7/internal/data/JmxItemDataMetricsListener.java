@@ -0,0 +1,293 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import com.holonplatform.core.internal.Logger;
+import com.holonplatform.vaadin7.data.ItemDataMetricsListener;
+import com.holonplatform.vaadin7.internal.VaadinLogger;
+
+/**
+ * {@link ItemDataMetricsListener} which aggregates the data access metrics by data source tags, using a
+ * {@link DefaultItemDataMetrics} for each distinct set of tags, and registers each of them as MBean in the platform
+ * MBean server.
+ * <p>
+ * The components which use a data source notify their attach and detach: the MBean of a set of tags is unregistered
+ * when the last component bound to it is detached. At most {@link #MAX_TAG_SETS} sets of tags are registered: the
+ * metrics of any further set of tags are aggregated in a single MBean, bound to the {@link #OVERFLOW_TAGS} tags. All
+ * the MBeans can be unregistered using {@link #close()}, for example when the application is stopped.
+ * </p>
+ *
+ * @since 5.2.5
+ */
+public final class JmxItemDataMetricsListener implements ItemDataMetricsListener {
+
+	private static final long serialVersionUID = -4950829263346434120L;
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = VaadinLogger.create();
+
+	/**
+	 * MBeans domain
+	 */
+	public static final String DOMAIN = "com.holonplatform.vaadin";
+
+	/**
+	 * MBeans type
+	 */
+	public static final String TYPE = "ItemDataSource";
+
+	/**
+	 * Max number of distinct sets of tags registered as MBeans
+	 */
+	public static final int MAX_TAG_SETS = 256;
+
+	/**
+	 * Tags of the MBean which aggregates the metrics exceeding {@link #MAX_TAG_SETS}
+	 */
+	public static final Map<String, String> OVERFLOW_TAGS = Collections.singletonMap("name", "overflow");
+
+	private static final JmxItemDataMetricsListener INSTANCE = new JmxItemDataMetricsListener();
+
+	/**
+	 * Metrics by tags
+	 */
+	private final transient ConcurrentMap<Map<String, String>, MetricsRegistration> metrics = new ConcurrentHashMap<>();
+
+	private JmxItemDataMetricsListener() {
+		super();
+	}
+
+	/**
+	 * Get the shared instance.
+	 * @return The shared {@link JmxItemDataMetricsListener}
+	 */
+	public static JmxItemDataMetricsListener getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Get the metrics collected for given tags.
+	 * @param tags Data source tags
+	 * @return The metrics, empty if no metrics was collected for given tags
+	 */
+	public Optional<DefaultItemDataMetrics> getMetrics(Map<String, String> tags) {
+		final MetricsRegistration registration = metrics.get(tags);
+		return (registration != null) ? Optional.of(registration.metrics) : Optional.empty();
+	}
+
+	/**
+	 * Unregister all the MBeans and discard the collected metrics.
+	 */
+	public void close() {
+		for (Map<String, String> tags : metrics.keySet()) {
+			final MetricsRegistration registration = metrics.remove(tags);
+			if (registration != null) {
+				unregister(registration);
+			}
+		}
+	}
+
+	/**
+	 * Get the MBean object name of the metrics bound to given tags.
+	 * @param tags Data source tags
+	 * @return The object name
+	 * @throws JMException If the tags are not valid object name key properties
+	 */
+	public static ObjectName getObjectName(Map<String, String> tags) throws JMException {
+		final Hashtable<String, String> properties = new Hashtable<>();
+		properties.put("type", TYPE);
+		tags.forEach((n, v) -> {
+			if (!"type".equals(n)) {
+				properties.put(n, ObjectName.quote(String.valueOf(v)));
+			}
+		});
+		return new ObjectName(DOMAIN, properties);
+	}
+
+	/**
+	 * Get the metrics bound to given tags, creating and registering them if not available.
+	 * @param tags Data source tags
+	 * @return The metrics
+	 */
+	private DefaultItemDataMetrics metrics(Map<String, String> tags) {
+		final MetricsRegistration current = metrics.get(tags);
+		if (current != null) {
+			return current.metrics;
+		}
+		if (metrics.size() >= MAX_TAG_SETS) {
+			return metrics.computeIfAbsent(OVERFLOW_TAGS, t -> register(t)).metrics;
+		}
+		return metrics.computeIfAbsent(Collections.unmodifiableMap(new LinkedHashMap<>(tags)), t -> register(t)).metrics;
+	}
+
+	/**
+	 * Create the metrics bound to given tags and register them as MBean.
+	 * @param tags Data source tags
+	 * @return The metrics registration
+	 */
+	private static MetricsRegistration register(Map<String, String> tags) {
+		final DefaultItemDataMetrics created = new DefaultItemDataMetrics();
+		ObjectName registered = null;
+		try {
+			final ObjectName name = getObjectName(tags);
+			if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(created, name);
+				registered = name;
+			}
+		} catch (JMException | RuntimeException e) {
+			LOGGER.warn("Failed to register the item data metrics MBean for tags " + tags, e);
+		}
+		if (tags == OVERFLOW_TAGS) {
+			LOGGER.warn("More than " + MAX_TAG_SETS + " item data metrics tag sets: the metrics of the exceeding tag "
+					+ "sets are aggregated using tags " + tags);
+		}
+		return new MetricsRegistration(created, registered);
+	}
+
+	/**
+	 * Unregister the MBean of given metrics registration, if it was registered.
+	 * @param registration Metrics registration
+	 */
+	private static void unregister(MetricsRegistration registration) {
+		if (registration.name != null) {
+			try {
+				if (ManagementFactory.getPlatformMBeanServer().isRegistered(registration.name)) {
+					ManagementFactory.getPlatformMBeanServer().unregisterMBean(registration.name);
+				}
+			} catch (JMException | RuntimeException e) {
+				LOGGER.warn("Failed to unregister the item data metrics MBean " + registration.name, e);
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemDataMetricsListener#onAttach(java.util.Map)
+	 */
+	@Override
+	public void onAttach(Map<String, String> tags) {
+		if (!metrics.containsKey(tags) && metrics.size() >= MAX_TAG_SETS) {
+			return;
+		}
+		metrics.compute(Collections.unmodifiableMap(new LinkedHashMap<>(tags)), (t, r) -> {
+			final MetricsRegistration registration = (r != null) ? r : register(t);
+			registration.attached++;
+			return registration;
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemDataMetricsListener#onDetach(java.util.Map)
+	 */
+	@Override
+	public void onDetach(Map<String, String> tags) {
+		metrics.computeIfPresent(tags, (t, r) -> {
+			if (--r.attached > 0) {
+				return r;
+			}
+			unregister(r);
+			return null;
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemDataMetricsListener#onCacheAccess(java.util.Map, boolean)
+	 */
+	@Override
+	public void onCacheAccess(Map<String, String> tags, boolean hit) {
+		metrics(tags).recordCacheAccess(hit);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemDataMetricsListener#onCacheEviction(java.util.Map, long)
+	 */
+	@Override
+	public void onCacheEviction(Map<String, String> tags, long count) {
+		metrics(tags).recordCacheEviction(count);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemDataMetricsListener#onCount(java.util.Map, long, boolean)
+	 */
+	@Override
+	public void onCount(Map<String, String> tags, long duration, boolean failed) {
+		metrics(tags).recordCount(duration, failed);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemDataMetricsListener#onLoad(java.util.Map, long, int, int, boolean)
+	 */
+	@Override
+	public void onLoad(Map<String, String> tags, long duration, int batchSize, int rows, boolean failed) {
+		metrics(tags).recordLoad(duration, batchSize, rows, failed);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemDataMetricsListener#onCommit(java.util.Map, long, int, int, int,
+	 * boolean)
+	 */
+	@Override
+	public void onCommit(Map<String, String> tags, long duration, int added, int modified, int removed,
+			boolean failed) {
+		metrics(tags).recordCommit(duration, added + modified + removed, failed);
+	}
+
+	/**
+	 * Resolve the shared instance on deserialization.
+	 * @return The shared instance
+	 */
+	private Object readResolve() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Metrics bound to a set of tags, with the registered MBean name and the number of attached components.
+	 */
+	private static final class MetricsRegistration {
+
+		final DefaultItemDataMetrics metrics;
+		final ObjectName name;
+		int attached;
+
+		MetricsRegistration(DefaultItemDataMetrics metrics, ObjectName name) {
+			super();
+			this.metrics = metrics;
+			this.name = name;
+		}
+
+	}
+
+}
@@ -65,27 +65,35 @@ public class PropertiesItemIdentifier implements ItemIdentifierProvider<Property
 		return null;
 	}
 
-	@SuppressWarnings("serial")
-	private class Identifier implements Serializable {
+	/**
+	 * Composite item id, which holds the values of the identifier properties.
+	 */
+	static final class Identifier implements Serializable {
+
+		private static final long serialVersionUID = -6016040290377497395L;
 
 		private final Object[] values;
 
-		public Identifier(Object[] values) {
+		Identifier(Object[] values) {
 			super();
 			this.values = values;
 		}
 
+		/**
+		 * Get the identifier property values, in the identifier properties order.
+		 * @return the identifier values
+		 */
+		Object[] getValues() {
+			return values;
+		}
+
 		/*
 		 * (non-Javadoc)
 		 * @see java.lang.Object#hashCode()
 		 */
 		@Override
 		public int hashCode() {
-			final int prime = 31;
-			int result = 1;
-			result = prime * result + getOuterType().hashCode();
-			result = prime * result + Arrays.hashCode(values);
-			return result;
+			return Arrays.hashCode(values);
 		}
 
 		/*
@@ -101,17 +109,11 @@ public class PropertiesItemIdentifier implements ItemIdentifierProvider<Property
 			if (getClass() != obj.getClass())
 				return false;
 			Identifier other = (Identifier) obj;
-			if (!getOuterType().equals(other.getOuterType()))
-				return false;
 			if (!Arrays.equals(values, other.values))
 				return false;
 			return true;
 		}
 
-		private PropertiesItemIdentifier getOuterType() {
-			return PropertiesItemIdentifier.this;
-		}
-
 	}
 
 }
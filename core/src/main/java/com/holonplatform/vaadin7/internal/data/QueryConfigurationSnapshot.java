@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.holonplatform.core.ParameterSet;
+import com.holonplatform.core.internal.DefaultParameterSet;
+import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.holonplatform.core.query.QueryConfigurationProvider;
+import com.holonplatform.core.query.QueryFilter;
+import com.holonplatform.core.query.QuerySort;
+
+/**
+ * An immutable {@link QueryConfigurationProvider} which holds the query filter, sort and parameters obtained from
+ * another {@link QueryConfigurationProvider} at a given time.
+ * <p>
+ * Can be used to perform queries outside the thread which owns the actual configuration, for example to load items
+ * in background.
+ * </p>
+ *
+ * @since 5.2.5
+ */
+public class QueryConfigurationSnapshot implements QueryConfigurationProvider, Serializable {
+
+	private static final long serialVersionUID = -1904458232404867163L;
+
+	/**
+	 * Query filter
+	 */
+	private final QueryFilter filter;
+
+	/**
+	 * Query sort
+	 */
+	private final QuerySort sort;
+
+	/**
+	 * Query parameters
+	 */
+	private final ParameterSet parameters;
+
+	/**
+	 * Constructor
+	 * @param filter Query filter (may be null)
+	 * @param sort Query sort (may be null)
+	 * @param parameters Query parameters (may be null)
+	 */
+	protected QueryConfigurationSnapshot(QueryFilter filter, QuerySort sort, ParameterSet parameters) {
+		super();
+		this.filter = filter;
+		this.sort = sort;
+		this.parameters = parameters;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.core.query.QueryConfigurationProvider#getQueryFilter()
+	 */
+	@Override
+	public QueryFilter getQueryFilter() {
+		return filter;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.core.query.QueryConfigurationProvider#getQuerySort()
+	 */
+	@Override
+	public QuerySort getQuerySort() {
+		return sort;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.core.query.QueryConfigurationProvider#getQueryParameters()
+	 */
+	@Override
+	public ParameterSet getQueryParameters() {
+		return parameters;
+	}
+
+	/**
+	 * Create a new {@link QueryConfigurationSnapshot} using the current filter, sort and parameters of given
+	 * <code>configuration</code>.
+	 * @param configuration Query configuration (not null)
+	 * @return A new {@link QueryConfigurationSnapshot}
+	 */
+	public static QueryConfigurationSnapshot of(QueryConfigurationProvider configuration) {
+		ObjectUtils.argumentNotNull(configuration, "QueryConfigurationProvider must be not null");
+		return new QueryConfigurationSnapshot(configuration.getQueryFilter(), configuration.getQuerySort(),
+				copy(configuration.getQueryParameters()));
+	}
+
+	/**
+	 * Copy given parameter set.
+	 * @param parameters Parameters to copy
+	 * @return A new {@link ParameterSet} with the same parameters, <code>null</code> if given parameter set was
+	 *         <code>null</code>
+	 */
+	private static ParameterSet copy(ParameterSet parameters) {
+		if (parameters == null) {
+			return null;
+		}
+		final Map<String, Object> values = new HashMap<>();
+		parameters.forEachParameter((n, v) -> values.put(n, v));
+		return new DefaultParameterSet(values);
+	}
+
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import com.holonplatform.core.ConstantConverterExpression;
+import com.holonplatform.core.ParameterSet;
+import com.holonplatform.core.Path;
+import com.holonplatform.core.internal.query.filter.BetweenFilter;
+import com.holonplatform.core.internal.query.filter.OperationQueryFilter;
+import com.holonplatform.core.internal.query.filter.StringMatchFilter;
+import com.holonplatform.core.query.QueryFilter;
+import com.holonplatform.core.query.QueryFilter.CompositeQueryFilter;
+import com.holonplatform.core.query.QueryFunction;
+import com.holonplatform.core.query.QuerySort;
+import com.holonplatform.core.query.QuerySort.CompositeQuerySort;
+import com.holonplatform.core.query.QuerySort.PathQuerySort;
+
+/**
+ * A value-based representation of a set of query configuration elements, such as {@link QueryFilter}s,
+ * {@link QuerySort}s, {@link ParameterSet}s and data targets, which can be used to check whether two query
+ * configurations are equivalent, or as a cache key.
+ * <p>
+ * Two fingerprints are equal if the query configuration elements from which they were obtained have the same
+ * structure and equal values. When a query configuration element is not supported (for example a custom filter
+ * implementation), no fingerprint is available.
+ * </p>
+ *
+ * @since 5.2.5
+ */
+public final class QueryFingerprint implements Serializable {
+
+	private static final long serialVersionUID = -6217048263493116785L;
+
+	/**
+	 * Token used for <code>null</code> elements
+	 */
+	private static final String NONE = "~";
+
+	/**
+	 * Fingerprint tokens
+	 */
+	private final List<Object> tokens;
+
+	/**
+	 * Cached hash code
+	 */
+	private final int hash;
+
+	/**
+	 * Constructor
+	 * @param tokens Fingerprint tokens
+	 */
+	private QueryFingerprint(List<Object> tokens) {
+		super();
+		this.tokens = Collections.unmodifiableList(tokens);
+		this.hash = tokens.hashCode();
+	}
+
+	/**
+	 * Create a fingerprint of given query configuration elements.
+	 * <p>
+	 * Supported elements are {@link QueryFilter}s, {@link QuerySort}s, {@link ParameterSet}s, {@link Path}s (including
+	 * data targets), and plain values such as strings, numbers and enumerations. <code>null</code> elements are
+	 * allowed.
+	 * </p>
+	 * @param elements Query configuration elements
+	 * @return The fingerprint, empty if any of the elements is not supported
+	 */
+	public static Optional<QueryFingerprint> of(Object... elements) {
+		final List<Object> tokens = new ArrayList<>();
+		if (elements != null) {
+			for (Object element : elements) {
+				if (!append(tokens, element)) {
+					return Optional.empty();
+				}
+			}
+		}
+		return Optional.of(new QueryFingerprint(tokens));
+	}
+
+	/**
+	 * Append the tokens of given element.
+	 * @param tokens Tokens
+	 * @param element Element
+	 * @return <code>false</code> if the element is not supported
+	 */
+	@SuppressWarnings("rawtypes")
+	private static boolean append(List<Object> tokens, Object element) {
+		if (element == null) {
+			tokens.add(NONE);
+			return true;
+		}
+		if (element instanceof QueryFilter) {
+			return appendFilter(tokens, (QueryFilter) element);
+		}
+		if (element instanceof QuerySort) {
+			return appendSort(tokens, (QuerySort) element);
+		}
+		if (element instanceof ParameterSet) {
+			final Map<String, Object> parameters = new TreeMap<>();
+			((ParameterSet) element).forEachParameter((n, v) -> parameters.put(n, v));
+			tokens.add("params");
+			for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+				tokens.add(parameter.getKey());
+				tokens.add(value(parameter.getValue()));
+			}
+			tokens.add(NONE);
+			return true;
+		}
+		if (element instanceof Path) {
+			tokens.add("path");
+			tokens.add(((Path) element).fullName());
+			tokens.add(((Path) element).getType().getName());
+			return true;
+		}
+		if (element instanceof ConstantConverterExpression) {
+			tokens.add("const");
+			tokens.add(value(((ConstantConverterExpression) element).getValue()));
+			return true;
+		}
+		if (element instanceof QueryFunction) {
+			tokens.add(element.getClass().getName());
+			for (Object argument : ((QueryFunction<?, ?>) element).getExpressionArguments()) {
+				if (!append(tokens, argument)) {
+					return false;
+				}
+			}
+			tokens.add(NONE);
+			return true;
+		}
+		if (isValue(element)) {
+			tokens.add(value(element));
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Append the tokens of given filter.
+	 * @param tokens Tokens
+	 * @param filter Filter
+	 * @return <code>false</code> if the filter is not supported
+	 */
+	private static boolean appendFilter(List<Object> tokens, QueryFilter filter) {
+		tokens.add(filter.getClass().getName());
+		if (filter instanceof CompositeQueryFilter) {
+			for (QueryFilter child : ((CompositeQueryFilter) filter).getComposition()) {
+				if (!appendFilter(tokens, child)) {
+					return false;
+				}
+			}
+			tokens.add(NONE);
+			return true;
+		}
+		if (filter instanceof OperationQueryFilter) {
+			final OperationQueryFilter<?> operation = (OperationQueryFilter<?>) filter;
+			tokens.add(operation.getOperator());
+			if (!append(tokens, operation.getLeftOperand())) {
+				return false;
+			}
+			if (filter instanceof StringMatchFilter) {
+				tokens.add(((StringMatchFilter) filter).getValue());
+				tokens.add(((StringMatchFilter) filter).getMatchMode());
+				tokens.add(((StringMatchFilter) filter).isIgnoreCase());
+				return true;
+			}
+			if (filter instanceof BetweenFilter) {
+				tokens.add(value(((BetweenFilter<?>) filter).getFromValue()));
+				tokens.add(value(((BetweenFilter<?>) filter).getToValue()));
+				return true;
+			}
+			return append(tokens, operation.getRightOperand().orElse(null));
+		}
+		return false;
+	}
+
+	/**
+	 * Append the tokens of given sort.
+	 * @param tokens Tokens
+	 * @param sort Sort
+	 * @return <code>false</code> if the sort is not supported
+	 */
+	private static boolean appendSort(List<Object> tokens, QuerySort sort) {
+		if (sort instanceof PathQuerySort) {
+			tokens.add("sort");
+			tokens.add(((PathQuerySort<?>) sort).getDirection());
+			return append(tokens, ((PathQuerySort<?>) sort).getPath());
+		}
+		if (sort instanceof CompositeQuerySort) {
+			for (QuerySort child : ((CompositeQuerySort) sort).getComposition()) {
+				if (!appendSort(tokens, child)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether given object is a plain value.
+	 * @param element Object to check
+	 * @return <code>true</code> if given object is a plain value
+	 */
+	private static boolean isValue(Object element) {
+		return element instanceof CharSequence || element instanceof Number || element instanceof Boolean
+				|| element instanceof Character || element instanceof Enum || element instanceof Collection
+				|| element.getClass().isArray() || element.getClass().getName().startsWith("java.time.")
+				|| element instanceof Date;
+	}
+
+	/**
+	 * Get a value token, converting arrays and collections into lists so that they are compared by content.
+	 * @param value Value
+	 * @return Value token
+	 */
+	private static Object value(Object value) {
+		if (value == null) {
+			return NONE;
+		}
+		if (value instanceof Object[]) {
+			return value(Arrays.asList((Object[]) value));
+		}
+		if (value.getClass().isArray()) {
+			final int length = Array.getLength(value);
+			final List<Object> values = new ArrayList<>(length);
+			for (int i = 0; i < length; i++) {
+				values.add(Array.get(value, i));
+			}
+			return values;
+		}
+		if (value instanceof Collection) {
+			final List<Object> values = new ArrayList<>(((Collection<?>) value).size());
+			for (Object element : (Collection<?>) value) {
+				values.add(value(element));
+			}
+			return values;
+		}
+		if (value instanceof Date) {
+			// defensive copy of mutable dates
+			return ((Date) value).getTime();
+		}
+		return value;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		final QueryFingerprint other = (QueryFingerprint) obj;
+		return hash == other.hash && tokens.equals(other.tokens);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "QueryFingerprint " + tokens;
+	}
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+
+import com.holonplatform.vaadin7.data.ItemCachePolicy;
+import com.holonplatform.vaadin7.data.ItemCacheStatistics;
+
+/**
+ * {@link ItemCache} which references the cached items using {@link SoftReference}s ({@link ItemCachePolicy#SOFT}) or
+ * {@link WeakReference}s ({@link ItemCachePolicy#WEAK}), with a max size and a <em>least recently used</em> eviction
+ * policy.
+ * <p>
+ * The references are not serializable, so the cached items are discarded when the cache is serialized.
+ * </p>
+ *
+ * @since 5.2.5
+ */
+public class ReferenceItemCache<ITEM> implements ItemCache<ITEM> {
+
+	private static final long serialVersionUID = -2317787416541402337L;
+
+	/**
+	 * Cache policy
+	 */
+	private final ItemCachePolicy policy;
+
+	/**
+	 * Max cache size
+	 */
+	private final int maxSize;
+
+	/**
+	 * Item references
+	 */
+	private transient ItemCacheMap<Reference<ITEM>> references;
+
+	/**
+	 * Statistics: hits
+	 */
+	private long hitCount = 0;
+
+	/**
+	 * Statistics: misses
+	 */
+	private long missCount = 0;
+
+	/**
+	 * Statistics: evictions
+	 */
+	private long evictionCount = 0;
+
+	/**
+	 * Constructor
+	 * @param policy Cache policy, must be either {@link ItemCachePolicy#SOFT} or {@link ItemCachePolicy#WEAK}
+	 * @param maxSize Cache max size
+	 */
+	public ReferenceItemCache(ItemCachePolicy policy, int maxSize) {
+		super();
+		if (policy != ItemCachePolicy.SOFT && policy != ItemCachePolicy.WEAK) {
+			throw new IllegalArgumentException("Unsupported reference cache policy: " + policy);
+		}
+		this.policy = policy;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Get the item references cache, creating it if required.
+	 * @return the item references cache
+	 */
+	private ItemCacheMap<Reference<ITEM>> getReferences() {
+		if (references == null) {
+			references = new ItemCacheMap<>(maxSize);
+		}
+		return references;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#getPolicy()
+	 */
+	@Override
+	public ItemCachePolicy getPolicy() {
+		return policy;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#getMaxSize()
+	 */
+	@Override
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#size()
+	 */
+	@Override
+	public int size() {
+		return getReferences().size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#containsItem(int)
+	 */
+	@Override
+	public boolean containsItem(int index) {
+		final ItemCacheMap<Reference<ITEM>> cache = getReferences();
+		final Reference<ITEM> reference = cache.peekItem(index);
+		if (reference != null) {
+			if (reference.get() != null) {
+				return true;
+			}
+			// reclaimed by the garbage collector
+			cache.removeItem(index);
+			evictionCount++;
+		}
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#getItem(int)
+	 */
+	@Override
+	public ITEM getItem(int index) {
+		final ItemCacheMap<Reference<ITEM>> cache = getReferences();
+		final Reference<ITEM> reference = cache.getItem(index);
+		if (reference != null) {
+			final ITEM item = reference.get();
+			if (item != null) {
+				hitCount++;
+				return item;
+			}
+			// reclaimed by the garbage collector
+			cache.removeItem(index);
+			evictionCount++;
+		}
+		missCount++;
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#putItem(int, java.lang.Object)
+	 */
+	@Override
+	public ITEM putItem(int index, ITEM item) {
+		if (item == null) {
+			return removeItem(index);
+		}
+		final ItemCacheMap<Reference<ITEM>> cache = getReferences();
+		if (cache.isFull() && !cache.containsItem(index)) {
+			evictionCount++;
+		}
+		return dereference(cache.putItem(index,
+				(policy == ItemCachePolicy.SOFT) ? new SoftReference<>(item) : new WeakReference<>(item)));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#removeItem(int)
+	 */
+	@Override
+	public ITEM removeItem(int index) {
+		return dereference(getReferences().removeItem(index));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#clear()
+	 */
+	@Override
+	public void clear() {
+		getReferences().clear();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#evict(int)
+	 */
+	@Override
+	public int evict(int count) {
+		final int evicted = getReferences().evict(count);
+		evictionCount += evicted;
+		return evicted;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#shiftItems(int, int)
+	 */
+	@Override
+	public void shiftItems(int fromIndex, int offset) {
+		getReferences().shiftItems(fromIndex, offset);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#getStatistics()
+	 */
+	@Override
+	public ItemCacheStatistics getStatistics() {
+		return new DefaultItemCacheStatistics(policy, hitCount, missCount, evictionCount);
+	}
+
+	/**
+	 * Get the item referenced by given reference.
+	 * @param reference Item reference
+	 * @return The referenced item, <code>null</code> if reference is <code>null</code> or the item was reclaimed
+	 */
+	private static <ITEM> ITEM dereference(Reference<ITEM> reference) {
+		return (reference != null) ? reference.get() : null;
+	}
+
+}
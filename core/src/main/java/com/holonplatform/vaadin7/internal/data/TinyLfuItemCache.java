@@ -0,0 +1,422 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data;
+
+import java.io.Serializable;
+
+import com.holonplatform.vaadin7.data.ItemCachePolicy;
+import com.holonplatform.vaadin7.data.ItemCacheStatistics;
+
+/**
+ * {@link ItemCache} which uses the <em>W-TinyLFU</em> eviction policy ({@link ItemCachePolicy#TINY_LFU}).
+ * <p>
+ * New items enter a small LRU <em>window</em> (1% of the cache max size). When the window is full, its least recently
+ * used item becomes a candidate for the <em>main</em> cache, which is a segmented LRU made of a <em>probation</em> and
+ * a <em>protected</em> (80% of the main cache) segment. The candidate is admitted only if its estimated access
+ * frequency is greater than the one of the main cache eviction victim, otherwise it is discarded. Access frequencies
+ * are estimated using a compact count-min sketch which is periodically aged.
+ * </p>
+ * <p>
+ * Items are put in batches, which are accessed after being cached. To avoid rejecting a freshly loaded batch before
+ * its items are accessed, the window grows to hold all the items put since the last cache access, up to half of the
+ * cache max size, making room by evicting from the main cache (probation segment first). When accessed, the items which
+ * exceed the regular window size become candidates for the main cache.
+ * </p>
+ * <p>
+ * Items are strongly referenced.
+ * </p>
+ *
+ * @since 5.2.5
+ */
+public class TinyLfuItemCache<ITEM> implements ItemCache<ITEM> {
+
+	private static final long serialVersionUID = 5470883390164123478L;
+
+	/**
+	 * Max cache size
+	 */
+	private final int maxSize;
+
+	/**
+	 * Window max size
+	 */
+	private final int windowMaxSize;
+
+	/**
+	 * Protected segment max size
+	 */
+	private final int protectedMaxSize;
+
+	/**
+	 * Admission window
+	 */
+	private final ItemCacheMap<ITEM> window;
+
+	/**
+	 * Main cache: probation segment
+	 */
+	private final ItemCacheMap<ITEM> probation;
+
+	/**
+	 * Main cache: protected segment
+	 */
+	private final ItemCacheMap<ITEM> protectedSegment;
+
+	/**
+	 * Number of items put since the last cache access
+	 */
+	private int burst = 0;
+
+	/**
+	 * Current window limit
+	 */
+	private int windowLimit;
+
+	/**
+	 * Frequency sketch
+	 */
+	private final FrequencySketch sketch;
+
+	/**
+	 * Statistics: hits
+	 */
+	private long hitCount = 0;
+
+	/**
+	 * Statistics: misses
+	 */
+	private long missCount = 0;
+
+	/**
+	 * Statistics: evictions
+	 */
+	private long evictionCount = 0;
+
+	/**
+	 * Constructor
+	 * @param maxSize Cache max size
+	 */
+	public TinyLfuItemCache(int maxSize) {
+		super();
+		this.maxSize = maxSize;
+		this.windowMaxSize = (maxSize > 1) ? Math.max(1, maxSize / 100) : Math.max(0, maxSize);
+		final int mainMaxSize = Math.max(0, maxSize - windowMaxSize);
+		this.protectedMaxSize = (int) (mainMaxSize * 0.8d);
+		this.windowLimit = windowMaxSize;
+		this.window = new ItemCacheMap<>(Math.max(windowMaxSize, maxSize / 2) + 1);
+		this.probation = new ItemCacheMap<>(mainMaxSize);
+		this.protectedSegment = new ItemCacheMap<>(protectedMaxSize + 1);
+		this.sketch = new FrequencySketch(maxSize);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#getPolicy()
+	 */
+	@Override
+	public ItemCachePolicy getPolicy() {
+		return ItemCachePolicy.TINY_LFU;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#getMaxSize()
+	 */
+	@Override
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#size()
+	 */
+	@Override
+	public int size() {
+		return window.size() + probation.size() + protectedSegment.size();
+	}
+
+	/**
+	 * Get the main cache size.
+	 * @return the main cache size
+	 */
+	private int mainSize() {
+		return probation.size() + protectedSegment.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#containsItem(int)
+	 */
+	@Override
+	public boolean containsItem(int index) {
+		return window.containsItem(index) || protectedSegment.containsItem(index) || probation.containsItem(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#getItem(int)
+	 */
+	@Override
+	public ITEM getItem(int index) {
+		burst = 0;
+		sketch.increment(index);
+		if (window.containsItem(index)) {
+			hitCount++;
+			if (window.size() > windowMaxSize) {
+				// held by the window only until accessed
+				final ITEM item = window.removeItem(index);
+				admit(index, item);
+				return item;
+			}
+			return window.getItem(index);
+		}
+		if (protectedSegment.containsItem(index)) {
+			hitCount++;
+			return protectedSegment.getItem(index);
+		}
+		if (probation.containsItem(index)) {
+			hitCount++;
+			// promote to the protected segment
+			final ITEM item = probation.removeItem(index);
+			protect(index, item);
+			return item;
+		}
+		missCount++;
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#putItem(int, java.lang.Object)
+	 */
+	@Override
+	public ITEM putItem(int index, ITEM item) {
+		if (item == null) {
+			return removeItem(index);
+		}
+		if (maxSize <= 0) {
+			return null;
+		}
+		// replace
+		if (window.containsItem(index)) {
+			return window.putItem(index, item);
+		}
+		if (protectedSegment.containsItem(index)) {
+			return protectedSegment.putItem(index, item);
+		}
+		if (probation.containsItem(index)) {
+			return probation.putItem(index, item);
+		}
+		// add to window, which holds at least the items put since the last access
+		sketch.increment(index);
+		burst++;
+		windowLimit = Math.max(windowMaxSize, Math.min(burst, maxSize / 2));
+		window.putItem(index, item);
+		while (window.size() > windowLimit) {
+			final int candidate = window.getEldestIndex();
+			admit(candidate, window.removeItem(candidate));
+		}
+		// make room for the window
+		while (size() > maxSize && mainSize() > 0) {
+			final ItemCacheMap<ITEM> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+			victimSegment.removeItem(victimSegment.getEldestIndex());
+			evictionCount++;
+		}
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#removeItem(int)
+	 */
+	@Override
+	public ITEM removeItem(int index) {
+		if (window.containsItem(index)) {
+			return window.removeItem(index);
+		}
+		if (protectedSegment.containsItem(index)) {
+			return protectedSegment.removeItem(index);
+		}
+		return probation.removeItem(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#clear()
+	 */
+	@Override
+	public void clear() {
+		window.clear();
+		probation.clear();
+		protectedSegment.clear();
+		burst = 0;
+		windowLimit = windowMaxSize;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#evict(int)
+	 */
+	@Override
+	public int evict(int count) {
+		// main cache victims first, then the most recently put items
+		int evicted = probation.evict(count);
+		evicted += protectedSegment.evict(count - evicted);
+		evicted += window.evict(count - evicted);
+		evictionCount += evicted;
+		return evicted;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#shiftItems(int, int)
+	 */
+	@Override
+	public void shiftItems(int fromIndex, int offset) {
+		window.shiftItems(fromIndex, offset);
+		probation.shiftItems(fromIndex, offset);
+		protectedSegment.shiftItems(fromIndex, offset);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.ItemCache#getStatistics()
+	 */
+	@Override
+	public ItemCacheStatistics getStatistics() {
+		return new DefaultItemCacheStatistics(getPolicy(), hitCount, missCount, evictionCount);
+	}
+
+	/**
+	 * Admit the given window eviction candidate to the main cache if there is room or if it is accessed more
+	 * frequently than the main cache victim, otherwise discard it.
+	 * @param candidate Candidate index
+	 * @param item Candidate item
+	 */
+	private void admit(int candidate, ITEM item) {
+		if (mainSize() < maxSize - windowLimit) {
+			probation.putItem(candidate, item);
+			return;
+		}
+		final ItemCacheMap<ITEM> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+		if (victimSegment.isEmpty()) {
+			evictionCount++;
+			return;
+		}
+		final int victim = victimSegment.getEldestIndex();
+		if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+			victimSegment.removeItem(victim);
+			probation.putItem(candidate, item);
+		}
+		evictionCount++;
+	}
+
+	/**
+	 * Put given item in the protected segment, demoting the least recently used protected item to the probation
+	 * segment if the protected segment is full.
+	 * @param index Item index
+	 * @param item Item
+	 */
+	private void protect(int index, ITEM item) {
+		protectedSegment.putItem(index, item);
+		if (protectedSegment.size() > protectedMaxSize) {
+			final int demoted = protectedSegment.getEldestIndex();
+			probation.putItem(demoted, protectedSegment.removeItem(demoted));
+		}
+	}
+
+	/**
+	 * Count-min sketch with 4-bit counters, used to estimate the item access frequencies. All the counters are halved
+	 * when the number of recorded accesses reaches the sample size, so that old accesses are progressively forgotten.
+	 */
+	private static final class FrequencySketch implements Serializable {
+
+		private static final long serialVersionUID = -5095339926574662183L;
+
+		private static final int[] SEEDS = { 0x97CB3127, 0xB1A81263, 0x5B4A2E1D, 0x84C1F4A9 };
+		private static final long RESET_MASK = 0x7777777777777777L;
+
+		private final long[] table;
+		private final int sampleSize;
+		private int additions = 0;
+
+		FrequencySketch(int maxSize) {
+			super();
+			int n = 16;
+			while (n < maxSize) {
+				n <<= 1;
+			}
+			this.table = new long[n];
+			this.sampleSize = n * 10;
+		}
+
+		/**
+		 * Get the estimated access frequency of given index.
+		 * @param index Item index
+		 * @return Estimated frequency, from <code>0</code> to <code>15</code>
+		 */
+		int frequency(int index) {
+			int frequency = 15;
+			for (int i = 0; i < SEEDS.length; i++) {
+				final int hash = hash(index, i);
+				frequency = Math.min(frequency, (int) ((table[slot(hash)] >>> offset(hash)) & 0xFL));
+			}
+			return frequency;
+		}
+
+		/**
+		 * Increment the access frequency of given index.
+		 * @param index Item index
+		 */
+		void increment(int index) {
+			boolean added = false;
+			for (int i = 0; i < SEEDS.length; i++) {
+				final int hash = hash(index, i);
+				final int slot = slot(hash);
+				final int offset = offset(hash);
+				if (((table[slot] >>> offset) & 0xFL) < 15) {
+					table[slot] += (1L << offset);
+					added = true;
+				}
+			}
+			if (added && ++additions >= sampleSize) {
+				for (int i = 0; i < table.length; i++) {
+					table[i] = (table[i] >>> 1) & RESET_MASK;
+				}
+				additions = additions / 2;
+			}
+		}
+
+		private int slot(int hash) {
+			return hash & (table.length - 1);
+		}
+
+		private static int offset(int hash) {
+			// one of the 16 counters of 4 bits of each slot
+			return ((hash >>> 24) & 15) << 2;
+		}
+
+		private static int hash(int index, int depth) {
+			int h = (index + SEEDS[depth]) * 0x9E3779B9;
+			h ^= h >>> 16;
+			h *= 0x85EBCA6B;
+			return h ^ (h >>> 13);
+		}
+
+	}
+
+}
@@ -15,9 +15,15 @@
  */
 package com.holonplatform.vaadin7.internal.data.container;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import com.holonplatform.core.internal.utils.ObjectUtils;
 import com.holonplatform.core.query.QueryConfigurationProvider;
 import com.holonplatform.core.query.QueryFilter;
 import com.holonplatform.core.query.QuerySort;
+import com.holonplatform.vaadin7.data.ItemCachePolicy;
+import com.holonplatform.vaadin7.data.ItemDataMetricsListener;
 import com.holonplatform.vaadin7.data.ItemDataProvider;
 import com.holonplatform.vaadin7.data.ItemIdentifierProvider;
 import com.holonplatform.vaadin7.data.ItemDataSource.CommitHandler;
@@ -131,6 +137,86 @@ public abstract class AbstractItemDataSourceContainerBuilder<ITEM, PROPERTY, B e
 		return builder();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.container.ItemDataSourceContainerBuilder#prefetch(java.util.concurrent.
+	 * Executor)
+	 */
+	@Override
+	public B prefetch(Executor executor) {
+		container.setPrefetchExecutor(executor);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.container.ItemDataSourceContainerBuilder#firstBatchConcurrently(java.util.
+	 * concurrent.Executor)
+	 */
+	@Override
+	public B firstBatchConcurrently(Executor executor) {
+		container.setFirstBatchExecutor(executor);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.container.ItemDataSourceContainerBuilder#loadTimeout(long,
+	 * java.util.concurrent.TimeUnit)
+	 */
+	@Override
+	public B loadTimeout(long timeout, TimeUnit unit) {
+		ObjectUtils.argumentNotNull(unit, "TimeUnit must be not null");
+		container.setLoadTimeout(unit.toMillis(timeout));
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.container.ItemDataSourceContainerBuilder#adaptiveBatchSize(int, int)
+	 */
+	@Override
+	public B adaptiveBatchSize(int minBatchSize, int maxBatchSize) {
+		if (minBatchSize <= 0) {
+			throw new IllegalArgumentException("Min batch size must be greater than 0");
+		}
+		container.setAdaptiveBatchSize(minBatchSize, maxBatchSize);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.container.ItemDataSourceContainerBuilder#metrics(com.holonplatform.vaadin7.
+	 * data.ItemDataMetricsListener)
+	 */
+	@Override
+	public B metrics(ItemDataMetricsListener listener) {
+		container.setMetricsListener(listener);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.container.ItemDataSourceContainerBuilder#metricsTag(java.lang.String,
+	 * java.lang.String)
+	 */
+	@Override
+	public B metricsTag(String name, String value) {
+		container.addMetricsTag(name, value);
+		return builder();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.container.ItemDataSourceContainerBuilder#cachePolicy(com.holonplatform.
+	 * vaadin7.data.ItemCachePolicy)
+	 */
+	@Override
+	public B cachePolicy(ItemCachePolicy cachePolicy) {
+		container.setCachePolicy(cachePolicy);
+		return builder();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see com.holonplatform.vaadin.data.QueryContainerBuilder#defaultValue(java.lang.Object, java.lang.Object)
@@ -15,10 +15,13 @@
  */
 package com.holonplatform.vaadin7.internal.data.container;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.holonplatform.vaadin7.data.ItemDataSource.Configuration;
 import com.holonplatform.vaadin7.data.container.ItemAdapter;
@@ -30,7 +33,12 @@ public class BeanItemAdapter implements ItemAdapter {
 
 	private static final long serialVersionUID = -9058266880411104997L;
 
-	private final Set<String> nestedPropertyIds;
+	private final List<String> nestedPropertyIds;
+
+	/**
+	 * Item property set models by bean class
+	 */
+	private transient volatile Map<Class<?>, BeanItemModel> models;
 
 	public BeanItemAdapter() {
 		this(null);
@@ -38,8 +46,27 @@ public class BeanItemAdapter implements ItemAdapter {
 
 	public BeanItemAdapter(Collection<String> nestedPropertyIds) {
 		super();
-		this.nestedPropertyIds = (nestedPropertyIds != null) ? new HashSet<>(nestedPropertyIds)
-				: Collections.emptySet();
+		this.nestedPropertyIds = (nestedPropertyIds != null)
+				? new ArrayList<>(new LinkedHashSet<>(nestedPropertyIds)) : Collections.emptyList();
+	}
+
+	/**
+	 * Get the item property set model for given bean class, introspecting the bean class only once.
+	 * @param beanClass Bean class
+	 * @return The item property set model
+	 */
+	protected BeanItemModel getModel(Class<?> beanClass) {
+		Map<Class<?>, BeanItemModel> m = models;
+		if (m == null) {
+			synchronized (this) {
+				m = models;
+				if (m == null) {
+					m = new ConcurrentHashMap<>(4);
+					models = m;
+				}
+			}
+		}
+		return m.computeIfAbsent(beanClass, type -> BeanItemModel.of(type, nestedPropertyIds));
 	}
 
 	/*
@@ -50,9 +77,7 @@ public class BeanItemAdapter implements ItemAdapter {
 	@Override
 	public Item adapt(Configuration configuration, Object item) {
 		if (item != null) {
-			BeanItem bi = new BeanItem<>(item);
-			nestedPropertyIds.forEach(id -> bi.addNestedProperty(id));
-			return bi;
+			return new DefaultBeanItem<>(item, getModel(item.getClass()));
 		}
 		return null;
 	}
@@ -65,10 +90,12 @@ public class BeanItemAdapter implements ItemAdapter {
 	@Override
 	public Object restore(Configuration configuration, Item item) {
 		if (item != null) {
-			if (item instanceof BeanItem) {
+			if (item instanceof DefaultBeanItem) {
+				return ((DefaultBeanItem) item).getBean();
+			} else if (item instanceof BeanItem) {
 				return ((BeanItem) item).getBean();
 			} else {
-				throw new UnsupportedOperationException("The bean item adapter only supports BeanItem type items");
+				throw new UnsupportedOperationException("The bean item adapter only supports bean type items");
 			}
 		}
 		return null;
@@ -0,0 +1,486 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data.container;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.Serializable;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.holonplatform.core.internal.Logger;
+import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.holonplatform.core.internal.utils.TypeUtils;
+import com.holonplatform.vaadin7.internal.VaadinLogger;
+
+/**
+ * Immutable property set model of a {@link DefaultBeanItem}, shared by all the items bound to beans of the same class.
+ * <p>
+ * The bean class is introspected only once and the bean properties are read and written using accessors generated
+ * through {@link LambdaMetafactory}, falling back to {@link MethodHandle}s when the bean class is not accessible to
+ * generated code (for example when it is not public or it is loaded by an unrelated class loader).
+ * </p>
+ * <p>
+ * The item property ids are the bean property names, followed by the nested property paths, if any, using the dot
+ * notation (for example <code>address.city</code>).
+ * </p>
+ *
+ * @since 5.2.5
+ */
+public class BeanItemModel implements Serializable {
+
+	private static final long serialVersionUID = -3437215306870526958L;
+
+	/**
+	 * Logger
+	 */
+	private static final Logger LOGGER = VaadinLogger.create();
+
+	/**
+	 * Bean property accessors by bean class
+	 */
+	private static final ClassValue<Map<String, BeanPropertyAccessor>> BEAN_PROPERTIES = new ClassValue<Map<String, BeanPropertyAccessor>>() {
+
+		@Override
+		protected Map<String, BeanPropertyAccessor> computeValue(Class<?> type) {
+			return introspect(type);
+		}
+
+	};
+
+	/**
+	 * Bean class
+	 */
+	private final Class<?> beanClass;
+
+	/**
+	 * Nested property ids
+	 */
+	private final List<String> nestedPropertyIds;
+
+	/**
+	 * Property ids
+	 */
+	private final transient List<String> propertyIds;
+
+	/**
+	 * Property ids positions
+	 */
+	private final transient Map<String, Integer> indexes;
+
+	/**
+	 * Property accessors, by property position
+	 */
+	private final transient BeanPropertyAccessor[] accessors;
+
+	/**
+	 * Constructor
+	 * @param beanClass Bean class (not null)
+	 * @param nestedPropertyIds Nested property ids (not null)
+	 */
+	protected BeanItemModel(Class<?> beanClass, List<String> nestedPropertyIds) {
+		super();
+		ObjectUtils.argumentNotNull(beanClass, "Bean class must be not null");
+		ObjectUtils.argumentNotNull(nestedPropertyIds, "Nested property ids must be not null");
+		this.beanClass = beanClass;
+		this.nestedPropertyIds = nestedPropertyIds;
+
+		final Map<String, BeanPropertyAccessor> properties = BEAN_PROPERTIES.get(beanClass);
+		final List<String> ids = new ArrayList<>(properties.size() + nestedPropertyIds.size());
+		final List<BeanPropertyAccessor> propertyAccessors = new ArrayList<>(properties.size()
+				+ nestedPropertyIds.size());
+		properties.forEach((name, accessor) -> {
+			ids.add(name);
+			propertyAccessors.add(accessor);
+		});
+		for (String nestedPropertyId : nestedPropertyIds) {
+			if (!ids.contains(nestedPropertyId)) {
+				ids.add(nestedPropertyId);
+				propertyAccessors.add(resolveNested(beanClass, nestedPropertyId));
+			}
+		}
+		this.propertyIds = Collections.unmodifiableList(ids);
+		this.accessors = propertyAccessors.toArray(new BeanPropertyAccessor[propertyAccessors.size()]);
+		this.indexes = new HashMap<>(ids.size() * 2);
+		for (int i = 0; i < ids.size(); i++) {
+			this.indexes.put(ids.get(i), i);
+		}
+	}
+
+	/**
+	 * Get the bean class.
+	 * @return the bean class
+	 */
+	public Class<?> getBeanClass() {
+		return beanClass;
+	}
+
+	/**
+	 * Get the property ids.
+	 * @return Unmodifiable property ids list
+	 */
+	public List<String> getPropertyIds() {
+		return propertyIds;
+	}
+
+	/**
+	 * Get the number of properties.
+	 * @return the property set size
+	 */
+	public int size() {
+		return propertyIds.size();
+	}
+
+	/**
+	 * Get the position of given property id.
+	 * @param propertyId Property id
+	 * @return The property position, <code>-1</code> if the property does not belong to the property set
+	 */
+	public int indexOf(Object propertyId) {
+		if (propertyId != null) {
+			final Integer index = indexes.get(propertyId);
+			if (index != null) {
+				return index.intValue();
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the accessor of the property at given position.
+	 * @param index Property position
+	 * @return The property accessor
+	 */
+	public BeanPropertyAccessor getAccessor(int index) {
+		return accessors[index];
+	}
+
+	/**
+	 * Create a new {@link BeanItemModel} for given bean class.
+	 * <p>
+	 * The bean class introspection results are cached, so creating more than one model for the same bean class is
+	 * cheap.
+	 * </p>
+	 * @param beanClass Bean class (not null)
+	 * @param nestedPropertyIds Nested property ids to include, using the dot notation (may be null)
+	 * @return A new {@link BeanItemModel}
+	 * @throws IllegalArgumentException If the bean class cannot be introspected or a nested property cannot be
+	 *         resolved
+	 */
+	public static BeanItemModel of(Class<?> beanClass, Collection<String> nestedPropertyIds) {
+		return new BeanItemModel(beanClass, (nestedPropertyIds != null) ? new ArrayList<>(nestedPropertyIds)
+				: Collections.emptyList());
+	}
+
+	/**
+	 * Rebuild the property accessors when deserialized.
+	 * @return A new model instance for the same bean class and nested property ids
+	 */
+	protected Object readResolve() {
+		return new BeanItemModel(beanClass, nestedPropertyIds);
+	}
+
+	/**
+	 * Introspect given bean class.
+	 * @param beanClass Bean class
+	 * @return The bean property accessors, by property name
+	 */
+	private static Map<String, BeanPropertyAccessor> introspect(Class<?> beanClass) {
+		final Map<String, BeanPropertyAccessor> properties = new LinkedHashMap<>();
+		try {
+			introspect(beanClass, properties);
+		} catch (IntrospectionException e) {
+			throw new IllegalArgumentException("Failed to introspect bean class [" + beanClass.getName() + "]", e);
+		}
+		return Collections.unmodifiableMap(properties);
+	}
+
+	/**
+	 * Introspect given bean class, including the super interfaces if the bean class is an interface.
+	 * @param beanClass Bean class
+	 * @param properties Property accessors
+	 * @throws IntrospectionException Introspection error
+	 */
+	private static void introspect(Class<?> beanClass, Map<String, BeanPropertyAccessor> properties)
+			throws IntrospectionException {
+		for (PropertyDescriptor descriptor : Introspector.getBeanInfo(beanClass).getPropertyDescriptors()) {
+			final Method readMethod = descriptor.getReadMethod();
+			if (readMethod != null && readMethod.getDeclaringClass() != Object.class
+					&& !properties.containsKey(descriptor.getName())) {
+				final Method writeMethod = descriptor.getWriteMethod();
+				properties.put(descriptor.getName(),
+						new BeanPropertyAccessor(TypeUtils.box(descriptor.getPropertyType()), null,
+								createGetter(readMethod), (writeMethod != null) ? createSetter(writeMethod) : null));
+			}
+		}
+		if (beanClass.isInterface()) {
+			for (Class<?> superInterface : beanClass.getInterfaces()) {
+				introspect(superInterface, properties);
+			}
+		}
+	}
+
+	/**
+	 * Resolve a nested property.
+	 * @param beanClass Root bean class
+	 * @param path Nested property path
+	 * @return The nested property accessor
+	 */
+	private static BeanPropertyAccessor resolveNested(Class<?> beanClass, String path) {
+		final String[] names = path.split("\\.");
+		final Getter[] parents = new Getter[names.length - 1];
+		Class<?> type = beanClass;
+		BeanPropertyAccessor accessor = null;
+		for (int i = 0; i < names.length; i++) {
+			accessor = BEAN_PROPERTIES.get(type).get(names[i]);
+			if (accessor == null) {
+				throw new IllegalArgumentException(
+						"Bean property [" + path + "] not found in bean class [" + beanClass.getName() + "]");
+			}
+			if (i < parents.length) {
+				parents[i] = accessor.getter;
+			}
+			type = accessor.getType();
+		}
+		return new BeanPropertyAccessor(accessor.getType(), parents, accessor.getter, accessor.setter);
+	}
+
+	/**
+	 * Check whether the accessor of given method can be generated using {@link LambdaMetafactory}.
+	 * @param method Accessor method
+	 * @return <code>true</code> if the method is public, declared by a public class which is visible from this class
+	 *         class loader
+	 */
+	private static boolean isGeneratedAccessorSupported(Method method) {
+		final Class<?> declaringClass = method.getDeclaringClass();
+		if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(declaringClass.getModifiers())) {
+			return false;
+		}
+		try {
+			return Class.forName(declaringClass.getName(), false, BeanItemModel.class.getClassLoader())
+					== declaringClass;
+		} catch (@SuppressWarnings("unused") ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Get the {@link MethodHandle} of given method.
+	 * @param method The method
+	 * @return The method handle
+	 * @throws IllegalAccessException If the method is not accessible
+	 */
+	private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+		if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+			method.setAccessible(true);
+		}
+		return MethodHandles.lookup().unreflect(method);
+	}
+
+	/**
+	 * Create the getter for given read method.
+	 * @param method Read method
+	 * @return The getter
+	 */
+	private static Getter createGetter(Method method) {
+		try {
+			final MethodHandle handle = unreflect(method);
+			if (isGeneratedAccessorSupported(method)) {
+				try {
+					final CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(), "get",
+							MethodType.methodType(Getter.class), MethodType.methodType(Object.class, Object.class),
+							handle, MethodType.methodType(TypeUtils.box(method.getReturnType()),
+									method.getDeclaringClass()));
+					return (Getter) site.getTarget().invokeExact();
+				} catch (Throwable e) {
+					LOGGER.debug(() -> "Failed to generate getter for method [" + method + "], using a method handle",
+							e);
+				}
+			}
+			final MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+			return bean -> generic.invokeExact(bean);
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException("Bean property read method is not accessible: " + method, e);
+		}
+	}
+
+	/**
+	 * Create the setter for given write method.
+	 * @param method Write method
+	 * @return The setter
+	 */
+	private static Setter createSetter(Method method) {
+		try {
+			final MethodHandle handle = unreflect(method);
+			if (isGeneratedAccessorSupported(method)) {
+				try {
+					final CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(), "set",
+							MethodType.methodType(Setter.class),
+							MethodType.methodType(void.class, Object.class, Object.class), handle,
+							MethodType.methodType(void.class, method.getDeclaringClass(),
+									TypeUtils.box(method.getParameterTypes()[0])));
+					return (Setter) site.getTarget().invokeExact();
+				} catch (Throwable e) {
+					LOGGER.debug(() -> "Failed to generate setter for method [" + method + "], using a method handle",
+							e);
+				}
+			}
+			final MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+			return (bean, value) -> {
+				generic.invokeExact(bean, value);
+			};
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException("Bean property write method is not accessible: " + method, e);
+		}
+	}
+
+	/**
+	 * Bean property value reader.
+	 */
+	@FunctionalInterface
+	public interface Getter {
+
+		/**
+		 * Read the property value from given bean.
+		 * @param bean Bean instance
+		 * @return Property value
+		 * @throws Throwable Error invoking the read method
+		 */
+		Object get(Object bean) throws Throwable;
+
+	}
+
+	/**
+	 * Bean property value writer.
+	 */
+	@FunctionalInterface
+	public interface Setter {
+
+		/**
+		 * Write the property value into given bean.
+		 * @param bean Bean instance
+		 * @param value Property value
+		 * @throws Throwable Error invoking the write method
+		 */
+		void set(Object bean, Object value) throws Throwable;
+
+	}
+
+	/**
+	 * Bean property accessor, which supports nested properties.
+	 */
+	public static final class BeanPropertyAccessor {
+
+		private final Class<?> type;
+		private final Getter[] parents;
+		private final Getter getter;
+		private final Setter setter;
+
+		/**
+		 * Constructor
+		 * @param type Property type
+		 * @param parents Parent properties getters for nested properties, <code>null</code> if none
+		 * @param getter Property getter
+		 * @param setter Property setter, <code>null</code> if the property is read-only
+		 */
+		BeanPropertyAccessor(Class<?> type, Getter[] parents, Getter getter, Setter setter) {
+			super();
+			this.type = type;
+			this.parents = (parents != null && parents.length > 0) ? parents : null;
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		/**
+		 * Get the property type. Primitive types are boxed into the corresponding wrapper type.
+		 * @return the property type
+		 */
+		public Class<?> getType() {
+			return type;
+		}
+
+		/**
+		 * Get whether the property is read-only.
+		 * @return <code>true</code> if the property has no write method
+		 */
+		public boolean isReadOnly() {
+			return setter == null;
+		}
+
+		/**
+		 * Read the property value from given bean.
+		 * @param bean Bean instance
+		 * @return The property value. For nested properties, <code>null</code> if any parent property value is
+		 *         <code>null</code>
+		 * @throws Throwable Error invoking the read methods
+		 */
+		public Object getValue(Object bean) throws Throwable {
+			final Object target = getTarget(bean);
+			return (target != null) ? getter.get(target) : null;
+		}
+
+		/**
+		 * Write the property value into given bean.
+		 * @param bean Bean instance
+		 * @param value Property value
+		 * @throws Throwable Error invoking the write method
+		 */
+		public void setValue(Object bean, Object value) throws Throwable {
+			if (setter == null) {
+				throw new UnsupportedOperationException("Bean property is read-only");
+			}
+			final Object target = getTarget(bean);
+			if (target == null) {
+				throw new IllegalStateException("Cannot write nested bean property: a parent property value is null");
+			}
+			setter.set(target, value);
+		}
+
+		/**
+		 * Get the bean instance which holds the property value.
+		 * @param bean Root bean instance
+		 * @return The property holder, <code>null</code> if not available
+		 * @throws Throwable Error invoking the parent properties read methods
+		 */
+		private Object getTarget(Object bean) throws Throwable {
+			Object target = bean;
+			if (parents != null) {
+				for (Getter parent : parents) {
+					if (target == null) {
+						return null;
+					}
+					target = parent.get(target);
+				}
+			}
+			return target;
+		}
+
+	}
+
+}
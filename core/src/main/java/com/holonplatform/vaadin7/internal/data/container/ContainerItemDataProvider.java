@@ -15,6 +15,7 @@
  */
 package com.holonplatform.vaadin7.internal.data.container;
 
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import com.holonplatform.core.exceptions.DataAccessException;
@@ -22,17 +23,25 @@ import com.holonplatform.core.internal.utils.ObjectUtils;
 import com.holonplatform.core.query.QueryConfigurationProvider;
 import com.holonplatform.vaadin7.data.ItemDataProvider;
 import com.holonplatform.vaadin7.data.ItemDataSource.Configuration;
+import com.holonplatform.vaadin7.data.ItemIndexResolver;
+import com.holonplatform.vaadin7.data.ItemSetIdLoader;
+import com.holonplatform.vaadin7.data.ItemSetKeysetLoader;
 import com.holonplatform.vaadin7.data.container.ItemAdapter;
 import com.vaadin.data.Item;
 
 /**
- * An {@link ItemDataProvider} using an {@link ItemAdapter} to convert item data into container {@link Item}s
+ * An {@link ItemDataProvider} using an {@link ItemAdapter} to convert item data into container {@link Item}s.
+ * <p>
+ * Supports keyset pagination, item index resolution and item ids loading if the concrete item data provider is an
+ * {@link ItemSetKeysetLoader}, an {@link ItemIndexResolver} or an {@link ItemSetIdLoader}, respectively.
+ * </p>
  * 
  * @param <ITEM> Item data type
  * 
  * @since 5.0.0
  */
-public class ContainerItemDataProvider<ITEM> implements ItemDataProvider<Item> {
+public class ContainerItemDataProvider<ITEM>
+		implements ItemDataProvider<Item>, ItemSetKeysetLoader<Item>, ItemIndexResolver, ItemSetIdLoader {
 
 	private static final long serialVersionUID = 6805081577415808950L;
 
@@ -84,6 +93,75 @@ public class ContainerItemDataProvider<ITEM> implements ItemDataProvider<Item> {
 		return provider.load(configuration, offset, limit).map(i -> adapter.adapt(getConfiguration(), i));
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetKeysetLoader#load(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, int, int, java.lang.Object)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public Stream<Item> load(QueryConfigurationProvider configuration, int offset, int limit, Object keyset)
+			throws DataAccessException {
+		if (keyset != null && provider instanceof ItemSetKeysetLoader) {
+			return ((ItemSetKeysetLoader<ITEM>) provider).load(configuration, offset, limit, keyset)
+					.map(i -> adapter.adapt(getConfiguration(), i));
+		}
+		return load(configuration, offset, limit);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetKeysetLoader#getKeyset(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, java.lang.Object)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public Object getKeyset(QueryConfigurationProvider configuration, Item item) {
+		if (item != null && provider instanceof ItemSetKeysetLoader) {
+			return ((ItemSetKeysetLoader<ITEM>) provider).getKeyset(configuration,
+					adapter.restore(getConfiguration(), item));
+		}
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemIndexResolver#indexOfItem(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, java.lang.Object)
+	 */
+	@Override
+	public Optional<Integer> indexOfItem(QueryConfigurationProvider configuration, Object itemId)
+			throws DataAccessException {
+		if (provider instanceof ItemIndexResolver) {
+			return ((ItemIndexResolver) provider).indexOfItem(configuration, itemId);
+		}
+		return Optional.empty();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetIdLoader#canLoadItemIds()
+	 */
+	@Override
+	public boolean canLoadItemIds() {
+		return provider instanceof ItemSetIdLoader && ((ItemSetIdLoader) provider).canLoadItemIds();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemSetIdLoader#loadItemIds(com.holonplatform.core.query.
+	 * QueryConfigurationProvider, int, int)
+	 */
+	@Override
+	public Stream<?> loadItemIds(QueryConfigurationProvider configuration, int offset, int limit)
+			throws UnsupportedOperationException, DataAccessException {
+		if (!canLoadItemIds()) {
+			throw new UnsupportedOperationException(
+					"The concrete item data provider does not support item ids loading");
+		}
+		return ((ItemSetIdLoader) provider).loadItemIds(configuration, offset, limit);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see com.holonplatform.vaadin.data.ItemDataProvider#refresh(java.lang.Object)
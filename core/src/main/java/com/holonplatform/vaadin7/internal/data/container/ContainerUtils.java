@@ -22,7 +22,6 @@ import java.util.List;
 import java.util.Optional;
 
 import com.holonplatform.core.Expression.InvalidExpressionException;
-import com.holonplatform.core.Path;
 import com.holonplatform.core.property.PathProperty;
 import com.holonplatform.core.query.PathExpression;
 import com.holonplatform.core.query.QueryExpression;
@@ -199,14 +198,12 @@ public final class ContainerUtils implements Serializable {
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	private static <T> PathExpression<T> getPathByName(String propertyName, Configuration configuration) {
 		if (propertyName != null && configuration != null) {
-			for (Object property : configuration.getProperties()) {
-				String name = (property instanceof Path) ? ((Path<?>) property).getName() : property.toString();
-				if (propertyName.equals(name)) {
-					if (property instanceof PathExpression) {
-						return (PathExpression<T>) property;
-					} else {
-						return PathProperty.create(name, configuration.getPropertyType(property));
-					}
+			final Optional<?> property = configuration.getPropertyByName(propertyName);
+			if (property.isPresent()) {
+				if (property.get() instanceof PathExpression) {
+					return (PathExpression<T>) property.get();
+				} else {
+					return PathProperty.create(propertyName, configuration.getPropertyType(property.get()));
 				}
 			}
 		}
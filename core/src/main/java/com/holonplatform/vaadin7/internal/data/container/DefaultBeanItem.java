@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data.container;
+
+import java.util.Collection;
+
+import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.vaadin.data.Item;
+import com.vaadin.data.Property;
+
+/**
+ * {@link Item} implementation bound to a bean instance, which uses a shared {@link BeanItemModel} to read and write
+ * the bean property values.
+ * <p>
+ * Item's property set is immutable, so adding and removing properties is not supported.
+ * </p>
+ * 
+ * @param <T> Bean type
+ *
+ * @since 5.2.5
+ */
+@SuppressWarnings("rawtypes")
+public class DefaultBeanItem<T> implements Item, ItemModificationNotifier {
+
+	private static final long serialVersionUID = 1504393213633426471L;
+
+	/**
+	 * Bean instance
+	 */
+	private final T bean;
+
+	/**
+	 * Item property set model
+	 */
+	private final BeanItemModel model;
+
+	/**
+	 * Item properties, lazily created and stored by property position
+	 */
+	private Property[] itemProperties;
+
+	/**
+	 * Item modification listener
+	 */
+	private ItemModificationListener itemModificationListener;
+
+	/**
+	 * Constructor
+	 * @param bean Bean instance (not null)
+	 * @param model Item property set model, which must be bound to the bean class (not null)
+	 */
+	public DefaultBeanItem(T bean, BeanItemModel model) {
+		super();
+		ObjectUtils.argumentNotNull(bean, "Bean instance must be not null");
+		ObjectUtils.argumentNotNull(model, "BeanItemModel must be not null");
+		this.bean = bean;
+		this.model = model;
+	}
+
+	/**
+	 * Get the bean instance to which this item is bound.
+	 * @return the bean instance
+	 */
+	public T getBean() {
+		return bean;
+	}
+
+	/**
+	 * Get the item property set model.
+	 * @return the item property set model
+	 */
+	protected BeanItemModel getModel() {
+		return model;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.container.ItemModificationNotifier#setItemModificationListener(com.
+	 * holonplatform.vaadin7.internal.data.container.ItemModificationNotifier.ItemModificationListener)
+	 */
+	@Override
+	public void setItemModificationListener(ItemModificationListener listener) {
+		this.itemModificationListener = listener;
+	}
+
+	/**
+	 * Notify the item modification listener, if any, that the value of an item property was modified.
+	 */
+	protected void fireItemModified() {
+		final ItemModificationListener listener = itemModificationListener;
+		if (listener != null) {
+			listener.onItemModified(this);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.vaadin.data.Item#getItemProperty(java.lang.Object)
+	 */
+	@Override
+	public Property<?> getItemProperty(Object id) {
+		final int index = getModel().indexOf(id);
+		if (index < 0) {
+			return null;
+		}
+		if (itemProperties == null) {
+			itemProperties = new Property[getModel().size()];
+		} else if (itemProperties[index] != null) {
+			return itemProperties[index];
+		}
+		final Property<?> property = new DefaultBeanItemProperty<>(this, index);
+		itemProperties[index] = property;
+		return property;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.vaadin.data.Item#getItemPropertyIds()
+	 */
+	@Override
+	public Collection<?> getItemPropertyIds() {
+		return getModel().getPropertyIds();
+	}
+
+	/**
+	 * Not supported.
+	 * <p>
+	 * This Item property set is immutable and coincides with the bean property set.
+	 * </p>
+	 */
+	@Override
+	public boolean addItemProperty(Object id, Property property) throws UnsupportedOperationException {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Not supported.
+	 * <p>
+	 * This Item property set is immutable and coincides with the bean property set.
+	 * </p>
+	 */
+	@Override
+	public boolean removeItemProperty(Object id) throws UnsupportedOperationException {
+		throw new UnsupportedOperationException();
+	}
+
+}
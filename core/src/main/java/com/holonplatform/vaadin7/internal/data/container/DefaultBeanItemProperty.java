@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data.container;
+
+import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.holonplatform.vaadin7.internal.data.container.BeanItemModel.BeanPropertyAccessor;
+import com.vaadin.data.Property;
+import com.vaadin.data.util.AbstractProperty;
+import com.vaadin.data.util.MethodProperty.MethodException;
+
+/**
+ * A {@link Property} bound to a {@link DefaultBeanItem} bean property.
+ * 
+ * @param <T> Property type
+ * 
+ * @since 5.2.5
+ */
+public class DefaultBeanItemProperty<T> extends AbstractProperty<T> {
+
+	private static final long serialVersionUID = -6281004848386565617L;
+
+	/*
+	 * Item
+	 */
+	private final DefaultBeanItem<?> item;
+	/*
+	 * Property position in the item property set
+	 */
+	private final int index;
+
+	/**
+	 * Constructor
+	 * @param item Item to which the property belongs (not null)
+	 * @param index Property position in the item property set
+	 */
+	public DefaultBeanItemProperty(DefaultBeanItem<?> item, int index) {
+		super();
+		ObjectUtils.argumentNotNull(item, "Item must be not null");
+		this.item = item;
+		this.index = index;
+		if (getAccessor().isReadOnly()) {
+			setReadOnly(true);
+		}
+	}
+
+	/**
+	 * Get the bean property accessor.
+	 * @return the bean property accessor
+	 */
+	protected BeanPropertyAccessor getAccessor() {
+		return item.getModel().getAccessor(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.vaadin.data.Property#getValue()
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public T getValue() {
+		try {
+			return (T) getAccessor().getValue(item.getBean());
+		} catch (Throwable e) {
+			throw new MethodException(this, e);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.vaadin.data.Property#setValue(java.lang.Object)
+	 */
+	@Override
+	public void setValue(T newValue) throws com.vaadin.data.Property.ReadOnlyException {
+		// Check read-only
+		if (isReadOnly()) {
+			throw new Property.ReadOnlyException();
+		}
+
+		try {
+			getAccessor().setValue(item.getBean(), newValue);
+		} catch (Throwable e) {
+			throw new MethodException(this, e);
+		}
+
+		// notify item modification
+		item.fireItemModified();
+
+		// fire value change event
+		fireValueChange();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.vaadin.data.Property#getType()
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public Class<? extends T> getType() {
+		return (Class<? extends T>) getAccessor().getType();
+	}
+
+}
@@ -20,12 +20,18 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.holonplatform.core.ParameterSet;
 import com.holonplatform.core.Path;
@@ -38,21 +44,33 @@ import com.holonplatform.core.query.QueryFilter;
 import com.holonplatform.core.query.QuerySort;
 import com.holonplatform.core.query.QuerySort.SortDirection;
 import com.holonplatform.vaadin7.Registration;
+import com.holonplatform.vaadin7.data.ItemCacheBudget;
+import com.holonplatform.vaadin7.data.ItemCachePolicy;
+import com.holonplatform.vaadin7.data.ItemCacheStatistics;
+import com.holonplatform.vaadin7.data.ItemDataMetricsListener;
 import com.holonplatform.vaadin7.data.ItemDataProvider;
 import com.holonplatform.vaadin7.data.ItemIdentifierProvider;
+import com.holonplatform.vaadin7.data.ItemSetDelta;
 import com.holonplatform.vaadin7.data.ItemDataSource.Configuration;
 import com.holonplatform.vaadin7.data.container.ItemAdapter;
 import com.holonplatform.vaadin7.data.container.ItemDataSourceContainer;
+import com.holonplatform.vaadin7.internal.data.AdaptiveBatchSize;
+import com.holonplatform.vaadin7.internal.data.CachingItemDataProvider;
 import com.holonplatform.vaadin7.internal.data.DefaultItemSort;
 import com.holonplatform.vaadin7.internal.data.DefaultItemStore;
+import com.holonplatform.vaadin7.internal.data.ItemSetChunkSpliterator;
 import com.holonplatform.vaadin7.internal.data.ItemStore;
 import com.holonplatform.vaadin7.internal.data.ItemStore.ItemActionListener;
+import com.holonplatform.vaadin7.internal.data.ItemStore.ItemDeltaListener;
+import com.holonplatform.vaadin7.internal.data.QueryConfigurationSnapshot;
+import com.holonplatform.vaadin7.internal.data.container.ItemModificationNotifier.ItemModificationListener;
 import com.vaadin.data.Container;
 import com.vaadin.data.ContainerHelpers;
 import com.vaadin.data.Item;
 import com.vaadin.data.Property;
 import com.vaadin.data.Validator.InvalidValueException;
 import com.vaadin.data.util.filter.UnsupportedFilterException;
+import com.vaadin.ui.Component;
 
 /**
  * Default {@link ItemDataSourceContainer} implementation.
@@ -175,9 +193,100 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 	private final DefaultParameterSet queryParameters = new DefaultParameterSet();
 
 	/**
-	 * ValueChangeListeners to track item property modifications
+	 * Executor to use to prefetch item batches in background
 	 */
-	private final Map<Item, ItemPropertyValueChangeListener> itemPropertyValueChangeListeners = new WeakHashMap<>(8);
+	private transient Executor prefetchExecutor;
+
+	/**
+	 * Executor to use to load the first item batch concurrently with the items count
+	 */
+	private transient Executor firstBatchExecutor;
+
+	/**
+	 * Items count and load operations timeout in milliseconds
+	 */
+	private long loadTimeout = 0;
+
+	/**
+	 * Data access metrics listener
+	 */
+	private ItemDataMetricsListener metricsListener;
+
+	/**
+	 * Data access metrics tags
+	 */
+	private final Map<String, String> metricsTags = new LinkedHashMap<>(4);
+
+	/**
+	 * Metrics listener notified of the attach of a component which uses this container
+	 */
+	private ItemDataMetricsListener attachedMetricsListener;
+
+	/**
+	 * Metrics tags notified of the attach of a component which uses this container
+	 */
+	private Map<String, String> attachedMetricsTags;
+
+	/**
+	 * Items cache max size, if <code>0</code> or less it is determined from the batch size
+	 */
+	private int maxCacheSize = -1;
+
+	/**
+	 * Adaptive batch size min value, if <code>0</code> or less the adaptive batch size is disabled
+	 */
+	private int minBatchSize = -1;
+
+	/**
+	 * Adaptive batch size max value
+	 */
+	private int maxBatchSize = -1;
+
+	/**
+	 * Items cache policy
+	 */
+	private ItemCachePolicy cachePolicy = ItemCachePolicy.LRU;
+
+	/**
+	 * Properties by name
+	 */
+	private transient Map<String, PROPERTY> propertiesByName;
+
+	/**
+	 * Whether the converted container filters are available
+	 */
+	private transient boolean containerQueryFilterValid;
+
+	/**
+	 * Container filters converted into a {@link QueryFilter}
+	 */
+	private transient QueryFilter containerQueryFilter;
+
+	/**
+	 * Item sorts converted into {@link QuerySort}s, <code>null</code> if not available
+	 */
+	private transient List<QuerySort> itemQuerySorts;
+
+	/**
+	 * Last computed query filter
+	 */
+	private transient QueryExpressionMemo<QueryFilter> queryFilterMemo;
+
+	/**
+	 * Last computed query sort
+	 */
+	private transient QueryExpressionMemo<QuerySort> querySortMemo;
+
+	/**
+	 * Shared listener to track the modifications of the items which support {@link ItemModificationNotifier}
+	 */
+	private ItemModificationTracker itemModificationTracker = new ItemModificationTracker();
+
+	/**
+	 * ValueChangeListeners to track item property modifications of the items which do not support
+	 * {@link ItemModificationNotifier}, bound to the cached items and so not serialized
+	 */
+	private transient Map<Item, ItemPropertyValueChangeListener> itemPropertyValueChangeListeners;
 
 	/**
 	 * Constructor.
@@ -207,17 +316,21 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 			@Override
 			public QueryFilter getQueryFilter() {
 				// Container filters
-				return ContainerUtils.convertContainerFilters(getConfiguration(), getContainerFilters()).orElse(null);
+				return getContainerQueryFilter();
 			}
 		});
 	}
 
 	/**
 	 * Init the data source container, configuring the internal {@link ItemStore}.
+	 * <p>
+	 * If an {@link ItemCacheBudget} is available as context resource (for example as
+	 * {@link ItemCacheBudget#CONTEXT_KEY} Vaadin session attribute), the items cache is bound to it.
+	 * </p>
 	 * @param batchSize batch size
 	 */
 	protected void init(int batchSize) {
-		this.itemStore = new DefaultItemStore<>(this, new ContainerItemDataProvider<>(
+		final DefaultItemStore<Item> store = new DefaultItemStore<>(this, new ContainerItemDataProvider<>(
 				getDataProvider().orElseThrow(
 						() -> new IllegalStateException("Invalid data source configuration: missing ItemDataProvider")),
 				this,
@@ -227,7 +340,18 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 						getItemAdapter().orElseThrow(() -> new IllegalStateException(
 								"Invalid data source configuration: missing ItemAdapter")),
 						this)).orElse(null),
-				batchSize, determineMaxCacheSize(batchSize));
+				batchSize, (maxCacheSize > 0) ? maxCacheSize : determineMaxCacheSize(batchSize));
+		store.setCachePolicy(getCachePolicy());
+		store.setPrefetchExecutor(getPrefetchExecutor());
+		store.setFirstBatchExecutor(getFirstBatchExecutor());
+		store.setLoadTimeout(getLoadTimeout());
+		store.setMetricsListener(getMetricsListener().orElse(null), metricsTags);
+		// session scoped cache budget
+		store.setCacheBudget(ItemCacheBudget.getCurrent().orElse(null));
+		if (minBatchSize > 0) {
+			store.setAdaptiveBatchSize(new AdaptiveBatchSize(batchSize, minBatchSize, maxBatchSize), maxCacheSize <= 0);
+		}
+		this.itemStore = store;
 		this.itemStore.setFreezed(!isAutoRefresh());
 		this.itemStore.addItemActionListener(this);
 	}
@@ -338,8 +462,218 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 	 */
 	@Override
 	public void setMaxCacheSize(int maxCacheSize) {
+		this.maxCacheSize = maxCacheSize;
 		getItemStore().ifPresent(s -> {
 			s.setMaxCacheSize(maxCacheSize);
+			if (s instanceof DefaultItemStore) {
+				final DefaultItemStore<Item> store = (DefaultItemStore<Item>) s;
+				if (store.getAdaptiveBatchSize() != null) {
+					// the cache size no longer follows the batch size
+					store.setAdaptiveBatchSize(store.getAdaptiveBatchSize(), false);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Enable the adaptive batch size: the items batch size is computed from the number of items requested by the
+	 * client, i.e. the rows of the client side viewport, and from the observed load latency, within given bounds. The
+	 * configured batch size is used until the first requests and loads are observed. If the max cache size is not
+	 * explicitly set, the items cache size follows the adaptive batch size.
+	 * <p>
+	 * Must be called before the container is initialized.
+	 * </p>
+	 * @param minBatchSize Min batch size, <code>0</code> or less to disable the adaptive batch size
+	 * @param maxBatchSize Max batch size (not less than the min batch size)
+	 * @see AdaptiveBatchSize
+	 */
+	public void setAdaptiveBatchSize(int minBatchSize, int maxBatchSize) {
+		if (minBatchSize > 0 && maxBatchSize < minBatchSize) {
+			throw new IllegalArgumentException("Max batch size must be greater or equal to min batch size");
+		}
+		this.minBatchSize = minBatchSize;
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Get the items cache policy.
+	 * @return the items cache policy
+	 */
+	protected ItemCachePolicy getCachePolicy() {
+		return cachePolicy;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.container.ItemDataSourceContainer#setCachePolicy(com.holonplatform.vaadin7.
+	 * data.ItemCachePolicy)
+	 */
+	@Override
+	public void setCachePolicy(ItemCachePolicy cachePolicy) {
+		ObjectUtils.argumentNotNull(cachePolicy, "Cache policy must be not null");
+		this.cachePolicy = cachePolicy;
+		getItemStore().ifPresent(s -> {
+			s.setCachePolicy(cachePolicy);
+		});
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.container.ItemDataSourceContainer#getCacheStatistics()
+	 */
+	@Override
+	public ItemCacheStatistics getCacheStatistics() {
+		return requireItemStore().getCacheStatistics();
+	}
+
+	/**
+	 * Get the executor to use to prefetch item batches in background.
+	 * @return the prefetch executor, <code>null</code> if prefetching is disabled
+	 */
+	protected Executor getPrefetchExecutor() {
+		return prefetchExecutor;
+	}
+
+	/**
+	 * Set the executor to use to prefetch item batches in background when a sequential items access is detected.
+	 * @param prefetchExecutor the executor to set, <code>null</code> to disable prefetching
+	 * @see DefaultItemStore#setPrefetchExecutor(Executor)
+	 */
+	public void setPrefetchExecutor(Executor prefetchExecutor) {
+		this.prefetchExecutor = prefetchExecutor;
+		getItemStore().ifPresent(s -> {
+			if (s instanceof DefaultItemStore) {
+				((DefaultItemStore<Item>) s).setPrefetchExecutor(prefetchExecutor);
+			}
+		});
+	}
+
+	/**
+	 * Get the executor to use to load the first item batch concurrently with the items count.
+	 * @return the first batch executor, <code>null</code> if the first batch is loaded after the items count
+	 */
+	protected Executor getFirstBatchExecutor() {
+		return firstBatchExecutor;
+	}
+
+	/**
+	 * Set the executor to use to load the first item batch concurrently with the items count.
+	 * @param firstBatchExecutor the executor to set, <code>null</code> to load the first batch after the items count
+	 * @see DefaultItemStore#setFirstBatchExecutor(Executor)
+	 */
+	public void setFirstBatchExecutor(Executor firstBatchExecutor) {
+		this.firstBatchExecutor = firstBatchExecutor;
+		getItemStore().ifPresent(s -> {
+			if (s instanceof DefaultItemStore) {
+				((DefaultItemStore<Item>) s).setFirstBatchExecutor(firstBatchExecutor);
+			}
+		});
+	}
+
+	/**
+	 * Get the items count and load operations timeout.
+	 * @return the timeout in milliseconds, <code>0</code> if no timeout is configured
+	 */
+	protected long getLoadTimeout() {
+		return loadTimeout;
+	}
+
+	/**
+	 * Set the items count and load operations timeout.
+	 * @param loadTimeout the timeout in milliseconds, <code>0</code> for none
+	 * @see DefaultItemStore#setLoadTimeout(long)
+	 */
+	public void setLoadTimeout(long loadTimeout) {
+		this.loadTimeout = loadTimeout;
+		getItemStore().ifPresent(s -> {
+			if (s instanceof DefaultItemStore) {
+				((DefaultItemStore<Item>) s).setLoadTimeout(loadTimeout);
+			}
+		});
+	}
+
+	/**
+	 * Get the data access metrics listener.
+	 * @return Optional metrics listener
+	 */
+	protected Optional<ItemDataMetricsListener> getMetricsListener() {
+		return Optional.ofNullable(metricsListener);
+	}
+
+	/**
+	 * Get the data access metrics tags.
+	 * @return the metrics tags, empty if none
+	 */
+	protected Map<String, String> getMetricsTags() {
+		return Collections.unmodifiableMap(metricsTags);
+	}
+
+	/**
+	 * Set the listener to notify about the data access metrics, i.e. items cache accesses and evictions, count, load
+	 * and commit operations.
+	 * @param metricsListener the metrics listener, <code>null</code> for none
+	 */
+	public void setMetricsListener(ItemDataMetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+		updateStoreMetrics();
+	}
+
+	/**
+	 * Add a tag which identifies this container in the data access metrics.
+	 * @param name Tag name (not null)
+	 * @param value Tag value (not null)
+	 * @see ItemDataMetricsListener#TAG_VIEW
+	 * @see ItemDataMetricsListener#TAG_LISTING
+	 */
+	public void addMetricsTag(String name, String value) {
+		ObjectUtils.argumentNotNull(name, "Tag name must be not null");
+		ObjectUtils.argumentNotNull(value, "Tag value must be not null");
+		metricsTags.put(name, value);
+		updateStoreMetrics();
+	}
+
+	/**
+	 * Notify the metrics listener when given component, which uses this container, is attached to or detached from
+	 * the UI.
+	 * @param component The component which uses this container (not null)
+	 */
+	public void bindMetrics(Component component) {
+		ObjectUtils.argumentNotNull(component, "Component must be not null");
+		component.addAttachListener(e -> notifyMetricsAttach());
+		component.addDetachListener(e -> notifyMetricsDetach());
+	}
+
+	/**
+	 * Notify the metrics listener that a component which uses this container has been attached to the UI.
+	 */
+	public void notifyMetricsAttach() {
+		if (metricsListener != null && attachedMetricsTags == null) {
+			attachedMetricsListener = metricsListener;
+			attachedMetricsTags = Collections.unmodifiableMap(new LinkedHashMap<>(metricsTags));
+			attachedMetricsListener.onAttach(attachedMetricsTags);
+		}
+	}
+
+	/**
+	 * Notify the metrics listener that a component which uses this container has been detached from the UI, using
+	 * the same listener and tags of the previous attach.
+	 */
+	public void notifyMetricsDetach() {
+		if (attachedMetricsListener != null && attachedMetricsTags != null) {
+			attachedMetricsListener.onDetach(attachedMetricsTags);
+		}
+		attachedMetricsListener = null;
+		attachedMetricsTags = null;
+	}
+
+	/**
+	 * Configure the item store metrics listener and tags.
+	 */
+	private void updateStoreMetrics() {
+		getItemStore().ifPresent(s -> {
+			if (s instanceof DefaultItemStore) {
+				((DefaultItemStore<Item>) s).setMetricsListener(metricsListener, metricsTags);
+			}
 		});
 	}
 
@@ -415,6 +749,7 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 				propertyIds.remove(propertyId);
 			}
 			propertyIds.add(propertyId);
+			resetQueryConfigurationCache();
 			Class<?> pt = (type != null) ? type : Object.class;
 			propertyTypes.put(propertyId, pt);
 			if (readOnly) {
@@ -501,6 +836,7 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 	 */
 	@Override
 	public void refresh() throws DataAccessException {
+		resetQueryConfigurationCache();
 		requireItemStore().reset(true, false);
 	}
 
@@ -572,6 +908,7 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 	public boolean removeContainerProperty(Object propertyId) throws UnsupportedOperationException {
 		if (propertyId != null && propertyIds.contains(propertyId)) {
 			propertyIds.remove(propertyId);
+			resetQueryConfigurationCache();
 			if (readOnlyPropertyIds.contains(propertyId)) {
 				readOnlyPropertyIds.remove(propertyId);
 			}
@@ -674,11 +1011,13 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 		}
 		if (!queryConfigurationProviders.contains(queryConfigurationProvider)) {
 			queryConfigurationProviders.add(queryConfigurationProvider);
+			resetQueryConfigurationCache();
 			// reset store
 			resetStorePreservingFreezeState();
 		}
 		return () -> {
 			queryConfigurationProviders.remove(queryConfigurationProvider);
+			resetQueryConfigurationCache();
 			// reset store
 			resetStorePreservingFreezeState();
 		};
@@ -692,6 +1031,7 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 	@Override
 	public void setFixedFilter(QueryFilter filter) {
 		this.fixedFilter = filter;
+		resetQueryConfigurationCache();
 		// reset store
 		resetStorePreservingFreezeState();
 	}
@@ -699,15 +1039,17 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 	@Override
 	public void setFixedSort(QuerySort sort) {
 		this.fixedSort = sort;
+		resetQueryConfigurationCache();
 		// reset store
-		resetStorePreservingFreezeState();
+		resortStorePreservingFreezeState();
 	}
 
 	@Override
 	public void setDefaultSort(QuerySort sort) {
 		this.defaultSort = sort;
+		resetQueryConfigurationCache();
 		// reset store
-		resetStorePreservingFreezeState();
+		resortStorePreservingFreezeState();
 	}
 
 	@Override
@@ -732,6 +1074,7 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 			propertySortGenerators = new HashMap<>(4);
 		}
 		propertySortGenerators.put(property, propertySortGenerator);
+		resetQueryConfigurationCache();
 	}
 
 	/**
@@ -787,8 +1130,89 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 	public void sort(ItemSort<PROPERTY>... sorts) {
 		List<ItemSort<PROPERTY>> itemSorts = (sorts == null) ? null : Arrays.asList(sorts);
 		setItemSorts(itemSorts);
-		// refresh
-		refresh();
+		// refresh, the items count does not change
+		requireItemStore().resort(true);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemDataSource#stream(int)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public Stream<ITEM> stream(int chunkSize) {
+		ItemDataProvider<ITEM> provider = getDataProvider().orElseThrow(
+				() -> new IllegalStateException("Invalid data source configuration: missing ItemDataProvider"));
+		// bypass the shared page cache, if any
+		if (provider instanceof CachingItemDataProvider) {
+			provider = ((CachingItemDataProvider<ITEM>) provider).getProvider();
+		}
+		return ItemSetChunkSpliterator.stream(provider, QueryConfigurationSnapshot.of(this), chunkSize);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemDataSource#applyChanges(com.holonplatform.vaadin7.data.ItemSetDelta)
+	 */
+	@Override
+	public Collection<?> applyChanges(ItemSetDelta<ITEM> delta) {
+		ObjectUtils.argumentNotNull(delta, "Item set delta must be not null");
+		if (delta.isEmpty()) {
+			return Collections.emptyList();
+		}
+		// adapt items
+		final ItemAdapter<ITEM> adapter = requireItemAdapter();
+		final ItemSetDelta.Builder<Item> itemDelta = ItemSetDelta.builder();
+		delta.getInsertedItems().forEach(i -> itemDelta.inserted(adapter.adapt(this, i)));
+		delta.getUpdatedItems().forEach(i -> itemDelta.updated(adapter.adapt(this, i)));
+		delta.getDeletedItemIds().forEach(id -> itemDelta.deleted(id));
+
+		final ItemDeltaHandler handler = new ItemDeltaHandler();
+		requireItemStore().applyDelta(itemDelta.build(), handler);
+		return handler.getUpdatedItemIds();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemDataSource#revalidate(java.util.concurrent.Executor,
+	 * java.util.function.Consumer)
+	 */
+	@Override
+	public CompletableFuture<Collection<?>> revalidate(Executor executor, Consumer<Runnable> synchronizer) {
+		resetQueryConfigurationCache();
+		final ItemDeltaHandler handler = new ItemDeltaHandler();
+		return requireItemStore()
+				.revalidate(executor, synchronizer, DefaultItemDataSourceContainer::isSameItemValues, handler)
+				.thenApply(v -> handler.getUpdatedItemIds());
+	}
+
+	/**
+	 * Checks whether given items provide the same property values.
+	 * @param item First item
+	 * @param other Second item
+	 * @return <code>true</code> if the items have the same properties and the same property values
+	 */
+	@SuppressWarnings("rawtypes")
+	private static boolean isSameItemValues(Item item, Item other) {
+		if (item == other) {
+			return true;
+		}
+		final Collection<?> propertyIds = item.getItemPropertyIds();
+		if (propertyIds.size() != other.getItemPropertyIds().size()) {
+			return false;
+		}
+		for (Object propertyId : propertyIds) {
+			final Property property = item.getItemProperty(propertyId);
+			final Property otherProperty = other.getItemProperty(propertyId);
+			if (property == null || otherProperty == null) {
+				if (property != otherProperty) {
+					return false;
+				}
+			} else if (!Objects.equals(property.getValue(), otherProperty.getValue())) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -808,6 +1232,7 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 		if (sorts != null) {
 			sorts.forEach(s -> itemSorts.add(s));
 		}
+		itemQuerySorts = null;
 	}
 
 	/*
@@ -816,7 +1241,7 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 	 */
 	@Override
 	public QueryFilter getQueryFilter() {
-		final LinkedList<QueryFilter> filters = new LinkedList<>();
+		final List<QueryFilter> filters = new ArrayList<>(4);
 
 		// fixed
 		QueryFilter fixed = getFixedFilter();
@@ -834,8 +1259,11 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 			}
 		}
 
-		// return overall filter
-		return QueryFilter.allOf(filters).orElse(null);
+		// return overall filter, rebuilt only if any filter changed
+		if (queryFilterMemo == null || !queryFilterMemo.isBuiltFrom(filters)) {
+			queryFilterMemo = new QueryExpressionMemo<>(filters, QueryFilter.allOf(filters).orElse(null));
+		}
+		return queryFilterMemo.getExpression();
 	}
 
 	/*
@@ -844,30 +1272,13 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 	 */
 	@Override
 	public QuerySort getQuerySort() {
-		LinkedList<QuerySort> sorts = new LinkedList<>();
+		final List<QuerySort> sorts = new ArrayList<>(4);
 
 		// sorts
-		List<ItemSort<PROPERTY>> itemSorts = getItemSorts();
-		if (!itemSorts.isEmpty()) {
+		if (!getItemSorts().isEmpty()) {
 
 			// item sorts
-			for (ItemSort<PROPERTY> itemSort : itemSorts) {
-				// sort property
-				PROPERTY sortId = itemSort.getProperty();
-				// check delegate
-				PropertySortGenerator<PROPERTY> generator = getPropertySortGenerator(sortId);
-				if (generator != null) {
-					QuerySort sort = generator.getQuerySort(sortId, itemSort.isAscending());
-					if (sort != null) {
-						sorts.add(sort);
-					}
-				} else {
-					getPropertyPath(sortId, getProperties()).ifPresent(p -> {
-						sorts.add(QuerySort.of(p,
-								itemSort.isAscending() ? SortDirection.ASCENDING : SortDirection.DESCENDING));
-					});
-				}
-			}
+			sorts.addAll(getItemQuerySorts());
 
 		} else {
 
@@ -897,13 +1308,70 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 			sorts.add(fixed);
 		}
 
-		if (!sorts.isEmpty()) {
-			if (sorts.size() == 1) {
-				return sorts.getFirst();
+		// return overall sort, rebuilt only if any sort changed
+		if (querySortMemo == null || !querySortMemo.isBuiltFrom(sorts)) {
+			querySortMemo = new QueryExpressionMemo<>(sorts,
+					sorts.isEmpty() ? null : ((sorts.size() == 1) ? sorts.get(0) : QuerySort.of(sorts)));
+		}
+		return querySortMemo.getExpression();
+	}
+
+	/**
+	 * Get the container filters converted into a {@link QueryFilter}. The conversion is performed only when the
+	 * container filters or the container properties change.
+	 * @return The container filters {@link QueryFilter}, <code>null</code> if none
+	 */
+	protected QueryFilter getContainerQueryFilter() {
+		if (!containerQueryFilterValid) {
+			containerQueryFilter = ContainerUtils.convertContainerFilters(getConfiguration(), getContainerFilters())
+					.orElse(null);
+			containerQueryFilterValid = true;
+		}
+		return containerQueryFilter;
+	}
+
+	/**
+	 * Get the current item sorts converted into {@link QuerySort}s, using the {@link PropertySortGenerator}s when
+	 * available. The conversion is performed only when the item sorts, the sort generators or the container properties
+	 * change.
+	 * @return The item sorts {@link QuerySort}s, empty if none
+	 */
+	protected List<QuerySort> getItemQuerySorts() {
+		if (itemQuerySorts == null) {
+			final List<QuerySort> sorts = new ArrayList<>(getItemSorts().size());
+			for (ItemSort<PROPERTY> itemSort : getItemSorts()) {
+				// sort property
+				PROPERTY sortId = itemSort.getProperty();
+				// check delegate
+				PropertySortGenerator<PROPERTY> generator = getPropertySortGenerator(sortId);
+				if (generator != null) {
+					QuerySort sort = generator.getQuerySort(sortId, itemSort.isAscending());
+					if (sort != null) {
+						sorts.add(sort);
+					}
+				} else {
+					getPropertyPath(sortId).ifPresent(p -> {
+						sorts.add(QuerySort.of(p,
+								itemSort.isAscending() ? SortDirection.ASCENDING : SortDirection.DESCENDING));
+					});
+				}
 			}
-			return QuerySort.of(sorts);
+			itemQuerySorts = sorts;
 		}
-		return null;
+		return itemQuerySorts;
+	}
+
+	/**
+	 * Clear the cached query configuration elements (properties by name, converted container filters and item sorts,
+	 * overall query filter and sort), which will be computed again when required.
+	 */
+	protected void resetQueryConfigurationCache() {
+		propertiesByName = null;
+		containerQueryFilterValid = false;
+		containerQueryFilter = null;
+		itemQuerySorts = null;
+		queryFilterMemo = null;
+		querySortMemo = null;
 	}
 
 	/*
@@ -1060,6 +1528,10 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 	 */
 	@Override
 	public List<?> getItemIds(int startIndex, int numberOfItems) {
+		final ItemStore<Item> store = requireItemStore();
+		if (store instanceof DefaultItemStore) {
+			((DefaultItemStore<Item>) store).onItemsRequested(numberOfItems);
+		}
 		return ContainerHelpers.getItemIdsUsingGetIdByIndex(startIndex, numberOfItems, this);
 	}
 
@@ -1160,7 +1632,19 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 		if (!added.isEmpty() || !modified.isEmpty() || !removed.isEmpty()) {
 			final List<ITEM> addedItemReversed = new ArrayList<>(added);
 			Collections.reverse(addedItemReversed);
-			handler.commit(addedItemReversed, modified, removed);
+			final long start = System.nanoTime();
+			try {
+				handler.commit(addedItemReversed, modified, removed);
+			} catch (RuntimeException e) {
+				getMetricsListener().ifPresent(l -> l.onCommit(getMetricsTags(), System.nanoTime() - start,
+						added.size(), modified.size(), removed.size(), true));
+				throw e;
+			}
+			getMetricsListener().ifPresent(l -> l.onCommit(getMetricsTags(), System.nanoTime() - start, added.size(),
+					modified.size(), removed.size(), false));
+			// invalidate shared cached pages
+			getDataProvider().filter(p -> p instanceof CachingItemDataProvider)
+					.ifPresent(p -> ((CachingItemDataProvider<?>) p).invalidate());
 			// reset items store
 			requireItemStore().reset(false, false);
 		}
@@ -1202,41 +1686,77 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 		return requireItemStore().isModified();
 	}
 
+	/**
+	 * Track the property value modifications of given item, to mark it as modified in the item store.
+	 * @param item The item to track
+	 */
+	private void trackItemModifications(Item item) {
+		if (item instanceof ItemModificationNotifier) {
+			((ItemModificationNotifier) item).setItemModificationListener(itemModificationTracker);
+		} else if (item != null) {
+			getItemPropertyValueChangeListeners().put(item, new ItemPropertyValueChangeListener(item, requireItemStore()));
+		}
+	}
+
+	/**
+	 * Stop tracking the property value modifications of given item.
+	 * @param item The item
+	 */
+	private void untrackItemModifications(Item item) {
+		if (item instanceof ItemModificationNotifier) {
+			((ItemModificationNotifier) item).setItemModificationListener(null);
+		} else if (item != null) {
+			ItemPropertyValueChangeListener listener = getItemPropertyValueChangeListeners().remove(item);
+			if (listener != null) {
+				listener.detach();
+			}
+		}
+	}
+
+	/**
+	 * Stop tracking the property value modifications of any item.
+	 */
+	private void untrackAllItemModifications() {
+		// disable the shared tracker, any item still referring to it will be ignored
+		itemModificationTracker.disable();
+		itemModificationTracker = new ItemModificationTracker();
+		for (ItemPropertyValueChangeListener listener : getItemPropertyValueChangeListeners().values()) {
+			listener.detach();
+		}
+		getItemPropertyValueChangeListeners().clear();
+	}
+
+	/**
+	 * Get the listeners which track the item property modifications, bound to the tracked item.
+	 * @return the item property value change listeners
+	 */
+	private Map<Item, ItemPropertyValueChangeListener> getItemPropertyValueChangeListeners() {
+		if (itemPropertyValueChangeListeners == null) {
+			itemPropertyValueChangeListeners = new WeakHashMap<>(8);
+		}
+		return itemPropertyValueChangeListeners;
+	}
+
 	@Override
 	public void onItemAction(Item item, Object itemId, Item previous, ItemAction action) {
 
-		// setup property value change listeners
+		// setup item modifications tracking
 		if (action == ItemAction.LOADED) {
 			if (previous != null) {
-				ItemPropertyValueChangeListener listener = itemPropertyValueChangeListeners.get(item);
-				if (listener != null) {
-					listener.detach();
-				}
+				untrackItemModifications(previous);
 			}
-			itemPropertyValueChangeListeners.put(item, new ItemPropertyValueChangeListener(item, requireItemStore()));
+			trackItemModifications(item);
 		} else if (action == ItemAction.SET_CHANGED) {
-			for (ItemPropertyValueChangeListener listener : itemPropertyValueChangeListeners.values()) {
-				listener.detach();
-			}
-			itemPropertyValueChangeListeners.clear();
+			untrackAllItemModifications();
 		} else if (action == ItemAction.REFRESHED) {
-
 			if (previous != null) {
-				ItemPropertyValueChangeListener listener = itemPropertyValueChangeListeners.get(previous);
-				if (listener != null) {
-					listener.detach();
-					itemPropertyValueChangeListeners.remove(previous);
-				}
-				itemPropertyValueChangeListeners.put(item,
-						new ItemPropertyValueChangeListener(item, requireItemStore()));
+				untrackItemModifications(previous);
+				trackItemModifications(item);
 			}
 		} else if (action == ItemAction.ADDED) {
 			// noop
 		} else if (action == ItemAction.REMOVED) {
-			ItemPropertyValueChangeListener listener = itemPropertyValueChangeListeners.get(item);
-			if (listener != null) {
-				listener.detach();
-			}
+			untrackItemModifications(item);
 		}
 
 		// notify item set changed
@@ -1274,6 +1794,7 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 				containerFilters = new LinkedList<>();
 			}
 			containerFilters.add(filter);
+			containerQueryFilterValid = false;
 			// reset store
 			resetStorePreservingFreezeState();
 		}
@@ -1287,6 +1808,7 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 	public void removeContainerFilter(Filter filter) {
 		if (filter != null && containerFilters != null) {
 			containerFilters.remove(filter);
+			containerQueryFilterValid = false;
 			// reset store
 			resetStorePreservingFreezeState();
 		}
@@ -1299,6 +1821,7 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 	@Override
 	public void removeAllContainerFilters() {
 		containerFilters = null;
+		containerQueryFilterValid = false;
 		// reset store
 		resetStorePreservingFreezeState();
 	}
@@ -1317,6 +1840,20 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 		});
 	}
 
+	/**
+	 * Reset item store content after a query sort change, preserving the <em>freezed</em> state
+	 */
+	protected void resortStorePreservingFreezeState() {
+		getItemStore().ifPresent(i -> {
+			boolean freezed = i.isFreezed();
+			try {
+				i.resort(false);
+			} finally {
+				i.setFreezed(freezed);
+			}
+		});
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see com.vaadin.data.Container.Filterable#getContainerFilters()
@@ -1432,10 +1969,93 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 		}
 	}
 
+	/**
+	 * Shared {@link ItemModificationListener} which marks the modified items as modified in the item store.
+	 */
+	private final class ItemModificationTracker implements ItemModificationListener {
+
+		private static final long serialVersionUID = -5482079335276830414L;
+
+		private boolean enabled = true;
+
+		/**
+		 * Stop tracking item modifications.
+		 */
+		public void disable() {
+			this.enabled = false;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.holonplatform.vaadin7.internal.data.container.ItemModificationNotifier.ItemModificationListener#
+		 * onItemModified(com.vaadin.data.Item)
+		 */
+		@Override
+		public void onItemModified(Item item) {
+			if (enabled) {
+				requireItemStore().setItemModified(item);
+			}
+		}
+
+	}
+
+	/**
+	 * {@link ItemDeltaListener} which notifies the item set changes applied to the item store and tracks the updated
+	 * items.
+	 */
+	private final class ItemDeltaHandler implements ItemDeltaListener<Item> {
+
+		private final List<Object> updatedItemIds = new LinkedList<>();
+
+		/**
+		 * Get the ids of the updated items.
+		 * @return the updated item ids
+		 */
+		public List<Object> getUpdatedItemIds() {
+			return updatedItemIds;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.holonplatform.vaadin7.internal.data.ItemStore.ItemDeltaListener#onItemInserted(java.lang.Object,
+		 * java.lang.Object, int)
+		 */
+		@Override
+		public void onItemInserted(Item item, Object itemId, int index) {
+			trackItemModifications(item);
+			notifyItemSetChanged(new ItemAddedEvent(DefaultItemDataSourceContainer.this, itemId, index));
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.holonplatform.vaadin7.internal.data.ItemStore.ItemDeltaListener#onItemDeleted(java.lang.Object,
+		 * java.lang.Object, int)
+		 */
+		@Override
+		public void onItemDeleted(Item item, Object itemId, int index) {
+			untrackItemModifications(item);
+			notifyItemSetChanged(new ItemRemovedEvent(DefaultItemDataSourceContainer.this, itemId, index));
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.holonplatform.vaadin7.internal.data.ItemStore.ItemDeltaListener#onItemUpdated(java.lang.Object,
+		 * java.lang.Object, java.lang.Object)
+		 */
+		@Override
+		public void onItemUpdated(Item item, Object itemId, Item previous) {
+			untrackItemModifications(previous);
+			trackItemModifications(item);
+			updatedItemIds.add(itemId);
+		}
+
+	}
+
 	/**
 	 * Event to notify an item was added to container
 	 * <p>
-	 * Added items will be always inserted at index 0 in this container.
+	 * Added items will be always inserted at index 0 in this container, while the items inserted in the backend data
+	 * and notified using {@link #applyChanges(ItemSetDelta)} are inserted at their position in the item set.
 	 * </p>
 	 */
 	@SuppressWarnings({ "rawtypes", "serial" })
@@ -1443,11 +2063,17 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 
 		private final DefaultItemDataSourceContainer container;
 		private final Object itemId;
+		private final int itemIndex;
 
 		public ItemAddedEvent(DefaultItemDataSourceContainer container, Object itemId) {
+			this(container, itemId, 0);
+		}
+
+		public ItemAddedEvent(DefaultItemDataSourceContainer container, Object itemId, int itemIndex) {
 			super();
 			this.container = container;
 			this.itemId = itemId;
+			this.itemIndex = itemIndex;
 		}
 
 		@Override
@@ -1462,7 +2088,7 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 
 		@Override
 		public int getFirstIndex() {
-			return 0;
+			return itemIndex;
 		}
 
 		@Override
@@ -1663,32 +2289,87 @@ public class DefaultItemDataSourceContainer<ITEM, PROPERTY>
 		throw new UnsupportedOperationException();
 	}
 
-	private static Optional<Path<?>> getPropertyPath(Object propertyId, Iterable<?> properties) {
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.data.ItemDataSource.Configuration#getPropertyByName(java.lang.String)
+	 */
+	@Override
+	public Optional<PROPERTY> getPropertyByName(String name) {
+		if (name == null) {
+			return Optional.empty();
+		}
+		if (propertiesByName == null) {
+			final Map<String, PROPERTY> properties = new HashMap<>();
+			for (PROPERTY property : getProperties()) {
+				if (property != null) {
+					properties.putIfAbsent(
+							(property instanceof Path) ? ((Path<?>) property).getName() : property.toString(), property);
+				}
+			}
+			propertiesByName = properties;
+		}
+		return Optional.ofNullable(propertiesByName.get(name));
+	}
+
+	/**
+	 * Get the {@link Path} which corresponds to given property id.
+	 * @param propertyId Property id
+	 * @return The property path, if available
+	 */
+	private Optional<Path<?>> getPropertyPath(Object propertyId) {
 		if (propertyId != null) {
 			if (propertyId instanceof Path) {
 				return Optional.of((Path<?>) propertyId);
 			} else {
-				Path<?> property = getPathByName(propertyId.toString(), properties);
-				if (property != null) {
-					return Optional.of(property);
+				final String propertyName = propertyId.toString();
+				final Object property = getPropertyByName(propertyName).orElse(null);
+				if (property instanceof Path) {
+					return Optional.of((Path<?>) property);
+				}
+				if (property instanceof String) {
+					return Optional.of(Path.of(propertyName, Object.class));
 				}
 			}
 		}
 		return Optional.empty();
 	}
 
-	private static Path<?> getPathByName(String propertyName, Iterable<?> properties) {
-		if (propertyName != null && properties != null) {
-			for (Object property : properties) {
-				if (String.class.isAssignableFrom(property.getClass()) && propertyName.equals(property)) {
-					return Path.of(propertyName, Object.class);
-				}
-				if (property instanceof Path && propertyName.equals(((Path<?>) property).getName())) {
-					return (Path<?>) property;
+	/**
+	 * A query expression built from a list of other expressions.
+	 * @param <E> Expression type
+	 */
+	private static final class QueryExpressionMemo<E> {
+
+		private final List<?> elements;
+		private final E expression;
+
+		QueryExpressionMemo(List<?> elements, E expression) {
+			super();
+			this.elements = elements;
+			this.expression = expression;
+		}
+
+		/**
+		 * Checks whether this memo was built from the same (identical) elements.
+		 * @param elements Elements
+		 * @return <code>true</code> if given elements are the same elements this memo was built from
+		 */
+		boolean isBuiltFrom(List<?> elements) {
+			if (this.elements.size() != elements.size()) {
+				return false;
+			}
+			for (int i = 0; i < elements.size(); i++) {
+				if (this.elements.get(i) != elements.get(i)) {
+					return false;
 				}
 			}
+			return true;
 		}
-		return null;
+
+		E getExpression() {
+			return expression;
+		}
+
 	}
 
 }
@@ -16,10 +16,7 @@
 package com.holonplatform.vaadin7.internal.data.container;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 
-import com.holonplatform.core.internal.utils.ConversionUtils;
 import com.holonplatform.core.internal.utils.ObjectUtils;
 import com.holonplatform.core.property.PropertyBox;
 import com.holonplatform.vaadin7.data.container.PropertyBoxItem;
@@ -35,7 +32,7 @@ import com.vaadin.data.Property;
  * @since 5.0.0
  */
 @SuppressWarnings("rawtypes")
-public class DefaultPropertyBoxItem implements PropertyBoxItem {
+public class DefaultPropertyBoxItem implements PropertyBoxItem, ItemModificationNotifier {
 
 	private static final long serialVersionUID = -8007665091516305226L;
 
@@ -45,19 +42,40 @@ public class DefaultPropertyBoxItem implements PropertyBoxItem {
 	private final PropertyBox propertyBox;
 
 	/**
-	 * Item properties
+	 * Item property set model, shared by the items with the same property set
 	 */
-	private final Map<com.holonplatform.core.property.Property, Property> itemProperties;
+	private final PropertyBoxItemModel model;
+
+	/**
+	 * Item properties, lazily created and stored by property position
+	 */
+	private Property[] itemProperties;
+
+	/**
+	 * Item modification listener
+	 */
+	private ItemModificationListener itemModificationListener;
 
 	/**
 	 * Construct a new Item bound to a {@link PropertyBox}
 	 * @param propertyBox PropertyBox providing data for this item (not null)
 	 */
 	public DefaultPropertyBoxItem(PropertyBox propertyBox) {
+		this(propertyBox, PropertyBoxItemModel.of(propertyBox));
+	}
+
+	/**
+	 * Construct a new Item bound to a {@link PropertyBox}, using a shared property set model.
+	 * @param propertyBox PropertyBox providing data for this item (not null)
+	 * @param model Item property set model, which must match the PropertyBox property set (not null)
+	 * @since 5.2.5
+	 */
+	public DefaultPropertyBoxItem(PropertyBox propertyBox, PropertyBoxItemModel model) {
 		super();
 		ObjectUtils.argumentNotNull(propertyBox, "PropertyBox must be not null");
+		ObjectUtils.argumentNotNull(model, "PropertyBoxItemModel must be not null");
 		this.propertyBox = propertyBox;
-		this.itemProperties = new HashMap<>();
+		this.model = model;
 	}
 
 	/*
@@ -69,12 +87,32 @@ public class DefaultPropertyBoxItem implements PropertyBoxItem {
 		return propertyBox;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see com.holonplatform.vaadin7.internal.data.container.ItemModificationNotifier#setItemModificationListener(com.
+	 * holonplatform.vaadin7.internal.data.container.ItemModificationNotifier.ItemModificationListener)
+	 */
+	@Override
+	public void setItemModificationListener(ItemModificationListener listener) {
+		this.itemModificationListener = listener;
+	}
+
 	/**
-	 * Map of item properties
-	 * @return item properties
+	 * Notify the item modification listener, if any, that the value of an item property was modified.
 	 */
-	protected Map<com.holonplatform.core.property.Property, Property> getItemProperties() {
-		return itemProperties;
+	protected void fireItemModified() {
+		final ItemModificationListener listener = itemModificationListener;
+		if (listener != null) {
+			listener.onItemModified(this);
+		}
+	}
+
+	/**
+	 * Get the item property set model.
+	 * @return the item property set model
+	 */
+	protected PropertyBoxItemModel getModel() {
+		return model;
 	}
 
 	/*
@@ -83,37 +121,35 @@ public class DefaultPropertyBoxItem implements PropertyBoxItem {
 	 */
 	@Override
 	public Property<?> getItemProperty(Object id) {
-		if (id instanceof com.holonplatform.core.property.Property) {
-			com.holonplatform.core.property.Property<?> p = (com.holonplatform.core.property.Property<?>) id;
-			if (getPropertyBox().contains(p)) {
-				return getOrCreateProperty(p);
-			}
-		}
-		return null;
+		final int index = getModel().indexOf(id);
+		return (index < 0) ? null : getOrCreateProperty(index);
 	}
 
 	/**
-	 * Get Item {@link Property} from properties map or create it if not present.
+	 * Get the Item {@link Property} at given property position or create it if not present.
 	 * <p>
 	 * If property type is a primitive type, it is boxed into the corresponding object wrapper type to avoid issues with
 	 * Vaadin converters.
 	 * </p>
-	 * @param id Property id
+	 * @param index Property position in the item property set
 	 * @return Item property
 	 */
 	@SuppressWarnings("unchecked")
-	protected Property getOrCreateProperty(com.holonplatform.core.property.Property id) {
-		if (getItemProperties().containsKey(id)) {
-			return getItemProperties().get(id);
+	protected Property getOrCreateProperty(int index) {
+		if (itemProperties == null) {
+			itemProperties = new Property[getModel().size()];
+		} else if (itemProperties[index] != null) {
+			return itemProperties[index];
 		}
+		final com.holonplatform.core.property.Property id = getModel().getPropertyId(index);
 		// Create Item property
-		final Property property = new DefaultPropertyBoxProperty<>(id, getPropertyBox());
+		final Property property = new DefaultPropertyBoxProperty<>(id, getPropertyBox(), this);
 		// Check read-only
 		if (id.isReadOnly()) {
 			property.setReadOnly(true);
 		}
 		// Store reference
-		getItemProperties().put(id, property);
+		itemProperties[index] = property;
 		return property;
 	}
 
@@ -123,7 +159,7 @@ public class DefaultPropertyBoxItem implements PropertyBoxItem {
 	 */
 	@Override
 	public Collection<?> getItemPropertyIds() {
-		return ConversionUtils.iterableAsList(getPropertyBox());
+		return getModel().getPropertyIds();
 	}
 
 	/**
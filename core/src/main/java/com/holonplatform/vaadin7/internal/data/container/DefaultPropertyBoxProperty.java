@@ -42,8 +42,24 @@ public class DefaultPropertyBoxProperty<T> extends AbstractProperty<T> {
 	 * Property box
 	 */
 	private final PropertyBox propertyBox;
+	/*
+	 * Item to which the property belongs
+	 */
+	private final DefaultPropertyBoxItem item;
 
 	public DefaultPropertyBoxProperty(com.holonplatform.core.property.Property<T> propertyId, PropertyBox propertyBox) {
+		this(propertyId, propertyBox, null);
+	}
+
+	/**
+	 * Constructor.
+	 * @param propertyId Property id (not null)
+	 * @param propertyBox PropertyBox in which property value is stored (not null)
+	 * @param item Item to which the property belongs, to be notified of property value modifications (may be null)
+	 * @since 5.2.5
+	 */
+	public DefaultPropertyBoxProperty(com.holonplatform.core.property.Property<T> propertyId, PropertyBox propertyBox,
+			DefaultPropertyBoxItem item) {
 		super();
 
 		ObjectUtils.argumentNotNull(propertyId, "Property must be not null");
@@ -51,6 +67,7 @@ public class DefaultPropertyBoxProperty<T> extends AbstractProperty<T> {
 
 		this.propertyId = propertyId;
 		this.propertyBox = propertyBox;
+		this.item = item;
 	}
 
 	/**
@@ -96,6 +113,11 @@ public class DefaultPropertyBoxProperty<T> extends AbstractProperty<T> {
 			throw new com.vaadin.data.Property.ReadOnlyException("Property is read-only: " + getPropertyId());
 		}
 
+		// notify item modification
+		if (item != null) {
+			item.fireItemModified();
+		}
+
 		// fire value change event
 		fireValueChange();
 	}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data.container;
+
+import java.io.Serializable;
+
+import com.vaadin.data.Item;
+
+/**
+ * An {@link Item} which notifies its property value modifications to a single {@link ItemModificationListener}.
+ * <p>
+ * Allows to track the item modifications with a constant overhead per item, regardless of the number of item
+ * properties, instead of registering a value change listener on each item property.
+ * </p>
+ *
+ * @since 5.2.5
+ */
+public interface ItemModificationNotifier extends Item {
+
+	/**
+	 * Set the listener to notify when the value of an item property is modified.
+	 * @param listener The listener to set, <code>null</code> to stop tracking the item modifications
+	 */
+	void setItemModificationListener(ItemModificationListener listener);
+
+	/**
+	 * Listener to be notified when an item property value is modified.
+	 */
+	@FunctionalInterface
+	public interface ItemModificationListener extends Serializable {
+
+		/**
+		 * Invoked when the value of a property of given <code>item</code> was modified.
+		 * @param item The modified item
+		 */
+		void onItemModified(Item item);
+
+	}
+
+}
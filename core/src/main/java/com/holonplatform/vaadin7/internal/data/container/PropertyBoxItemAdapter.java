@@ -34,6 +34,11 @@ public class PropertyBoxItemAdapter implements ItemAdapter<PropertyBox> {
 
 	private static final long serialVersionUID = -572185846252965732L;
 
+	/**
+	 * Last used item property set model, shared by the adapted items with the same property set
+	 */
+	private transient volatile PropertyBoxItemModel model;
+
 	/*
 	 * (non-Javadoc)
 	 * @see com.holonplatform.vaadin.data.container.ItemAdapter#adapt(com.holonplatform.vaadin.data.ItemDataSource.
@@ -41,7 +46,15 @@ public class PropertyBoxItemAdapter implements ItemAdapter<PropertyBox> {
 	 */
 	@Override
 	public Item adapt(Configuration<?> configuration, PropertyBox item) {
-		return (item != null) ? PropertyBoxItem.create(item) : null;
+		if (item != null) {
+			PropertyBoxItemModel itemModel = model;
+			if (itemModel == null || !itemModel.matches(item)) {
+				itemModel = PropertyBoxItemModel.of(item);
+				model = itemModel;
+			}
+			return new DefaultPropertyBoxItem(item, itemModel);
+		}
+		return null;
 	}
 
 	/*
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016-2017 Axioma srl.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.holonplatform.vaadin7.internal.data.container;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.holonplatform.core.internal.utils.ObjectUtils;
+import com.holonplatform.core.property.Property;
+import com.holonplatform.core.property.PropertyBox;
+
+/**
+ * Immutable property set model of a {@link DefaultPropertyBoxItem}, which can be shared by all the items bound to
+ * {@link PropertyBox}es with the same property set.
+ * <p>
+ * Holds the item property ids list and the property position index, so that the items do not need to build them for
+ * each row.
+ * </p>
+ *
+ * @since 5.2.5
+ */
+@SuppressWarnings("rawtypes")
+public class PropertyBoxItemModel implements Serializable {
+
+	private static final long serialVersionUID = 3596213722787050734L;
+
+	/**
+	 * Property ids
+	 */
+	private final List<Property> propertyIds;
+
+	/**
+	 * Property ids positions
+	 */
+	private final Map<Property, Integer> indexes;
+
+	/**
+	 * Constructor
+	 * @param propertyIds Property ids
+	 */
+	protected PropertyBoxItemModel(List<Property> propertyIds) {
+		super();
+		this.propertyIds = Collections.unmodifiableList(propertyIds);
+		this.indexes = new HashMap<>(propertyIds.size() * 2);
+		for (int i = 0; i < propertyIds.size(); i++) {
+			this.indexes.putIfAbsent(propertyIds.get(i), i);
+		}
+	}
+
+	/**
+	 * Get the property ids, in the property set order.
+	 * @return Unmodifiable property ids list
+	 */
+	public List<Property> getPropertyIds() {
+		return propertyIds;
+	}
+
+	/**
+	 * Get the number of properties.
+	 * @return the property set size
+	 */
+	public int size() {
+		return propertyIds.size();
+	}
+
+	/**
+	 * Get the position of given property id.
+	 * @param propertyId Property id
+	 * @return The property position, <code>-1</code> if the property does not belong to the property set
+	 */
+	public int indexOf(Object propertyId) {
+		if (propertyId != null) {
+			final Integer index = indexes.get(propertyId);
+			if (index != null) {
+				return index.intValue();
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the property id at given position.
+	 * @param index Property position
+	 * @return The property id
+	 */
+	public Property getPropertyId(int index) {
+		return propertyIds.get(index);
+	}
+
+	/**
+	 * Checks whether given {@link PropertyBox} has the same property set of this model, in the same order.
+	 * @param propertyBox The PropertyBox to check
+	 * @return <code>true</code> if this model can be used for an item bound to given PropertyBox
+	 */
+	public boolean matches(PropertyBox propertyBox) {
+		if (propertyBox == null || propertyBox.size() != propertyIds.size()) {
+			return false;
+		}
+		final Iterator<Property> iterator = propertyBox.iterator();
+		for (Property propertyId : propertyIds) {
+			if (!iterator.hasNext() || !propertyId.equals(iterator.next())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Create a new {@link PropertyBoxItemModel} using the property set of given <code>propertyBox</code>.
+	 * @param propertyBox The PropertyBox (not null)
+	 * @return A new {@link PropertyBoxItemModel}
+	 */
+	public static PropertyBoxItemModel of(PropertyBox propertyBox) {
+		ObjectUtils.argumentNotNull(propertyBox, "PropertyBox must be not null");
+		final List<Property> propertyIds = new ArrayList<>(propertyBox.size());
+		propertyBox.forEach(p -> propertyIds.add(p));
+		return new PropertyBoxItemModel(propertyIds);
+	}
+
+}
@@ -19,10 +19,22 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.slf4j.bridge.SLF4JBridgeHandler;
 
+import com.holonplatform.core.property.PropertyBox;
+import com.holonplatform.vaadin.test.data.TestData;
+import com.holonplatform.vaadin7.components.Components;
+import com.holonplatform.vaadin7.components.PropertyListing;
+import com.holonplatform.vaadin7.data.ItemDataProvider;
 import com.holonplatform.vaadin7.internal.components.NumberField;
 
 public class TestComponents {
@@ -49,4 +61,45 @@ public class TestComponents {
 
 	}
 
+	@Test
+	public void testListingCsvExport() throws IOException {
+		final List<PropertyBox> items = new ArrayList<>();
+		for (int i = 0; i < 2500; i++) {
+			items.add(PropertyBox.builder(TestData.PROPERTIES).set(TestData.ID, "c" + i)
+					.set(TestData.DESCRIPTION, (i == 0) ? "a, \"b\"" : "d" + i).build());
+		}
+		items.get(1).setValue(TestData.DESCRIPTION, "=HYPERLINK(\"http://x\",\"y\")");
+		items.get(2).setValue(TestData.DESCRIPTION, "@SUM(A1)");
+		items.get(3).setValue(TestData.DESCRIPTION, "-1+2");
+		items.get(4).setValue(TestData.DESCRIPTION, "-12.5");
+		items.get(5).setValue(TestData.DESCRIPTION, "+3");
+
+		final AtomicInteger loads = new AtomicInteger(0);
+		final PropertyListing listing = Components.listing.properties(TestData.PROPERTIES)
+				.dataSource(ItemDataProvider.create(c -> items.size(), (c, o, l) -> {
+					loads.incrementAndGet();
+					return items.subList(Math.min(o, items.size()), Math.min(o + l, items.size())).stream();
+				}), TestData.ID).build();
+		listing.setPropertyColumnVisible(TestData.SEQUENCE, false);
+		listing.setPropertyColumnVisible(TestData.OBSOLETE, false);
+
+		loads.set(0);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		listing.exportCsv(out);
+
+		// loaded in chunks
+		assertEquals(3, loads.get());
+
+		final String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\r\n");
+		assertEquals(2501, lines.length);
+		assertEquals("c0,\"a, \"\"b\"\"\"", lines[1]);
+		// formulas escaped
+		assertEquals("c1,\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\"", lines[2]);
+		assertEquals("c2,'@SUM(A1)", lines[3]);
+		assertEquals("c3,'-1+2", lines[4]);
+		assertEquals("c4,-12.5", lines[5]);
+		assertEquals("c5,+3", lines[6]);
+		assertEquals("c2499,d2499", lines[2500]);
+	}
+
 }
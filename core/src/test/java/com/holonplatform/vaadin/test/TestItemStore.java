@@ -18,24 +18,71 @@ package com.holonplatform.vaadin.test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.junit.jupiter.api.Test;
 
+import com.holonplatform.core.Context;
+import com.holonplatform.core.ParameterSet;
+import com.holonplatform.core.datastore.DataTarget;
 import com.holonplatform.core.exceptions.DataAccessException;
+import com.holonplatform.core.internal.DefaultParameterSet;
+import com.holonplatform.core.property.PropertyBox;
 import com.holonplatform.core.query.QueryConfigurationProvider;
 import com.holonplatform.core.query.QueryFilter;
 import com.holonplatform.vaadin.test.data.TestData;
+import com.holonplatform.vaadin7.data.ItemCacheBudget;
+import com.holonplatform.vaadin7.data.ItemDataMetricsListener;
 import com.holonplatform.vaadin7.data.ItemDataProvider;
 import com.holonplatform.vaadin7.data.ItemDataSource.Configuration;
+import com.holonplatform.vaadin7.data.ItemDataSource.ItemAction;
 import com.holonplatform.vaadin7.data.ItemIdentifierProvider;
+import com.holonplatform.vaadin7.data.ItemIndexResolver;
+import com.holonplatform.vaadin7.data.ItemLoadCancellation;
+import com.holonplatform.vaadin7.data.ItemLoadCancellation.LoadCancelledException;
+import com.holonplatform.vaadin7.data.ItemPageCache;
+import com.holonplatform.vaadin7.data.ItemSetDelta;
+import com.holonplatform.vaadin7.data.ItemSetIdLoader;
+import com.holonplatform.vaadin7.data.ItemSetKeysetLoader;
+import com.holonplatform.vaadin7.data.container.ItemDataSourceContainer;
+import com.holonplatform.vaadin7.internal.data.AdaptiveBatchSize;
+import com.holonplatform.vaadin7.internal.data.CoalescingItemDataProvider;
 import com.holonplatform.vaadin7.internal.data.DefaultItemStore;
 import com.holonplatform.vaadin7.internal.data.ItemStore;
+import com.holonplatform.vaadin7.internal.data.ItemStore.ItemDeltaListener;
+import com.holonplatform.vaadin7.internal.data.JmxItemDataMetricsListener;
+import com.holonplatform.vaadin7.internal.data.QueryConfigurationSnapshot;
+import com.holonplatform.vaadin7.internal.data.container.PropertyBoxItemAdapter;
 import com.vaadin.data.Property;
 
 public class TestItemStore {
@@ -44,6 +91,8 @@ public class TestItemStore {
 	private final AtomicInteger qcount = new AtomicInteger();
 	private final AtomicInteger rcount = new AtomicInteger();
 
+	private static final List<String> SHIFTING = new CopyOnWriteArrayList<>();
+
 	@Test
 	public void testStore() {
 
@@ -142,17 +191,1032 @@ public class TestItemStore {
 
 		assertTrue(store.containsItem("f"));
 
+		// item index known from the previous load: no query required to locate it
 		store.refreshItem("a");
 
-		assertEquals(4, qcount.get());
+		assertEquals(3, qcount.get());
 
 		store.refreshItem("f");
 
-		assertEquals(4, qcount.get());
+		assertEquals(3, qcount.get());
 
 		assertEquals(2, rcount.get());
 	}
 
+	@Test
+	public void testPrefetch() throws Exception {
+
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			DefaultItemStore<String> store = new DefaultItemStore<>(new TestConfiguration(), new TestDataProvider(),
+					ItemIdentifierProvider.identity(), 2, 10);
+			store.setPrefetchExecutor(executor);
+
+			assertEquals(5, store.size());
+
+			assertEquals("a", store.getItem(0));
+			assertEquals(1, qcount.get());
+
+			// sequential access beyond the middle of the batch: next batch prefetched
+			assertEquals("b", store.getItem(1));
+			executor.submit(() -> {
+			}).get(5, TimeUnit.SECONDS);
+			assertEquals(2, qcount.get());
+
+			// prefetched batch used, next one prefetched
+			assertEquals("c", store.getItem(2));
+			assertEquals("d", store.getItem(3));
+			executor.submit(() -> {
+			}).get(5, TimeUnit.SECONDS);
+			assertEquals(3, qcount.get());
+
+			assertEquals("e", store.getItem(4));
+			assertEquals(3, qcount.get());
+
+			// random access: no prefetch
+			store.reset(false, false);
+			assertEquals("c", store.getItem(2));
+			assertEquals("a", store.getItem(0));
+			assertEquals(5, qcount.get());
+
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testFirstBatchConcurrently() throws Exception {
+
+		final CountDownLatch loading = new CountDownLatch(1);
+		final AtomicInteger concurrent = new AtomicInteger(0);
+
+		final TestDataProvider provider = new TestDataProvider();
+		final ItemDataProvider<String> concurrentProvider = new ItemDataProvider<String>() {
+
+			@Override
+			public long size(QueryConfigurationProvider configuration) throws DataAccessException {
+				try {
+					// wait for the first batch load to start
+					if (loading.await(5, TimeUnit.SECONDS)) {
+						concurrent.incrementAndGet();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return provider.size(configuration);
+			}
+
+			@Override
+			public Stream<String> load(QueryConfigurationProvider configuration, int offset, int limit)
+					throws DataAccessException {
+				loading.countDown();
+				return provider.load(configuration, offset, limit);
+			}
+
+		};
+
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			DefaultItemStore<String> store = new DefaultItemStore<>(new TestConfiguration(), concurrentProvider,
+					ItemIdentifierProvider.identity(), 2, 10);
+			store.setFirstBatchExecutor(executor);
+
+			assertEquals(5, store.size());
+			assertEquals(1, concurrent.get());
+
+			assertEquals("a", store.getItem(0));
+			assertEquals("b", store.getItem(1));
+			assertEquals(1, qcount.get());
+
+			assertEquals("c", store.getItem(2));
+			assertEquals(2, qcount.get());
+
+			// size not counted again: no concurrent load
+			store.resort(false);
+			assertEquals("a", store.getItem(0));
+			assertEquals(3, qcount.get());
+			assertEquals(1, scount.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testKeysetPagination() {
+
+		final AtomicInteger kcount = new AtomicInteger(0);
+
+		DefaultItemStore<String> store = new DefaultItemStore<>(new TestConfiguration(),
+				new TestKeysetDataProvider(kcount), ItemIdentifierProvider.identity(), 2, 10);
+
+		assertEquals(5, store.size());
+
+		assertEquals("a", store.getItem(0));
+		assertEquals(1, qcount.get());
+		assertEquals(0, kcount.get());
+
+		// next batches loaded using the last item of the previous batch
+		assertEquals("c", store.getItem(2));
+		assertEquals(1, kcount.get());
+		assertEquals("e", store.getItem(4));
+		assertEquals(2, kcount.get());
+		assertEquals(3, qcount.get());
+
+		// random jump: no anchor available
+		store.reset(false, false);
+		assertEquals("e", store.getItem(4));
+		assertEquals(2, kcount.get());
+		assertEquals(4, qcount.get());
+	}
+
+	@Test
+	public void testItemIndex() {
+
+		final AtomicInteger icount = new AtomicInteger(0);
+
+		ItemStore<String> store = new DefaultItemStore<>(new TestConfiguration(), new TestIndexDataProvider(icount),
+				ItemIdentifierProvider.identity(), 2, 10);
+
+		// resolved without loading items
+		assertEquals(3, store.indexOfItem("d"));
+		assertEquals(1, icount.get());
+		assertEquals(0, qcount.get());
+
+		assertFalse(store.containsItem("x"));
+		assertEquals(2, icount.get());
+		assertEquals(0, qcount.get());
+
+		// resolved index is retained
+		assertTrue(store.containsItem("d"));
+		assertEquals(2, icount.get());
+
+		// loaded items are indexed
+		assertEquals("a", store.getItem(0));
+		assertEquals(1, qcount.get());
+		assertEquals(1, store.indexOfItem("b"));
+		assertEquals(2, icount.get());
+
+		// added items
+		store.addItem("z");
+		assertEquals(0, store.indexOfItem("z"));
+		assertEquals(2, store.indexOfItem("b"));
+		assertEquals(4, store.indexOfItem("d"));
+		assertEquals(2, icount.get());
+
+		store.reset(false, false);
+		assertEquals(1, store.indexOfItem("b"));
+		assertEquals(3, icount.get());
+	}
+
+	@Test
+	public void testApplyDelta() {
+
+		final AtomicInteger icount = new AtomicInteger(0);
+		final TestIndexDataProvider provider = new TestIndexDataProvider(icount);
+
+		ItemStore<String> store = new DefaultItemStore<>(new TestConfiguration(), provider,
+				ItemIdentifierProvider.identity(), 2, 10);
+
+		for (int i = 0; i < 5; i++) {
+			store.getItem(i);
+		}
+		scount.set(0);
+		qcount.set(0);
+
+		final List<String> changes = new LinkedList<>();
+		final ItemDeltaListener<String> listener = new ItemDeltaListener<String>() {
+
+			@Override
+			public void onItemInserted(String item, Object itemId, int index) {
+				changes.add("I:" + itemId + ":" + index);
+			}
+
+			@Override
+			public void onItemDeleted(String item, Object itemId, int index) {
+				changes.add("D:" + itemId + ":" + index);
+			}
+
+			@Override
+			public void onItemUpdated(String item, Object itemId, String previous) {
+				changes.add("U:" + itemId);
+			}
+
+		};
+
+		// backend changes
+		provider.provider.data.remove("b");
+		provider.provider.data.add(2, "c2");
+
+		assertTrue(store.applyDelta(ItemSetDelta.<String>builder().deleted("b").inserted("c2").build(), listener));
+		assertEquals(2, changes.size());
+		assertEquals("D:b:1", changes.get(0));
+		assertEquals("I:c2:2", changes.get(1));
+
+		assertEquals(5, store.size());
+		assertEquals("a", store.getItem(0));
+		assertEquals("c", store.getItem(1));
+		assertEquals("c2", store.getItem(2));
+		assertEquals("d", store.getItem(3));
+		assertEquals("e", store.getItem(4));
+		assertEquals(4, store.indexOfItem("e"));
+		assertEquals(-1, store.indexOfItem("b"));
+		// no reload
+		assertEquals(0, qcount.get());
+		assertEquals(0, scount.get());
+
+		// update in place
+		final String d = new String("d");
+		assertTrue(store.applyDelta(ItemSetDelta.<String>builder().updated(d).build(), listener));
+		assertEquals("U:d", changes.get(2));
+		assertSame(d, store.getItem(3));
+		assertEquals(0, qcount.get());
+
+		// deletion of an item which does not belong to the item set
+		assertTrue(store.applyDelta(ItemSetDelta.<String>builder().deleted("x").build(), listener));
+		assertEquals(3, changes.size());
+		assertEquals(1, scount.get());
+		assertEquals(5, store.size());
+		assertEquals(0, qcount.get());
+	}
+
+	@Test
+	public void testRevalidate() {
+
+		final AtomicInteger icount = new AtomicInteger(0);
+		final TestIndexDataProvider provider = new TestIndexDataProvider(icount);
+
+		ItemStore<String> store = new DefaultItemStore<>(new TestConfiguration(), provider,
+				ItemIdentifierProvider.identity(), 2, 10);
+
+		final AtomicInteger setChanged = new AtomicInteger(0);
+		store.addItemActionListener((item, itemId, previous, action) -> {
+			if (action == ItemAction.SET_CHANGED) {
+				setChanged.incrementAndGet();
+			}
+		});
+
+		for (int i = 0; i < 5; i++) {
+			store.getItem(i);
+		}
+		setChanged.set(0);
+
+		final List<String> updated = new LinkedList<>();
+		final ItemDeltaListener<String> listener = new ItemDeltaListener<String>() {
+
+			@Override
+			public void onItemInserted(String item, Object itemId, int index) {
+			}
+
+			@Override
+			public void onItemDeleted(String item, Object itemId, int index) {
+			}
+
+			@Override
+			public void onItemUpdated(String item, Object itemId, String previous) {
+				updated.add(item);
+			}
+
+		};
+
+		// same item set: changed items replaced in place
+		final String c = new String("c");
+		provider.provider.data.set(2, c);
+		store.revalidate(Runnable::run, Runnable::run, (i1, i2) -> i1 == i2, listener).join();
+		assertEquals(0, setChanged.get());
+		assertEquals(1, updated.size());
+		assertSame(c, updated.get(0));
+		assertSame(c, store.getItem(2));
+		assertEquals(5, store.size());
+
+		// item set changed
+		provider.provider.data.add("f");
+		store.revalidate(Runnable::run, Runnable::run, (i1, i2) -> i1 == i2, listener).join();
+		assertEquals(1, setChanged.get());
+		assertEquals(6, store.size());
+		assertEquals("f", store.getItem(5));
+
+		// discarded when the store changes meanwhile
+		final List<Runnable> pending = new LinkedList<>();
+		provider.provider.data.add("g");
+		CompletableFuture<Void> result = store.revalidate(Runnable::run, r -> pending.add(r), (i1, i2) -> i1 == i2,
+				listener);
+		store.reset(false, false);
+		pending.forEach(r -> r.run());
+		assertTrue(result.isDone());
+		assertEquals(1, setChanged.get());
+
+		// container: the revalidated items modifications are tracked
+		final List<PropertyBox> rows = new CopyOnWriteArrayList<>();
+		rows.add(PropertyBox.builder(TestData.ID, TestData.DESCRIPTION).set(TestData.ID, "a").build());
+		rows.add(PropertyBox.builder(TestData.ID, TestData.DESCRIPTION).set(TestData.ID, "b").build());
+
+		@SuppressWarnings("rawtypes")
+		final ItemDataSourceContainer<PropertyBox, com.holonplatform.core.property.Property> container = ItemDataSourceContainer
+				.<PropertyBox, com.holonplatform.core.property.Property>builder()
+				.dataSource(ItemDataProvider.create(cfg -> rows.size(),
+						(cfg, offset, limit) -> rows.stream().skip(offset).limit(limit).map(row -> row.cloneBox())))
+				.itemAdapter(new PropertyBoxItemAdapter()).withProperty(TestData.ID, TestData.ID.getType())
+				.withProperty(TestData.DESCRIPTION, TestData.DESCRIPTION.getType())
+				.itemIdentifier(row -> row.getValue(TestData.ID)).buffered(true).build();
+		assertEquals(2, container.size());
+		assertNotNull(container.getItem("a"));
+
+		rows.add(PropertyBox.builder(TestData.ID, TestData.DESCRIPTION).set(TestData.ID, "c").build());
+		container.revalidate(Runnable::run, Runnable::run).join();
+		assertEquals(3, container.size());
+		assertFalse(container.isModified());
+
+		@SuppressWarnings("unchecked")
+		final Property<String> description = container.getItem("a").getItemProperty(TestData.DESCRIPTION);
+		description.setValue("changed");
+		assertTrue(container.isModified());
+
+		// buffered modified instance preserved
+		rows.add(PropertyBox.builder(TestData.ID, TestData.DESCRIPTION).set(TestData.ID, "d").build());
+		container.revalidate(Runnable::run, Runnable::run).join();
+		assertEquals(4, container.size());
+		assertTrue(container.isModified());
+		assertEquals("changed", container.getItem("a").getItemProperty(TestData.DESCRIPTION).getValue());
+	}
+
+	@Test
+	public void testLoadCancellation() throws Exception {
+
+		final AtomicReference<ItemLoadCancellation> prefetchToken = new AtomicReference<>();
+		final CountDownLatch prefetchStarted = new CountDownLatch(1);
+
+		final ItemDataProvider<String> provider = ItemDataProvider.create(cfg -> 10L, (cfg, offset, limit) -> {
+			final ItemLoadCancellation cancellation = ItemLoadCancellation.of(cfg).orElse(null);
+			assertNotNull(cancellation);
+			if (offset > 0) {
+				prefetchToken.set(cancellation);
+				prefetchStarted.countDown();
+			}
+			if (offset > 0 || cancellation.getRemainingTime() >= 0) {
+				// slow query
+				final long until = System.currentTimeMillis() + 5000;
+				while (!cancellation.isCancelled() && System.currentTimeMillis() < until) {
+					try {
+						Thread.sleep(5);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						break;
+					}
+				}
+				cancellation.checkCancelled();
+			}
+			return Stream.of("a", "b", "c", "d", "e", "f", "g", "h", "i", "j").skip(offset).limit(limit);
+		});
+
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			final DefaultItemStore<String> store = new DefaultItemStore<>(new TestConfiguration(), provider,
+					ItemIdentifierProvider.identity(), 4, 10);
+			store.setPrefetchExecutor(executor);
+
+			assertEquals(10, store.size());
+			assertEquals("a", store.getItem(0));
+			assertEquals("b", store.getItem(1));
+			assertEquals("c", store.getItem(2));
+
+			// superseded read-ahead
+			assertTrue(prefetchStarted.await(5, TimeUnit.SECONDS));
+			assertFalse(prefetchToken.get().isCancelled());
+			store.reset(false, false);
+			assertTrue(prefetchToken.get().isCancelled());
+			assertFalse(prefetchToken.get().isTimedOut());
+
+			// timeout
+			store.setPrefetchExecutor(null);
+			store.setLoadTimeout(50);
+			assertEquals(10, store.size());
+			assertThrows(LoadCancelledException.class, () -> store.getItem(0));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testMetrics() throws Exception {
+
+		final AtomicInteger hits = new AtomicInteger();
+		final AtomicInteger misses = new AtomicInteger();
+		final AtomicInteger counts = new AtomicInteger();
+		final AtomicInteger rows = new AtomicInteger();
+		final AtomicReference<Map<String, String>> lastTags = new AtomicReference<>();
+
+		@SuppressWarnings("serial")
+		final ItemDataMetricsListener listener = new ItemDataMetricsListener() {
+
+			@Override
+			public void onCacheAccess(Map<String, String> tags, boolean hit) {
+				lastTags.set(tags);
+				(hit ? hits : misses).incrementAndGet();
+			}
+
+			@Override
+			public void onCount(Map<String, String> tags, long duration, boolean failed) {
+				counts.incrementAndGet();
+			}
+
+			@Override
+			public void onLoad(Map<String, String> tags, long duration, int batchSize, int loaded, boolean failed) {
+				assertEquals(2, batchSize);
+				rows.addAndGet(loaded);
+			}
+
+		};
+
+		final Map<String, String> tags = new HashMap<>();
+		tags.put(ItemDataMetricsListener.TAG_VIEW, "test");
+		tags.put(ItemDataMetricsListener.TAG_LISTING, "metrics");
+
+		DefaultItemStore<String> store = new DefaultItemStore<>(new TestConfiguration(), new TestDataProvider(),
+				ItemIdentifierProvider.identity(), 2, 10);
+		store.setMetricsListener(listener, tags);
+
+		assertEquals(5, store.size());
+		assertEquals("a", store.getItem(0));
+		assertEquals("b", store.getItem(1));
+		assertEquals("c", store.getItem(2));
+		assertEquals(1, counts.get());
+		assertEquals(2, misses.get());
+		assertEquals(1, hits.get());
+		assertEquals(4, rows.get());
+		assertEquals(tags, lastTags.get());
+
+		// JMX
+		store = new DefaultItemStore<>(new TestConfiguration(), new TestDataProvider(),
+				ItemIdentifierProvider.identity(), 2, 10);
+		store.setMetricsListener(ItemDataMetricsListener.jmx(), tags);
+		assertEquals("a", store.getItem(0));
+		assertEquals("b", store.getItem(1));
+
+		final ObjectName name = JmxItemDataMetricsListener.getObjectName(tags);
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		assertTrue(server.isRegistered(name));
+		assertEquals(Long.valueOf(1), server.getAttribute(name, "CacheHitCount"));
+		assertEquals(Long.valueOf(1), server.getAttribute(name, "CacheMissCount"));
+		assertEquals(Long.valueOf(2), server.getAttribute(name, "RowsLoaded"));
+		assertEquals(Long.valueOf(1), server.getAttribute(name, "CountOperations"));
+		server.invoke(name, "reset", null, null);
+		assertEquals(Long.valueOf(0), server.getAttribute(name, "RowsLoaded"));
+	}
+
+	@Test
+	public void testMetricsRegistrations() throws Exception {
+
+		final JmxItemDataMetricsListener jmx = JmxItemDataMetricsListener.getInstance();
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+		// unregistered when the last attached component is detached
+		final Map<String, String> tags = Collections.singletonMap(ItemDataMetricsListener.TAG_VIEW, "registrations");
+		final ObjectName name = JmxItemDataMetricsListener.getObjectName(tags);
+		jmx.onAttach(tags);
+		jmx.onAttach(tags);
+		jmx.onCount(tags, 1000L, false);
+		assertTrue(server.isRegistered(name));
+		jmx.onDetach(tags);
+		assertTrue(server.isRegistered(name));
+		jmx.onDetach(tags);
+		assertFalse(server.isRegistered(name));
+		assertFalse(jmx.getMetrics(tags).isPresent());
+
+		// bounded tag sets
+		for (int i = 0; i < JmxItemDataMetricsListener.MAX_TAG_SETS + 10; i++) {
+			jmx.onCount(Collections.singletonMap(ItemDataMetricsListener.TAG_VIEW, "bounded" + i), 1000L, false);
+		}
+		final ObjectName overflow = JmxItemDataMetricsListener.getObjectName(JmxItemDataMetricsListener.OVERFLOW_TAGS);
+		assertTrue(server.isRegistered(overflow));
+		assertTrue(server.queryNames(new ObjectName(JmxItemDataMetricsListener.DOMAIN + ":*"), null)
+				.size() <= JmxItemDataMetricsListener.MAX_TAG_SETS + 1);
+
+		// close
+		jmx.close();
+		assertFalse(server.isRegistered(overflow));
+		assertTrue(server.queryNames(new ObjectName(JmxItemDataMetricsListener.DOMAIN + ":*"), null).isEmpty());
+	}
+
+	@Test
+	public void testAdaptiveBatchSize() {
+
+		AdaptiveBatchSize adaptive = new AdaptiveBatchSize(50, 10, 500);
+		assertEquals(50, adaptive.getBatchSize());
+		assertEquals(500, adaptive.getCacheSize());
+
+		// viewport driven
+		adaptive.onItemsRequested(30);
+		assertEquals(120, adaptive.getBatchSize());
+		// fast loads: 1 ms per item
+		adaptive.onLoad(100, TimeUnit.MILLISECONDS.toNanos(100));
+		assertEquals(120, adaptive.getBatchSize());
+		// moving average: (30 + 0.2 * 970) requested items, bound by the 200 items loadable in the target time
+		adaptive.onItemsRequested(1000);
+		assertEquals(230, adaptive.getBatchSize());
+
+		// max bound
+		adaptive = new AdaptiveBatchSize(50, 10, 500);
+		adaptive.onItemsRequested(1000);
+		assertEquals(500, adaptive.getBatchSize());
+
+		// slow loads: 10 ms per item, never less than the viewport
+		adaptive = new AdaptiveBatchSize(50, 10, 500);
+		adaptive.onItemsRequested(45);
+		adaptive.onLoad(10, TimeUnit.MILLISECONDS.toNanos(100));
+		assertEquals(50, adaptive.getBatchSize());
+
+		// store
+		final DefaultItemStore<String> store = new DefaultItemStore<>(new TestConfiguration(), new TestDataProvider(),
+				ItemIdentifierProvider.identity(), 2, 10);
+		store.setAdaptiveBatchSize(new AdaptiveBatchSize(2, 1, 4), true);
+		assertEquals(2, store.getBatchSize());
+
+		store.onItemsRequested(1);
+		assertEquals(4, store.getBatchSize());
+		assertEquals(10, store.getMaxCacheSize());
+
+		store.reset(false, false);
+		assertEquals(40, store.getMaxCacheSize());
+		assertEquals("a", store.getItem(0));
+		assertEquals("d", store.getItem(3));
+		assertEquals(1, store.getCacheStatistics().getMissCount());
+		assertEquals("e", store.getItem(4));
+		assertEquals(2, store.getCacheStatistics().getMissCount());
+	}
+
+	@Test
+	public void testAdaptiveBatchSizePrefetch() {
+
+		final AtomicInteger loads = new AtomicInteger();
+		final ItemDataProvider<String> provider = ItemDataProvider.create(cfg -> 100L, (cfg, offset, limit) -> {
+			loads.incrementAndGet();
+			return IntStream.range(offset, Math.min(offset + limit, 100)).mapToObj(String::valueOf);
+		});
+
+		final DefaultItemStore<String> store = new DefaultItemStore<>(new TestConfiguration(), provider,
+				ItemIdentifierProvider.identity(), 10, 100);
+		store.setAdaptiveBatchSize(new AdaptiveBatchSize(10, 10, 20), false);
+		store.setPrefetchExecutor(Runnable::run);
+		store.onItemsRequested(2);
+		assertEquals(10, store.getBatchSize());
+
+		// sequential access: the batch starting from index 20 is prefetched with 10 items
+		for (int i = 0; i <= 15; i++) {
+			assertEquals(String.valueOf(i), store.getItem(i));
+		}
+		assertEquals(3, loads.get());
+
+		// the batch size grows: the prefetched batch does not cover the requested index
+		store.onItemsRequested(100);
+		assertEquals(20, store.getBatchSize());
+		assertEquals("30", store.getItem(30));
+		assertEquals(4, loads.get());
+		assertEquals("25", store.getItem(25));
+		assertEquals("39", store.getItem(39));
+		assertEquals(4, loads.get());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testSerialization() throws Exception {
+
+		final ItemDataProvider<String> provider = ItemDataProvider.create(cfg -> 5L,
+				(cfg, offset, limit) -> Stream.of("a", "b", "c", "d", "e").skip(offset).limit(limit));
+
+		DefaultItemStore<String> store = new DefaultItemStore<>(
+				QueryConfigurationSnapshot.of(QueryConfigurationProvider.create((QueryFilter) null, null)), provider,
+				item -> item.substring(0, 1), 2, 10);
+
+		assertEquals("c", store.getItem(2));
+		assertEquals("d", store.getItem(3));
+		store.setItemModified("b*");
+		assertEquals(1, store.getCacheStatistics().getMissCount());
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(store);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			store = (DefaultItemStore<String>) in.readObject();
+		}
+
+		// the items cache is dropped, the buffered changes and the scroll window ids are kept
+		assertEquals(0, store.getCacheStatistics().getRequestCount());
+		assertTrue(store.isModified());
+		assertEquals(3, store.indexOfItem("d"));
+		assertEquals(5, store.size());
+		assertEquals("a", store.getItem(0));
+		assertEquals("b*", store.getItem(1));
+		assertEquals(1, store.getCacheStatistics().getMissCount());
+
+		// the restored scroll window ids are verified by the next load
+		SHIFTING.clear();
+		SHIFTING.addAll(Arrays.asList("a", "b", "c", "d", "e"));
+		final ItemDataProvider<String> shifting = ItemDataProvider.create(cfg -> SHIFTING.size(),
+				(cfg, offset, limit) -> SHIFTING.stream().skip(offset).limit(limit));
+		store = new DefaultItemStore<>(
+				QueryConfigurationSnapshot.of(QueryConfigurationProvider.create((QueryFilter) null, null)), shifting,
+				item -> item, 2, 10);
+		assertEquals("c", store.getItem(2));
+		assertEquals("d", store.getItem(3));
+
+		bytes.reset();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(store);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			store = (DefaultItemStore<String>) in.readObject();
+		}
+
+		SHIFTING.add(0, "0");
+		assertEquals(4, store.indexOfItem("d"));
+		assertEquals("d", store.getItem(4));
+		assertEquals(5, store.indexOfItem("e"));
+	}
+
+	@Test
+	public void testCacheBudget() {
+
+		final ItemCacheBudget budget = ItemCacheBudget.rows(4);
+
+		Context.get().executeThreadBound(ItemCacheBudget.CONTEXT_KEY, budget,
+				() -> assertSame(budget, ItemCacheBudget.getCurrent().orElse(null)));
+		assertFalse(ItemCacheBudget.getCurrent().isPresent());
+
+		final DefaultItemStore<String> store1 = new DefaultItemStore<>(new TestConfiguration(), new TestDataProvider(),
+				ItemIdentifierProvider.identity(), 2, 10);
+		store1.setCacheBudget(budget);
+		final DefaultItemStore<String> store2 = new DefaultItemStore<>(new TestConfiguration(), new TestDataProvider(),
+				ItemIdentifierProvider.identity(), 2, 10);
+		store2.setCacheBudget(budget);
+
+		assertEquals("a", store1.getItem(0));
+		assertEquals("c", store1.getItem(2));
+		assertEquals(4, store1.getCacheUsage());
+		assertEquals(4, budget.getUsage());
+
+		// least recently used store released down to the limit
+		assertEquals("a", store2.getItem(0));
+		assertEquals(2, store1.getCacheUsage());
+		assertEquals(2, store1.getCacheStatistics().getEvictionCount());
+		assertEquals(2, store2.getCacheUsage());
+		assertEquals(4, budget.getUsage());
+
+		assertEquals("c", store1.getItem(2));
+		assertEquals(2, store1.getCacheStatistics().getMissCount());
+		assertEquals("a", store1.getItem(0));
+		assertEquals(3, store1.getCacheStatistics().getMissCount());
+		assertEquals(4, store1.getCacheUsage());
+		assertEquals(0, store2.getCacheUsage());
+		assertEquals(4, budget.getUsage());
+
+		// bytes
+		final ItemCacheBudget bytes = ItemCacheBudget.bytes(1024, item -> 100L * item.toString().length());
+		assertEquals(100, bytes.weigh("a"));
+		assertEquals(0, bytes.weigh(null));
+
+		// weight estimate follows the cached items mix
+		final ItemCacheBudget mix = ItemCacheBudget.bytes(10000,
+				item -> ("a".equals(item) || "b".equals(item)) ? 100L : 10L);
+		final DefaultItemStore<String> store3 = new DefaultItemStore<>(new TestConfiguration(), new TestDataProvider(),
+				ItemIdentifierProvider.identity(), 2, 2);
+		store3.setCacheBudget(mix);
+		assertEquals("a", store3.getItem(0));
+		assertEquals(200, store3.getCacheUsage());
+		assertEquals("c", store3.getItem(2));
+		assertEquals(20, store3.getCacheUsage());
+	}
+
+	@Test
+	public void testItemIdsLoad() {
+
+		final AtomicInteger icount = new AtomicInteger(0);
+
+		ItemStore<String> store = new DefaultItemStore<>(new TestConfiguration(), new TestIdDataProvider(icount),
+				ItemIdentifierProvider.identity(), 2, 10);
+
+		Object[] ids = store.getItemIds().toArray();
+		assertEquals(5, ids.length);
+		assertEquals("a", ids[0]);
+		assertEquals("e", ids[4]);
+		assertEquals(1, icount.get());
+		assertEquals(0, qcount.get());
+
+		// ids index recorded
+		assertEquals(2, store.indexOfItem("c"));
+		assertEquals(0, qcount.get());
+
+		// added and removed items
+		assertEquals("b", store.getItem(1));
+		assertEquals(1, qcount.get());
+		store.removeItem(1);
+		store.addItem("z");
+
+		final List<Object> idList = new LinkedList<>();
+		store.getItemIds().forEach(id -> idList.add(id));
+		assertEquals(5, idList.size());
+		assertEquals("z", idList.get(0));
+		assertFalse(idList.contains("b"));
+		assertEquals(2, icount.get());
+		assertEquals(1, qcount.get());
+	}
+
+	@SuppressWarnings("serial")
+	@Test
+	public void testResort() {
+
+		final AtomicReference<QueryFilter> filter = new AtomicReference<>();
+		final DefaultParameterSet parameters = new DefaultParameterSet();
+		final QueryConfigurationProvider configuration = new QueryConfigurationProvider() {
+
+			@Override
+			public QueryFilter getQueryFilter() {
+				return filter.get();
+			}
+
+			@Override
+			public ParameterSet getQueryParameters() {
+				return parameters;
+			}
+
+		};
+
+		ItemStore<String> store = new DefaultItemStore<>(configuration, new TestDataProvider(),
+				ItemIdentifierProvider.identity(), 2, 10);
+
+		assertEquals(5, store.size());
+		assertEquals(1, scount.get());
+
+		// sort only: count preserved
+		store.resort(false);
+		assertEquals(5, store.size());
+		assertEquals("a", store.getItem(0));
+		assertEquals(1, scount.get());
+
+		// equivalent filter instances: count preserved
+		filter.set(TestData.ID.eq("a"));
+		store.resort(false);
+		assertEquals(5, store.size());
+		assertEquals(2, scount.get());
+		filter.set(TestData.ID.eq("a"));
+		store.resort(false);
+		assertEquals(5, store.size());
+		assertEquals(2, scount.get());
+
+		// filter or parameters changed: re-count
+		filter.set(TestData.ID.eq("b"));
+		store.resort(false);
+		assertEquals(5, store.size());
+		assertEquals(3, scount.get());
+		parameters.addParameter("test", 1);
+		store.resort(false);
+		assertEquals(5, store.size());
+		assertEquals(4, scount.get());
+
+		// full reset: re-count
+		store.reset(false, false);
+		assertEquals(5, store.size());
+		assertEquals(5, scount.get());
+	}
+
+	@Test
+	public void testPageCache() throws Exception {
+
+		final DataTarget<?> target = DataTarget.named("test");
+		final ItemPageCache cache = ItemPageCache.create(4, 1, TimeUnit.MINUTES);
+
+		final TestDataProvider concrete = new TestDataProvider();
+		final ItemDataProvider<String> provider1 = cache.cached(concrete, target, String.class,
+				UnaryOperator.identity());
+		final ItemDataProvider<String> provider2 = cache.cached(concrete, target, String.class,
+				UnaryOperator.identity());
+
+		// same requests from different stores
+		ItemStore<String> store1 = new DefaultItemStore<>(new TestConfiguration(), provider1,
+				ItemIdentifierProvider.identity(), 2, 10);
+		ItemStore<String> store2 = new DefaultItemStore<>(new TestConfiguration(), provider2,
+				ItemIdentifierProvider.identity(), 2, 10);
+
+		assertEquals(5, store1.size());
+		assertEquals("a", store1.getItem(0));
+		assertEquals(5, store2.size());
+		assertEquals("a", store2.getItem(0));
+		assertEquals(1, scount.get());
+		assertEquals(1, qcount.get());
+		assertEquals(2, cache.getHitCount());
+
+		assertEquals("c", store2.getItem(2));
+		assertEquals(2, qcount.get());
+		assertEquals(3, cache.size());
+
+		// invalidation
+		cache.invalidate(target);
+		assertEquals(0, cache.size());
+		store1.reset(false, false);
+		assertEquals(5, store1.size());
+		assertEquals("a", store1.getItem(0));
+		assertEquals(2, scount.get());
+		assertEquals(3, qcount.get());
+
+		// size bound
+		assertEquals("e", store1.getItem(4));
+		assertEquals("c", store1.getItem(2));
+		assertTrue(cache.size() <= 4);
+
+		// pages of a different concrete provider of the same data target are not shared
+		final AtomicInteger otherLoads = new AtomicInteger();
+		final ItemDataProvider<String> other = cache.cached(ItemDataProvider.create(cfg -> 1L, (cfg, offset, limit) -> {
+			otherLoads.incrementAndGet();
+			return Stream.of("x");
+		}), target, String.class, UnaryOperator.identity());
+		assertEquals("x", other.load(new TestConfiguration(), 0, 2).findFirst().orElse(null));
+		assertEquals(1, otherLoads.get());
+		assertEquals("a", provider1.load(new TestConfiguration(), 0, 2).findFirst().orElse(null));
+
+		// least recently used entries are evicted first
+		final ItemPageCache lru = ItemPageCache.create(2, 1, TimeUnit.MINUTES);
+		final ItemDataProvider<String> provider4 = lru.cached(concrete, target, String.class,
+				UnaryOperator.identity());
+		final int lruLoads = qcount.get();
+		provider4.load(new TestConfiguration(), 0, 1);
+		provider4.load(new TestConfiguration(), 1, 1);
+		provider4.load(new TestConfiguration(), 0, 1);
+		provider4.load(new TestConfiguration(), 2, 1);
+		provider4.load(new TestConfiguration(), 0, 1);
+		assertEquals(lruLoads + 3, qcount.get());
+		provider4.load(new TestConfiguration(), 1, 1);
+		assertEquals(lruLoads + 4, qcount.get());
+
+		// expiration
+		final ItemPageCache expiring = ItemPageCache.create(10, 10, TimeUnit.MILLISECONDS);
+		final ItemDataProvider<String> provider3 = expiring.cached(new TestDataProvider(), target, String.class,
+				UnaryOperator.identity());
+		final int loads = qcount.get();
+		provider3.load(new TestConfiguration(), 0, 2);
+		Thread.sleep(50);
+		provider3.load(new TestConfiguration(), 0, 2);
+		assertEquals(loads + 2, qcount.get());
+		assertEquals(0, expiring.getHitCount());
+
+		// concrete data provider capabilities: keyset pages bound to the offset page entries
+		final ItemPageCache capabilities = ItemPageCache.create(10, 1, TimeUnit.MINUTES);
+		final AtomicInteger kcount = new AtomicInteger(0);
+		final ItemDataProvider<String> keysetProvider = capabilities.cached(new TestKeysetDataProvider(kcount), target,
+				String.class, UnaryOperator.identity());
+		final ItemStore<String> keysetStore = new DefaultItemStore<>(new TestConfiguration(), keysetProvider,
+				ItemIdentifierProvider.identity(), 2, 10);
+		assertEquals("a", keysetStore.getItem(0));
+		assertEquals("c", keysetStore.getItem(2));
+		assertEquals(1, kcount.get());
+		assertEquals("c", keysetProvider.load(new TestConfiguration(), 2, 2).findFirst().orElse(null));
+		assertEquals(1, kcount.get());
+
+		final AtomicInteger icount = new AtomicInteger(0);
+		final ItemStore<String> indexStore = new DefaultItemStore<>(new TestConfiguration(),
+				capabilities.cached(new TestIndexDataProvider(icount), target, String.class, UnaryOperator.identity()),
+				ItemIdentifierProvider.identity(), 2, 10);
+		final int indexLoads = qcount.get();
+		assertEquals(3, indexStore.indexOfItem("d"));
+		assertEquals(1, icount.get());
+		assertEquals(indexLoads, qcount.get());
+
+		final AtomicInteger idcount = new AtomicInteger(0);
+		final ItemStore<String> idStore = new DefaultItemStore<>(new TestConfiguration(),
+				capabilities.cached(new TestIdDataProvider(idcount), target, String.class, UnaryOperator.identity()),
+				ItemIdentifierProvider.identity(), 2, 10);
+		assertEquals(5, idStore.getItemIds().toArray().length);
+		assertEquals(1, idcount.get());
+	}
+
+	@Test
+	public void testCoalescing() throws Exception {
+
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger loads = new AtomicInteger();
+
+		final PropertyBox shared = PropertyBox.builder(TestData.PROPERTIES).set(TestData.ID, "a")
+				.set(TestData.SEQUENCE, 1).build();
+
+		final ItemDataProvider<PropertyBox> provider = ItemDataProvider.coalescing(
+				ItemDataProvider.create(cfg -> 1L, (cfg, offset, limit) -> {
+					loads.incrementAndGet();
+					started.countDown();
+					try {
+						release.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return Stream.of(shared);
+				}), DataTarget.named("test"), TestData.PROPERTIES);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			final CompletableFuture<PropertyBox> leader = CompletableFuture
+					.supplyAsync(() -> provider.load(new TestConfiguration(), 0, 10).findFirst().orElse(null), executor);
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			final CompletableFuture<PropertyBox> follower = CompletableFuture
+					.supplyAsync(() -> provider.load(new TestConfiguration(), 0, 10).findFirst().orElse(null), executor);
+			// let the follower join the in-flight load
+			Thread.sleep(100);
+			release.countDown();
+
+			final PropertyBox b1 = leader.get(5, TimeUnit.SECONDS);
+			final PropertyBox b2 = follower.get(5, TimeUnit.SECONDS);
+			assertEquals(1, loads.get());
+			assertEquals("a", b1.getValue(TestData.ID));
+			assertEquals("a", b2.getValue(TestData.ID));
+			assertNotSame(shared, b1);
+			assertNotSame(shared, b2);
+			assertNotSame(b1, b2);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// not cached once completed
+		provider.load(new TestConfiguration(), 0, 10).count();
+		assertEquals(2, loads.get());
+		// different offset
+		provider.load(new TestConfiguration(), 1, 10).count();
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	public void testCoalescingCapabilities() {
+		final DataTarget<?> target = DataTarget.named("test");
+
+		final AtomicInteger kcount = new AtomicInteger(0);
+		final ItemStore<String> keysetStore = new DefaultItemStore<>(new TestConfiguration(),
+				new CoalescingItemDataProvider<>(new TestKeysetDataProvider(kcount), target, "test",
+						UnaryOperator.identity()),
+				ItemIdentifierProvider.identity(), 2, 10);
+		assertEquals("a", keysetStore.getItem(0));
+		assertEquals("c", keysetStore.getItem(2));
+		assertEquals(1, kcount.get());
+
+		final AtomicInteger icount = new AtomicInteger(0);
+		final ItemStore<String> indexStore = new DefaultItemStore<>(new TestConfiguration(),
+				new CoalescingItemDataProvider<>(new TestIndexDataProvider(icount), target, "test",
+						UnaryOperator.identity()),
+				ItemIdentifierProvider.identity(), 2, 10);
+		assertEquals(3, indexStore.indexOfItem("d"));
+		assertEquals(1, icount.get());
+
+		final AtomicInteger idcount = new AtomicInteger(0);
+		final ItemStore<String> idStore = new DefaultItemStore<>(new TestConfiguration(),
+				new CoalescingItemDataProvider<>(new TestIdDataProvider(idcount), target, "test",
+						UnaryOperator.identity()),
+				ItemIdentifierProvider.identity(), 2, 10);
+		assertEquals(5, idStore.getItemIds().toArray().length);
+		assertEquals(1, idcount.get());
+	}
+
+	@Test
+	public void testCoalescingProviderIsolation() throws Exception {
+
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+
+		final PropertyBox row1 = PropertyBox.builder(TestData.PROPERTIES).set(TestData.ID, "tenant1")
+				.set(TestData.SEQUENCE, 1).build();
+		final PropertyBox row2 = PropertyBox.builder(TestData.PROPERTIES).set(TestData.ID, "tenant2")
+				.set(TestData.SEQUENCE, 1).build();
+
+		// same data target and query, different concrete providers
+		final ItemDataProvider<PropertyBox> provider1 = ItemDataProvider
+				.coalescing(ItemDataProvider.create(cfg -> 1L, (cfg, offset, limit) -> {
+					started.countDown();
+					try {
+						release.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return Stream.of(row1);
+				}), DataTarget.named("test"), TestData.PROPERTIES);
+		final ItemDataProvider<PropertyBox> provider2 = ItemDataProvider.coalescing(
+				ItemDataProvider.create(cfg -> 2L, (cfg, offset, limit) -> Stream.of(row2)), DataTarget.named("test"),
+				TestData.PROPERTIES);
+
+		final ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			final CompletableFuture<PropertyBox> load1 = CompletableFuture
+					.supplyAsync(() -> provider1.load(new TestConfiguration(), 0, 10).findFirst().orElse(null), executor);
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+
+			// must not join the in-flight load of the other provider
+			assertEquals("tenant2",
+					provider2.load(new TestConfiguration(), 0, 10).findFirst().get().getValue(TestData.ID));
+			assertEquals(2L, provider2.size(new TestConfiguration()));
+
+			release.countDown();
+			assertEquals("tenant1", load1.get(5, TimeUnit.SECONDS).getValue(TestData.ID));
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
 	@SuppressWarnings("serial")
 	private final class TestDataProvider implements ItemDataProvider<String> {
 
@@ -203,6 +1267,102 @@ public class TestItemStore {
 
 	}
 
+	@SuppressWarnings("serial")
+	private final class TestKeysetDataProvider implements ItemDataProvider<String>, ItemSetKeysetLoader<String> {
+
+		private final TestDataProvider provider = new TestDataProvider();
+		private final AtomicInteger kcount;
+
+		public TestKeysetDataProvider(AtomicInteger kcount) {
+			this.kcount = kcount;
+		}
+
+		@Override
+		public long size(QueryConfigurationProvider configuration) throws DataAccessException {
+			return provider.size(configuration);
+		}
+
+		@Override
+		public Stream<String> load(QueryConfigurationProvider configuration, int offset, int limit)
+				throws DataAccessException {
+			return provider.load(configuration, offset, limit);
+		}
+
+		@Override
+		public Object getKeyset(QueryConfigurationProvider configuration, String item) {
+			return item;
+		}
+
+		@Override
+		public Stream<String> load(QueryConfigurationProvider configuration, int offset, int limit, Object keyset)
+				throws DataAccessException {
+			qcount.incrementAndGet();
+			kcount.incrementAndGet();
+			return provider.data.stream().filter(s -> s.compareTo((String) keyset) > 0).limit(limit);
+		}
+
+	}
+
+	@SuppressWarnings("serial")
+	private final class TestIndexDataProvider implements ItemDataProvider<String>, ItemIndexResolver {
+
+		private final TestDataProvider provider = new TestDataProvider();
+		private final AtomicInteger icount;
+
+		public TestIndexDataProvider(AtomicInteger icount) {
+			this.icount = icount;
+		}
+
+		@Override
+		public long size(QueryConfigurationProvider configuration) throws DataAccessException {
+			return provider.size(configuration);
+		}
+
+		@Override
+		public Stream<String> load(QueryConfigurationProvider configuration, int offset, int limit)
+				throws DataAccessException {
+			return provider.load(configuration, offset, limit);
+		}
+
+		@Override
+		public Optional<Integer> indexOfItem(QueryConfigurationProvider configuration, Object itemId)
+				throws DataAccessException {
+			icount.incrementAndGet();
+			return Optional.of(provider.data.indexOf(itemId));
+		}
+
+	}
+
+	@SuppressWarnings("serial")
+	private final class TestIdDataProvider implements ItemDataProvider<String>, ItemSetIdLoader {
+
+		private final TestDataProvider provider = new TestDataProvider();
+		private final AtomicInteger icount;
+
+		public TestIdDataProvider(AtomicInteger icount) {
+			this.icount = icount;
+		}
+
+		@Override
+		public long size(QueryConfigurationProvider configuration) throws DataAccessException {
+			return provider.size(configuration);
+		}
+
+		@Override
+		public Stream<String> load(QueryConfigurationProvider configuration, int offset, int limit)
+				throws DataAccessException {
+			return provider.load(configuration, offset, limit);
+		}
+
+		@Override
+		public Stream<?> loadItemIds(QueryConfigurationProvider configuration, int offset, int limit)
+				throws UnsupportedOperationException, DataAccessException {
+			icount.incrementAndGet();
+			return provider.data.stream().skip(offset).limit(limit);
+		}
+
+	}
+
 	@SuppressWarnings("serial")
 	private final class TestConfiguration implements Configuration<Property<?>> {
 
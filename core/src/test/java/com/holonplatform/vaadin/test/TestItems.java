@@ -26,6 +26,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 
@@ -42,19 +44,33 @@ import com.holonplatform.core.internal.query.filter.OrFilter;
 import com.holonplatform.core.internal.query.filter.StringMatchFilter;
 import com.holonplatform.core.property.PathProperty;
 import com.holonplatform.core.property.PropertyBox;
+import com.holonplatform.core.property.PropertySet;
 import com.holonplatform.core.query.ConstantExpression;
+import com.holonplatform.core.query.QueryConfigurationProvider;
 import com.holonplatform.core.query.QueryFilter;
 import com.holonplatform.core.query.QueryFilter.CompositeQueryFilter;
+import com.holonplatform.core.query.QuerySort;
+import com.holonplatform.core.query.QuerySort.PathQuerySort;
+import com.holonplatform.vaadin.test.data.TestBean;
 import com.holonplatform.vaadin.test.data.TestData;
 import com.holonplatform.vaadin.test.data.TestDataItem;
+import com.holonplatform.vaadin7.data.ItemCachePolicy;
+import com.holonplatform.vaadin7.data.ItemCacheStatistics;
+import com.holonplatform.vaadin7.data.ItemDataProvider;
 import com.holonplatform.vaadin7.data.ItemDataSource.Configuration;
+import com.holonplatform.vaadin7.data.container.ItemDataSourceContainer;
 import com.holonplatform.vaadin7.data.container.PropertyBoxItem;
+import com.holonplatform.vaadin7.internal.data.ItemCache;
 import com.holonplatform.vaadin7.internal.data.ItemCacheMap;
 import com.holonplatform.vaadin7.internal.data.NaturalNumberIdsList;
+import com.holonplatform.vaadin7.internal.data.container.BeanItemAdapter;
 import com.holonplatform.vaadin7.internal.data.container.ContainerUtils;
+import com.holonplatform.vaadin7.internal.data.container.PropertyBoxItemAdapter;
 import com.vaadin.data.Container.Filter;
 import com.vaadin.data.Item;
 import com.vaadin.data.Property;
+import com.vaadin.data.Property.ValueChangeEvent;
+import com.vaadin.data.util.AbstractProperty;
 import com.vaadin.data.util.filter.And;
 import com.vaadin.data.util.filter.Between;
 import com.vaadin.data.util.filter.Compare;
@@ -164,6 +180,34 @@ public class TestItems {
 
 	}
 
+	@Test
+	public void testPropertyBoxItemModel() {
+		final PropertyBoxItemAdapter adapter = new PropertyBoxItemAdapter();
+
+		final Item item1 = adapter.adapt(null,
+				PropertyBox.builder(TestData.PROPERTIES).set(TestData.ID, "id1").set(TestData.SEQUENCE, 1).build());
+		final Item item2 = adapter.adapt(null,
+				PropertyBox.builder(TestData.PROPERTIES).set(TestData.ID, "id2").set(TestData.SEQUENCE, 2).build());
+
+		// shared property ids
+		assertTrue(item1.getItemPropertyIds() == item2.getItemPropertyIds());
+		assertEquals(4, item1.getItemPropertyIds().size());
+
+		// properties created once
+		final Property<?> p1 = item1.getItemProperty(TestData.SEQUENCE);
+		assertTrue(p1 == item1.getItemProperty(TestData.SEQUENCE));
+		assertEquals(1, p1.getValue());
+		assertEquals(2, item2.getItemProperty(TestData.SEQUENCE).getValue());
+		assertNull(item2.getItemProperty("invalid"));
+
+		// different property set
+		final Item item3 = adapter.adapt(null,
+				PropertyBox.builder(TestData.ID, TestData.DESCRIPTION).set(TestData.ID, "id3").build());
+		assertEquals(2, item3.getItemPropertyIds().size());
+		assertNull(item3.getItemProperty(TestData.SEQUENCE));
+		assertEquals("id3", item3.getItemProperty(TestData.ID).getValue());
+	}
+
 	@Test
 	public void testContainerUtils() {
 		assertNotNull(ContainerUtils.getQueryExpression(TestData.ID, CFG));
@@ -308,6 +352,184 @@ public class TestItems {
 		assertFalse(ContainerUtils.convertContainerFilters(CFG, Collections.emptyList()).isPresent());
 	}
 
+	@SuppressWarnings("rawtypes")
+	@Test
+	public void testContainerQueryConfiguration() {
+		final ItemDataSourceContainer<PropertyBox, com.holonplatform.core.property.Property> container = ItemDataSourceContainer
+				.<PropertyBox, com.holonplatform.core.property.Property>builder()
+				.dataSource(ItemDataProvider.create(c -> 0L, (c, o, l) -> Stream.empty()))
+				.itemAdapter(new PropertyBoxItemAdapter()).withProperty(TestData.ID, TestData.ID.getType())
+				.withProperty(TestData.DESCRIPTION, TestData.DESCRIPTION.getType())
+				.fixedFilter(TestData.ID.isNotNull()).build();
+
+		final Configuration<com.holonplatform.core.property.Property> configuration = container.getConfiguration();
+
+		assertEquals(TestData.ID, configuration.getPropertyByName("code").orElse(null));
+		assertFalse(configuration.getPropertyByName("xxx").isPresent());
+
+		// memoized
+		QueryFilter filter = configuration.getQueryFilter();
+		assertNotNull(filter);
+		assertTrue(filter == configuration.getQueryFilter());
+
+		container.addContainerFilter(new Compare.Equal("code", "test"));
+		QueryFilter filter2 = configuration.getQueryFilter();
+		assertFalse(filter == filter2);
+		assertTrue(filter2 instanceof AndFilter);
+		assertTrue(filter2 == configuration.getQueryFilter());
+
+		container.removeAllContainerFilters();
+		assertFalse(configuration.getQueryFilter() instanceof AndFilter);
+
+		assertNull(configuration.getQuerySort());
+		container.sort(new Object[] { "code" }, new boolean[] { false });
+		QuerySort sort = configuration.getQuerySort();
+		assertTrue(sort instanceof PathQuerySort);
+		assertEquals(TestData.ID, ((PathQuerySort) sort).getPath());
+		assertTrue(sort == configuration.getQuerySort());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testBeanItemAdapter() {
+		final BeanItemAdapter adapter = new BeanItemAdapter(Collections.singletonList("code.empty"));
+
+		final TestBean bean = new TestBean("c1", "t1");
+		final Item item = adapter.adapt(null, bean);
+		assertNotNull(item);
+		assertEquals(3, item.getItemPropertyIds().size());
+		assertTrue(item.getItemPropertyIds().contains("code"));
+		assertTrue(item.getItemPropertyIds().contains("text"));
+		assertTrue(item.getItemPropertyIds().contains("code.empty"));
+		assertTrue(item.getItemPropertyIds() == adapter.adapt(null, new TestBean()).getItemPropertyIds());
+
+		final Property<String> code = item.getItemProperty("code");
+		assertEquals(String.class, code.getType());
+		assertEquals("c1", code.getValue());
+		code.setValue("c2");
+		assertEquals("c2", bean.getCode());
+		assertTrue(code == item.getItemProperty("code"));
+
+		final Property<?> empty = item.getItemProperty("code.empty");
+		assertEquals(Boolean.class, empty.getType());
+		assertTrue(empty.isReadOnly());
+		assertEquals(Boolean.FALSE, empty.getValue());
+		assertNull(adapter.adapt(null, new TestBean()).getItemProperty("code.empty").getValue());
+
+		assertNull(item.getItemProperty("xxx"));
+		assertTrue(bean == adapter.restore(null, item));
+
+		// not public bean class
+		final Item item2 = new BeanItemAdapter().adapt(null, new HiddenBean());
+		final Property<Integer> value = item2.getItemProperty("value");
+		assertEquals(Integer.class, value.getType());
+		assertEquals(Integer.valueOf(0), value.getValue());
+		value.setValue(3);
+		assertEquals(Integer.valueOf(3), value.getValue());
+	}
+
+	private static class HiddenBean {
+
+		private int value;
+
+		@SuppressWarnings("unused")
+		public int getValue() {
+			return value;
+		}
+
+		@SuppressWarnings("unused")
+		public void setValue(int value) {
+			this.value = value;
+		}
+
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Test
+	public void testContainerItemModifications() {
+		final List<PropertyBox> data = new LinkedList<>();
+		data.add(PropertyBox.builder(TestData.ID, TestData.DESCRIPTION).set(TestData.ID, "a").build());
+		data.add(PropertyBox.builder(TestData.ID, TestData.DESCRIPTION).set(TestData.ID, "b").build());
+
+		final ItemDataSourceContainer<PropertyBox, com.holonplatform.core.property.Property> container = ItemDataSourceContainer
+				.<PropertyBox, com.holonplatform.core.property.Property>builder()
+				.dataSource(ItemDataProvider.create(c -> data.size(), (c, o, l) -> data.stream().skip(o).limit(l)))
+				.itemAdapter(new PropertyBoxItemAdapter()).withProperty(TestData.ID, TestData.ID.getType())
+				.withProperty(TestData.DESCRIPTION, TestData.DESCRIPTION.getType()).buffered(true).build();
+
+		assertEquals(2, container.size());
+		final Item item = container.getItem(container.getIdByIndex(1));
+		assertNotNull(item);
+		assertFalse(container.isModified());
+
+		@SuppressWarnings("unchecked")
+		final Property<String> property = item.getItemProperty(TestData.DESCRIPTION);
+		// no per-property listeners
+		assertTrue(((AbstractProperty<?>) property).getListeners(ValueChangeEvent.class).isEmpty());
+
+		property.setValue("changed");
+		assertTrue(container.isModified());
+
+		container.discard();
+		assertFalse(container.isModified());
+	}
+
+	@Test
+	public void testCollectionItemDataProvider() {
+		final List<PropertyBox> data = new LinkedList<>();
+		for (int i = 0; i < 10; i++) {
+			data.add(PropertyBox.builder(TestData.PROPERTIES).set(TestData.ID, "id" + i)
+					.set(TestData.DESCRIPTION, (i % 2 == 0) ? "even" : "odd").set(TestData.SEQUENCE, 10 - i).build());
+		}
+
+		final ItemDataProvider<PropertyBox> provider = ItemDataProvider.create(data);
+
+		assertEquals(10, provider.size(QueryConfigurationProvider.create((QueryFilter) null, null)));
+
+		final QueryConfigurationProvider even = QueryConfigurationProvider.create(TestData.DESCRIPTION.eq("even"),
+				QuerySort.asc(TestData.SEQUENCE));
+		assertEquals(5, provider.size(even));
+		List<PropertyBox> items = provider.load(even, 0, 2).collect(Collectors.toList());
+		assertEquals(2, items.size());
+		assertEquals("id8", items.get(0).getValue(TestData.ID));
+		assertEquals("id6", items.get(1).getValue(TestData.ID));
+		items = provider.load(even, 4, 2).collect(Collectors.toList());
+		assertEquals(1, items.size());
+		assertEquals("id0", items.get(0).getValue(TestData.ID));
+
+		final QueryConfigurationProvider composite = QueryConfigurationProvider.create(
+				TestData.SEQUENCE.gt(2).and(TestData.SEQUENCE.loe(6)),
+				QuerySort.desc(TestData.DESCRIPTION).and(QuerySort.asc(TestData.ID)));
+		items = provider.load(composite, 0, 0).collect(Collectors.toList());
+		assertEquals(4, items.size());
+		assertEquals("id5", items.get(0).getValue(TestData.ID));
+		assertEquals("id7", items.get(1).getValue(TestData.ID));
+		assertEquals("id4", items.get(2).getValue(TestData.ID));
+		assertEquals("id6", items.get(3).getValue(TestData.ID));
+
+		assertEquals(2, provider.size(QueryConfigurationProvider.create(TestData.ID.in("id1", "id3", "x"), null)));
+		assertEquals(1,
+				provider.size(QueryConfigurationProvider.create(QueryFilter.endsWith(TestData.ID, "9", false), null)));
+
+		// items modified in place do not affect the provider
+		final PropertyBox modified = provider.load(even, 0, 1).findFirst().orElse(null);
+		assertNotNull(modified);
+		assertTrue(data.stream().noneMatch(item -> item == modified));
+		modified.setValue(TestData.DESCRIPTION, "odd");
+		assertEquals(5, provider.size(even));
+		assertEquals("even", provider.load(even, 0, 1).findFirst().get().getValue(TestData.DESCRIPTION));
+
+		// refresh discards the modifications of an identified item
+		final PropertySet<?> identified = PropertySet.builderOf(TestData.ID, TestData.DESCRIPTION)
+				.identifier(TestData.ID).build();
+		final ItemDataProvider<PropertyBox> identifiedProvider = ItemDataProvider.create(Collections.singletonList(
+				PropertyBox.builder(identified).set(TestData.ID, "id0").set(TestData.DESCRIPTION, "even").build()));
+		final PropertyBox refreshed = identifiedProvider.load(even, 0, 1).findFirst().orElse(null);
+		assertNotNull(refreshed);
+		refreshed.setValue(TestData.DESCRIPTION, "odd");
+		assertEquals("even", identifiedProvider.refresh(refreshed).getValue(TestData.DESCRIPTION));
+	}
+
 	@Test
 	public void testIdsList() {
 		NaturalNumberIdsList lst = new NaturalNumberIdsList(3);
@@ -324,6 +546,134 @@ public class TestItems {
 
 		assertTrue(c.containsItem(0));
 		assertFalse(c.containsItem(1));
+
+		ItemCacheMap<String> lru = new ItemCacheMap<>(3);
+		assertNull(lru.putItem(0, "a"));
+		assertNull(lru.putItem(1, "b"));
+		assertNull(lru.putItem(2, "c"));
+		assertEquals(3, lru.size());
+
+		// access 0, so 1 is the least recently used
+		assertEquals("a", lru.getItem(0));
+		assertNull(lru.putItem(3, "d"));
+		assertEquals(3, lru.size());
+		assertFalse(lru.containsItem(1));
+		assertTrue(lru.containsItem(0));
+		assertTrue(lru.containsItem(2));
+		assertTrue(lru.containsItem(3));
+
+		assertEquals("c", lru.putItem(2, "cc"));
+		assertEquals("cc", lru.getItem(2));
+		assertEquals("d", lru.removeItem(3));
+		assertNull(lru.getItem(3));
+		assertEquals(2, lru.size());
+
+		// churn with colliding and negative keys
+		ItemCacheMap<Integer> churn = new ItemCacheMap<>(50);
+		for (int i = -500; i < 5000; i++) {
+			churn.putItem(i * 64, i);
+			if (i % 3 == 0) {
+				churn.removeItem((i - 10) * 64);
+			}
+		}
+		assertTrue(churn.size() <= 50);
+		for (int i = 4950; i < 5000; i++) {
+			if (churn.containsItem(i * 64)) {
+				assertEquals(Integer.valueOf(i), churn.getItem(i * 64));
+			}
+		}
+		assertEquals(Integer.valueOf(4999), churn.getItem(4999 * 64));
+
+		churn.clear();
+		assertEquals(0, churn.size());
+		assertNull(churn.getItem(4999 * 64));
+	}
+
+	@Test
+	public void testItemCachePolicies() {
+		ItemCache<String> lru = ItemCache.create(ItemCachePolicy.LRU, 2);
+		assertEquals(ItemCachePolicy.LRU, lru.getPolicy());
+		lru.putItem(0, "a");
+		lru.putItem(1, "b");
+		assertEquals("a", lru.getItem(0));
+		lru.putItem(2, "c");
+		assertNull(lru.getItem(1));
+
+		ItemCacheStatistics stats = lru.getStatistics();
+		assertEquals(1, stats.getHitCount());
+		assertEquals(1, stats.getMissCount());
+		assertEquals(1, stats.getEvictionCount());
+		assertEquals(0.5d, stats.getHitRatio(), 0.0001d);
+
+		for (ItemCachePolicy policy : new ItemCachePolicy[] { ItemCachePolicy.SOFT, ItemCachePolicy.WEAK }) {
+			ItemCache<String> c = ItemCache.create(policy, 2);
+			assertEquals(policy, c.getPolicy());
+			final String a = "a", b = "b", d = "d";
+			c.putItem(0, a);
+			c.putItem(1, b);
+			assertTrue(c.containsItem(0));
+			assertEquals(a, c.getItem(0));
+			c.putItem(2, d);
+			assertTrue(c.size() <= 2);
+			assertFalse(c.containsItem(1));
+			assertNull(c.removeItem(1));
+			assertEquals(1, c.getStatistics().getHitCount());
+			assertEquals(1, c.getStatistics().getEvictionCount());
+			c.clear();
+			assertEquals(0, c.size());
+		}
+
+		ItemCache<Integer> tlfu = ItemCache.create(ItemCachePolicy.TINY_LFU, 100);
+		assertEquals(ItemCachePolicy.TINY_LFU, tlfu.getPolicy());
+		// frequently accessed items
+		for (int i = 0; i < 50; i++) {
+			tlfu.putItem(i, i);
+		}
+		for (int r = 0; r < 5; r++) {
+			for (int i = 0; i < 50; i++) {
+				assertEquals(Integer.valueOf(i), tlfu.getItem(i));
+			}
+		}
+		// scan of items accessed once
+		for (int i = 1000; i < 3000; i++) {
+			tlfu.putItem(i, i);
+		}
+		assertTrue(tlfu.size() <= 100);
+		for (int i = 0; i < 50; i++) {
+			assertEquals(Integer.valueOf(i), tlfu.getItem(i));
+		}
+		assertEquals(300, tlfu.getStatistics().getHitCount());
+		assertTrue(tlfu.getStatistics().getEvictionCount() > 0);
+
+		assertEquals(Integer.valueOf(2999), tlfu.putItem(2999, -1));
+		assertEquals(Integer.valueOf(-1), tlfu.removeItem(2999));
+		assertFalse(tlfu.containsItem(2999));
+	}
+
+	@Test
+	public void testItemCacheSequentialScan() {
+		// 5000 rows scanned twice, batch size 50, cache size 500
+		for (ItemCachePolicy policy : ItemCachePolicy.values()) {
+			final ItemCache<Integer> cache = ItemCache.create(policy, 500);
+			int loads = 0;
+			for (int pass = 0; pass < 2; pass++) {
+				for (int i = 0; i < 5000; i++) {
+					Integer item = cache.getItem(i);
+					if (item == null) {
+						// load the batch
+						loads++;
+						final int startIndex = i - i % 50;
+						for (int j = startIndex; j < startIndex + 50; j++) {
+							cache.putItem(j, j);
+						}
+						item = cache.getItem(i);
+					}
+					assertEquals(Integer.valueOf(i), item, policy.name());
+				}
+			}
+			assertEquals(200, loads, policy.name());
+			assertTrue(cache.size() <= 500, policy.name());
+		}
 	}
 
 }
@@ -17,9 +17,15 @@ package com.holonplatform.vaadin.test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import javax.sql.DataSource;
@@ -52,6 +58,8 @@ import com.holonplatform.jdbc.spring.EnableDataSource;
 import com.holonplatform.vaadin.test.data.TestData;
 import com.holonplatform.vaadin7.Registration;
 import com.holonplatform.vaadin7.data.ItemDataProvider;
+import com.holonplatform.vaadin7.data.ItemDataSource.CommitHandler;
+import com.holonplatform.vaadin7.data.ItemSetKeysetLoader;
 import com.holonplatform.vaadin7.data.container.ItemDataSourceContainer;
 import com.holonplatform.vaadin7.internal.data.DatastoreItemDataProvider;
 import com.holonplatform.vaadin7.internal.data.container.PropertyBoxItemAdapter;
@@ -291,6 +299,117 @@ public class TestPropertyQueryContainer {
 
 	}
 
+	@SuppressWarnings("rawtypes")
+	@Test
+	public void testKeysetNullSortValues() {
+		datastore.save(TARGET, PropertyBox.builder(TestData.PROPERTIES).set(TestData.ID, "cn1")
+				.set(TestData.SEQUENCE, 101).set(TestData.OBSOLETE, Boolean.FALSE).build());
+		datastore.save(TARGET, PropertyBox.builder(TestData.PROPERTIES).set(TestData.ID, "cn2")
+				.set(TestData.SEQUENCE, 102).set(TestData.OBSOLETE, Boolean.FALSE).build());
+
+		final ItemDataProvider<PropertyBox> provider = ItemDataProvider.create(datastore, TARGET, TestData.PROPERTIES,
+				TestData.ID);
+		final PropertyBox item = provider
+				.load(QueryConfigurationProvider.create((QueryFilter) null, null), 0, 1).findFirst().orElse(null);
+		assertNotNull(item);
+
+		// nullable sort path: no keyset
+		assertNull(((ItemSetKeysetLoader<PropertyBox>) provider)
+				.getKeyset(QueryConfigurationProvider.create((QueryFilter) null, TestData.DESCRIPTION.desc()), item));
+		assertNotNull(((ItemSetKeysetLoader<PropertyBox>) provider).getKeyset(
+				QueryConfigurationProvider.create((QueryFilter) null, TestData.ID.desc()), item));
+		// declared not nullable
+		final ItemDataProvider<PropertyBox> notNull = ItemDataProvider.create(datastore, TARGET, TestData.PROPERTIES,
+				new Property<?>[] { TestData.ID }, TestData.SEQUENCE);
+		assertNotNull(((ItemSetKeysetLoader<PropertyBox>) notNull).getKeyset(
+				QueryConfigurationProvider.create((QueryFilter) null, TestData.SEQUENCE.asc()), item));
+
+		for (QuerySort sort : new QuerySort[] { TestData.DESCRIPTION.asc(), TestData.DESCRIPTION.desc() }) {
+			final ItemDataSourceContainer<PropertyBox, Property> container = ItemDataSourceContainer
+					.<PropertyBox, Property>builder().dataSource(provider).itemAdapter(new PropertyBoxItemAdapter())
+					.withProperty(TestData.ID, TestData.ID.getType())
+					.withProperty(TestData.DESCRIPTION, TestData.DESCRIPTION.getType())
+					.itemIdentifier(i -> i.getValue(TestData.ID)).fixedSort(sort).batchSize(5).build();
+
+			assertEquals(25, container.size());
+			final Set<Object> ids = new HashSet<>();
+			for (int i = 0; i < container.size(); i++) {
+				ids.add(container.getIdByIndex(i));
+			}
+			assertEquals(25, ids.size());
+			assertTrue(ids.contains("cn1"));
+			assertTrue(ids.contains("cn2"));
+			assertEquals("cn2", container.getIdByIndex(container.indexOfId("cn2")));
+		}
+	}
+
+	@Test
+	public void testBatchedCommit() {
+
+		final CommitHandler<PropertyBox> handler = CommitHandler.create(datastore, TARGET, 2, TestData.ID);
+
+		final PropertyBox b1 = PropertyBox.builder(TestData.PROPERTIES).set(TestData.ID, "cb1")
+				.set(TestData.DESCRIPTION, "batch").set(TestData.SEQUENCE, 101).set(TestData.OBSOLETE, false).build();
+		final PropertyBox b2 = PropertyBox.builder(TestData.PROPERTIES).set(TestData.ID, "cb2")
+				.set(TestData.SEQUENCE, 102).set(TestData.OBSOLETE, false).build();
+		final PropertyBox b3 = PropertyBox.builder(TestData.ID, TestData.SEQUENCE, TestData.OBSOLETE)
+				.set(TestData.ID, "cb3").set(TestData.SEQUENCE, 103).set(TestData.OBSOLETE, true).build();
+
+		// add
+		handler.commit(Arrays.asList(b1, b2, b3), Collections.emptyList(), Collections.emptyList());
+
+		assertEquals(3, datastore.query().target(TARGET).filter(TestData.ID.in("cb1", "cb2", "cb3")).count());
+		assertEquals(26, datastore.query().target(TARGET).count());
+
+		Optional<PropertyBox> box = datastore.query().target(TARGET).filter(TestData.ID.eq("cb2"))
+				.findOne(TestData.PROPERTIES);
+		assertTrue(box.isPresent());
+		assertNull(box.get().getValue(TestData.DESCRIPTION));
+		assertEquals(Integer.valueOf(102), box.get().getValue(TestData.SEQUENCE));
+
+		box = datastore.query().target(TARGET).filter(TestData.ID.eq("cb3")).findOne(TestData.PROPERTIES);
+		assertTrue(box.isPresent());
+		assertTrue(box.get().getValue(TestData.OBSOLETE));
+
+		// update
+		b1.setValue(TestData.DESCRIPTION, "batch updated");
+		b3.setValue(TestData.SEQUENCE, 203);
+		handler.commit(Collections.emptyList(), Arrays.asList(b1, b3), Collections.emptyList());
+
+		box = datastore.query().target(TARGET).filter(TestData.ID.eq("cb1")).findOne(TestData.PROPERTIES);
+		assertTrue(box.isPresent());
+		assertEquals("batch updated", box.get().getValue(TestData.DESCRIPTION));
+		box = datastore.query().target(TARGET).filter(TestData.ID.eq("cb3")).findOne(TestData.PROPERTIES);
+		assertTrue(box.isPresent());
+		assertEquals(Integer.valueOf(203), box.get().getValue(TestData.SEQUENCE));
+
+		// delete
+		handler.commit(Collections.emptyList(), Collections.emptyList(), Arrays.asList(b1, b2, b3));
+
+		assertEquals(0, datastore.query().target(TARGET).filter(TestData.ID.in("cb1", "cb2", "cb3")).count());
+		assertEquals(23, datastore.query().target(TARGET).count());
+
+		// bulk inserts, with items of different property sets
+		final CommitHandler<PropertyBox> bulkHandler = CommitHandler.create(datastore, TARGET, 2, true, TestData.ID);
+
+		final PropertyBox b4 = PropertyBox.builder(TestData.PROPERTIES).set(TestData.ID, "cb4")
+				.set(TestData.DESCRIPTION, "bulk").set(TestData.SEQUENCE, 104).set(TestData.OBSOLETE, false).build();
+		final PropertyBox b5 = PropertyBox.builder(TestData.ID, TestData.SEQUENCE, TestData.OBSOLETE)
+				.set(TestData.ID, "cb5").set(TestData.SEQUENCE, 105).set(TestData.OBSOLETE, false).build();
+		final PropertyBox b6 = PropertyBox.builder(TestData.PROPERTIES).set(TestData.ID, "cb6")
+				.set(TestData.DESCRIPTION, "bulk").set(TestData.SEQUENCE, 106).set(TestData.OBSOLETE, true).build();
+
+		bulkHandler.commit(Arrays.asList(b4, b5, b6), Collections.emptyList(), Collections.emptyList());
+
+		assertEquals(3, datastore.query().target(TARGET).filter(TestData.ID.in("cb4", "cb5", "cb6")).count());
+		assertEquals(2, datastore.query().target(TARGET).filter(TestData.DESCRIPTION.eq("bulk")).count());
+
+		bulkHandler.commit(Collections.emptyList(), Collections.emptyList(), Arrays.asList(b4, b5, b6));
+
+		assertEquals(23, datastore.query().target(TARGET).count());
+
+	}
+
 	@SuppressWarnings("serial")
 	static class TestPropertyDataProvider implements ItemDataProvider<PropertyBox> {
 